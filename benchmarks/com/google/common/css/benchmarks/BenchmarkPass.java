@@ -0,0 +1,362 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.css.MinimalSubstitutionMap;
+import com.google.common.css.Vendor;
+import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssMixinDefinitionNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.ErrorManager;
+import com.google.common.css.compiler.ast.GssFunction;
+import com.google.common.css.compiler.gssfunctions.GssFunctions;
+import com.google.common.css.compiler.passes.AbbreviatePositionalValues;
+import com.google.common.css.compiler.passes.BiDiFlipper;
+import com.google.common.css.compiler.passes.CheckDependencyNodes;
+import com.google.common.css.compiler.passes.CollectConstantDefinitions;
+import com.google.common.css.compiler.passes.CollectMixinDefinitions;
+import com.google.common.css.compiler.passes.ColorValueOptimizer;
+import com.google.common.css.compiler.passes.ConstantDefinitions;
+import com.google.common.css.compiler.passes.CreateComponentNodes;
+import com.google.common.css.compiler.passes.CreateConditionalNodes;
+import com.google.common.css.compiler.passes.CreateConstantReferences;
+import com.google.common.css.compiler.passes.CreateDefinitionNodes;
+import com.google.common.css.compiler.passes.CreateMixins;
+import com.google.common.css.compiler.passes.CreateStandardAtRuleNodes;
+import com.google.common.css.compiler.passes.CssClassRenaming;
+import com.google.common.css.compiler.passes.DisallowDuplicateDeclarations;
+import com.google.common.css.compiler.passes.EliminateConditionalNodes;
+import com.google.common.css.compiler.passes.EliminateEmptyRulesetNodes;
+import com.google.common.css.compiler.passes.EliminateOverriddenDeclarations;
+import com.google.common.css.compiler.passes.EliminateUnitsFromZeroNumericValues;
+import com.google.common.css.compiler.passes.EliminateUselessRulesetNodes;
+import com.google.common.css.compiler.passes.FixupFontDeclarations;
+import com.google.common.css.compiler.passes.HandleUnknownAtRuleNodes;
+import com.google.common.css.compiler.passes.MarkNonFlippableNodes;
+import com.google.common.css.compiler.passes.MarkRemovableRulesetNodes;
+import com.google.common.css.compiler.passes.MergeAdjacentRulesetNodesWithSameDeclarations;
+import com.google.common.css.compiler.passes.MergeAdjacentRulesetNodesWithSameSelector;
+import com.google.common.css.compiler.passes.MergeNonAdjacentRulesetNodes;
+import com.google.common.css.compiler.passes.ProcessComponents;
+import com.google.common.css.compiler.passes.ProcessKeyframes;
+import com.google.common.css.compiler.passes.ProcessRefiners;
+import com.google.common.css.compiler.passes.RemoveDefaultDeclarations;
+import com.google.common.css.compiler.passes.RemoveEmptyValues;
+import com.google.common.css.compiler.passes.RemoveVendorSpecificProperties;
+import com.google.common.css.compiler.passes.ReplaceConstantReferences;
+import com.google.common.css.compiler.passes.ReplaceMixins;
+import com.google.common.css.compiler.passes.ResolveCustomFunctionNodes;
+import com.google.common.css.compiler.passes.SplitRulesetNodes;
+import com.google.common.css.compiler.passes.StrictCss3;
+import com.google.common.css.compiler.passes.UnsafeMergeRulesetNodes;
+import com.google.common.css.compiler.passes.VerifyRecognizedProperties;
+
+import java.util.Map;
+
+/**
+ * The passes of {@code com.google.common.css.compiler.passes}, in the order in
+ * which {@code PassRunner} runs them, followed by the optional passes that are
+ * not part of the default pipeline. A pass is benchmarked on a tree that all
+ * the passes before it have already been run on, which is the state it sees
+ * in a real compilation.
+ *
+ */
+public enum BenchmarkPass {
+  CHECK_DEPENDENCY_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new CheckDependencyNodes(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  CREATE_STANDARD_AT_RULE_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new CreateStandardAtRuleNodes(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  CREATE_MIXINS {
+    @Override CssCompilerPass create(Context c) {
+      return new CreateMixins(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  CREATE_DEFINITION_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new CreateDefinitionNodes(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  CREATE_CONSTANT_REFERENCES {
+    @Override CssCompilerPass create(Context c) {
+      return new CreateConstantReferences(
+          c.tree.getMutatingVisitController());
+    }
+  },
+  CREATE_CONDITIONAL_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new CreateConditionalNodes(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  CREATE_COMPONENT_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new CreateComponentNodes(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  HANDLE_UNKNOWN_AT_RULE_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new HandleUnknownAtRuleNodes(c.tree.getMutatingVisitController(),
+          c.errorManager, ImmutableSet.<String>of(),
+          true /* report */, false /* remove */);
+    }
+  },
+  PROCESS_KEYFRAMES {
+    @Override CssCompilerPass create(Context c) {
+      return new ProcessKeyframes(c.tree.getMutatingVisitController(),
+          c.errorManager, true /* keyframesAllowed */, true /* simplifyCss */);
+    }
+  },
+  PROCESS_REFINERS {
+    @Override CssCompilerPass create(Context c) {
+      return new ProcessRefiners(c.tree.getMutatingVisitController(),
+          c.errorManager, true /* simplifyCss */);
+    }
+  },
+  COLLECT_MIXIN_DEFINITIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new CollectMixinDefinitions(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+
+    @Override void finish(Context c, CssCompilerPass pass) {
+      c.mixinDefinitions = ((CollectMixinDefinitions) pass).getDefinitions();
+    }
+  },
+  REPLACE_MIXINS {
+    @Override CssCompilerPass create(Context c) {
+      return new ReplaceMixins(c.tree.getMutatingVisitController(),
+          c.errorManager, c.mixinDefinitions);
+    }
+  },
+  PROCESS_COMPONENTS {
+    @Override CssCompilerPass create(Context c) {
+      return new ProcessComponents<Object>(
+          c.tree.getMutatingVisitController(), c.errorManager);
+    }
+  },
+  ELIMINATE_CONDITIONAL_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new EliminateConditionalNodes(
+          c.tree.getMutatingVisitController(), ImmutableSet.of("WIDE"));
+    }
+  },
+  COLLECT_CONSTANT_DEFINITIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new CollectConstantDefinitions(c.tree);
+    }
+
+    @Override void finish(Context c, CssCompilerPass pass) {
+      c.constantDefinitions =
+          ((CollectConstantDefinitions) pass).getConstantDefinitions();
+    }
+  },
+  REPLACE_CONSTANT_REFERENCES {
+    @Override CssCompilerPass create(Context c) {
+      return new ReplaceConstantReferences(c.tree, c.constantDefinitions,
+          true /* removeDefs */, c.errorManager,
+          false /* allowUndefinedConstants */);
+    }
+  },
+  RESOLVE_CUSTOM_FUNCTION_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new ResolveCustomFunctionNodes(
+          c.tree.getMutatingVisitController(), c.errorManager,
+          GSS_FUNCTIONS);
+    }
+  },
+  ELIMINATE_EMPTY_RULESET_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new EliminateEmptyRulesetNodes(
+          c.tree.getMutatingVisitController());
+    }
+  },
+  ELIMINATE_UNITS_FROM_ZERO_NUMERIC_VALUES {
+    @Override CssCompilerPass create(Context c) {
+      return new EliminateUnitsFromZeroNumericValues(
+          c.tree.getMutatingVisitController());
+    }
+  },
+  COLOR_VALUE_OPTIMIZER {
+    @Override CssCompilerPass create(Context c) {
+      return new ColorValueOptimizer(c.tree.getMutatingVisitController());
+    }
+  },
+  ABBREVIATE_POSITIONAL_VALUES {
+    @Override CssCompilerPass create(Context c) {
+      return new AbbreviatePositionalValues(
+          c.tree.getMutatingVisitController());
+    }
+  },
+  DISALLOW_DUPLICATE_DECLARATIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new DisallowDuplicateDeclarations(
+          c.tree.getVisitController(), c.errorManager);
+    }
+  },
+  ELIMINATE_OVERRIDDEN_DECLARATIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new EliminateOverriddenDeclarations(c.tree);
+    }
+  },
+  ELIMINATE_USELESS_RULESET_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new EliminateUselessRulesetNodes(c.tree);
+    }
+  },
+  MERGE_ADJACENT_RULESET_NODES_WITH_SAME_SELECTOR {
+    @Override CssCompilerPass create(Context c) {
+      return new MergeAdjacentRulesetNodesWithSameSelector(c.tree);
+    }
+  },
+  MERGE_ADJACENT_RULESET_NODES_WITH_SAME_DECLARATIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new MergeAdjacentRulesetNodesWithSameDeclarations(c.tree);
+    }
+  },
+  MERGE_NON_ADJACENT_RULESET_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new MergeNonAdjacentRulesetNodes(c.tree);
+    }
+  },
+  MARK_NON_FLIPPABLE_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new MarkNonFlippableNodes(
+          c.tree.getVisitController(), c.errorManager);
+    }
+  },
+  BIDI_FLIPPER {
+    @Override CssCompilerPass create(Context c) {
+      return new BiDiFlipper(c.tree.getMutatingVisitController(),
+          true /* swapLtrRtlInUrl */, true /* swapLeftRightInUrl */);
+    }
+  },
+  REMOVE_VENDOR_SPECIFIC_PROPERTIES {
+    @Override CssCompilerPass create(Context c) {
+      return new RemoveVendorSpecificProperties(Vendor.WEBKIT,
+          c.tree.getMutatingVisitController());
+    }
+  },
+  VERIFY_RECOGNIZED_PROPERTIES {
+    @Override CssCompilerPass create(Context c) {
+      return new VerifyRecognizedProperties(ImmutableSet.<String>of(),
+          c.tree.getVisitController(), c.errorManager);
+    }
+  },
+  CSS_CLASS_RENAMING {
+    @Override CssCompilerPass create(Context c) {
+      return new CssClassRenaming(c.tree.getMutatingVisitController(),
+          new MinimalSubstitutionMap(), null);
+    }
+  },
+
+  // Passes that are not part of the default pipeline.
+
+  UNSAFE_MERGE_RULESET_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new UnsafeMergeRulesetNodes(c.tree, true /* byPartition */,
+          false /* skipping */);
+    }
+  },
+  REMOVE_DEFAULT_DECLARATIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new RemoveDefaultDeclarations(c.tree.getMutatingVisitController());
+    }
+  },
+  REMOVE_EMPTY_VALUES {
+    @Override CssCompilerPass create(Context c) {
+      return new RemoveEmptyValues(c.tree.getMutatingVisitController());
+    }
+  },
+  FIXUP_FONT_DECLARATIONS {
+    @Override CssCompilerPass create(Context c) {
+      return new FixupFontDeclarations(FixupFontDeclarations.InputMode.CSS,
+          c.errorManager, c.tree);
+    }
+  },
+  STRICT_CSS3 {
+    @Override CssCompilerPass create(Context c) {
+      return new StrictCss3(c.tree.getMutatingVisitController(),
+          c.errorManager);
+    }
+  },
+  // The dead code elimination that EliminateOverriddenDeclarations replaced;
+  // by now there is nothing left to remove, but every split ruleset is still
+  // looked up.
+  SPLIT_RULESET_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new SplitRulesetNodes(c.tree.getMutatingVisitController());
+    }
+  },
+  MARK_REMOVABLE_RULESET_NODES {
+    @Override CssCompilerPass create(Context c) {
+      return new MarkRemovableRulesetNodes(c.tree);
+    }
+  };
+
+  private static final Map<String, GssFunction> GSS_FUNCTIONS =
+      GssFunctions.getFunctionMap();
+
+  /**
+   * The state shared by the passes of one compilation.
+   */
+  static class Context {
+    final CssTree tree;
+    final ErrorManager errorManager;
+    Map<String, CssMixinDefinitionNode> mixinDefinitions;
+    ConstantDefinitions constantDefinitions;
+
+    Context(CssTree tree, ErrorManager errorManager) {
+      this.tree = tree;
+      this.errorManager = errorManager;
+    }
+  }
+
+  /** Creates the pass for the given compilation. */
+  abstract CssCompilerPass create(Context c);
+
+  /** Records whatever the pass collected for the passes after it. */
+  void finish(Context c, CssCompilerPass pass) {}
+
+  /** Runs this pass. */
+  void run(Context c) {
+    CssCompilerPass pass = create(c);
+    pass.runPass();
+    finish(c, pass);
+  }
+
+  /** Runs all the passes that come before this one. */
+  void prepare(Context c) {
+    for (BenchmarkPass pass : values()) {
+      if (pass == this) {
+        return;
+      }
+      pass.run(c);
+    }
+  }
+}
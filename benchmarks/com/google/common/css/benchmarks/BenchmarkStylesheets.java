@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.css.JobDescription;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.common.css.compiler.ast.GssParserException;
+import com.google.common.css.compiler.gssfunctions.DefaultGssFunctionMapProvider;
+import com.google.common.css.testing.SyntheticStylesheetGenerator;
+
+import java.util.List;
+
+/**
+ * Synthetic stylesheets of a given size for the benchmarks, made by
+ * {@link SyntheticStylesheetGenerator} with a fixed seed, so results of
+ * different runs can be compared.
+ *
+ */
+public final class BenchmarkStylesheets {
+
+  private BenchmarkStylesheets() {}
+
+  /**
+   * Returns the inputs for a job made of a synthetic stylesheet of
+   * {@code rules} rulesets, split in one chunk per 1000 rulesets.
+   */
+  public static List<SourceCode> createInputs(int rules) {
+    return new SyntheticStylesheetGenerator()
+        .setRules(rules)
+        .setChunks(Math.max(1, rules / 1000))
+        .setConstants(Math.max(3, rules / 10))
+        .generate();
+  }
+
+  /**
+   * Returns the job the benchmarks compile with: the options of the
+   * command line compiler with the default GSS functions.
+   */
+  public static JobDescription createJob(List<SourceCode> inputs) {
+    return new JobDescriptionBuilder()
+        .setInputs(inputs)
+        .setAllowKeyframes(true)
+        .setAllowWebkitKeyframes(true)
+        .setProcessDependencies(true)
+        .setSimplifyCss(true)
+        .setEliminateDeadStyles(true)
+        .setAllowUnrecognizedProperties(true)
+        .setGssFunctionMapProvider(new DefaultGssFunctionMapProvider())
+        .getJobDescription();
+  }
+
+  /**
+   * Parses the given inputs.
+   */
+  public static CssTree parse(List<SourceCode> inputs) {
+    try {
+      return new GssParser(inputs).parse();
+    } catch (GssParserException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
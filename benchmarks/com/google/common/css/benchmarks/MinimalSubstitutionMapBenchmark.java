@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.css.MinimalSubstitutionMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MinimalSubstitutionMap#get(String)}, both for class names
+ * seen for the first time and for class names that have been renamed already.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MinimalSubstitutionMapBenchmark {
+
+  @Param({"1000", "100000"})
+  public int classNames;
+
+  private String[] keys;
+  private MinimalSubstitutionMap warmMap;
+
+  @Setup
+  public void setUp() {
+    keys = new String[classNames];
+    for (int i = 0; i < classNames; i++) {
+      keys[i] = "goog-component-" + i + "-" + Integer.toHexString(i * 31);
+    }
+    warmMap = new MinimalSubstitutionMap();
+    for (String key : keys) {
+      warmMap.get(key);
+    }
+  }
+
+  @Benchmark
+  public void getNewNames(Blackhole blackhole) {
+    MinimalSubstitutionMap map = new MinimalSubstitutionMap();
+    for (String key : keys) {
+      blackhole.consume(map.get(key));
+    }
+  }
+
+  @Benchmark
+  public void getKnownNames(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(warmMap.get(key));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.passes.DummyErrorManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each compiler pass on its own. Before every invocation a fresh
+ * tree is parsed and all the passes that precede the benchmarked one are run
+ * on it; only the benchmarked pass is measured.
+ *
+ * <p>Since the setup runs for every invocation, use single-shot runs for a
+ * quick overview: {@code -bm ss -wi 10 -i 20}.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class PassBenchmark {
+
+  @Param({"1000"})
+  public int rules;
+
+  /** All the passes, unless restricted with {@code -p pass=...}. */
+  @Param
+  public BenchmarkPass pass;
+
+  private List<SourceCode> inputs;
+  private BenchmarkPass.Context context;
+
+  @Setup(Level.Trial)
+  public void createInputs() {
+    inputs = BenchmarkStylesheets.createInputs(rules);
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareTree() {
+    context = new BenchmarkPass.Context(
+        BenchmarkStylesheets.parse(inputs), new DummyErrorManager());
+    pass.prepare(context);
+  }
+
+  @Benchmark
+  public CssTree runPass() {
+    pass.run(context);
+    return context.tree;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.passes.CompactPrinter;
+import com.google.common.css.compiler.passes.DummyErrorManager;
+import com.google.common.css.compiler.passes.PassRunner;
+import com.google.common.css.compiler.passes.PrettyPrinter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks printing of a compiled tree. Printing does not modify the tree,
+ * so the same tree is printed in every invocation.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class PrinterBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int rules;
+
+  private CssTree tree;
+
+  @Setup
+  public void setUp() {
+    tree = BenchmarkStylesheets.parse(BenchmarkStylesheets.createInputs(rules));
+    new PassRunner(BenchmarkStylesheets.createJob(
+        BenchmarkStylesheets.createInputs(rules)), new DummyErrorManager())
+        .runPasses(tree);
+  }
+
+  @Benchmark
+  public String compactPrinter() {
+    CompactPrinter printer = new CompactPrinter(tree);
+    printer.runPass();
+    return printer.getCompactPrintedString();
+  }
+
+  @Benchmark
+  public String prettyPrinter() {
+    PrettyPrinter printer = new PrettyPrinter(tree.getVisitController());
+    printer.runPass();
+    return printer.getPrettyPrintedString();
+  }
+}
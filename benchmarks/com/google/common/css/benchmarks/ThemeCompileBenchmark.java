@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.css.JobDescription;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.passes.CompactPrinter;
+import com.google.common.css.compiler.passes.DummyErrorManager;
+import com.google.common.css.compiler.passes.PassRunner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the compilation of a theme: a small palette from which every
+ * ruleset derives its colors with the color GSS functions, so that the
+ * compilation time is dominated by color parsing and color math. The amounts
+ * passed to the functions vary between rulesets, so that most calls are not
+ * answered by the function cache.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ThemeCompileBenchmark {
+
+  private static final String[] PALETTE = {"#336699", "#ffcc00", "#e0e0e0",
+      "#222", "steelblue", "#c82828", "#9c27b0", "white"};
+
+  @Param({"1000", "10000"})
+  public int rules;
+
+  private List<SourceCode> inputs;
+  private JobDescription job;
+
+  @Setup
+  public void setUp() {
+    inputs = ImmutableList.of(new SourceCode("theme.gss", createTheme(rules)));
+    job = BenchmarkStylesheets.createJob(inputs);
+  }
+
+  @Benchmark
+  public String compile() {
+    CssTree tree = BenchmarkStylesheets.parse(inputs);
+    new PassRunner(job, new DummyErrorManager()).runPasses(tree);
+    CompactPrinter printer = new CompactPrinter(tree);
+    printer.runPass();
+    return printer.getCompactPrintedString();
+  }
+
+  /**
+   * Returns a theme of {@code rules} rulesets, each with four colors computed
+   * from the palette.
+   */
+  static String createTheme(int rules) {
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < PALETTE.length; i++) {
+      sb.append("@def PALETTE_").append(i).append(' ')
+          .append(PALETTE[i]).append(";\n");
+    }
+    for (int i = 0; i < rules; i++) {
+      String base = "PALETTE_" + random.nextInt(PALETTE.length);
+      String other = "PALETTE_" + random.nextInt(PALETTE.length);
+      sb.append(".theme-").append(i).append(" {\n")
+          .append("  color: makeContrastingColor(").append(base).append(", ")
+          .append(random.nextInt(100) / 100f).append(");\n")
+          .append("  background-color: addHsbToCssColor(").append(base)
+          .append(", ").append(random.nextInt(360)).append(", ")
+          .append(random.nextInt(41) - 20).append(", ")
+          .append(random.nextInt(41) - 20).append(");\n")
+          .append("  border-color: adjustBrightness(").append(other)
+          .append(", ").append(random.nextInt(61) - 30).append(");\n")
+          .append("  outline-color: blendColorsHsb(").append(base).append(", ")
+          .append(other).append(");\n")
+          .append("  text-decoration-color: makeMutedColor(").append(base)
+          .append(", ").append(other).append(");\n")
+          .append("}\n");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.benchmarks;
+
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.DefaultTreeVisitor;
+import com.google.common.css.compiler.passes.DummyErrorManager;
+import com.google.common.css.compiler.passes.PassRunner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full traversal of a tree by the default visit controller, with
+ * a visitor that does nothing, so that only the cost of the controller itself
+ * is measured.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class VisitControllerBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int rules;
+
+  /** Whether to visit the parsed tree or the compiled one. */
+  @Param({"false", "true"})
+  public boolean compiled;
+
+  private CssTree tree;
+
+  @Setup
+  public void setUp() {
+    tree = BenchmarkStylesheets.parse(BenchmarkStylesheets.createInputs(rules));
+    if (compiled) {
+      new PassRunner(BenchmarkStylesheets.createJob(
+          BenchmarkStylesheets.createInputs(rules)), new DummyErrorManager())
+          .runPasses(tree);
+    }
+  }
+
+  @Benchmark
+  public void visit() {
+    tree.getVisitController().startVisit(new DefaultTreeVisitor());
+  }
+
+  @Benchmark
+  public void visitMutating() {
+    tree.getMutatingVisitController().startVisit(new DefaultTreeVisitor());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.ast;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Property#byName} on the names of a typical ruleset,
+ * against a lookup in a {@link BiMap} of all recognized properties.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class PropertyBenchmark {
+
+  private static final String[] NAMES = {"color", "background-color",
+      "margin", "padding-left", "font", "line-height", "border",
+      "-webkit-border-radius", "display", "width"};
+
+  private String[] names;
+  private BiMap<String, Property> biMap;
+
+  @Setup
+  public void setUp() {
+    // Copies, so that equals() has to compare the characters.
+    names = new String[NAMES.length];
+    for (int i = 0; i < NAMES.length; i++) {
+      names[i] = new String(NAMES[i]);
+      names[i].hashCode();
+    }
+    biMap = HashBiMap.create();
+    for (Property property : Property.allRecognizedProperties()) {
+      biMap.put(property.getName(), property);
+    }
+  }
+
+  @Benchmark
+  public int byName() {
+    int length = 0;
+    for (String name : names) {
+      length += Property.byName(name).getName().length();
+    }
+    return length;
+  }
+
+  @Benchmark
+  public int biMap() {
+    int length = 0;
+    for (String name : names) {
+      Property property = biMap.get(name);
+      length += property == null ? 0 : property.getName().length();
+    }
+    return length;
+  }
+}
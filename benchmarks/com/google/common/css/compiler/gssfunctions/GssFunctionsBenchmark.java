@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.gssfunctions;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.css.compiler.ast.GssFunction;
+import com.google.common.css.compiler.ast.GssFunctionException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the GSS functions of {@link GssFunctions} on typical arguments.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class GssFunctionsBenchmark {
+
+  @Param({"blendColorsHsb", "blendColorsRgb", "makeMutedColor",
+      "addHsbToCssColor", "makeContrastingColor", "adjustBrightness", "add",
+      "mult", "max", "selectFrom"})
+  public String function;
+
+  private static final Map<String, List<String>> ARGUMENTS =
+      new ImmutableMap.Builder<String, List<String>>()
+      .put("blendColorsHsb", ImmutableList.of("#ff0000", "#0000ff"))
+      .put("blendColorsRgb", ImmutableList.of("#ff0000", "#0000ff"))
+      .put("makeMutedColor", ImmutableList.of("#ffffff", "#336699"))
+      .put("addHsbToCssColor", ImmutableList.of("#336699", "10", "20", "30"))
+      .put("makeContrastingColor", ImmutableList.of("#336699", "0.5"))
+      .put("adjustBrightness", ImmutableList.of("#336699", "20"))
+      .put("add", ImmutableList.of("10px", "20px", "3px"))
+      .put("mult", ImmutableList.of("10px", "3"))
+      .put("max", ImmutableList.of("10px", "20px"))
+      .put("selectFrom", ImmutableList.of("true", "#fff", "#000"))
+      .build();
+
+  private GssFunction gssFunction;
+  private List<String> arguments;
+
+  @Setup
+  public void setUp() {
+    gssFunction = GssFunctions.getFunctionMap().get(function);
+    arguments = ARGUMENTS.get(function);
+  }
+
+  @Benchmark
+  public String callFunction() throws GssFunctionException {
+    return gssFunction.getCallResultString(arguments);
+  }
+}
@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class GssParserBenchmark_jmhType extends GssParserBenchmark_jmhType_B3 {
+}
+
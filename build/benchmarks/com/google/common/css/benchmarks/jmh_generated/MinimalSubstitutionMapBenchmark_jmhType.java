@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class MinimalSubstitutionMapBenchmark_jmhType extends MinimalSubstitutionMapBenchmark_jmhType_B3 {
+}
+
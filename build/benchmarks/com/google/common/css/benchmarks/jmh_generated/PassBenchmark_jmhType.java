@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class PassBenchmark_jmhType extends PassBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class PrinterBenchmark_jmhType extends PrinterBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class ScalingBenchmark_jmhType extends ScalingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class ThemeCompileBenchmark_jmhType extends ThemeCompileBenchmark_jmhType_B3 {
+}
+
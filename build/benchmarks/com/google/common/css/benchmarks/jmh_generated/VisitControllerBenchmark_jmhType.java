@@ -0,0 +1,4 @@
+package com.google.common.css.benchmarks.jmh_generated;
+public class VisitControllerBenchmark_jmhType extends VisitControllerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.google.common.css.compiler.ast.jmh_generated;
+public class PropertyBenchmark_jmhType extends PropertyBenchmark_jmhType_B3 {
+}
+
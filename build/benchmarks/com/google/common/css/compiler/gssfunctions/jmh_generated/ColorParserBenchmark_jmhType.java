@@ -0,0 +1,4 @@
+package com.google.common.css.compiler.gssfunctions.jmh_generated;
+public class ColorParserBenchmark_jmhType extends ColorParserBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.google.common.css.compiler.gssfunctions.jmh_generated;
+public class GssFunctionsBenchmark_jmhType extends GssFunctionsBenchmark_jmhType_B3 {
+}
+
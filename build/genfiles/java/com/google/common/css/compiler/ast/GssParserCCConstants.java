@@ -0,0 +1,228 @@
+/* Generated By:JavaCC: Do not edit this line. GssParserCCConstants.java */
+package com.google.common.css.compiler.ast;
+
+
+/**
+ * Token literal values and constants.
+ * Generated by org.javacc.parser.OtherFilesGen#start()
+ */
+public interface GssParserCCConstants {
+
+  /** End of File. */
+  int EOF = 0;
+  /** RegularExpression Id. */
+  int SEMICOLON = 4;
+  /** RegularExpression Id. */
+  int COLON = 5;
+  /** RegularExpression Id. */
+  int DOT = 6;
+  /** RegularExpression Id. */
+  int ASTERISK = 7;
+  /** RegularExpression Id. */
+  int SLASH = 8;
+  /** RegularExpression Id. */
+  int MINUS = 9;
+  /** RegularExpression Id. */
+  int EQUALS = 10;
+  /** RegularExpression Id. */
+  int LEFTSQUARE = 11;
+  /** RegularExpression Id. */
+  int RIGHTSQUARE = 12;
+  /** RegularExpression Id. */
+  int LEFTROUND = 13;
+  /** RegularExpression Id. */
+  int RIGHTROUND = 14;
+  /** RegularExpression Id. */
+  int LEFTBRACE = 15;
+  /** RegularExpression Id. */
+  int RIGHTBRACE = 16;
+  /** RegularExpression Id. */
+  int COMMA = 17;
+  /** RegularExpression Id. */
+  int EXCL_MARK = 18;
+  /** RegularExpression Id. */
+  int PERCENT = 19;
+  /** RegularExpression Id. */
+  int PLUS = 20;
+  /** RegularExpression Id. */
+  int GREATER = 21;
+  /** RegularExpression Id. */
+  int TILDE = 22;
+  /** RegularExpression Id. */
+  int DOUBLE_QUOTE = 23;
+  /** RegularExpression Id. */
+  int SINGLE_QUOTE = 24;
+  /** RegularExpression Id. */
+  int AT = 25;
+  /** RegularExpression Id. */
+  int HASH = 26;
+  /** RegularExpression Id. */
+  int UNDERSCORE = 27;
+  /** RegularExpression Id. */
+  int AMPERSAND = 28;
+  /** RegularExpression Id. */
+  int CARET = 29;
+  /** RegularExpression Id. */
+  int DOLLAR = 30;
+  /** RegularExpression Id. */
+  int PIPE = 31;
+  /** RegularExpression Id. */
+  int AND = 32;
+  /** RegularExpression Id. */
+  int OR = 33;
+  /** RegularExpression Id. */
+  int TILDE_EQUALS = 34;
+  /** RegularExpression Id. */
+  int CARET_EQUALS = 35;
+  /** RegularExpression Id. */
+  int DOLLAR_EQUALS = 36;
+  /** RegularExpression Id. */
+  int ASTERISK_EQUALS = 37;
+  /** RegularExpression Id. */
+  int PIPE_EQUALS = 38;
+  /** RegularExpression Id. */
+  int HEX = 39;
+  /** RegularExpression Id. */
+  int HEXNUM = 40;
+  /** RegularExpression Id. */
+  int UNICODE = 41;
+  /** RegularExpression Id. */
+  int ESCAPE = 42;
+  /** RegularExpression Id. */
+  int DIGIT = 43;
+  /** RegularExpression Id. */
+  int NL1 = 44;
+  /** RegularExpression Id. */
+  int S = 45;
+  /** RegularExpression Id. */
+  int W = 46;
+  /** RegularExpression Id. */
+  int NL = 47;
+  /** RegularExpression Id. */
+  int WPLUS = 48;
+  /** RegularExpression Id. */
+  int WGREATER = 49;
+  /** RegularExpression Id. */
+  int WTILDE = 50;
+  /** RegularExpression Id. */
+  int ALPHA = 51;
+  /** RegularExpression Id. */
+  int NONASCII = 52;
+  /** RegularExpression Id. */
+  int NAMESTART = 53;
+  /** RegularExpression Id. */
+  int NAMECHAR = 54;
+  /** RegularExpression Id. */
+  int NAME = 55;
+  /** RegularExpression Id. */
+  int NUMBER = 56;
+  /** RegularExpression Id. */
+  int HASH_NAME = 57;
+  /** RegularExpression Id. */
+  int IMPORTANT_SYM = 58;
+  /** RegularExpression Id. */
+  int DOUBLE_QUOTED_STRING = 59;
+  /** RegularExpression Id. */
+  int SINGLE_QUOTED_STRING = 60;
+  /** RegularExpression Id. */
+  int URI = 61;
+  /** RegularExpression Id. */
+  int URL = 62;
+  /** RegularExpression Id. */
+  int IDENTIFIER = 63;
+  /** RegularExpression Id. */
+  int NOTFUNCTION = 64;
+  /** RegularExpression Id. */
+  int LANGFUNCTION = 65;
+  /** RegularExpression Id. */
+  int FUNCTION = 66;
+  /** RegularExpression Id. */
+  int WEBKITKEYFRAMES = 67;
+  /** RegularExpression Id. */
+  int ATRULESWITHDECLBLOCK = 68;
+  /** RegularExpression Id. */
+  int ATKEYWORD = 69;
+  /** RegularExpression Id. */
+  int BAD_TOKEN = 70;
+
+  /** Lexical state. */
+  int DEFAULT = 0;
+  /** Lexical state. */
+  int COMMENT = 1;
+
+  /** Literal token values. */
+  String[] tokenImage = {
+    "<EOF>",
+    "\"/*\"",
+    "<token of kind 2>",
+    "<token of kind 3>",
+    "\";\"",
+    "\":\"",
+    "\".\"",
+    "\"*\"",
+    "\"/\"",
+    "\"-\"",
+    "\"=\"",
+    "\"[\"",
+    "\"]\"",
+    "\"(\"",
+    "\")\"",
+    "\"{\"",
+    "\"}\"",
+    "\",\"",
+    "\"!\"",
+    "\"%\"",
+    "\"+\"",
+    "\">\"",
+    "\"~\"",
+    "\"\\\"\"",
+    "\"\\\'\"",
+    "\"@\"",
+    "\"#\"",
+    "\"_\"",
+    "\"&\"",
+    "\"^\"",
+    "\"$\"",
+    "\"|\"",
+    "<AND>",
+    "<OR>",
+    "<TILDE_EQUALS>",
+    "<CARET_EQUALS>",
+    "<DOLLAR_EQUALS>",
+    "<ASTERISK_EQUALS>",
+    "<PIPE_EQUALS>",
+    "<HEX>",
+    "<HEXNUM>",
+    "<UNICODE>",
+    "<ESCAPE>",
+    "<DIGIT>",
+    "<NL1>",
+    "<S>",
+    "<W>",
+    "<NL>",
+    "<WPLUS>",
+    "<WGREATER>",
+    "<WTILDE>",
+    "<ALPHA>",
+    "<NONASCII>",
+    "<NAMESTART>",
+    "<NAMECHAR>",
+    "<NAME>",
+    "<NUMBER>",
+    "<HASH_NAME>",
+    "<IMPORTANT_SYM>",
+    "<DOUBLE_QUOTED_STRING>",
+    "<SINGLE_QUOTED_STRING>",
+    "<URI>",
+    "<URL>",
+    "<IDENTIFIER>",
+    "<NOTFUNCTION>",
+    "<LANGFUNCTION>",
+    "<FUNCTION>",
+    "<WEBKITKEYFRAMES>",
+    "<ATRULESWITHDECLBLOCK>",
+    "<ATKEYWORD>",
+    "<BAD_TOKEN>",
+  };
+
+}
@@ -0,0 +1,1564 @@
+/* Generated By:JavaCC: Do not edit this line. GssParserCCTokenManager.java */
+package com.google.common.css.compiler.ast;
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.css.*;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/** Token Manager. */
+public class GssParserCCTokenManager implements GssParserCCConstants
+{
+
+  /** Debug output. */
+  public  java.io.PrintStream debugStream = System.out;
+  /** Set debug output. */
+  public  void setDebugStream(java.io.PrintStream ds) { debugStream = ds; }
+private final int jjStopStringLiteralDfa_0(int pos, long active0)
+{
+   switch (pos)
+   {
+      case 0:
+         if ((active0 & 0x200L) != 0L)
+            return 104;
+         if ((active0 & 0x40L) != 0L)
+            return 11;
+         if ((active0 & 0x40000L) != 0L)
+            return 192;
+         if ((active0 & 0x80L) != 0L)
+            return 7;
+         return -1;
+      default :
+         return -1;
+   }
+}
+private final int jjStartNfa_0(int pos, long active0)
+{
+   return jjMoveNfa_0(jjStopStringLiteralDfa_0(pos, active0), pos + 1);
+}
+private int jjStopAtPos(int pos, int kind)
+{
+   jjmatchedKind = kind;
+   jjmatchedPos = pos;
+   return pos + 1;
+}
+private int jjMoveStringLiteralDfa0_0()
+{
+   switch(curChar)
+   {
+      case 33:
+         return jjStartNfaWithStates_0(0, 18, 192);
+      case 37:
+         return jjStopAtPos(0, 19);
+      case 40:
+         return jjStopAtPos(0, 13);
+      case 41:
+         return jjStopAtPos(0, 14);
+      case 42:
+         return jjStartNfaWithStates_0(0, 7, 7);
+      case 44:
+         return jjStopAtPos(0, 17);
+      case 45:
+         return jjStartNfaWithStates_0(0, 9, 104);
+      case 46:
+         return jjStartNfaWithStates_0(0, 6, 11);
+      case 47:
+         jjmatchedKind = 8;
+         return jjMoveStringLiteralDfa1_0(0x2L);
+      case 58:
+         return jjStopAtPos(0, 5);
+      case 59:
+         return jjStopAtPos(0, 4);
+      case 61:
+         return jjStopAtPos(0, 10);
+      case 91:
+         return jjStopAtPos(0, 11);
+      case 93:
+         return jjStopAtPos(0, 12);
+      case 123:
+         return jjStopAtPos(0, 15);
+      case 125:
+         return jjStopAtPos(0, 16);
+      default :
+         return jjMoveNfa_0(0, 0);
+   }
+}
+private int jjMoveStringLiteralDfa1_0(long active0)
+{
+   try { curChar = input_stream.readChar(); }
+   catch(java.io.IOException e) {
+      jjStopStringLiteralDfa_0(0, active0);
+      return 1;
+   }
+   switch(curChar)
+   {
+      case 42:
+         if ((active0 & 0x2L) != 0L)
+            return jjStopAtPos(1, 1);
+         break;
+      default :
+         break;
+   }
+   return jjStartNfa_0(0, active0);
+}
+private int jjStartNfaWithStates_0(int pos, int kind, int state)
+{
+   jjmatchedKind = kind;
+   jjmatchedPos = pos;
+   try { curChar = input_stream.readChar(); }
+   catch(java.io.IOException e) { return pos + 1; }
+   return jjMoveNfa_0(state, pos + 1);
+}
+static final long[] jjbitVec0 = {
+   0xfffffffffffffffeL, 0xffffffffffffffffL, 0xffffffffffffffffL, 0xffffffffffffffffL
+};
+static final long[] jjbitVec2 = {
+   0x0L, 0x0L, 0xffffffffffffffffL, 0xffffffffffffffffL
+};
+private int jjMoveNfa_0(int startState, int curPos)
+{
+   int startsAt = 0;
+   jjnewStateCnt = 192;
+   int i = 1;
+   jjstateSet[0] = startState;
+   int kind = 0x7fffffff;
+   for (;;)
+   {
+      if (++jjround == 0x7fffffff)
+         ReInitRounds();
+      if (curChar < 64)
+      {
+         long l = 1L << curChar;
+         do
+         {
+            switch(jjstateSet[--i])
+            {
+               case 192:
+               case 15:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddTwoStates(15, 24);
+                  break;
+               case 0:
+                  if ((0x3ff000000000000L & l) != 0L)
+                  {
+                     if (kind > 56)
+                        kind = 56;
+                     jjCheckNAddStates(0, 2);
+                  }
+                  else if ((0x100003600L & l) != 0L)
+                  {
+                     if (kind > 45)
+                        kind = 45;
+                     jjCheckNAddStates(3, 9);
+                  }
+                  else if (curChar == 45)
+                     jjAddStates(10, 11);
+                  else if (curChar == 39)
+                     jjCheckNAddStates(12, 14);
+                  else if (curChar == 34)
+                     jjCheckNAddStates(15, 17);
+                  else if (curChar == 33)
+                     jjCheckNAddTwoStates(15, 24);
+                  else if (curChar == 35)
+                     jjCheckNAdd(13);
+                  else if (curChar == 46)
+                     jjCheckNAdd(11);
+                  else if (curChar == 62)
+                  {
+                     if (kind > 49)
+                        kind = 49;
+                  }
+                  else if (curChar == 43)
+                  {
+                     if (kind > 48)
+                        kind = 48;
+                  }
+                  else if (curChar == 42)
+                     jjstateSet[jjnewStateCnt++] = 7;
+                  else if (curChar == 36)
+                     jjstateSet[jjnewStateCnt++] = 5;
+                  else if (curChar == 38)
+                     jjstateSet[jjnewStateCnt++] = 1;
+                  break;
+               case 1:
+                  if (curChar == 38 && kind > 32)
+                     kind = 32;
+                  break;
+               case 3:
+                  if (curChar == 61 && kind > 35)
+                     kind = 35;
+                  break;
+               case 4:
+                  if (curChar == 36)
+                     jjstateSet[jjnewStateCnt++] = 5;
+                  break;
+               case 5:
+                  if (curChar == 61 && kind > 36)
+                     kind = 36;
+                  break;
+               case 6:
+                  if (curChar == 42)
+                     jjstateSet[jjnewStateCnt++] = 7;
+                  break;
+               case 7:
+                  if (curChar == 61 && kind > 37)
+                     kind = 37;
+                  break;
+               case 8:
+                  if (curChar == 43 && kind > 48)
+                     kind = 48;
+                  break;
+               case 9:
+                  if (curChar == 62 && kind > 49)
+                     kind = 49;
+                  break;
+               case 10:
+                  if (curChar == 46)
+                     jjCheckNAdd(11);
+                  break;
+               case 11:
+                  if ((0x3ff000000000000L & l) == 0L)
+                     break;
+                  if (kind > 56)
+                     kind = 56;
+                  jjCheckNAdd(11);
+                  break;
+               case 12:
+                  if (curChar == 35)
+                     jjCheckNAdd(13);
+                  break;
+               case 13:
+                  if ((0x3ff200000000000L & l) == 0L)
+                     break;
+                  if (kind > 57)
+                     kind = 57;
+                  jjCheckNAdd(13);
+                  break;
+               case 14:
+                  if (curChar == 33)
+                     jjCheckNAddTwoStates(15, 24);
+                  break;
+               case 25:
+                  if (curChar == 34)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 26:
+                  if ((0xfffffffbffffcbffL & l) != 0L)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 27:
+                  if (curChar == 34 && kind > 59)
+                     kind = 59;
+                  break;
+               case 29:
+                  if (curChar == 10)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 30:
+               case 34:
+                  if (curChar == 13)
+                     jjCheckNAdd(29);
+                  break;
+               case 31:
+                  if ((0x3400L & l) != 0L)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 32:
+                  if ((0xfc00ffffffffcbffL & l) != 0L)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 33:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(18, 23);
+                  break;
+               case 35:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 36:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(24, 32);
+                  break;
+               case 37:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(33, 37);
+                  break;
+               case 38:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(38, 43);
+                  break;
+               case 39:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(44, 50);
+                  break;
+               case 40:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(51, 58);
+                  break;
+               case 41:
+                  if (curChar == 39)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 42:
+                  if ((0xffffff7fffffcbffL & l) != 0L)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 43:
+                  if (curChar == 39 && kind > 60)
+                     kind = 60;
+                  break;
+               case 45:
+                  if (curChar == 10)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 46:
+               case 50:
+                  if (curChar == 13)
+                     jjCheckNAdd(45);
+                  break;
+               case 47:
+                  if ((0x3400L & l) != 0L)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 48:
+                  if ((0xfc00ffffffffcbffL & l) != 0L)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 49:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(59, 64);
+                  break;
+               case 51:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 52:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(65, 73);
+                  break;
+               case 53:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(74, 78);
+                  break;
+               case 54:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(79, 84);
+                  break;
+               case 55:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(85, 91);
+                  break;
+               case 56:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddStates(92, 99);
+                  break;
+               case 58:
+                  if (curChar == 40)
+                     jjCheckNAddStates(100, 102);
+                  break;
+               case 59:
+                  if ((0xfffffc7a00000000L & l) != 0L)
+                     jjCheckNAddStates(103, 105);
+                  break;
+               case 60:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddTwoStates(60, 61);
+                  break;
+               case 61:
+                  if (curChar == 41 && kind > 61)
+                     kind = 61;
+                  break;
+               case 62:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddStates(106, 109);
+                  break;
+               case 69:
+                  if (curChar == 40 && kind > 64)
+                     kind = 64;
+                  break;
+               case 73:
+                  if (curChar == 40 && kind > 65)
+                     kind = 65;
+                  break;
+               case 86:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 85;
+                  break;
+               case 89:
+                  if ((0x3ff000000000000L & l) == 0L)
+                     break;
+                  if (kind > 56)
+                     kind = 56;
+                  jjCheckNAddStates(0, 2);
+                  break;
+               case 90:
+                  if ((0x3ff000000000000L & l) == 0L)
+                     break;
+                  if (kind > 56)
+                     kind = 56;
+                  jjCheckNAdd(90);
+                  break;
+               case 91:
+                  if ((0x3ff000000000000L & l) != 0L)
+                     jjCheckNAddTwoStates(91, 10);
+                  break;
+               case 94:
+                  if (curChar == 61 && kind > 38)
+                     kind = 38;
+                  break;
+               case 96:
+                  if (curChar == 61 && kind > 34)
+                     kind = 34;
+                  break;
+               case 97:
+                  if ((0x100003600L & l) == 0L)
+                     break;
+                  if (kind > 45)
+                     kind = 45;
+                  jjCheckNAddStates(3, 9);
+                  break;
+               case 98:
+                  if ((0x100003600L & l) == 0L)
+                     break;
+                  if (kind > 45)
+                     kind = 45;
+                  jjCheckNAdd(98);
+                  break;
+               case 99:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddTwoStates(99, 8);
+                  break;
+               case 100:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddTwoStates(100, 9);
+                  break;
+               case 101:
+                  if ((0x100003600L & l) != 0L)
+                     jjCheckNAddTwoStates(101, 102);
+                  break;
+               case 103:
+                  if (curChar == 45)
+                     jjAddStates(10, 11);
+                  break;
+               case 105:
+                  if ((0x3ff200000000000L & l) == 0L)
+                     break;
+                  if (kind > 63)
+                     kind = 63;
+                  jjstateSet[jjnewStateCnt++] = 105;
+                  break;
+               case 107:
+                  if ((0x3ff200000000000L & l) != 0L)
+                     jjAddStates(110, 111);
+                  break;
+               case 108:
+                  if (curChar == 40 && kind > 66)
+                     kind = 66;
+                  break;
+               case 135:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 134;
+                  break;
+               case 140:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 141;
+                  break;
+               case 142:
+                  if ((0x3ff200000000000L & l) == 0L)
+                     break;
+                  if (kind > 69)
+                     kind = 69;
+                  jjstateSet[jjnewStateCnt++] = 142;
+                  break;
+               case 143:
+                  if (curChar == 45)
+                     jjAddStates(112, 115);
+                  break;
+               case 152:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 151;
+                  break;
+               case 167:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 166;
+                  break;
+               case 179:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 178;
+                  break;
+               case 190:
+                  if (curChar == 45)
+                     jjstateSet[jjnewStateCnt++] = 189;
+                  break;
+               default : break;
+            }
+         } while(i != startsAt);
+      }
+      else if (curChar < 128)
+      {
+         long l = 1L << (curChar & 077);
+         do
+         {
+            switch(jjstateSet[--i])
+            {
+               case 192:
+               case 24:
+                  if (curChar == 105)
+                     jjstateSet[jjnewStateCnt++] = 23;
+                  break;
+               case 104:
+                  if ((0x7fffffe87fffffeL & l) != 0L)
+                     jjCheckNAddTwoStates(107, 108);
+                  if ((0x7fffffe87fffffeL & l) != 0L)
+                  {
+                     if (kind > 63)
+                        kind = 63;
+                     jjCheckNAdd(105);
+                  }
+                  break;
+               case 0:
+                  if ((0x7fffffe87fffffeL & l) != 0L)
+                  {
+                     if (kind > 63)
+                        kind = 63;
+                     jjCheckNAddStates(116, 118);
+                  }
+                  else if (curChar == 64)
+                     jjAddStates(119, 125);
+                  else if (curChar == 126)
+                  {
+                     if (kind > 50)
+                        kind = 50;
+                     jjstateSet[jjnewStateCnt++] = 96;
+                  }
+                  else if (curChar == 124)
+                     jjAddStates(126, 127);
+                  else if (curChar == 94)
+                     jjstateSet[jjnewStateCnt++] = 3;
+                  if (curChar == 117)
+                     jjAddStates(128, 129);
+                  else if (curChar == 108)
+                     jjstateSet[jjnewStateCnt++] = 75;
+                  else if (curChar == 110)
+                     jjstateSet[jjnewStateCnt++] = 70;
+                  else if (curChar == 100)
+                     jjstateSet[jjnewStateCnt++] = 66;
+                  break;
+               case 2:
+                  if (curChar == 94)
+                     jjstateSet[jjnewStateCnt++] = 3;
+                  break;
+               case 13:
+                  if ((0x7fffffe87fffffeL & l) == 0L)
+                     break;
+                  if (kind > 57)
+                     kind = 57;
+                  jjstateSet[jjnewStateCnt++] = 13;
+                  break;
+               case 16:
+                  if (curChar == 116 && kind > 58)
+                     kind = 58;
+                  break;
+               case 17:
+                  if (curChar == 110)
+                     jjstateSet[jjnewStateCnt++] = 16;
+                  break;
+               case 18:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 17;
+                  break;
+               case 19:
+                  if (curChar == 116)
+                     jjstateSet[jjnewStateCnt++] = 18;
+                  break;
+               case 20:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 19;
+                  break;
+               case 21:
+                  if (curChar == 111)
+                     jjstateSet[jjnewStateCnt++] = 20;
+                  break;
+               case 22:
+                  if (curChar == 112)
+                     jjstateSet[jjnewStateCnt++] = 21;
+                  break;
+               case 23:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 22;
+                  break;
+               case 26:
+                  if ((0xffffffffefffffffL & l) != 0L)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 28:
+                  if (curChar == 92)
+                     jjAddStates(130, 133);
+                  break;
+               case 32:
+                  if ((0xffffff81ffffffffL & l) != 0L)
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 33:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(18, 23);
+                  break;
+               case 36:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(24, 32);
+                  break;
+               case 37:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(33, 37);
+                  break;
+               case 38:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(38, 43);
+                  break;
+               case 39:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(44, 50);
+                  break;
+               case 40:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(51, 58);
+                  break;
+               case 42:
+                  if ((0xffffffffefffffffL & l) != 0L)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 44:
+                  if (curChar == 92)
+                     jjAddStates(134, 137);
+                  break;
+               case 48:
+                  if ((0xffffff81ffffffffL & l) != 0L)
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 49:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(59, 64);
+                  break;
+               case 52:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(65, 73);
+                  break;
+               case 53:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(74, 78);
+                  break;
+               case 54:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(79, 84);
+                  break;
+               case 55:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(85, 91);
+                  break;
+               case 56:
+                  if ((0x7e00000000L & l) != 0L)
+                     jjCheckNAddStates(92, 99);
+                  break;
+               case 57:
+                  if (curChar == 110)
+                     jjCheckNAdd(58);
+                  break;
+               case 59:
+                  if ((0x7fffffffefffffffL & l) != 0L)
+                     jjAddStates(103, 105);
+                  break;
+               case 63:
+                  if (curChar == 105)
+                     jjstateSet[jjnewStateCnt++] = 57;
+                  break;
+               case 64:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 63;
+                  break;
+               case 65:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 64;
+                  break;
+               case 66:
+                  if (curChar == 111)
+                     jjstateSet[jjnewStateCnt++] = 65;
+                  break;
+               case 67:
+                  if (curChar == 100)
+                     jjstateSet[jjnewStateCnt++] = 66;
+                  break;
+               case 68:
+                  if (curChar == 116)
+                     jjstateSet[jjnewStateCnt++] = 69;
+                  break;
+               case 70:
+                  if (curChar == 111)
+                     jjstateSet[jjnewStateCnt++] = 68;
+                  break;
+               case 71:
+                  if (curChar == 110)
+                     jjstateSet[jjnewStateCnt++] = 70;
+                  break;
+               case 72:
+                  if (curChar == 103)
+                     jjstateSet[jjnewStateCnt++] = 73;
+                  break;
+               case 74:
+                  if (curChar == 110)
+                     jjstateSet[jjnewStateCnt++] = 72;
+                  break;
+               case 75:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 74;
+                  break;
+               case 76:
+                  if (curChar == 108)
+                     jjstateSet[jjnewStateCnt++] = 75;
+                  break;
+               case 77:
+                  if (curChar == 117)
+                     jjAddStates(128, 129);
+                  break;
+               case 78:
+                  if (curChar == 108)
+                     jjCheckNAdd(58);
+                  break;
+               case 79:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 78;
+                  break;
+               case 80:
+                  if (curChar == 120)
+                     jjCheckNAdd(58);
+                  break;
+               case 81:
+                  if (curChar == 105)
+                     jjstateSet[jjnewStateCnt++] = 80;
+                  break;
+               case 82:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 81;
+                  break;
+               case 83:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 82;
+                  break;
+               case 84:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 83;
+                  break;
+               case 85:
+                  if (curChar == 112)
+                     jjstateSet[jjnewStateCnt++] = 84;
+                  break;
+               case 87:
+                  if (curChar == 108)
+                     jjstateSet[jjnewStateCnt++] = 86;
+                  break;
+               case 88:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 87;
+                  break;
+               case 92:
+                  if (curChar == 124)
+                     jjAddStates(126, 127);
+                  break;
+               case 93:
+                  if (curChar == 124 && kind > 33)
+                     kind = 33;
+                  break;
+               case 95:
+                  if (curChar != 126)
+                     break;
+                  if (kind > 50)
+                     kind = 50;
+                  jjstateSet[jjnewStateCnt++] = 96;
+                  break;
+               case 102:
+                  if (curChar == 126 && kind > 50)
+                     kind = 50;
+                  break;
+               case 105:
+                  if ((0x7fffffe87fffffeL & l) == 0L)
+                     break;
+                  if (kind > 63)
+                     kind = 63;
+                  jjCheckNAdd(105);
+                  break;
+               case 106:
+               case 107:
+                  if ((0x7fffffe87fffffeL & l) != 0L)
+                     jjCheckNAddTwoStates(107, 108);
+                  break;
+               case 109:
+                  if ((0x7fffffe87fffffeL & l) == 0L)
+                     break;
+                  if (kind > 63)
+                     kind = 63;
+                  jjCheckNAddStates(116, 118);
+                  break;
+               case 110:
+                  if (curChar == 64)
+                     jjAddStates(119, 125);
+                  break;
+               case 111:
+                  if (curChar == 115 && kind > 67)
+                     kind = 67;
+                  break;
+               case 112:
+               case 144:
+               case 159:
+               case 171:
+               case 182:
+                  if (curChar == 101)
+                     jjCheckNAdd(111);
+                  break;
+               case 113:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 112;
+                  break;
+               case 114:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 113;
+                  break;
+               case 115:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 114;
+                  break;
+               case 116:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 115;
+                  break;
+               case 117:
+                  if (curChar == 121)
+                     jjstateSet[jjnewStateCnt++] = 116;
+                  break;
+               case 118:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 117;
+                  break;
+               case 119:
+                  if (curChar == 107)
+                     jjstateSet[jjnewStateCnt++] = 118;
+                  break;
+               case 120:
+                  if (curChar == 101 && kind > 68)
+                     kind = 68;
+                  break;
+               case 121:
+                  if (curChar == 103)
+                     jjCheckNAdd(120);
+                  break;
+               case 122:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 121;
+                  break;
+               case 123:
+                  if (curChar == 112)
+                     jjstateSet[jjnewStateCnt++] = 122;
+                  break;
+               case 124:
+                  if (curChar == 110 && kind > 68)
+                     kind = 68;
+                  break;
+               case 125:
+                  if (curChar == 105)
+                     jjstateSet[jjnewStateCnt++] = 124;
+                  break;
+               case 126:
+                  if (curChar == 120)
+                     jjstateSet[jjnewStateCnt++] = 125;
+                  break;
+               case 127:
+                  if (curChar == 105)
+                     jjstateSet[jjnewStateCnt++] = 126;
+                  break;
+               case 128:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 127;
+                  break;
+               case 129:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 128;
+                  break;
+               case 130:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 129;
+                  break;
+               case 131:
+                  if (curChar == 100)
+                     jjstateSet[jjnewStateCnt++] = 130;
+                  break;
+               case 132:
+                  if (curChar == 99)
+                     jjCheckNAdd(120);
+                  break;
+               case 133:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 132;
+                  break;
+               case 134:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 133;
+                  break;
+               case 136:
+                  if (curChar == 116)
+                     jjstateSet[jjnewStateCnt++] = 135;
+                  break;
+               case 137:
+                  if (curChar == 110)
+                     jjstateSet[jjnewStateCnt++] = 136;
+                  break;
+               case 138:
+                  if (curChar == 111)
+                     jjstateSet[jjnewStateCnt++] = 137;
+                  break;
+               case 139:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 138;
+                  break;
+               case 141:
+               case 142:
+                  if ((0x7fffffe87fffffeL & l) == 0L)
+                     break;
+                  if (kind > 69)
+                     kind = 69;
+                  jjCheckNAdd(142);
+                  break;
+               case 145:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 144;
+                  break;
+               case 146:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 145;
+                  break;
+               case 147:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 146;
+                  break;
+               case 148:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 147;
+                  break;
+               case 149:
+                  if (curChar == 121)
+                     jjstateSet[jjnewStateCnt++] = 148;
+                  break;
+               case 150:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 149;
+                  break;
+               case 151:
+                  if (curChar == 107)
+                     jjstateSet[jjnewStateCnt++] = 150;
+                  break;
+               case 153:
+                  if (curChar == 116)
+                     jjstateSet[jjnewStateCnt++] = 152;
+                  break;
+               case 154:
+                  if (curChar == 105)
+                     jjstateSet[jjnewStateCnt++] = 153;
+                  break;
+               case 155:
+                  if (curChar == 107)
+                     jjstateSet[jjnewStateCnt++] = 154;
+                  break;
+               case 156:
+                  if (curChar == 98)
+                     jjstateSet[jjnewStateCnt++] = 155;
+                  break;
+               case 157:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 156;
+                  break;
+               case 158:
+                  if (curChar == 119)
+                     jjstateSet[jjnewStateCnt++] = 157;
+                  break;
+               case 160:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 159;
+                  break;
+               case 161:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 160;
+                  break;
+               case 162:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 161;
+                  break;
+               case 163:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 162;
+                  break;
+               case 164:
+                  if (curChar == 121)
+                     jjstateSet[jjnewStateCnt++] = 163;
+                  break;
+               case 165:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 164;
+                  break;
+               case 166:
+                  if (curChar == 107)
+                     jjstateSet[jjnewStateCnt++] = 165;
+                  break;
+               case 168:
+                  if (curChar == 122)
+                     jjstateSet[jjnewStateCnt++] = 167;
+                  break;
+               case 169:
+                  if (curChar == 111)
+                     jjstateSet[jjnewStateCnt++] = 168;
+                  break;
+               case 170:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 169;
+                  break;
+               case 172:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 171;
+                  break;
+               case 173:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 172;
+                  break;
+               case 174:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 173;
+                  break;
+               case 175:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 174;
+                  break;
+               case 176:
+                  if (curChar == 121)
+                     jjstateSet[jjnewStateCnt++] = 175;
+                  break;
+               case 177:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 176;
+                  break;
+               case 178:
+                  if (curChar == 107)
+                     jjstateSet[jjnewStateCnt++] = 177;
+                  break;
+               case 180:
+                  if (curChar == 115)
+                     jjstateSet[jjnewStateCnt++] = 179;
+                  break;
+               case 181:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 180;
+                  break;
+               case 183:
+                  if (curChar == 109)
+                     jjstateSet[jjnewStateCnt++] = 182;
+                  break;
+               case 184:
+                  if (curChar == 97)
+                     jjstateSet[jjnewStateCnt++] = 183;
+                  break;
+               case 185:
+                  if (curChar == 114)
+                     jjstateSet[jjnewStateCnt++] = 184;
+                  break;
+               case 186:
+                  if (curChar == 102)
+                     jjstateSet[jjnewStateCnt++] = 185;
+                  break;
+               case 187:
+                  if (curChar == 121)
+                     jjstateSet[jjnewStateCnt++] = 186;
+                  break;
+               case 188:
+                  if (curChar == 101)
+                     jjstateSet[jjnewStateCnt++] = 187;
+                  break;
+               case 189:
+                  if (curChar == 107)
+                     jjstateSet[jjnewStateCnt++] = 188;
+                  break;
+               case 191:
+                  if (curChar == 111)
+                     jjstateSet[jjnewStateCnt++] = 190;
+                  break;
+               default : break;
+            }
+         } while(i != startsAt);
+      }
+      else
+      {
+         int hiByte = (int)(curChar >> 8);
+         int i1 = hiByte >> 6;
+         long l1 = 1L << (hiByte & 077);
+         int i2 = (curChar & 0xff) >> 6;
+         long l2 = 1L << (curChar & 077);
+         do
+         {
+            switch(jjstateSet[--i])
+            {
+               case 104:
+                  if (jjCanMove_0(hiByte, i1, i2, l1, l2))
+                  {
+                     if (kind > 63)
+                        kind = 63;
+                     jjCheckNAdd(105);
+                  }
+                  if (jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     jjCheckNAddTwoStates(107, 108);
+                  break;
+               case 0:
+                  if (!jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     break;
+                  if (kind > 63)
+                     kind = 63;
+                  jjCheckNAddStates(116, 118);
+                  break;
+               case 13:
+                  if (!jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     break;
+                  if (kind > 57)
+                     kind = 57;
+                  jjstateSet[jjnewStateCnt++] = 13;
+                  break;
+               case 26:
+               case 32:
+                  if (jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     jjCheckNAddStates(15, 17);
+                  break;
+               case 42:
+               case 48:
+                  if (jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     jjCheckNAddStates(12, 14);
+                  break;
+               case 59:
+                  if (jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     jjAddStates(103, 105);
+                  break;
+               case 105:
+                  if (!jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     break;
+                  if (kind > 63)
+                     kind = 63;
+                  jjCheckNAdd(105);
+                  break;
+               case 106:
+               case 107:
+                  if (jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     jjCheckNAddTwoStates(107, 108);
+                  break;
+               case 141:
+               case 142:
+                  if (!jjCanMove_0(hiByte, i1, i2, l1, l2))
+                     break;
+                  if (kind > 69)
+                     kind = 69;
+                  jjCheckNAdd(142);
+                  break;
+               default : break;
+            }
+         } while(i != startsAt);
+      }
+      if (kind != 0x7fffffff)
+      {
+         jjmatchedKind = kind;
+         jjmatchedPos = curPos;
+         kind = 0x7fffffff;
+      }
+      ++curPos;
+      if ((i = jjnewStateCnt) == (startsAt = 192 - (jjnewStateCnt = startsAt)))
+         return curPos;
+      try { curChar = input_stream.readChar(); }
+      catch(java.io.IOException e) { return curPos; }
+   }
+}
+private int jjMoveStringLiteralDfa0_1()
+{
+   return jjMoveNfa_1(4, 0);
+}
+private int jjMoveNfa_1(int startState, int curPos)
+{
+   int startsAt = 0;
+   jjnewStateCnt = 5;
+   int i = 1;
+   jjstateSet[0] = startState;
+   int kind = 0x7fffffff;
+   for (;;)
+   {
+      if (++jjround == 0x7fffffff)
+         ReInitRounds();
+      if (curChar < 64)
+      {
+         long l = 1L << curChar;
+         do
+         {
+            switch(jjstateSet[--i])
+            {
+               case 0:
+                  if (curChar != 47)
+                     break;
+                  kind = 2;
+                  jjCheckNAddTwoStates(2, 3);
+                  break;
+               case 1:
+                  if (curChar != 10)
+                     break;
+                  if (kind > 2)
+                     kind = 2;
+                  jjCheckNAddTwoStates(2, 3);
+                  break;
+               case 2:
+                  if (curChar == 13)
+                     jjstateSet[jjnewStateCnt++] = 1;
+                  break;
+               case 3:
+                  if ((0x100003600L & l) == 0L)
+                     break;
+                  if (kind > 2)
+                     kind = 2;
+                  jjCheckNAddTwoStates(2, 3);
+                  break;
+               case 4:
+                  if (curChar == 42)
+                     jjstateSet[jjnewStateCnt++] = 0;
+                  break;
+               default : break;
+            }
+         } while(i != startsAt);
+      }
+      else if (curChar < 128)
+      {
+         long l = 1L << (curChar & 077);
+         do
+         {
+            switch(jjstateSet[--i])
+            {
+               default : break;
+            }
+         } while(i != startsAt);
+      }
+      else
+      {
+         int hiByte = (int)(curChar >> 8);
+         int i1 = hiByte >> 6;
+         long l1 = 1L << (hiByte & 077);
+         int i2 = (curChar & 0xff) >> 6;
+         long l2 = 1L << (curChar & 077);
+         do
+         {
+            switch(jjstateSet[--i])
+            {
+               default : break;
+            }
+         } while(i != startsAt);
+      }
+      if (kind != 0x7fffffff)
+      {
+         jjmatchedKind = kind;
+         jjmatchedPos = curPos;
+         kind = 0x7fffffff;
+      }
+      ++curPos;
+      if ((i = jjnewStateCnt) == (startsAt = 5 - (jjnewStateCnt = startsAt)))
+         return curPos;
+      try { curChar = input_stream.readChar(); }
+      catch(java.io.IOException e) { return curPos; }
+   }
+}
+static final int[] jjnextStates = {
+   90, 91, 10, 98, 99, 8, 100, 9, 101, 102, 104, 106, 42, 43, 44, 26, 
+   27, 28, 26, 34, 35, 27, 28, 36, 26, 37, 34, 35, 27, 28, 38, 39, 
+   40, 26, 34, 35, 27, 28, 26, 37, 34, 35, 27, 28, 26, 37, 34, 35, 
+   27, 28, 38, 26, 37, 34, 35, 27, 28, 38, 39, 42, 50, 51, 43, 44, 
+   52, 42, 53, 50, 51, 43, 44, 54, 55, 56, 42, 50, 51, 43, 44, 42, 
+   53, 50, 51, 43, 44, 42, 53, 50, 51, 43, 44, 54, 42, 53, 50, 51, 
+   43, 44, 54, 55, 59, 61, 62, 59, 60, 61, 59, 60, 61, 62, 107, 108, 
+   158, 170, 181, 191, 105, 107, 108, 119, 123, 131, 139, 140, 141, 143, 93, 94, 
+   79, 88, 30, 31, 32, 33, 46, 47, 48, 49, 
+};
+private static final boolean jjCanMove_0(int hiByte, int i1, int i2, long l1, long l2)
+{
+   switch(hiByte)
+   {
+      case 0:
+         return ((jjbitVec2[i2] & l2) != 0L);
+      default :
+         if ((jjbitVec0[i1] & l1) != 0L)
+            return true;
+         return false;
+   }
+}
+
+/** Token literal values. */
+public static final String[] jjstrLiteralImages = {
+"", null, null, null, "\73", "\72", "\56", "\52", "\57", "\55", "\75", "\133", 
+"\135", "\50", "\51", "\173", "\175", "\54", "\41", "\45", null, null, null, null, 
+null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
+null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
+null, null, null, null, null, null, null, null, null, null, null, null, null, null, 
+null, null, null, null, null, };
+
+/** Lexer state names. */
+public static final String[] lexStateNames = {
+   "DEFAULT",
+   "COMMENT",
+};
+
+/** Lex State array. */
+public static final int[] jjnewLexState = {
+   -1, 1, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
+   -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
+   -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 
+};
+static final long[] jjtoToken = {
+   0xbf07207f000ffff1L, 0x7fL, 
+};
+static final long[] jjtoSkip = {
+   0x4L, 0x0L, 
+};
+static final long[] jjtoSpecial = {
+   0x4L, 0x0L, 
+};
+static final long[] jjtoMore = {
+   0xaL, 0x0L, 
+};
+protected CharStream input_stream;
+private final int[] jjrounds = new int[192];
+private final int[] jjstateSet = new int[384];
+private final StringBuilder jjimage = new StringBuilder();
+private StringBuilder image = jjimage;
+private int jjimageLen;
+private int lengthOfMatch;
+protected char curChar;
+/** Constructor. */
+public GssParserCCTokenManager(CharStream stream){
+   input_stream = stream;
+}
+
+/** Constructor. */
+public GssParserCCTokenManager(CharStream stream, int lexState){
+   this(stream);
+   SwitchTo(lexState);
+}
+
+/** Reinitialise parser. */
+public void ReInit(CharStream stream)
+{
+   jjmatchedPos = jjnewStateCnt = 0;
+   curLexState = defaultLexState;
+   input_stream = stream;
+   ReInitRounds();
+}
+private void ReInitRounds()
+{
+   int i;
+   jjround = 0x80000001;
+   for (i = 192; i-- > 0;)
+      jjrounds[i] = 0x80000000;
+}
+
+/** Reinitialise parser. */
+public void ReInit(CharStream stream, int lexState)
+{
+   ReInit(stream);
+   SwitchTo(lexState);
+}
+
+/** Switch to specified lex state. */
+public void SwitchTo(int lexState)
+{
+   if (lexState >= 2 || lexState < 0)
+      throw new TokenMgrError("Error: Ignoring invalid lexical state : " + lexState + ". State unchanged.", TokenMgrError.INVALID_LEXICAL_STATE);
+   else
+      curLexState = lexState;
+}
+
+protected Token jjFillToken()
+{
+   final Token t;
+   final String curTokenImage;
+   final int beginLine;
+   final int endLine;
+   final int beginColumn;
+   final int endColumn;
+   String im = jjstrLiteralImages[jjmatchedKind];
+   curTokenImage = (im == null) ? input_stream.GetImage() : im;
+   beginLine = input_stream.getBeginLine();
+   beginColumn = input_stream.getBeginColumn();
+   endLine = input_stream.getEndLine();
+   endColumn = input_stream.getEndColumn();
+   t = Token.newToken(jjmatchedKind, curTokenImage);
+
+   t.beginLine = beginLine;
+   t.endLine = endLine;
+   t.beginColumn = beginColumn;
+   t.endColumn = endColumn;
+
+   return t;
+}
+
+int curLexState = 0;
+int defaultLexState = 0;
+int jjnewStateCnt;
+int jjround;
+int jjmatchedPos;
+int jjmatchedKind;
+
+/** Get the next Token. */
+public Token getNextToken() 
+{
+  Token specialToken = null;
+  Token matchedToken;
+  int curPos = 0;
+
+  EOFLoop :
+  for (;;)
+  {
+   try
+   {
+      curChar = input_stream.BeginToken();
+   }
+   catch(java.io.IOException e)
+   {
+      jjmatchedKind = 0;
+      matchedToken = jjFillToken();
+      matchedToken.specialToken = specialToken;
+      return matchedToken;
+   }
+   image = jjimage;
+   image.setLength(0);
+   jjimageLen = 0;
+
+   for (;;)
+   {
+     switch(curLexState)
+     {
+       case 0:
+         jjmatchedKind = 0x7fffffff;
+         jjmatchedPos = 0;
+         curPos = jjMoveStringLiteralDfa0_0();
+         if (jjmatchedPos == 0 && jjmatchedKind > 70)
+         {
+            jjmatchedKind = 70;
+         }
+         break;
+       case 1:
+         jjmatchedKind = 0x7fffffff;
+         jjmatchedPos = 0;
+         curPos = jjMoveStringLiteralDfa0_1();
+         if (jjmatchedPos == 0 && jjmatchedKind > 3)
+         {
+            jjmatchedKind = 3;
+         }
+         break;
+     }
+     if (jjmatchedKind != 0x7fffffff)
+     {
+        if (jjmatchedPos + 1 < curPos)
+           input_stream.backup(curPos - jjmatchedPos - 1);
+        if ((jjtoToken[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) != 0L)
+        {
+           matchedToken = jjFillToken();
+           matchedToken.specialToken = specialToken;
+       if (jjnewLexState[jjmatchedKind] != -1)
+         curLexState = jjnewLexState[jjmatchedKind];
+           return matchedToken;
+        }
+        else if ((jjtoSkip[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) != 0L)
+        {
+           if ((jjtoSpecial[jjmatchedKind >> 6] & (1L << (jjmatchedKind & 077))) != 0L)
+           {
+              matchedToken = jjFillToken();
+              if (specialToken == null)
+                 specialToken = matchedToken;
+              else
+              {
+                 matchedToken.specialToken = specialToken;
+                 specialToken = (specialToken.next = matchedToken);
+              }
+              SkipLexicalActions(matchedToken);
+           }
+           else
+              SkipLexicalActions(null);
+         if (jjnewLexState[jjmatchedKind] != -1)
+           curLexState = jjnewLexState[jjmatchedKind];
+           continue EOFLoop;
+        }
+        jjimageLen += jjmatchedPos + 1;
+      if (jjnewLexState[jjmatchedKind] != -1)
+        curLexState = jjnewLexState[jjmatchedKind];
+        curPos = 0;
+        jjmatchedKind = 0x7fffffff;
+        try {
+           curChar = input_stream.readChar();
+           continue;
+        }
+        catch (java.io.IOException e1) { }
+     }
+     int error_line = input_stream.getEndLine();
+     int error_column = input_stream.getEndColumn();
+     String error_after = null;
+     boolean EOFSeen = false;
+     try { input_stream.readChar(); input_stream.backup(1); }
+     catch (java.io.IOException e1) {
+        EOFSeen = true;
+        error_after = curPos <= 1 ? "" : input_stream.GetImage();
+        if (curChar == '\n' || curChar == '\r') {
+           error_line++;
+           error_column = 0;
+        }
+        else
+           error_column++;
+     }
+     if (!EOFSeen) {
+        input_stream.backup(1);
+        error_after = curPos <= 1 ? "" : input_stream.GetImage();
+     }
+     throw new TokenMgrError(EOFSeen, curLexState, error_line, error_column, error_after, curChar, TokenMgrError.LEXICAL_ERROR);
+   }
+  }
+}
+
+void SkipLexicalActions(Token matchedToken)
+{
+   switch(jjmatchedKind)
+   {
+      default :
+         break;
+   }
+}
+private void jjCheckNAdd(int state)
+{
+   if (jjrounds[state] != jjround)
+   {
+      jjstateSet[jjnewStateCnt++] = state;
+      jjrounds[state] = jjround;
+   }
+}
+private void jjAddStates(int start, int end)
+{
+   do {
+      jjstateSet[jjnewStateCnt++] = jjnextStates[start];
+   } while (start++ != end);
+}
+private void jjCheckNAddTwoStates(int state1, int state2)
+{
+   jjCheckNAdd(state1);
+   jjCheckNAdd(state2);
+}
+
+private void jjCheckNAddStates(int start, int end)
+{
+   do {
+      jjCheckNAdd(jjnextStates[start]);
+   } while (start++ != end);
+}
+
+}
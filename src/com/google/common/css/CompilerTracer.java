@@ -0,0 +1,148 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link CompilerTracer} is notified of each phase of a compilation: the
+ * parsing of every input, every compiler pass, every printing of the output
+ * and the writing of output files. Tracers make it possible to line up the
+ * work of the compiler with external profiling data.
+ *
+ * <p>The default tracer, {@link #NONE}, records nothing. Code that has to do
+ * extra work to describe a phase should check {@link #isEnabled()} first, so
+ * that a compilation without tracing does not pay for it.
+ *
+ */
+public abstract class CompilerTracer {
+
+  /**
+   * The kinds of work a compilation is made of.
+   */
+  public enum Phase {
+    /** Parsing of a single input file. */
+    PARSE,
+
+    /** A single {@code CssCompilerPass} run by the pass runner. */
+    PASS,
+
+    /** Printing of the compiled tree or of a part of it. */
+    PRINT,
+
+    /** Writing of an output file, such as the renaming map. */
+    WRITE,
+  }
+
+  /**
+   * A phase that has been started and has to be ended exactly once.
+   */
+  public interface Span {
+    /**
+     * Ends the span.
+     *
+     * @param nodesVisited the number of AST nodes entered by visit controllers
+     *     during the span; for a {@link Phase#PARSE} span, the number of nodes
+     *     the parser created
+     * @param bytesEmitted the number of output characters produced during the
+     *     span; the output of the compiler is almost entirely ASCII, so this is
+     *     also the number of UTF-8 bytes in practice. For a
+     *     {@link Phase#PARSE} span, the number of input characters parsed
+     */
+    void end(long nodesVisited, long bytesEmitted);
+  }
+
+  private static final Span NO_OP_SPAN = new Span() {
+    @Override
+    public void end(long nodesVisited, long bytesEmitted) {}
+  };
+
+  /**
+   * A tracer that records nothing.
+   */
+  public static final CompilerTracer NONE = new CompilerTracer() {
+    @Override
+    public boolean isEnabled() {
+      return false;
+    }
+
+    @Override
+    public Span startSpan(Phase phase, String name,
+        @Nullable String fileName) {
+      return NO_OP_SPAN;
+    }
+  };
+
+  /**
+   * Returns a tracer that reports every span to all of the given tracers.
+   */
+  public static CompilerTracer combine(List<CompilerTracer> tracers) {
+    final List<CompilerTracer> enabled = Lists.newArrayList();
+    for (CompilerTracer tracer : tracers) {
+      if (tracer.isEnabled()) {
+        enabled.add(tracer);
+      }
+    }
+    if (enabled.isEmpty()) {
+      return NONE;
+    }
+    if (enabled.size() == 1) {
+      return enabled.get(0);
+    }
+    return new CompilerTracer() {
+      @Override
+      public Span startSpan(Phase phase, String name,
+          @Nullable String fileName) {
+        final List<Span> spans =
+            Lists.newArrayListWithCapacity(enabled.size());
+        for (CompilerTracer tracer : enabled) {
+          spans.add(tracer.startSpan(phase, name, fileName));
+        }
+        return new Span() {
+          @Override
+          public void end(long nodesVisited, long bytesEmitted) {
+            for (Span span : spans) {
+              span.end(nodesVisited, bytesEmitted);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Whether this tracer records anything at all.
+   */
+  public boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Starts a span for a phase of the compilation.
+   *
+   * @param phase the kind of work that is starting
+   * @param name the name of the work, such as the simple class name of a pass
+   * @param fileName the input file the work applies to, if any
+   * @return the started span
+   */
+  public abstract Span startSpan(Phase phase, String name,
+      @Nullable String fileName);
+}
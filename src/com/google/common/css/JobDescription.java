@@ -42,6 +42,8 @@ public class JobDescription {
   public final boolean swapLeftRightInUrl;
   public final boolean simplifyCss;
   public final boolean eliminateDeadStyles;
+  public final boolean optimizeForCompression;
+  public final boolean mergeNonAdjacentRulesets;
   public final boolean allowUnrecognizedFunctions;
   public final Set<String> allowedNonStandardFunctions;
   public final boolean allowUnrecognizedProperties;
@@ -106,7 +108,8 @@ public class JobDescription {
       OptimizeStrategy optimize, List<String> trueConditionNames,
       boolean useInternalBidiFlipper, boolean swapLtrRtlInUrl,
       boolean swapLeftRightInUrl, boolean simplifyCss,
-      boolean eliminateDeadStyles, boolean allowUnrecognizedFunctions,
+      boolean eliminateDeadStyles, boolean optimizeForCompression,
+      boolean mergeNonAdjacentRulesets, boolean allowUnrecognizedFunctions,
       Set<String> allowedNonStandardFunctions,
       boolean allowUnrecognizedProperties,
       Set<String> allowedUnrecognizedProperties, Vendor vendor,
@@ -136,6 +139,8 @@ public class JobDescription {
     this.swapLeftRightInUrl = swapLeftRightInUrl;
     this.simplifyCss = simplifyCss;
     this.eliminateDeadStyles = eliminateDeadStyles;
+    this.optimizeForCompression = optimizeForCompression;
+    this.mergeNonAdjacentRulesets = mergeNonAdjacentRulesets;
     this.allowUnrecognizedFunctions = allowUnrecognizedFunctions;
     this.allowedNonStandardFunctions = ImmutableSet.copyOf(
         allowedNonStandardFunctions);
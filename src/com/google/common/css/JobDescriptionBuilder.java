@@ -47,6 +47,8 @@ public class JobDescriptionBuilder {
   private boolean swapLeftRightInUrl;
   private boolean simplifyCss;
   private boolean eliminateDeadStyles;
+  private boolean optimizeForCompression;
+  private boolean mergeNonAdjacentRulesets;
   private boolean allowUnrecognizedFunctions;
   private Set<String> allowedNonStandardFunctions;
   private boolean allowUnrecognizedProperties;
@@ -76,6 +78,8 @@ public class JobDescriptionBuilder {
     this.swapLeftRightInUrl = false;
     this.simplifyCss = false;
     this.eliminateDeadStyles = false;
+    this.optimizeForCompression = false;
+    this.mergeNonAdjacentRulesets = false;
     this.allowUnrecognizedFunctions = false;
     this.allowedNonStandardFunctions = Sets.newHashSet();
     this.allowUnrecognizedProperties = false;
@@ -104,6 +108,8 @@ public class JobDescriptionBuilder {
     this.swapLeftRightInUrl = jobToCopy.swapLeftRightInUrl;
     this.simplifyCss = jobToCopy.simplifyCss;
     this.eliminateDeadStyles = jobToCopy.eliminateDeadStyles;
+    this.optimizeForCompression = jobToCopy.optimizeForCompression;
+    this.mergeNonAdjacentRulesets = jobToCopy.mergeNonAdjacentRulesets;
     this.allowUnrecognizedFunctions = jobToCopy.allowUnrecognizedFunctions;
     this.allowedNonStandardFunctions =
         ImmutableSet.copyOf(jobToCopy.allowedNonStandardFunctions);
@@ -277,6 +283,26 @@ public class JobDescriptionBuilder {
     return setEliminateDeadStyles(true);
   }
 
+  public JobDescriptionBuilder setOptimizeForCompression(boolean optimize) {
+    checkJobIsNotAlreadyCreated();
+    this.optimizeForCompression = optimize;
+    return this;
+  }
+
+  public JobDescriptionBuilder optimizeForCompression() {
+    return setOptimizeForCompression(true);
+  }
+
+  public JobDescriptionBuilder setMergeNonAdjacentRulesets(boolean merge) {
+    checkJobIsNotAlreadyCreated();
+    this.mergeNonAdjacentRulesets = merge;
+    return this;
+  }
+
+  public JobDescriptionBuilder mergeNonAdjacentRulesets() {
+    return setMergeNonAdjacentRulesets(true);
+  }
+
   public JobDescriptionBuilder setGssFunctionMapProvider(
       GssFunctionMapProvider gssFunctionMapProvider) {
     checkJobIsNotAlreadyCreated();
@@ -376,6 +402,7 @@ public class JobDescriptionBuilder {
         copyrightNotice, outputFormat, inputOrientation, outputOrientation,
         optimize, trueConditionNames, useInternalBidiFlipper, swapLtrRtlInUrl,
         swapLeftRightInUrl, simplifyCss, eliminateDeadStyles,
+        optimizeForCompression, mergeNonAdjacentRulesets,
         allowUnrecognizedFunctions, allowedNonStandardFunctions,
         allowUnrecognizedProperties, allowedUnrecognizedProperties, vendor,
         allowKeyframes, allowWebkitKeyframes, processDependencies,
@@ -18,6 +18,8 @@ package com.google.common.css;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Ordering;
 import com.google.common.primitives.Ints;
 
 import javax.annotation.Nullable;
@@ -274,7 +276,18 @@ public class SourceCodeLocation implements Comparable<SourceCodeLocation> {
       } else if (o.sourceCode == null) {
         return 1;
       } else {
-        return sourceCode.hashCode() - o.sourceCode.hashCode();
+        // Compare the contents rather than the identity hash codes, so that
+        // the order does not change from one run to the next.
+        int sourceCodeComparison = ComparisonChain.start()
+            .compare(sourceCode.getFileName(), o.sourceCode.getFileName(),
+                Ordering.natural().nullsFirst())
+            .compare(sourceCode.getFileContents(),
+                o.sourceCode.getFileContents(),
+                Ordering.natural().nullsFirst())
+            .result();
+        if (sourceCodeComparison != 0) {
+          return sourceCodeComparison;
+        }
       }
     }
     int startPointsComparison = begin.compareTo(o.begin);
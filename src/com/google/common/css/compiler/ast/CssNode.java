@@ -324,4 +324,12 @@ public abstract class CssNode {
   public VisitController getVisitController() {
     return new DefaultVisitController(this, false /* allowMutating */);
   }
+
+  /**
+   * Returns a visit controller that can mutate the subtree rooted at this
+   * node.
+   */
+  public MutatingVisitController getMutatingVisitController() {
+    return new DefaultVisitController(this, true /* allowMutating */);
+  }
 }
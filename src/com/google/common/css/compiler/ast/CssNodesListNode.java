@@ -141,6 +141,23 @@ public abstract class CssNodesListNode<T extends CssNode> extends CssNode {
     becomeParentForNodes(newChildren);
   }
 
+  /**
+   * Replaces the children from {@code fromIndex} (inclusive) to
+   * {@code toIndex} (exclusive) with the given nodes. The new nodes may be
+   * some of the replaced children, so this can also reorder children.
+   */
+  public void replaceChildren(int fromIndex, int toIndex,
+      List<? extends T> newChildren) {
+    Preconditions.checkState(
+        0 <= fromIndex && fromIndex <= toIndex && toIndex <= children.size());
+    Preconditions.checkArgument(!newChildren.contains(null));
+    List<T> replaced = children.subList(fromIndex, toIndex);
+    removeAsParentOfNodes(replaced);
+    replaced.clear();
+    children.addAll(fromIndex, newChildren);
+    becomeParentForNodes(newChildren);
+  }
+
   public T getChildAt(int index) {
     Preconditions.checkState(index >= 0 && index < children.size());
     return children.get(index);
@@ -1809,6 +1809,9 @@ class DefaultVisitController implements MutatingVisitController {
   static class StateStack {
     Deque<VisitState<? extends CssNode>> stack = Queues.newArrayDeque();
 
+    /** The number of states pushed so far, roughly the nodes entered. */
+    int pushCount = 0;
+
     VisitState<? extends CssNode> getTop() {
       return stack.peek();
     }
@@ -1816,6 +1819,7 @@ class DefaultVisitController implements MutatingVisitController {
     void push(VisitState<? extends CssNode> state) {
       Preconditions.checkNotNull(state);
       stack.addFirst(state);
+      pushCount++;
     }
 
     void pop() {
@@ -1872,7 +1876,14 @@ class DefaultVisitController implements MutatingVisitController {
     Preconditions.checkNotNull(treeVisitor);
     this.visitor = treeVisitor;
 
-    stateStack.push(createVisitStateInternal(subtree));
+    VisitState<? extends CssNode> state = createVisitStateInternal(subtree);
+    if (state == null) {
+      // Nodes such as @provide have nothing to visit, and are skipped when
+      // they are the children of a block as well.
+      return;
+    }
+    int pushCountAtStart = stateStack.pushCount;
+    stateStack.push(state);
 
     while (!stateStack.isEmpty()) {
       try {
@@ -1884,6 +1895,7 @@ class DefaultVisitController implements MutatingVisitController {
         break;
       }
     }
+    VisitCounter.add(stateStack.pushCount - pushCountAtStart);
   }
 
   @Override
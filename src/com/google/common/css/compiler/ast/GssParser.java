@@ -17,6 +17,7 @@
 package com.google.common.css.compiler.ast;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.css.CompilerTracer;
 import com.google.common.css.SourceCode;
 
 import java.util.List;
@@ -28,9 +29,19 @@ import java.util.List;
 public class GssParser {
 
   private final List<SourceCode> sources;
+  private final CompilerTracer tracer;
 
   public GssParser(List<SourceCode> sources) {
+    this(sources, CompilerTracer.NONE);
+  }
+
+  /**
+   * Constructs a parser that reports the parsing of each source to the given
+   * tracer.
+   */
+  public GssParser(List<SourceCode> sources, CompilerTracer tracer) {
     this.sources = sources;
+    this.tracer = tracer;
   }
 
   public GssParser(SourceCode source) {
@@ -43,7 +54,13 @@ public class GssParser {
         new CssBlockNode(false /* isEnclosedWithBraces */);
     CssTree tree = new CssTree(globalSourceCode, new CssRootNode(globalBlock));
     for (SourceCode source : sources) {
-      new GssParserCC(globalBlock, source).parse();
+      CompilerTracer.Span span = tracer.startSpan(
+          CompilerTracer.Phase.PARSE, "GssParser", source.getFileName());
+      GssParserCC parser = new GssParserCC(globalBlock, source);
+      parser.parse();
+      String contents = source.getFileContents();
+      span.end(parser.getNodesCreated(),
+          contents == null ? 0 : contents.length());
     }
     return tree;
   }
@@ -18,17 +18,21 @@ package com.google.common.css.compiler.ast;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.BiMap;
-import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
 import com.google.common.css.Vendor;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Nullable;
 
@@ -43,12 +47,43 @@ import javax.annotation.Nullable;
  */
 public final class Property {
 
+  /**
+   * The ordinal of properties that are not recognized by default.
+   */
+  public static final int UNRECOGNIZED_ORDINAL = -1;
+
   /**
    * The CSS properties recognized by default by the CSS Compiler, indexed by
-   * name. Note that this includes non-standard properties, such as
+   * ordinal. Note that this includes non-standard properties, such as
    * "-webkit-border-radius".
    */
-  private static final BiMap<String, Property> NAME_TO_PROPERTY_MAP;
+  private static final ImmutableList<Property> RECOGNIZED_PROPERTIES;
+
+  /** The names of the recognized properties, in ordinal order. */
+  private static final ImmutableSet<String> RECOGNIZED_PROPERTY_NAMES;
+
+  /**
+   * The seeds of the minimal perfect hash over the names of the recognized
+   * properties, indexed by bucket. See {@link #buildPerfectHash}.
+   */
+  private static final int[] HASH_SEEDS;
+
+  /** The recognized properties, indexed by their perfect hash slot. */
+  private static final Property[] HASH_TABLE;
+
+  /**
+   * The recognized properties whose name has the same hash code as that of
+   * a property in {@link #HASH_TABLE}, which the perfect hash cannot tell
+   * apart. Empty for the current list of properties.
+   */
+  private static final Map<String, Property> HASH_COLLISIONS;
+
+  /** The most user-defined properties that {@link #byName} keeps. */
+  private static final int MAX_USER_DEFINED_PROPERTIES = 1024;
+
+  /** The user-defined properties looked up so far, by name. */
+  private static final ConcurrentMap<String, Property> USER_DEFINED_PROPERTIES =
+      new MapMaker().makeMap();
 
 
   static {
@@ -660,19 +695,166 @@ public final class Property {
         builder("z-index"),
         builder("zoom").setVendor(Vendor.MICROSOFT)
     );
-    ImmutableBiMap.Builder<String, Property> allProperies =
-        ImmutableBiMap.builder();
+    ImmutableList.Builder<Property> allProperties = ImmutableList.builder();
+    ImmutableSet.Builder<String> allNames = ImmutableSet.builder();
+    int ordinal = 0;
     for (Builder builder : recognizedProperties) {
-      Property property = builder.build();
-      allProperies.put(property.getName(), property);
+      Property property = builder.build(ordinal++);
+      allProperties.add(property);
+      allNames.add(property.getName());
+    }
+    RECOGNIZED_PROPERTIES = allProperties.build();
+    RECOGNIZED_PROPERTY_NAMES = allNames.build();
+    Preconditions.checkState(
+        RECOGNIZED_PROPERTY_NAMES.size() == RECOGNIZED_PROPERTIES.size(),
+        "duplicate recognized property");
+    HASH_SEEDS = new int[Math.max(1, RECOGNIZED_PROPERTIES.size() / 4)];
+    HASH_TABLE = new Property[RECOGNIZED_PROPERTIES.size()];
+    HASH_COLLISIONS =
+        buildPerfectHash(RECOGNIZED_PROPERTIES, HASH_SEEDS, HASH_TABLE);
+  }
+
+  /**
+   * Fills in a minimal perfect hash for the given properties using the
+   * hash-and-displace scheme: the names are distributed over the buckets of
+   * {@code seeds} by their cached {@link String#hashCode} and, starting with
+   * the largest bucket, each bucket is assigned the first seed that maps all
+   * of its names to free slots of {@code table}. A lookup then costs a few
+   * multiplications on the cached hash code and a single
+   * {@link String#equals}.
+   *
+   * <p>Only one of the names that share a hash code can be placed in the
+   * table. The others are returned, and are only looked up when a name misses
+   * the table at a slot whose name has the same hash code.
+   *
+   * @return the properties left out of the table, by name
+   */
+  @VisibleForTesting
+  static Map<String, Property> buildPerfectHash(List<Property> properties,
+      int[] seeds, Property[] table) {
+    List<List<Property>> buckets = Lists.newArrayList();
+    for (int i = 0; i < seeds.length; i++) {
+      buckets.add(Lists.<Property>newArrayList());
+    }
+    Set<Integer> hashes = Sets.newHashSet();
+    ImmutableMap.Builder<String, Property> collisions = ImmutableMap.builder();
+    for (Property property : properties) {
+      int hash = property.getName().hashCode();
+      if (hashes.add(hash)) {
+        buckets.get(bucketOf(hash, seeds.length)).add(property);
+      } else {
+        collisions.put(property.getName(), property);
+      }
+    }
+    Integer[] order = new Integer[seeds.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    final List<List<Property>> finalBuckets = buckets;
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return finalBuckets.get(b).size() - finalBuckets.get(a).size();
+      }
+    });
+    int[] slots = new int[properties.size()];
+    for (int bucket : order) {
+      List<Property> members = buckets.get(bucket);
+      int seed = 0;
+      while (!tryPlace(members, seed, table, slots)) {
+        seed++;
+      }
+      seeds[bucket] = seed;
+    }
+    return collisions.build();
+  }
+
+  /**
+   * Places all members at the slots selected by {@code seed}, or leaves the
+   * table untouched and returns false if any of the slots is taken.
+   */
+  private static boolean tryPlace(List<Property> members, int seed,
+      Property[] table, int[] slots) {
+    for (int i = 0; i < members.size(); i++) {
+      int slot = slotOf(members.get(i).getName().hashCode(), seed,
+          table.length);
+      if (table[slot] != null) {
+        return false;
+      }
+      for (int j = 0; j < i; j++) {
+        if (slots[j] == slot) {
+          return false;
+        }
+      }
+      slots[i] = slot;
+    }
+    for (int i = 0; i < members.size(); i++) {
+      table[slots[i]] = members.get(i);
+    }
+    return true;
+  }
+
+  private static int bucketOf(int hash, int buckets) {
+    int h = hash * 0x9E3779B9;
+    return reduce(h ^ (h >>> 16), buckets);
+  }
+
+  private static int slotOf(int hash, int seed, int slots) {
+    int h = (hash ^ seed * 0x85EBCA6B) * 0xC2B2AE35;
+    return reduce(h ^ (h >>> 15), slots);
+  }
+
+  /**
+   * Maps a hash uniformly to [0, n) with a multiplication instead of the
+   * much slower division of {@code %}.
+   */
+  private static int reduce(int hash, int n) {
+    return (int) (((hash & 0xFFFFFFFFL) * n) >>> 32);
+  }
+
+  /**
+   * @return the property with the given name in a table filled in by
+   *     {@link #buildPerfectHash}, or {@code null}
+   */
+  @VisibleForTesting
+  @Nullable
+  static Property lookUp(String name, int[] seeds, Property[] table,
+      Map<String, Property> collisions) {
+    if (table.length == 0) {
+      return null;
+    }
+    int hash = name.hashCode();
+    int seed = seeds[bucketOf(hash, seeds.length)];
+    Property property = table[slotOf(hash, seed, table.length)];
+    if (property == null) {
+      return null;
+    }
+    if (property.name.equals(name)) {
+      return property;
     }
-    NAME_TO_PROPERTY_MAP = allProperies.build();
+    return property.name.hashCode() == hash ? collisions.get(name) : null;
+  }
+
+  /**
+   * @return the recognized property with the given name, or {@code null}
+   */
+  @Nullable
+  private static Property lookUpRecognized(String name) {
+    return lookUp(name, HASH_SEEDS, HASH_TABLE, HASH_COLLISIONS);
   }
 
   private final String name;
 
+  private final int ordinal;
+
   private final Set<String> shorthands;
 
+  /** The bits of {@link Builder#SHORTHAND_BITS} set for each shorthand. */
+  private final long shorthandMask;
+
+  /** The bit of this property in {@link Builder#SHORTHAND_BITS}, if any. */
+  private final long shorthandBit;
+
   private final String partition;
 
   @Nullable
@@ -685,6 +867,7 @@ public final class Property {
   private final String warning;
 
   private Property(String name,
+      int ordinal,
       Set<String> shorthands,
       String partition,
       @Nullable Vendor vendor,
@@ -694,7 +877,10 @@ public final class Property {
     Preconditions.checkArgument(name.equals(name.toLowerCase()),
         "property name should be all lowercase: %s", name);
     this.name = name;
+    this.ordinal = ordinal;
     this.shorthands = shorthands;
+    this.shorthandMask = Builder.shorthandMaskOf(shorthands);
+    this.shorthandBit = Builder.shorthandBitOf(name);
     this.partition = partition;
     this.vendor = vendor;
     this.hasPositionalParameters = hasPositionDependentValues;
@@ -703,19 +889,33 @@ public final class Property {
   }
 
   private static Property createUserDefinedProperty(String name) {
-    Preconditions.checkArgument(!NAME_TO_PROPERTY_MAP.containsKey(name));
+    Property property = USER_DEFINED_PROPERTIES.get(name);
+    if (property != null) {
+      return property;
+    }
+    Preconditions.checkArgument(!RECOGNIZED_PROPERTY_NAMES.contains(name));
     Builder builder = builder(name);
-    return builder.build();
+    property = builder.build(UNRECOGNIZED_ORDINAL);
+    // Stylesheets only use a handful of unknown properties, so the bound
+    // only guards against callers that make up names.
+    if (USER_DEFINED_PROPERTIES.size() < MAX_USER_DEFINED_PROPERTIES) {
+      Property previous = USER_DEFINED_PROPERTIES.putIfAbsent(name, property);
+      if (previous != null) {
+        return previous;
+      }
+    }
+    return property;
   }
 
   /**
    * @return a {@code Property} with the specified {@code name}. If {@code name}
    *     corresponds to a recognized property, then the corresponding
-   *     {@code Property} will be returned; otherwise, a new {@code Property}
-   *     with the specified {@code name} will be created.
+   *     {@code Property} will be returned; otherwise, a {@code Property}
+   *     with the specified {@code name} is created, or reused from an earlier
+   *     lookup of the same name.
    */
   public static Property byName(String name) {
-    Property property = NAME_TO_PROPERTY_MAP.get(name);
+    Property property = lookUpRecognized(name);
     if (property != null) {
       return property;
     } else {
@@ -738,7 +938,32 @@ public final class Property {
    *     "-webkit-border-radius", among others.
    */
   public boolean isRecognizedProperty() {
-    return NAME_TO_PROPERTY_MAP.containsKey(name);
+    return ordinal != UNRECOGNIZED_ORDINAL;
+  }
+
+  /**
+   * @return the dense ordinal of this property among the recognized
+   *     properties, in the range [0, {@link #recognizedPropertyCount()}), or
+   *     {@link #UNRECOGNIZED_ORDINAL} if this property is not recognized. Passes
+   *     may use it to keep per-property data in arrays.
+   */
+  public int getOrdinal() {
+    return ordinal;
+  }
+
+  /**
+   * @return the recognized property with the given ordinal
+   * @throws IndexOutOfBoundsException if there is no such property
+   */
+  public static Property byOrdinal(int ordinal) {
+    return RECOGNIZED_PROPERTIES.get(ordinal);
+  }
+
+  /**
+   * @return the number of properties recognized by default
+   */
+  public static int recognizedPropertyCount() {
+    return RECOGNIZED_PROPERTIES.size();
   }
 
   /**
@@ -752,6 +977,15 @@ public final class Property {
     return shorthands;
   }
 
+  /**
+   * Returns whether {@code shorthand} is one of the shorthands of this
+   * property. This is equivalent to
+   * {@code getShorthands().contains(shorthand.getName())}, but does not hash.
+   */
+  public boolean hasShorthand(Property shorthand) {
+    return (shorthandMask & shorthand.shorthandBit) != 0;
+  }
+
   /**
    * Gets the partition of this property. All properties with the same partition
    * share a common shorthand. A non-standard property is its own single
@@ -808,7 +1042,7 @@ public final class Property {
    *     Compiler
    */
   public static Set<String> allRecognizedPropertyNames() {
-    return NAME_TO_PROPERTY_MAP.keySet();
+    return RECOGNIZED_PROPERTY_NAMES;
   }
 
   /**
@@ -816,7 +1050,7 @@ public final class Property {
    *     CSS Compiler
    */
   public static Set<Property> allRecognizedProperties() {
-    return NAME_TO_PROPERTY_MAP.values();
+    return ImmutableSet.copyOf(RECOGNIZED_PROPERTIES);
   }
 
   private static Builder builder(String name) {
@@ -851,8 +1085,13 @@ public final class Property {
     }
 
     public Property build() {
+      return build(UNRECOGNIZED_ORDINAL);
+    }
+
+    private Property build(int ordinal) {
       return new Property(
           this.name,
+          ordinal,
           this.shorthands,
           this.partition,
           this.vendor,
@@ -935,6 +1174,33 @@ public final class Property {
         .put("-moz-border-radius-bottomleft", "-moz-border-radius")
         .build();
 
+    /**
+     * Every property that can be a shorthand, each of which is assigned the
+     * bit of its index so that shorthand membership is a mask test.
+     */
+    private static final ImmutableList<String> SHORTHAND_BITS =
+        ImmutableSet.<String>builder()
+        .addAll(SHORTHAND_PROPERTIES)
+        .addAll(BORDER_RADIUS_PROPERTIES.values())
+        .build().asList();
+
+    static {
+      Preconditions.checkState(SHORTHAND_BITS.size() <= Long.SIZE);
+    }
+
+    private static long shorthandBitOf(String name) {
+      int bit = SHORTHAND_BITS.indexOf(name);
+      return bit >= 0 ? 1L << bit : 0;
+    }
+
+    private static long shorthandMaskOf(Set<String> names) {
+      long mask = 0;
+      for (String name : names) {
+        mask |= shorthandBitOf(name);
+      }
+      return mask;
+    }
+
     /**
      * Computes the set of shorthand properties for a given standard property.
      *
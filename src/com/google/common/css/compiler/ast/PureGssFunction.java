@@ -0,0 +1,31 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.ast;
+
+/**
+ * A {@link GssFunction} whose result only depends on the values of its
+ * arguments: it has no side effects besides reporting errors and it returns
+ * equal results for equal arguments. The compiler may evaluate a call to a
+ * pure function once and reuse the result for identical calls.
+ *
+ * <p>The nodes returned by {@link #getCallResultNodes} of a pure function
+ * are copied before they are inserted into the tree, so the function may
+ * return its argument nodes.
+ *
+ */
+public interface PureGssFunction extends GssFunction {
+}
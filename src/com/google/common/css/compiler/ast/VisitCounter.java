@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.ast;
+
+/**
+ * Counts the nodes entered by the visit controllers of the current thread.
+ * Reading the count before and after a pass tells how much of the tree the pass
+ * walked, including the walks of any helper visitors it started.
+ *
+ * <p>Visit controllers only update the count once per visit, so keeping it
+ * costs next to nothing.
+ *
+ */
+public final class VisitCounter {
+
+  private static final ThreadLocal<long[]> COUNT = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  private VisitCounter() {}
+
+  /**
+   * Returns the number of nodes entered so far by visit controllers on the
+   * current thread.
+   */
+  public static long getCount() {
+    return COUNT.get()[0];
+  }
+
+  static void add(int nodesVisited) {
+    COUNT.get()[0] += nodesVisited;
+  }
+}
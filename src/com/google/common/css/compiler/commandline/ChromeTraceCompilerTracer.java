@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.CompilerTracer;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link CompilerTracer} that keeps a timeline of the compilation and writes
+ * it in the Chrome trace-event JSON format, which can be opened in
+ * about:tracing or Perfetto.
+ *
+ * <p>Every span becomes a complete ("X") event on the thread that started it,
+ * with the input file, the nodes visited and the bytes emitted as arguments.
+ * Spans may be started and ended concurrently from several threads.
+ *
+ */
+public class ChromeTraceCompilerTracer extends CompilerTracer {
+
+  /** The process id used for all events; a trace covers a single job. */
+  private static final int PID = 1;
+
+  private static class TraceEvent {
+    final String name;
+    final Phase phase;
+    final String fileName;
+    final long threadId;
+    final long startNanos;
+    long durationNanos;
+    long nodesVisited;
+    long bytesEmitted;
+
+    TraceEvent(String name, Phase phase, String fileName, long threadId,
+        long startNanos) {
+      this.name = name;
+      this.phase = phase;
+      this.fileName = fileName;
+      this.threadId = threadId;
+      this.startNanos = startNanos;
+    }
+  }
+
+  private final long originNanos = System.nanoTime();
+  private final List<TraceEvent> events = Lists.newArrayList();
+  private final Map<Long, String> threadNames = Maps.newLinkedHashMap();
+
+  @Override
+  public Span startSpan(Phase phase, String name, @Nullable String fileName) {
+    Thread thread = Thread.currentThread();
+    final TraceEvent event = new TraceEvent(name, phase, fileName,
+        thread.getId(), System.nanoTime() - originNanos);
+    synchronized (this) {
+      if (!threadNames.containsKey(thread.getId())) {
+        threadNames.put(thread.getId(), thread.getName());
+      }
+    }
+    return new Span() {
+      @Override
+      public void end(long nodesVisited, long bytesEmitted) {
+        event.durationNanos =
+            System.nanoTime() - originNanos - event.startNanos;
+        event.nodesVisited = nodesVisited;
+        event.bytesEmitted = bytesEmitted;
+        synchronized (ChromeTraceCompilerTracer.this) {
+          events.add(event);
+        }
+      }
+    };
+  }
+
+  /**
+   * Writes all the spans ended so far as a Chrome trace-event JSON object.
+   * The writer is not closed.
+   */
+  public synchronized void writeTo(Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginObject();
+    writer.name("displayTimeUnit").value("ms");
+    writer.name("traceEvents").beginArray();
+    for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+      writer.beginObject();
+      writer.name("name").value("thread_name");
+      writer.name("ph").value("M");
+      writer.name("pid").value(PID);
+      writer.name("tid").value(thread.getKey());
+      writer.name("args").beginObject();
+      writer.name("name").value(thread.getValue());
+      writer.endObject();
+      writer.endObject();
+    }
+    for (TraceEvent event : events) {
+      writer.beginObject();
+      writer.name("name").value(event.name);
+      writer.name("cat").value(event.phase.name().toLowerCase());
+      writer.name("ph").value("X");
+      writer.name("pid").value(PID);
+      writer.name("tid").value(event.threadId);
+      // Trace-event timestamps and durations are in microseconds.
+      writer.name("ts").value(event.startNanos / 1000.0);
+      writer.name("dur").value(event.durationNanos / 1000.0);
+      writer.name("args").beginObject();
+      if (event.fileName != null) {
+        writer.name("file").value(event.fileName);
+      }
+      writer.name("nodesVisited").value(event.nodesVisited);
+      writer.name("bytesEmitted").value(event.bytesEmitted);
+      writer.endObject();
+      writer.endObject();
+    }
+    writer.endArray();
+    writer.endObject();
+    writer.flush();
+  }
+}
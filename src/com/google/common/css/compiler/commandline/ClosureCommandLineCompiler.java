@@ -19,7 +19,9 @@ package com.google.common.css.compiler.commandline;
 import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.css.AbstractCommandLineCompiler;
+import com.google.common.css.CompilerTracer;
 import com.google.common.css.DefaultExitCodeHandler;
 import com.google.common.css.ExitCodeHandler;
 import com.google.common.css.GssFunctionMapProvider;
@@ -32,6 +34,9 @@ import com.google.common.css.SourceCode;
 import com.google.common.css.Vendor;
 import com.google.common.css.compiler.ast.ErrorManager;
 import com.google.common.css.compiler.gssfunctions.DefaultGssFunctionMapProvider;
+import com.google.common.css.compiler.passes.HeapProfiler;
+import com.google.common.css.compiler.passes.MultiSinkPrinter;
+import com.google.common.css.compiler.passes.SizeAttribution;
 import com.google.common.io.Files;
 
 import org.kohsuke.args4j.Argument;
@@ -44,7 +49,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -61,14 +68,20 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
     super(job, exitCodeHandler, errorManager);
   }
 
+  protected ClosureCommandLineCompiler(JobDescription job,
+      ExitCodeHandler exitCodeHandler, ErrorManager errorManager,
+      CompilerTracer tracer) {
+    super(job, exitCodeHandler, errorManager, tracer);
+  }
+
   private static class Flags {
     private static final String USAGE_PREAMBLE =
         Joiner.on("\n").join(new String[] {
         "Closure Stylesheets",
         "",
         "One or more CSS/GSS files must be supplied as inputs.",
-        "Output will be written to standard out unless --output_file is "
-            + "specified.",
+        "Output will be written to standard out unless --output-file or "
+            + "--output-file:<format> is specified.",
         "",
         "command line options:",
         ""
@@ -79,6 +92,38 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
         + " used. The output is always UTF-8 encoded.")
     private String outputFile = null;
 
+    @Option(name = "--output-file:compressed", usage = "Also writes the"
+        + " compact output CSS to this file. All --output-file:<format> files"
+        + " and the --output-file are printed in one pass over the compiled"
+        + " CSS.")
+    private String compressedOutputFile = null;
+
+    @Option(name = "--output-file:pretty", usage = "Also writes the"
+        + " pretty-printed output CSS to this file.")
+    private String prettyOutputFile = null;
+
+    @Option(name = "--output-file:template", usage = "Also writes the output"
+        + " CSS to this file as a template, with the rule and declaration"
+        + " boundaries marked for TemplateStylesheetLinker.")
+    private String templateOutputFile = null;
+
+    @Option(name = "--output-gzip-level", usage = "If set to a deflate level"
+        + " from 0 to 9, also writes a gzip-compressed copy of each output"
+        + " file next to it, with the '.gz' suffix, compressed while the"
+        + " output is written.")
+    private int outputGzipLevel = OutputArtifacts.NO_GZIP;
+
+    @Option(name = "--output-hash-names", usage = "Whether to insert a hash of"
+        + " the content of each output file into its name, before the"
+        + " extension, e.g. 'out.0123456789abcdef.css'.")
+    private boolean outputHashNames = false;
+
+    @Option(name = "--output-manifest", usage = "Writes a JSON object to this"
+        + " file that maps each output file, as named on the command line, to"
+        + " the file it was written to, its size, its SHA-256 hash and its gzip"
+        + " copy, if any.")
+    private String outputManifestFile = null;
+
     @Option(name = "--input-orientation", usage =
         "This specifies the display orientation the input files were written"
         + " for. You can choose between: LTR, RTL. LTR is the default and means"
@@ -108,6 +153,16 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
         + " it is more readable.")
     private boolean prettyPrint = false;
 
+    @Option(name = "--optimize-for-compression", usage = "Whether to reorder"
+        + " declarations and rulesets, where this is safe, so that the output"
+        + " compresses better with gzip.")
+    private boolean optimizeForCompression = false;
+
+    @Option(name = "--merge-non-adjacent-rulesets", usage = "Whether to merge"
+        + " rulesets with the same declarations or selectors even when other"
+        + " rulesets lie in between, as long as none of those may conflict.")
+    private boolean mergeNonAdjacentRulesets = false;
+
     @Option(name = "--output-renaming-map", usage = "The output from"
         + " the CSS class renaming. Provides a map of class names to what they"
         + " were renammed to.")
@@ -171,6 +226,47 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
         usage = "Add a prefix to all renamed css class names.")
     private String cssRenamingPrefix = "";
 
+    @Option(name = "--jfr-output", usage = "Records the compilation with the"
+        + " Java Flight Recorder and writes the recording to this file. Besides"
+        + " the default JVM events, the recording contains an event for the"
+        + " parsing of each input, each compiler pass and the printing of the"
+        + " output.")
+    private String jfrOutputFile = null;
+
+    @Option(name = "--trace-output", usage = "Writes a timeline of the"
+        + " compilation to this file in the Chrome trace-event JSON format,"
+        + " with a span for the parsing of each input, each compiler pass, the"
+        + " printing of the output and the writing of output files. The file"
+        + " can be opened in about:tracing or Perfetto.")
+    private String traceOutputFile = null;
+
+    @Option(name = "--heap-profile-output", usage = "Profiles the heap of"
+        + " the compilation and writes a report to this file: the peak heap"
+        + " usage during the parsing, each compiler pass and the printing, and"
+        + " the estimated heap retained by the tree after each of them, by"
+        + " node type. Slows the compilation down considerably.")
+    private String heapProfileOutputFile = null;
+
+    @Option(name = "--heap-profile-sampling", usage = "Estimates the heap"
+        + " retained by the tree from one in this many top-level rules when"
+        + " profiling the heap. Use a larger value for large stylesheets.")
+    private int heapProfileSampling = 1;
+
+    @Option(name = "--size-report", usage = "Writes a report of where the"
+        + " bytes of the compact output come from to this file: their size"
+        + " and estimated gzipped size by input file, by top-level rule, by"
+        + " mixin and by constant, in JSON.")
+    private String sizeReportFile = null;
+
+    @Option(name = "--split-media-queries", usage = "Moves the top-level"
+        + " @media rules out of the --output-file into a stylesheet per media"
+        + " query next to it, e.g. 'out.print.css' for 'out.css', which can be"
+        + " linked with the query as its media attribute so that it does not"
+        + " block rendering. Also writes 'out.media.json', which lists the"
+        + " split stylesheets in the order in which they must be linked after"
+        + " the output file. Requires the compact output format.")
+    private boolean splitMediaQueries = false;
+
     /**
      * All remaining arguments are considered input CSS files.
      */
@@ -200,6 +296,8 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
       builder.setExcludedClassesFromRenaming(excludedClassesFromRenaming);
       builder.setSimplifyCss(true);
       builder.setEliminateDeadStyles(true);
+      builder.setOptimizeForCompression(optimizeForCompression);
+      builder.setMergeNonAdjacentRulesets(mergeNonAdjacentRulesets);
       builder.setCssSubstitutionMapProvider(renamingType
           .getCssSubstitutionMapProvider());
       builder.setCssRenamingPrefix(cssRenamingPrefix);
@@ -228,9 +326,34 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
     }
 
     private OutputInfo createOutputInfo() {
+      Map<MultiSinkPrinter.Format, File> formatOutputFiles =
+          Maps.newEnumMap(MultiSinkPrinter.Format.class);
+      if (compressedOutputFile != null) {
+        formatOutputFiles.put(MultiSinkPrinter.Format.COMPRESSED,
+            new File(compressedOutputFile));
+      }
+      if (prettyOutputFile != null) {
+        formatOutputFiles.put(MultiSinkPrinter.Format.PRETTY_PRINTED,
+            new File(prettyOutputFile));
+      }
+      if (templateOutputFile != null) {
+        formatOutputFiles.put(MultiSinkPrinter.Format.TEMPLATE,
+            new File(templateOutputFile));
+      }
       return new OutputInfo(
           (outputFile == null) ? null : new File(outputFile),
-          (renameFile == null) ? null : new File(renameFile));
+          formatOutputFiles,
+          outputGzipLevel,
+          outputHashNames,
+          (outputManifestFile == null) ? null : new File(outputManifestFile),
+          (renameFile == null) ? null : new File(renameFile),
+          (jfrOutputFile == null) ? null : new File(jfrOutputFile),
+          (traceOutputFile == null) ? null : new File(traceOutputFile),
+          (heapProfileOutputFile == null)
+              ? null : new File(heapProfileOutputFile),
+          heapProfileSampling,
+          (sizeReportFile == null) ? null : new File(sizeReportFile),
+          splitMediaQueries);
     }
   }
 
@@ -272,11 +395,37 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
 
   private static class OutputInfo {
     public final @Nullable File outputFile;
+    public final Map<MultiSinkPrinter.Format, File> formatOutputFiles;
+    public final int outputGzipLevel;
+    public final boolean outputHashNames;
+    public final @Nullable File outputManifestFile;
     public final @Nullable File renameFile;
-
-    private OutputInfo(File outputFile, File renameFile) {
+    public final @Nullable File jfrOutputFile;
+    public final @Nullable File traceOutputFile;
+    public final @Nullable File heapProfileOutputFile;
+    public final int heapProfileSampling;
+    public final @Nullable File sizeReportFile;
+    public final boolean splitMediaQueries;
+
+    private OutputInfo(File outputFile,
+        Map<MultiSinkPrinter.Format, File> formatOutputFiles,
+        int outputGzipLevel, boolean outputHashNames, File outputManifestFile,
+        File renameFile,
+        File jfrOutputFile, File traceOutputFile, File heapProfileOutputFile,
+        int heapProfileSampling, File sizeReportFile,
+        boolean splitMediaQueries) {
       this.outputFile = outputFile;
+      this.formatOutputFiles = formatOutputFiles;
+      this.outputGzipLevel = outputGzipLevel;
+      this.outputHashNames = outputHashNames;
+      this.outputManifestFile = outputManifestFile;
       this.renameFile = renameFile;
+      this.jfrOutputFile = jfrOutputFile;
+      this.traceOutputFile = traceOutputFile;
+      this.heapProfileOutputFile = heapProfileOutputFile;
+      this.heapProfileSampling = heapProfileSampling;
+      this.sizeReportFile = sizeReportFile;
+      this.splitMediaQueries = splitMediaQueries;
     }
   }
 
@@ -284,16 +433,94 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
       ExitCodeHandler exitCodeHandler, OutputInfo outputInfo) {
     CompilerErrorManager errorManager = new CompilerErrorManager();
 
-    ClosureCommandLineCompiler compiler = new ClosureCommandLineCompiler(
-        job, exitCodeHandler, errorManager);
+    List<CompilerTracer> tracers = Lists.newArrayList();
+    JfrCompilerTracer jfrTracer = null;
+    if (outputInfo.jfrOutputFile != null) {
+      try {
+        jfrTracer = JfrCompilerTracer.startRecording(outputInfo.jfrOutputFile);
+        tracers.add(jfrTracer);
+      } catch (IOException e) {
+        AbstractCommandLineCompiler.exitOnUnhandledException(e,
+            exitCodeHandler);
+      }
+    }
+    ChromeTraceCompilerTracer traceTracer = null;
+    if (outputInfo.traceOutputFile != null) {
+      traceTracer = new ChromeTraceCompilerTracer();
+      tracers.add(traceTracer);
+    }
+    CompilerTracer tracer = CompilerTracer.combine(tracers);
 
-    String compilerOutput = compiler.execute(outputInfo.renameFile);
+    ClosureCommandLineCompiler compiler = new ClosureCommandLineCompiler(
+        job, exitCodeHandler, errorManager, tracer);
+    HeapProfiler heapProfiler = null;
+    if (outputInfo.heapProfileOutputFile != null) {
+      heapProfiler = new HeapProfiler(outputInfo.heapProfileSampling);
+      compiler.setHeapProfiler(heapProfiler);
+    }
+    compiler.setAttributeSizes(outputInfo.sizeReportFile != null);
+    compiler.setSplitMediaQueries(outputInfo.splitMediaQueries);
 
-    if (outputInfo.outputFile == null) {
+    if (outputInfo.outputFile == null
+        && outputInfo.formatOutputFiles.isEmpty()) {
+      String compilerOutput = compiler.execute(outputInfo.renameFile);
       System.out.print(compilerOutput);
     } else {
+      // The outputs are streamed to the files while they are printed, all in
+      // one pass over the compiled CSS.
+      Map<MultiSinkPrinter.Format, File> outputFiles =
+          Maps.newEnumMap(outputInfo.formatOutputFiles);
+      if (outputInfo.outputFile != null) {
+        outputFiles.put(compiler.getOutputFormat(), outputInfo.outputFile);
+      }
+      OutputArtifacts artifacts = new OutputArtifacts(
+          outputInfo.outputGzipLevel, outputInfo.outputHashNames);
+      compiler.execute(outputInfo.renameFile, outputFiles, artifacts);
+      if (outputInfo.outputManifestFile != null) {
+        try {
+          Writer manifestWriter =
+              Files.newWriter(outputInfo.outputManifestFile, Charsets.UTF_8);
+          artifacts.writeManifest(manifestWriter);
+          manifestWriter.close();
+        } catch (IOException e) {
+          AbstractCommandLineCompiler.exitOnUnhandledException(e,
+              exitCodeHandler);
+        }
+      }
+    }
+
+    if (jfrTracer != null) {
+      jfrTracer.stop();
+    }
+    if (traceTracer != null) {
+      try {
+        Writer traceWriter =
+            Files.newWriter(outputInfo.traceOutputFile, Charsets.UTF_8);
+        traceTracer.writeTo(traceWriter);
+        traceWriter.close();
+      } catch (IOException e) {
+        AbstractCommandLineCompiler.exitOnUnhandledException(e,
+            exitCodeHandler);
+      }
+    }
+    if (heapProfiler != null) {
+      try {
+        Writer heapProfileWriter =
+            Files.newWriter(outputInfo.heapProfileOutputFile, Charsets.UTF_8);
+        heapProfiler.writeReport(heapProfileWriter);
+        heapProfileWriter.close();
+      } catch (IOException e) {
+        AbstractCommandLineCompiler.exitOnUnhandledException(e,
+            exitCodeHandler);
+      }
+    }
+    SizeAttribution sizeAttribution = compiler.getSizeAttribution();
+    if (sizeAttribution != null) {
       try {
-        Files.write(compilerOutput, outputInfo.outputFile, Charsets.UTF_8);
+        Writer sizeReportWriter =
+            Files.newWriter(outputInfo.sizeReportFile, Charsets.UTF_8);
+        sizeAttribution.writeReport(sizeReportWriter);
+        sizeReportWriter.close();
       } catch (IOException e) {
         AbstractCommandLineCompiler.exitOnUnhandledException(e,
             exitCodeHandler);
@@ -339,6 +566,23 @@ public class ClosureCommandLineCompiler extends DefaultCommandLineCompiler {
       exitCodeHandler.processExitCode(
           AbstractCommandLineCompiler.ERROR_MESSAGE_EXIT_CODE);
       return null;
+    } else if (flags.outputGzipLevel != OutputArtifacts.NO_GZIP
+        && (flags.outputGzipLevel < 0 || flags.outputGzipLevel > 9)) {
+      System.err.println("\nERROR: --output-gzip-level must be from 0 to 9.\n");
+      argsParser.printUsage(System.err);
+      exitCodeHandler.processExitCode(
+          AbstractCommandLineCompiler.ERROR_MESSAGE_EXIT_CODE);
+      return null;
+    } else if (flags.splitMediaQueries && (flags.outputFile == null
+        || flags.prettyPrint || flags.compressedOutputFile != null
+        || flags.prettyOutputFile != null
+        || flags.templateOutputFile != null)) {
+      System.err.println("\nERROR: --split-media-queries requires the"
+          + " compact output to be written to --output-file only.\n");
+      argsParser.printUsage(System.err);
+      exitCodeHandler.processExitCode(
+          AbstractCommandLineCompiler.ERROR_MESSAGE_EXIT_CODE);
+      return null;
     } else {
       return flags;
     }
@@ -16,9 +16,15 @@
 
 package com.google.common.css.compiler.commandline;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.css.AbstractCommandLineCompiler;
+import com.google.common.css.CompilerTracer;
 import com.google.common.css.ExitCodeHandler;
 import com.google.common.css.JobDescription;
 import com.google.common.css.JobDescription.OutputFormat;
@@ -28,15 +34,28 @@ import com.google.common.css.compiler.ast.CssTree;
 import com.google.common.css.compiler.ast.ErrorManager;
 import com.google.common.css.compiler.ast.GssParser;
 import com.google.common.css.compiler.ast.GssParserException;
+import com.google.common.css.compiler.ast.VisitCounter;
+import com.google.common.css.compiler.passes.ChunkCompactPrinter;
 import com.google.common.css.compiler.passes.CompactPrinter;
+import com.google.common.css.compiler.passes.HeapProfiler;
+import com.google.common.css.compiler.passes.MultiSinkPrinter;
 import com.google.common.css.compiler.passes.PassRunner;
 import com.google.common.css.compiler.passes.PrettyPrinter;
+import com.google.common.css.compiler.passes.SizeAttribution;
+import com.google.common.css.compiler.passes.SplitMediaRules;
 import com.google.common.io.Files;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -52,9 +71,19 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
    */
   protected static final int MAXIMUM_ERRORS_TO_OUTPUT = 100;
 
+  /** Characters replaced in media queries to name the files they go to. */
+  private static final CharMatcher NOT_IN_FILE_NAMES =
+      CharMatcher.inRange('a', 'z').or(CharMatcher.inRange('0', '9')).negate();
+
   private CssTree cssTree;
   private final ErrorManager errorManager;
   private final PassRunner passRunner;
+  private final CompilerTracer tracer;
+  private HeapProfiler heapProfiler = null;
+  private boolean attributeSizes = false;
+  private SizeAttribution sizeAttribution = null;
+  private boolean splitMediaQueries = false;
+  private SplitMediaRules splitMediaRules = null;
 
   /**
    * Constructs a {@code NewCommandLineCompiler}.
@@ -64,9 +93,61 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
    */
   protected DefaultCommandLineCompiler(JobDescription job,
       ExitCodeHandler exitCodeHandler, ErrorManager errorManager) {
+    this(job, exitCodeHandler, errorManager, CompilerTracer.NONE);
+  }
+
+  /**
+   * Constructs a {@code NewCommandLineCompiler} that reports the parsing of
+   * each input, each pass and the printing of the output to a tracer.
+   *
+   * @param job the inputs the compiler should process and the options to use
+   * @param errorManager the error manager to use for error reporting
+   * @param tracer the tracer to report the phases of the compilation to
+   */
+  protected DefaultCommandLineCompiler(JobDescription job,
+      ExitCodeHandler exitCodeHandler, ErrorManager errorManager,
+      CompilerTracer tracer) {
     super(job, exitCodeHandler);
     this.errorManager = errorManager;
+    this.tracer = Preconditions.checkNotNull(tracer);
     this.passRunner = new PassRunner(job, errorManager);
+    this.passRunner.setTracer(tracer);
+  }
+
+  /**
+   * Sets the heap profiler that profiles parsing, every pass and printing.
+   */
+  void setHeapProfiler(@Nullable HeapProfiler heapProfiler) {
+    this.heapProfiler = heapProfiler;
+    passRunner.setHeapProfiler(heapProfiler);
+  }
+
+  /**
+   * Sets whether the size of the compact output is attributed to the inputs,
+   * rules, mixins and constants that produced it.
+   */
+  void setAttributeSizes(boolean attributeSizes) {
+    this.attributeSizes = attributeSizes;
+  }
+
+  /**
+   * Sets whether the top-level media rules are split off the compact output
+   * into a stylesheet per media query. The stylesheets are written next to
+   * the output file, along with a manifest that lists them in the order in
+   * which they are to be linked after it; see
+   * {@link #getMediaManifestFile}. Only output to a single file in the
+   * compact format can be split.
+   */
+  void setSplitMediaQueries(boolean splitMediaQueries) {
+    this.splitMediaQueries = splitMediaQueries;
+  }
+
+  /**
+   * Returns the attribution of the output size of the last compilation, or
+   * {@code null} if sizes are not attributed or nothing was compiled.
+   */
+  @Nullable SizeAttribution getSizeAttribution() {
+    return sizeAttribution;
   }
 
   /**
@@ -76,45 +157,139 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
    * @return the resulting stylesheet in string format
    */
   public String compile() throws GssParserException {
+    // The output is kept in the pieces in which it is printed and joined into
+    // a buffer of the exact size at the end, instead of guessing the size of
+    // the buffer up front and growing it when the guess is too small.
+    OutputPieces result = new OutputPieces();
+    try {
+      compile(result);
+    } catch (IOException e) {
+      // OutputPieces does not throw IOExceptions.
+      throw new AssertionError(e);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Parses all the inputs, reports error messages and combines the parsed
+   * inputs into one stylesheet, which is printed to the given writer while
+   * it is produced. The writer is flushed but not closed.
+   *
+   * @param out the writer to print the resulting stylesheet to
+   */
+  public void compile(Writer out) throws GssParserException, IOException {
+    compile(ImmutableMap.of(getOutputFormat(), out));
+  }
+
+  /**
+   * Parses all the inputs, reports error messages and combines the parsed
+   * inputs into one stylesheet, which is printed in each of the given formats
+   * to its writer. The stylesheet is visited only once for all the formats.
+   * The copyright notice is written to every writer. The writers are flushed
+   * but not closed.
+   *
+   * @param outputs the writers to print the resulting stylesheet to, by
+   *     format
+   */
+  public void compile(Map<MultiSinkPrinter.Format, Writer> outputs)
+      throws GssParserException, IOException {
     Preconditions.checkState(!compilerWasUsed);
+    Preconditions.checkArgument(!outputs.isEmpty());
     compilerWasUsed = true;
 
-    // Reserving the input length might not be enough for pretty printed output,
-    // but it will certainly save resizing the buffers for compressed output.
-    // The length of the copyright notice is also included in the total length.
-    int copyrightNoticeSize = job.copyrightNotice != null
-        ? job.copyrightNotice.length() : 0;
-    StringBuilder result = new StringBuilder(job.getAllInputsLength()
-        + copyrightNoticeSize);
     if (job.copyrightNotice != null) {
-      result.append(job.copyrightNotice);
+      for (Writer out : outputs.values()) {
+        out.write(job.copyrightNotice);
+      }
     }
 
-      GssParser parser = new GssParser(job.inputs);
-      parseAndPrint(result, parser);
+    GssParser parser = new GssParser(job.inputs, tracer);
+    parseAndPrint(outputs, parser);
+  }
 
-    return result.toString();
+  /**
+   * Returns the format in which {@link #compile(Writer)} prints the
+   * stylesheet, as chosen by the job.
+   */
+  protected MultiSinkPrinter.Format getOutputFormat() {
+    return job.outputFormat == OutputFormat.COMPRESSED
+        ? MultiSinkPrinter.Format.COMPRESSED
+        : MultiSinkPrinter.Format.PRETTY_PRINTED;
   }
 
   /**
    * Helper method for parsing and outputing the result.
    */
-  private void parseAndPrint(StringBuilder result, GssParser parser)
-      throws GssParserException {
+  private void parseAndPrint(Map<MultiSinkPrinter.Format, Writer> outputs,
+      GssParser parser) throws GssParserException, IOException {
+    if (heapProfiler != null) {
+      heapProfiler.startPhase();
+    }
     cssTree = parser.parse();
+    if (heapProfiler != null) {
+      heapProfiler.endPhase("GssParser", cssTree, null);
+    }
     if (job.outputFormat != OutputFormat.DEBUG) {
       passRunner.runPasses(cssTree);
     }
+    if (attributeSizes) {
+      sizeAttribution = SizeAttribution.compute(cssTree,
+          passRunner.getMixinDefinitions(),
+          passRunner.getConstantDefinitions());
+    }
+    if (splitMediaQueries) {
+      Preconditions.checkState(outputs.size() == 1
+          && outputs.containsKey(MultiSinkPrinter.Format.COMPRESSED),
+          "Media queries can only be split off a single compact output");
+      splitMediaRules = new SplitMediaRules(cssTree);
+      splitMediaRules.runPass();
+    }
 
-    if (job.outputFormat == OutputFormat.COMPRESSED) {
-      CompactPrinter compactPrinterPass = new CompactPrinter(cssTree);
-      compactPrinterPass.runPass();
-      result.append(compactPrinterPass.getCompactPrintedString());
+    if (heapProfiler != null) {
+      heapProfiler.startPhase();
+    }
+    long nodesVisitedBefore = VisitCounter.getCount();
+    String printerName;
+    long printed = 0;
+    if (outputs.size() > 1
+        || outputs.containsKey(MultiSinkPrinter.Format.TEMPLATE)) {
+      printerName = "MultiSinkPrinter";
+      CompilerTracer.Span span = tracer.startSpan(
+          CompilerTracer.Phase.PRINT, printerName, null);
+      MultiSinkPrinter multiSinkPrinter = new MultiSinkPrinter(cssTree);
+      for (Entry<MultiSinkPrinter.Format, Writer> output
+          : outputs.entrySet()) {
+        multiSinkPrinter.addOutput(output.getKey(), output.getValue());
+      }
+      for (long printedToOutput : multiSinkPrinter.print()) {
+        printed += printedToOutput;
+      }
+      span.end(VisitCounter.getCount() - nodesVisitedBefore, printed);
+    } else if (outputs.containsKey(MultiSinkPrinter.Format.COMPRESSED)) {
+      printerName = "CompactPrinter";
+      CompilerTracer.Span span = tracer.startSpan(
+          CompilerTracer.Phase.PRINT, printerName, null);
+      // Media rules that were split off are mapped to their media query as
+      // their chunk, so they are left out by printing the null chunk.
+      CompactPrinter compactPrinterPass = splitMediaRules == null
+          ? new CompactPrinter(cssTree)
+          : new ChunkCompactPrinter<String>(cssTree, null);
+      printed = compactPrinterPass.printTo(
+          outputs.get(MultiSinkPrinter.Format.COMPRESSED));
+      span.end(VisitCounter.getCount() - nodesVisitedBefore, printed);
     } else {
+      printerName = "PrettyPrinter";
+      CompilerTracer.Span span = tracer.startSpan(
+          CompilerTracer.Phase.PRINT, printerName, null);
       PrettyPrinter prettyPrinterPass = new PrettyPrinter(cssTree
           .getVisitController());
-      prettyPrinterPass.runPass();
-      result.append(prettyPrinterPass.getPrettyPrintedString());
+      printed = prettyPrinterPass.printTo(
+          outputs.get(MultiSinkPrinter.Format.PRETTY_PRINTED));
+      span.end(VisitCounter.getCount() - nodesVisitedBefore, printed);
+    }
+    if (heapProfiler != null) {
+      heapProfiler.endPhase(printerName, cssTree,
+          passRunner.getRecordingSubstitutionMap());
     }
   }
 
@@ -125,8 +300,198 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
    * as well.
    */
   protected String execute(@Nullable File renameFile) {
+    Preconditions.checkState(!splitMediaQueries,
+        "Media queries can only be split off output written to a file");
+    OutputPieces output = new OutputPieces();
+    if (!executeToWriters(renameFile,
+        ImmutableMap.<MultiSinkPrinter.Format, Writer>of(
+            getOutputFormat(), output))) {
+      return null;
+    }
+    return output.toString();
+  }
+
+  /**
+   * Executes the job associated with this compiler like
+   * {@link #execute(File)}, but streams the compiled CSS to the given file
+   * while it is printed. The CSS is written to a temporary file next to the
+   * output file, which replaces the output file only once the compilation
+   * has succeeded, so that a failed compilation leaves no partial output
+   * behind.
+   */
+  protected void execute(@Nullable File renameFile, File outputFile) {
+    execute(renameFile, ImmutableMap.of(getOutputFormat(), outputFile));
+  }
+
+  /**
+   * Executes the job associated with this compiler like
+   * {@link #execute(File, File)}, but prints the compiled CSS in each of the
+   * given formats to its file, visiting the compiled stylesheet only once.
+   */
+  protected void execute(@Nullable File renameFile,
+      Map<MultiSinkPrinter.Format, File> outputFiles) {
+    execute(renameFile, outputFiles, new OutputArtifacts());
+  }
+
+  /**
+   * Executes the job associated with this compiler like
+   * {@link #execute(File, Map)}, but writes the output files through the
+   * given {@link OutputArtifacts}, which can also write their gzip siblings
+   * and name them after their content. The written files are committed to
+   * {@code artifacts} once the compilation has succeeded.
+   */
+  protected void execute(@Nullable File renameFile,
+      Map<MultiSinkPrinter.Format, File> outputFiles,
+      OutputArtifacts artifacts) {
+    try {
+      Map<MultiSinkPrinter.Format, Writer> outputs = Maps.newEnumMap(
+          MultiSinkPrinter.Format.class);
+      boolean committed = false;
+      try {
+        for (Entry<MultiSinkPrinter.Format, File> outputFile
+            : outputFiles.entrySet()) {
+          outputs.put(outputFile.getKey(), new OutputStreamWriter(
+              artifacts.open(outputFile.getValue()), Charsets.UTF_8));
+        }
+        if (executeToWriters(renameFile, outputs)) {
+          File outputFile = outputFiles.get(getOutputFormat());
+          Map<String, File> mediaQueryFiles = null;
+          if (splitMediaRules != null) {
+            mediaQueryFiles = writeMediaQueries(outputFile, artifacts);
+          }
+          artifacts.commit();
+          committed = true;
+          if (mediaQueryFiles != null) {
+            writeMediaManifest(outputFile, mediaQueryFiles, artifacts);
+          }
+        }
+      } finally {
+        if (!committed) {
+          artifacts.discard();
+        }
+      }
+    } catch (IOException e) {
+      AbstractCommandLineCompiler.exitOnUnhandledException(e, exitCodeHandler);
+    }
+  }
+
+  /**
+   * Prints the media rules that were split off into a file per media query
+   * next to the output file.
+   *
+   * @return the files the media queries are printed to, as they are opened
+   *     in {@code artifacts}, by media query
+   */
+  private Map<String, File> writeMediaQueries(File outputFile,
+      OutputArtifacts artifacts) throws IOException {
+    Map<String, File> files = Maps.newLinkedHashMap();
+    Set<String> names = Sets.newHashSet(outputFile.getName());
+    for (String mediaQuery : splitMediaRules.getMediaQueries()) {
+      File file = getMediaQueryFile(outputFile, mediaQuery, names);
+      files.put(mediaQuery, file);
+      CompilerTracer.Span span = tracer.startSpan(
+          CompilerTracer.Phase.PRINT, "SplitMediaRules", file.getPath());
+      long nodesVisitedBefore = VisitCounter.getCount();
+      Writer out = new OutputStreamWriter(artifacts.open(file),
+          Charsets.UTF_8);
+      try {
+        if (job.copyrightNotice != null) {
+          out.write(job.copyrightNotice);
+        }
+        long printed = splitMediaRules.printMediaQuery(mediaQuery, out);
+        span.end(VisitCounter.getCount() - nodesVisitedBefore, printed);
+      } finally {
+        out.close();
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Returns the file for the rules of a media query that are split off the
+   * given output file, as in "style.print.css" for "style.css", with a
+   * suffix added if the name is among the given names, to which it is added.
+   */
+  static File getMediaQueryFile(File outputFile, String mediaQuery,
+      Set<String> names) {
+    String slug = NOT_IN_FILE_NAMES.trimAndCollapseFrom(
+        mediaQuery.toLowerCase(Locale.ENGLISH), '-');
+    if (slug.isEmpty()) {
+      slug = "media";
+    }
+    String outputName = outputFile.getName();
+    int dot = outputName.lastIndexOf('.');
+    String base = dot > 0 ? outputName.substring(0, dot) : outputName;
+    String extension = dot > 0 ? outputName.substring(dot) : "";
+    String name = base + "." + slug + extension;
+    for (int i = 2; !names.add(name); i++) {
+      name = base + "." + slug + "-" + i + extension;
+    }
+    return new File(outputFile.getParentFile(), name);
+  }
+
+  /**
+   * Returns the manifest of the stylesheets split off the given output file,
+   * as in "style.media.json" for "style.css".
+   */
+  static File getMediaManifestFile(File outputFile) {
+    String outputName = outputFile.getName();
+    int dot = outputName.lastIndexOf('.');
+    String base = dot > 0 ? outputName.substring(0, dot) : outputName;
+    return new File(outputFile.getParentFile(), base + ".media.json");
+  }
+
+  /**
+   * Writes a JSON object with the path the output was written to and, in the
+   * order in which they are to be linked after it, the media query and path
+   * of each stylesheet split off it.
+   */
+  private void writeMediaManifest(File outputFile,
+      Map<String, File> mediaQueryFiles, OutputArtifacts artifacts)
+      throws IOException {
+    Map<File, File> committedFiles = Maps.newHashMap();
+    for (OutputArtifacts.Artifact artifact : artifacts.getArtifacts()) {
+      committedFiles.put(artifact.getLogicalFile(), artifact.getFile());
+    }
+    Writer out = Files.newWriter(getMediaManifestFile(outputFile),
+        Charsets.UTF_8);
     try {
-      String compilerOutput = compile();
+      JsonWriter writer = new JsonWriter(out);
+      writer.setIndent("  ");
+      writer.beginObject();
+      writer.name("file").value(committedFiles.get(outputFile).getPath());
+      writer.name("media").beginArray();
+      for (Entry<String, File> mediaQueryFile : mediaQueryFiles.entrySet()) {
+        writer.beginObject();
+        writer.name("query").value(mediaQueryFile.getKey());
+        writer.name("file").value(
+            committedFiles.get(mediaQueryFile.getValue()).getPath());
+        writer.endObject();
+      }
+      writer.endArray();
+      writer.endObject();
+      writer.flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Compiles to the given writers, closes them and writes the renaming file.
+   *
+   * @return whether the compilation finished; it does not if the exit code
+   *     handler returns after an unexpected failure
+   */
+  private boolean executeToWriters(@Nullable File renameFile,
+      Map<MultiSinkPrinter.Format, Writer> outputs) {
+    try {
+      try {
+        compile(outputs);
+      } finally {
+        for (Writer output : outputs.values()) {
+          output.close();
+        }
+      }
 
       // Print any errors or warnings.
       errorManager.generateReport();
@@ -142,15 +507,18 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
       RecordingSubstitutionMap recordingSubstitutionMap = passRunner
           .getRecordingSubstitutionMap();
       if (recordingSubstitutionMap != null && renameFile != null) {
+        CompilerTracer.Span span = tracer.startSpan(
+            CompilerTracer.Phase.WRITE, "RenamingMap", renameFile.getPath());
         PrintWriter renamingMapWriter = new PrintWriter(
             Files.newWriter(renameFile, Charsets.UTF_8));
         Map<String, String> renamingMap = recordingSubstitutionMap
             .getMappings();
         writeRenamingMap(renamingMap, renamingMapWriter);
         renamingMapWriter.close();
+        span.end(0, renameFile.length());
       }
 
-      return compilerOutput;
+      return true;
     } catch (IOException e) {
       AbstractCommandLineCompiler.exitOnUnhandledException(e, exitCodeHandler);
     } catch (GssParserException e) {
@@ -167,7 +535,7 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
 
     // This line is unreachable because all paths through the above code block
     // result in calling System.exit().
-    return null;
+    return false;
   }
 
   /**
@@ -185,6 +553,43 @@ public class DefaultCommandLineCompiler extends AbstractCommandLineCompiler {
         renamingMapWriter);
   }
 
+  /**
+   * A writer that keeps the pieces written to it, which the printers write
+   * in pieces of a few kilobytes, and joins them only when the output is
+   * complete.
+   */
+  private static class OutputPieces extends Writer {
+    private final List<String> pieces = Lists.newArrayList();
+    private int length = 0;
+
+    @Override
+    public void write(char[] chars, int offset, int count) {
+      pieces.add(new String(chars, offset, count));
+      length += count;
+    }
+
+    @Override
+    public void write(String s) {
+      pieces.add(s);
+      length += s.length();
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+      StringBuilder result = new StringBuilder(length);
+      for (String piece : pieces) {
+        result.append(piece);
+      }
+      return result.toString();
+    }
+  }
+
   /**
    * An error message handler.
    */
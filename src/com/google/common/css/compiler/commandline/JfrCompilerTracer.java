@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.css.CompilerTracer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link CompilerTracer} that emits a Java Flight Recorder event for each
+ * phase of the compilation and records them, together with the default JVM
+ * events (GC, allocation, ...), to a file.
+ *
+ * <p>This class is only loaded when recording is requested on the command
+ * line, so compilations without it do not depend on {@code jdk.jfr} at all.
+ *
+ */
+class JfrCompilerTracer extends CompilerTracer {
+
+  /**
+   * The event committed when a phase of the compilation ends.
+   */
+  @Name("com.google.common.css.CompilerPhase")
+  @Label("CSS Compiler Phase")
+  @Category("Closure Stylesheets")
+  @Description("Parsing of an input, a compiler pass or a printing of output")
+  static class CompilerPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Name")
+    String name;
+
+    @Label("File Name")
+    String fileName;
+
+    @Label("Nodes Visited")
+    long nodesVisited;
+
+    @Label("Bytes Emitted")
+    @DataAmount
+    long bytesEmitted;
+  }
+
+  private final Recording recording;
+
+  private JfrCompilerTracer(Recording recording) {
+    this.recording = recording;
+  }
+
+  /**
+   * Creates a tracer and starts a recording with the default JVM settings plus
+   * the compiler events. The recording is written to the given file when
+   * {@link #stop()} is called or, failing that, when the JVM exits.
+   */
+  static JfrCompilerTracer startRecording(File outputFile)
+      throws IOException {
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration("default");
+    } catch (ParseException e) {
+      throw new IOException(e);
+    }
+    Recording recording = new Recording(configuration);
+    recording.setName("closure-stylesheets");
+    recording.enable(CompilerPhaseEvent.class);
+    recording.setDestination(outputFile.toPath());
+    recording.setDumpOnExit(true);
+    recording.start();
+    return new JfrCompilerTracer(recording);
+  }
+
+  /**
+   * Stops the recording, which writes it out.
+   */
+  void stop() {
+    recording.stop();
+    recording.close();
+  }
+
+  @Override
+  public Span startSpan(Phase phase, String name, @Nullable String fileName) {
+    final CompilerPhaseEvent event = new CompilerPhaseEvent();
+    if (!event.isEnabled()) {
+      return CompilerTracer.NONE.startSpan(phase, name, fileName);
+    }
+    event.phase = phase.name();
+    event.name = name;
+    event.fileName = fileName;
+    event.begin();
+    return new Span() {
+      @Override
+      public void end(long nodesVisited, long bytesEmitted) {
+        event.end();
+        event.nodesVisited = nodesVisited;
+        event.bytesEmitted = bytesEmitted;
+        event.commit();
+      }
+    };
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.io.Files;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Writes the output files of a compilation. Each file is written to a
+ * temporary file next to it, which {@link #commit} moves into place once the
+ * compilation has succeeded, so that a failed compilation leaves no partial
+ * output behind.
+ *
+ * <p>While the output is written, it can also be compressed into a gzip
+ * sibling with the ".gz" suffix and hashed, so that the file can be named
+ * after its content for immutable caching, without reading the output back.
+ * {@link #writeManifest} records where each output went.
+ *
+ */
+public final class OutputArtifacts {
+
+  /** The gzip level that disables writing gzip siblings. */
+  public static final int NO_GZIP = -1;
+
+  /** The number of hexadecimal digits of the content hash used in names. */
+  private static final int HASH_NAME_LENGTH = 16;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /** An output file that has been written and moved into place. */
+  public static final class Artifact {
+    private final File logicalFile;
+    private final File file;
+    private final long size;
+    private final String sha256;
+    private final @Nullable File gzipFile;
+    private final long gzipSize;
+
+    Artifact(File logicalFile, File file, long size, String sha256,
+        @Nullable File gzipFile, long gzipSize) {
+      this.logicalFile = logicalFile;
+      this.file = file;
+      this.size = size;
+      this.sha256 = sha256;
+      this.gzipFile = gzipFile;
+      this.gzipSize = gzipSize;
+    }
+
+    /** Returns the file the output was requested to be written to. */
+    public File getLogicalFile() {
+      return logicalFile;
+    }
+
+    /**
+     * Returns the file the output was written to, which is named after its
+     * content if hashed names are enabled.
+     */
+    public File getFile() {
+      return file;
+    }
+
+    /** Returns the size of the output in bytes. */
+    public long getSize() {
+      return size;
+    }
+
+    /** Returns the SHA-256 hash of the output as hexadecimal digits. */
+    public String getSha256() {
+      return sha256;
+    }
+
+    /** Returns the gzip sibling of the file, or {@code null} if none. */
+    @Nullable
+    public File getGzipFile() {
+      return gzipFile;
+    }
+
+    /** Returns the size of the gzip sibling in bytes, or -1 if none. */
+    public long getGzipSize() {
+      return gzipSize;
+    }
+  }
+
+  private final int gzipLevel;
+  private final boolean hashNames;
+  private final List<PendingOutput> pendingOutputs = Lists.newArrayList();
+  private final List<Artifact> artifacts = Lists.newArrayList();
+
+  /** Creates an instance that writes each output file only. */
+  public OutputArtifacts() {
+    this(NO_GZIP, false);
+  }
+
+  /**
+   * @param gzipLevel the deflate level for the gzip siblings, from 0 to 9, or
+   *     {@link #NO_GZIP} to not write any
+   * @param hashNames whether to insert a hash of the content of each output
+   *     file into its name, before the extension
+   */
+  public OutputArtifacts(int gzipLevel, boolean hashNames) {
+    Preconditions.checkArgument(gzipLevel == NO_GZIP
+        || (gzipLevel >= Deflater.NO_COMPRESSION
+            && gzipLevel <= Deflater.BEST_COMPRESSION),
+        "Invalid gzip level: %s", gzipLevel);
+    this.gzipLevel = gzipLevel;
+    this.hashNames = hashNames;
+  }
+
+  /**
+   * Opens a stream for the output that goes to the given file. The stream
+   * must be closed before {@link #commit} is called.
+   */
+  public OutputStream open(File file) throws IOException {
+    PendingOutput output = new PendingOutput(file);
+    pendingOutputs.add(output);
+    return output;
+  }
+
+  /**
+   * Moves all the opened outputs into place, and returns them along with the
+   * ones committed before.
+   */
+  public List<Artifact> commit() throws IOException {
+    for (PendingOutput output : pendingOutputs) {
+      Preconditions.checkState(output.closed,
+          "Output for %s is still open", output.file);
+    }
+    for (PendingOutput output : pendingOutputs) {
+      String sha256 = toHex(output.digest.digest());
+      File file = hashNames
+          ? getHashedFile(output.file, sha256.substring(0, HASH_NAME_LENGTH))
+          : output.file;
+      Files.move(output.tempFile, file);
+      File gzipFile = null;
+      long gzipSize = -1;
+      if (output.tempGzipFile != null) {
+        gzipFile = new File(file.getPath() + ".gz");
+        gzipSize = output.gzipCounter.getCount();
+        Files.move(output.tempGzipFile, gzipFile);
+      }
+      artifacts.add(new Artifact(output.file, file, output.size, sha256,
+          gzipFile, gzipSize));
+    }
+    pendingOutputs.clear();
+    return getArtifacts();
+  }
+
+  /** Closes and deletes all the opened outputs that were not committed. */
+  public void discard() {
+    for (PendingOutput output : pendingOutputs) {
+      try {
+        output.close();
+      } catch (IOException e) {
+        // The temporary files are deleted anyway.
+      }
+      output.tempFile.delete();
+      if (output.tempGzipFile != null) {
+        output.tempGzipFile.delete();
+      }
+    }
+    pendingOutputs.clear();
+  }
+
+  /** Returns the outputs committed so far. */
+  public List<Artifact> getArtifacts() {
+    return ImmutableList.copyOf(artifacts);
+  }
+
+  /**
+   * Writes a JSON object that maps the path of each committed output, as it
+   * was requested, to the path it was written to, its size, its hash and its
+   * gzip sibling, if any. The writer is not closed.
+   */
+  public void writeManifest(Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.setIndent("  ");
+    writer.beginObject();
+    for (Artifact artifact : artifacts) {
+      writer.name(artifact.getLogicalFile().getPath()).beginObject();
+      writer.name("file").value(artifact.getFile().getPath());
+      writer.name("size").value(artifact.getSize());
+      writer.name("sha256").value(artifact.getSha256());
+      if (artifact.getGzipFile() != null) {
+        writer.name("gzipFile").value(artifact.getGzipFile().getPath());
+        writer.name("gzipSize").value(artifact.getGzipSize());
+      }
+      writer.endObject();
+    }
+    writer.endObject();
+    writer.flush();
+  }
+
+  /**
+   * Returns the file with the hash inserted into its name before the
+   * extension, as in "style.0123456789abcdef.css".
+   */
+  static File getHashedFile(File file, String hash) {
+    String name = file.getName();
+    int dot = name.lastIndexOf('.');
+    String hashedName = dot > 0
+        ? name.substring(0, dot) + "." + hash + name.substring(dot)
+        : name + "." + hash;
+    return new File(file.getParentFile(), hashedName);
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+          .append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static File createTempFile(File file) throws IOException {
+    File tempFile = File.createTempFile(file.getName(), ".tmp",
+        file.getAbsoluteFile().getParentFile());
+    // In case the compilation exits before the file is moved.
+    tempFile.deleteOnExit();
+    return tempFile;
+  }
+
+  /** A gzip stream with a configurable deflate level. */
+  private static class LeveledGzipOutputStream extends GZIPOutputStream {
+    LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+      super(out, BUFFER_SIZE);
+      def.setLevel(level);
+    }
+  }
+
+  /**
+   * The stream of an output that is not committed yet. The bytes written go
+   * to the temporary file, to the gzip sibling and to the hash at once.
+   */
+  private class PendingOutput extends OutputStream {
+    final File file;
+    final File tempFile;
+    final OutputStream out;
+    final MessageDigest digest;
+    @Nullable final File tempGzipFile;
+    @Nullable final CountingOutputStream gzipCounter;
+    @Nullable final OutputStream gzip;
+    long size;
+    boolean closed;
+
+    PendingOutput(File file) throws IOException {
+      this.file = file;
+      try {
+        this.digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        // Every Java platform is required to support SHA-256.
+        throw new AssertionError(e);
+      }
+      this.tempFile = createTempFile(file);
+      this.out = new BufferedOutputStream(
+          new FileOutputStream(tempFile), BUFFER_SIZE);
+      if (gzipLevel == NO_GZIP) {
+        this.tempGzipFile = null;
+        this.gzipCounter = null;
+        this.gzip = null;
+      } else {
+        this.tempGzipFile = createTempFile(file);
+        this.gzipCounter = new CountingOutputStream(
+            new FileOutputStream(tempGzipFile));
+        this.gzip = new LeveledGzipOutputStream(gzipCounter, gzipLevel);
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length)
+        throws IOException {
+      out.write(bytes, offset, length);
+      digest.update(bytes, offset, length);
+      if (gzip != null) {
+        gzip.write(bytes, offset, length);
+      }
+      size += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+      if (gzip != null) {
+        gzip.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        out.close();
+      } finally {
+        if (gzip != null) {
+          gzip.close();
+        }
+      }
+    }
+  }
+}
@@ -16,11 +16,15 @@
 
 package com.google.common.css.compiler.gssfunctions;
 
-import java.awt.Color;
-
 /**
  * Utility functions to deal with colors.
  *
+ * <p>Colors are packed into {@code int}s (0xAARRGGBB, as returned by
+ * {@link ColorParser#parseArgb}) and HSB components are passed as separate
+ * {@code float}s, so that none of the functions allocates. The conversions
+ * give exactly the same results as {@code java.awt.Color.RGBtoHSB} and
+ * {@code java.awt.Color.HSBtoRGB}.
+ *
  * @author dgajda@google.com (Damian Gajda)
  */
 class ColorUtil {
@@ -29,18 +33,143 @@ class ColorUtil {
   public static final int S = 1;
   public static final int B = 2;
 
-  public static float[] toHsb(Color color) {
-    return Color.RGBtoHSB(
-        color.getRed(), color.getGreen(), color.getBlue(), null);
+  /**
+   * Computes the luminance value of a color (a value in range 0-255).
+   * It is the luminance value equal to the Y component of the YIQ or the YUV
+   * color space models.
+   */
+  public static int luminance(int red, int green, int blue) {
+    return (red * 299 + green * 587 + blue * 114) / 1000;
   }
 
-  public static String formatColor(Color color) {
-    return String.format("#%02X%02X%02X",
-        color.getRed(), color.getGreen(), color.getBlue());
+  /**
+   * Calculates the Manhattan distance of two colors in the RGB color space
+   * (a value in range 0-(255*3)).
+   */
+  public static int colorDiff(int r1, int g1, int b1, int r2, int g2, int b2) {
+    return Math.abs(r1 - r2) + Math.abs(g1 - g2) + Math.abs(b1 - b2);
   }
 
-  public static Color hsbToColor(float[] inputHsb) {
-    return Color.getHSBColor(inputHsb[H], inputHsb[S], inputHsb[B]);
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  public static int red(int argb) {
+    return (argb >> 16) & 0xFF;
+  }
+
+  public static int green(int argb) {
+    return (argb >> 8) & 0xFF;
+  }
+
+  public static int blue(int argb) {
+    return argb & 0xFF;
+  }
+
+  public static int alpha(int argb) {
+    return argb >>> 24;
+  }
+
+  /**
+   * Packs the given components into an opaque color.
+   *
+   * @throws IllegalArgumentException if a component is outside of the range
+   *     0-255
+   */
+  public static int rgb(int red, int green, int blue) {
+    if (((red | green | blue) & ~0xFF) != 0) {
+      throw new IllegalArgumentException(
+          "Color component outside of expected range: "
+          + red + ", " + green + ", " + blue);
+    }
+    return 0xFF000000 | (red << 16) | (green << 8) | blue;
+  }
+
+  /** Formats the RGB components of a packed color as "#RRGGBB". */
+  public static String formatColor(int argb) {
+    char[] chars = new char[7];
+    chars[0] = '#';
+    for (int i = 6; i > 0; i--) {
+      chars[i] = HEX_DIGITS[argb & 0xF];
+      argb >>= 4;
+    }
+    return new String(chars);
+  }
+
+  /** Returns the hue of a packed color. */
+  public static float hue(int argb) {
+    int r = red(argb);
+    int g = green(argb);
+    int b = blue(argb);
+    int cmax = Math.max(Math.max(r, g), b);
+    int cmin = Math.min(Math.min(r, g), b);
+    if (saturation(argb) == 0) {
+      return 0;
+    }
+    float range = cmax - cmin;
+    float redc = (cmax - r) / range;
+    float greenc = (cmax - g) / range;
+    float bluec = (cmax - b) / range;
+    float hue;
+    if (r == cmax) {
+      hue = bluec - greenc;
+    } else if (g == cmax) {
+      hue = 2.0f + redc - bluec;
+    } else {
+      hue = 4.0f + greenc - redc;
+    }
+    hue = hue / 6.0f;
+    if (hue < 0) {
+      hue = hue + 1.0f;
+    }
+    return hue;
+  }
+
+  /** Returns the saturation of a packed color. */
+  public static float saturation(int argb) {
+    int r = red(argb);
+    int g = green(argb);
+    int b = blue(argb);
+    int cmax = Math.max(Math.max(r, g), b);
+    int cmin = Math.min(Math.min(r, g), b);
+    return cmax == 0 ? 0 : ((float) (cmax - cmin)) / ((float) cmax);
+  }
+
+  /** Returns the brightness of a packed color. */
+  public static float brightness(int argb) {
+    return ((float) Math.max(Math.max(red(argb), green(argb)), blue(argb)))
+        / 255.0f;
+  }
+
+  /** Converts HSB components to an opaque packed color. */
+  public static int hsbToRgb(float hue, float saturation, float brightness) {
+    if (saturation == 0) {
+      int v = toByte(brightness);
+      return rgb(v, v, v);
+    }
+    float h = (hue - (float) Math.floor(hue)) * 6.0f;
+    float f = h - (float) Math.floor(h);
+    float p = brightness * (1.0f - saturation);
+    float q = brightness * (1.0f - saturation * f);
+    float t = brightness * (1.0f - (saturation * (1.0f - f)));
+    switch ((int) h) {
+      case 0:
+        return rgb(toByte(brightness), toByte(t), toByte(p));
+      case 1:
+        return rgb(toByte(q), toByte(brightness), toByte(p));
+      case 2:
+        return rgb(toByte(p), toByte(brightness), toByte(t));
+      case 3:
+        return rgb(toByte(p), toByte(q), toByte(brightness));
+      case 4:
+        return rgb(toByte(t), toByte(p), toByte(brightness));
+      case 5:
+        return rgb(toByte(brightness), toByte(p), toByte(q));
+      default:
+        return rgb(0, 0, 0);
+    }
+  }
+
+  private static int toByte(float component) {
+    return (int) (component * 255.0f + 0.5f);
   }
 
   /**
@@ -55,16 +184,16 @@ class ColorUtil {
    * all colors that are different.  It is recommended not to use values of more
    * than 0.01.
    *
-   * @param color1 the first of the two checked colors
-   * @param color2 the second of the two checked colors
+   * @param argb1 the first of the two checked colors
+   * @param argb2 the second of the two checked colors
    * @param margin the test leniency margin
    * @return whether the given colors are considered contrasting, taking the
    *     leniency margin into account
    */
-  public static boolean testContrast(Color color1, Color color2, float margin) {
+  public static boolean testContrast(int argb1, int argb2, float margin) {
     float differenceFraction = 1f - margin;
-    return luminanceDiff(color1, color2) > 125 * differenceFraction
-        && colorDiff(color1, color2) > 500 * differenceFraction;
+    return luminanceDiff(argb1, argb2) > 125 * differenceFraction
+        && colorDiff(argb1, argb2) > 500 * differenceFraction;
   }
 
   /**
@@ -72,13 +201,12 @@ class ColorUtil {
    * test described in the W3C accessibility evaluation working draft
    * {@link "http://www.w3.org/TR/AERT#color-contrast"}.
    *
-   * @param color1 the first of the two checked colors
-   * @param color2 the second of the two checked colors
+   * @param argb1 the first of the two checked colors
+   * @param argb2 the second of the two checked colors
    * @return whether the given colors are considered contrasting
    */
-  public static boolean testContrast(Color color1, Color color2) {
-    return luminanceDiff(color1, color2) > 125
-        && colorDiff(color1, color2) > 500;
+  public static boolean testContrast(int argb1, int argb2) {
+    return luminanceDiff(argb1, argb2) > 125 && colorDiff(argb1, argb2) > 500;
   }
 
   /**
@@ -86,44 +214,24 @@ class ColorUtil {
    * It is the luminance value equal to the Y component of the YIQ or the YUV
    * color space models.
    */
-  public static int luminanceDiff(Color c1, Color c2) {
-    return Math.abs(luminance(c1) - luminance(c2));
-  }
-
-  /**
-   * Computes the luminance value of a color (a value in range 0-255).
-   * It is the luminance value equal to the Y component of the YIQ or the YUV
-   * color space models.
-   */
-  public static int luminance(Color color) {
-    return luminance(color.getRed(), color.getGreen(), color.getBlue());
+  public static int luminanceDiff(int argb1, int argb2) {
+    return Math.abs(luminance(argb1) - luminance(argb2));
   }
 
   /**
-   * Computes the luminance value of a color (a value in range 0-255).
-   * It is the luminance value equal to the Y component of the YIQ or the YUV
-   * color space models.
+   * Computes the luminance value of a packed color (a value in range 0-255).
    */
-  public static int luminance(int red, int green, int blue) {
-    return (red * 299 + green * 587 + blue * 114) / 1000;
+  public static int luminance(int argb) {
+    return luminance(red(argb), green(argb), blue(argb));
   }
 
   /**
-   * Calculates the Manhattan distance of two colors in the RGB color space
-   * (a value in range 0-(255*3)).
+   * Calculates the Manhattan distance of two packed colors in the RGB color
+   * space (a value in range 0-(255*3)).
    */
-  public static int colorDiff(Color color1, Color color2) {
-    return colorDiff(
-        color1.getRed(), color1.getGreen(), color1.getBlue(),
-        color2.getRed(), color2.getGreen(), color2.getBlue());
-  }
-
-  /**
-   * Calculates the Manhattan distance of two colors in the RGB color space
-   * (a value in range 0-(255*3)).
-   */
-  public static int colorDiff(int r1, int g1, int b1, int r2, int g2, int b2) {
-    return Math.abs(r1 - r2) + Math.abs(g1 - g2) + Math.abs(b1 - b2);
+  public static int colorDiff(int argb1, int argb2) {
+    return colorDiff(red(argb1), green(argb1), blue(argb1),
+        red(argb2), green(argb2), blue(argb2));
   }
 
   // Utility class, static methods only.
@@ -1,6 +1,11 @@
 package com.google.common.css.compiler.gssfunctions;
 
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.alpha;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.blue;
 import static com.google.common.css.compiler.gssfunctions.ColorUtil.formatColor;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.green;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.red;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.rgb;
 
 import java.awt.Color;
 import java.util.List;
@@ -330,20 +335,19 @@ public class CustomGssFunctions {
         }
 
         private String blend(String startColorStr, String endColorStr, double percent) {
-            Color startColor = ColorParser.parseAny(startColorStr);
-            Color endColor = ColorParser.parseAny(endColorStr);
+            int startColor = ColorParser.parseAnyArgb(startColorStr);
+            int endColor = ColorParser.parseAnyArgb(endColorStr);
 
             double perc = percent / 100;
 
-            int red = (int) Math.round((startColor.getRed() * perc)
-                    + (endColor.getRed() * (1.00 - perc)));
-            int green = (int) Math.round((startColor.getGreen() * perc)
-                    + (endColor.getGreen() * (1.00 - perc)));
-            int blue = (int) Math.round((startColor.getBlue() * perc)
-                    + (endColor.getBlue() * (1.00 - perc)));
-            Color midColor = new Color(red, green, blue);
+            int red = (int) Math.round((red(startColor) * perc)
+                    + (red(endColor) * (1.00 - perc)));
+            int green = (int) Math.round((green(startColor) * perc)
+                    + (green(endColor) * (1.00 - perc)));
+            int blue = (int) Math.round((blue(startColor) * perc)
+                    + (blue(endColor) * (1.00 - perc)));
 
-            return formatColor(midColor);
+            return formatColor(rgb(red, green, blue));
         }
     }
 
@@ -375,7 +379,7 @@ public class CustomGssFunctions {
             return baseColorString;
         }
         
-        Color baseColor = ColorParser.parseAny(baseColorString);
+        int baseColor = ColorParser.parseAnyArgb(baseColorString);
         float[] hslValues = RGBtoHSL(baseColor);
 
         // In HSL color space, Hue goes from 0 to 360, Saturation and Lightness
@@ -390,8 +394,7 @@ public class CustomGssFunctions {
         hslValues[1] = (float) Math.min(1.0, Math.max(0, hslValues[1] + sToAdd / 100.0));
         hslValues[2] = (float) Math.min(1.0, Math.max(0, hslValues[2] + lToAdd / 100.0));
 
-        Color newColor = HSLtoRGB(hslValues);
-        return formatColor(newColor);
+        return formatColor(hslToRgb(hslValues));
     }
     
     /**
@@ -401,10 +404,20 @@ public class CustomGssFunctions {
      * @return color space in HSL.
      */
     public static float[] RGBtoHSL(Color colorRGB) {
+        return RGBtoHSL(colorRGB.getRGB());
+    }
+
+    /**
+     * Converts a color packed into an int from RBG to HSL color space.
+     *
+     * @param argb the color, as 0xAARRGGBB.
+     * @return color space in HSL.
+     */
+    static float[] RGBtoHSL(int argb) {
         float r, g, b, h, s, l; //this function works with floats between 0 and 1
-        r = colorRGB.getRed() / 256.0f;
-        g = colorRGB.getGreen() / 256.0f;
-        b = colorRGB.getBlue() / 256.0f;
+        r = red(argb) / 256.0f;
+        g = green(argb) / 256.0f;
+        b = blue(argb) / 256.0f;
 
         // Then, minColor and maxColor are defined. Min color is the value of the color component with
         // the smallest value, while maxColor is the value of the color component with the largest value.
@@ -461,6 +474,17 @@ public class CustomGssFunctions {
      * @return the RGB color.
      */
     public static Color HSLtoRGB(float[] hsl) {
+        return new Color(hslToRgb(hsl));
+    }
+
+    /**
+     * Converts from HSL color space to an opaque color packed into an int.
+     *
+     * @param hsl the hsl values.
+     * @return the RGB color, as 0xFFRRGGBB.
+     * @throws IllegalArgumentException if a component is out of range.
+     */
+    static int hslToRgb(float[] hsl) {
         float r, g, b, h, s, l; //this function works with floats between 0 and 1
         float temp1, temp2, tempr, tempg, tempb;
         h = hsl[0];
@@ -516,7 +540,7 @@ public class CustomGssFunctions {
         int rResult = Math.round(r * 255.0f);
         int gResult = Math.round(g * 255.0f);
         int bResult = Math.round(b * 255.0f);
-        return new Color(rResult, gResult, bResult);
+        return rgb(rResult, gResult, bResult);
     }
     
     /**
@@ -635,9 +659,9 @@ public class CustomGssFunctions {
         public List<CssValueNode> getCallResultNodes(List<CssValueNode> args,
                 ErrorManager errorManager) throws GssFunctionException {
             CssValueNode arg = args.get(0);
-            Color color = ColorParser.parseAny(arg.getValue());
+            int color = ColorParser.parseAnyArgb(arg.getValue());
             String formatColor = formatColor(color);
-            String alpha = String.format("#%02X", color.getAlpha());
+            String alpha = String.format("#%02X", alpha(color));
             CssLiteralNode result =
                     new CssLiteralNode(alpha + formatColor.substring(1), arg
                             .getSourceCodeLocation());
@@ -646,9 +670,9 @@ public class CustomGssFunctions {
 
         @Override
         public String getCallResultString(List<String> args) throws GssFunctionException {
-            Color color = ColorParser.parseAny(args.get(0));
+            int color = ColorParser.parseAnyArgb(args.get(0));
             String formatColor = formatColor(color);
-            String alpha = String.format("#%02X", color.getAlpha());
+            String alpha = String.format("#%02X", alpha(color));
             return alpha + formatColor.substring(1);
         }
     }
@@ -16,10 +16,16 @@
 
 package com.google.common.css.compiler.gssfunctions;
 
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.blue;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.brightness;
 import static com.google.common.css.compiler.gssfunctions.ColorUtil.formatColor;
-import static com.google.common.css.compiler.gssfunctions.ColorUtil.hsbToColor;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.green;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.hsbToRgb;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.hue;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.red;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.rgb;
+import static com.google.common.css.compiler.gssfunctions.ColorUtil.saturation;
 import static com.google.common.css.compiler.gssfunctions.ColorUtil.testContrast;
-import static com.google.common.css.compiler.gssfunctions.ColorUtil.toHsb;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableList;
@@ -36,10 +42,10 @@ import com.google.common.css.compiler.ast.ErrorManager;
 import com.google.common.css.compiler.ast.GssError;
 import com.google.common.css.compiler.ast.GssFunction;
 import com.google.common.css.compiler.ast.GssFunctionException;
+import com.google.common.css.compiler.ast.PureGssFunction;
 
 import java.awt.Color;
 import java.text.DecimalFormat;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -355,7 +361,7 @@ public class GssFunctions {
    * Base implementation of the color blending GSS function. Returns a color
    * half way between the two colors supplied as arguments.
    */
-  public abstract static class BaseBlendColors implements GssFunction {
+  public abstract static class BaseBlendColors implements PureGssFunction {
 
     /**
      * Returns the number of expected arguments of this GSS function.
@@ -414,20 +420,20 @@ public class GssFunctions {
     @Override
     // TODO(dgajda): Hide it, this function is only visible because
     public String blend(String startColorStr, String endColorStr) {
-      Color midColor = blendHsb(
-          ColorParser.parseAny(startColorStr),
-          ColorParser.parseAny(endColorStr));
+      int midColor = blendHsb(
+          ColorParser.parseAnyArgb(startColorStr),
+          ColorParser.parseAnyArgb(endColorStr));
       return formatColor(midColor);
     }
   }
 
-  private static Color blendHsb(Color startColor, Color endColor) {
+  private static int blendHsb(int startColor, int endColor) {
 
-    float[] startColorHsb = toHsb(startColor);
-    float[] endColorHsb = toHsb(endColor);
+    float startHue = hue(startColor);
+    float endHue = hue(endColor);
 
-    float diffHue = Math.abs(startColorHsb[0] - endColorHsb[0]);
-    float sumHue = startColorHsb[0] + endColorHsb[0];
+    float diffHue = Math.abs(startHue - endHue);
+    float sumHue = startHue + endHue;
     float midHue = (diffHue <= 0.5)
         ? sumHue / 2
         : (sumHue + 1) / 2;  // Hue values range 0 to 1 and wrap (i.e. 0 == 1)
@@ -435,10 +441,10 @@ public class GssFunctions {
       midHue -= 1;
     }
 
-    return Color.getHSBColor(
+    return hsbToRgb(
         midHue,
-        (startColorHsb[1] + endColorHsb[1]) / 2,
-        (startColorHsb[2] + endColorHsb[2]) / 2);
+        (saturation(startColor) + saturation(endColor)) / 2,
+        (brightness(startColor) + brightness(endColor)) / 2);
   }
 
   /**
@@ -458,13 +464,13 @@ public class GssFunctions {
     @Override
     // TODO(dgajda): Hide it, this function is only visible because
     public String blend(String startColorStr, String endColorStr) {
-      Color startColor = ColorParser.parseAny(startColorStr);
-      Color endColor = ColorParser.parseAny(endColorStr);
+      int startColor = ColorParser.parseAnyArgb(startColorStr);
+      int endColor = ColorParser.parseAnyArgb(endColorStr);
 
-      Color midColor = new Color(
-          (startColor.getRed() + endColor.getRed()) / 2,
-          (startColor.getGreen() + endColor.getGreen()) / 2,
-          (startColor.getBlue() + endColor.getBlue()) / 2);
+      int midColor = rgb(
+          (red(startColor) + red(endColor)) / 2,
+          (green(startColor) + green(endColor)) / 2,
+          (blue(startColor) + blue(endColor)) / 2);
 
       return formatColor(midColor);
     }
@@ -506,7 +512,7 @@ public class GssFunctions {
   /**
    * Implementation of the addHsbToCssColor GSS function.
    */
-  public static class AddHsbToCssColor implements GssFunction {
+  public static class AddHsbToCssColor implements PureGssFunction {
 
     @Override
     public Integer getNumExpectedArguments() {
@@ -612,11 +618,11 @@ public class GssFunctions {
         return baseColorString;
       }
 
-      Color baseColor = ColorParser.parseAny(baseColorString);
-      Color newColor = addValuesToHsbComponents(baseColor,
-                                                hueToAdd,
-                                                saturationToAdd,
-                                                brightnessToAdd);
+      int baseColor = ColorParser.parseAnyArgb(baseColorString);
+      int newColor = addValuesToHsbComponents(baseColor,
+                                              hueToAdd,
+                                              saturationToAdd,
+                                              brightnessToAdd);
 
       return formatColor(newColor);
     }
@@ -635,24 +641,34 @@ public class GssFunctions {
                                           int hueToAdd,
                                           int saturationToAdd,
                                           int brightnessToAdd) {
+      return new Color(addValuesToHsbComponents(baseColor.getRGB(),
+          hueToAdd, saturationToAdd, brightnessToAdd));
+    }
 
-      float[] hsbValues = toHsb(baseColor);
+    /**
+     * Like {@link #addValuesToHsbComponents(Color, int, int, int)}, for a
+     * color packed into an int.
+     */
+    public int addValuesToHsbComponents(int baseColor,
+                                        int hueToAdd,
+                                        int saturationToAdd,
+                                        int brightnessToAdd) {
 
       // In HSB color space, Hue goes from 0 to 360, Saturation and Brightness
       // from 0 to 100. However, in Java all three parameters vary from 0.0 to
       // 1.0, so we need some basic conversion.
-      hsbValues[0] = (float) (hsbValues[0] + hueToAdd / 360.0);
+      float hue = (float) (hue(baseColor) + hueToAdd / 360.0);
       // The hue needs to wrap around, so just keep hue - floor(hue).
-      hsbValues[0] -= (float) Math.floor(hsbValues[0]);
+      hue -= (float) Math.floor(hue);
 
       // For saturation and brightness, no wrapping around, we just make sure
       // we don't go over 1.0 or under 0.0
-      hsbValues[1] = (float) Math.min(1.0, Math.max(0,
-          hsbValues[1] + saturationToAdd / 100.0));
-      hsbValues[2] = (float) Math.min(1.0, Math.max(0,
-          hsbValues[2] + brightnessToAdd / 100.0));
+      float saturation = (float) Math.min(1.0, Math.max(0,
+          saturation(baseColor) + saturationToAdd / 100.0));
+      float brightness = (float) Math.min(1.0, Math.max(0,
+          brightness(baseColor) + brightnessToAdd / 100.0));
 
-      return Color.getHSBColor(hsbValues[0], hsbValues[1], hsbValues[2]);
+      return hsbToRgb(hue, saturation, brightness);
     }
   }
 
@@ -710,7 +726,7 @@ public class GssFunctions {
    * link color this should be a muted version of and optionally the loss of
    * saturation for muted tone (0 <= loss <= 1).
    */
-  public static class MakeMutedColor implements GssFunction {
+  public static class MakeMutedColor implements PureGssFunction {
 
     private float LOSS_OF_SATURATION_FOR_MUTED_TONE = 0.2f;
     private String ARGUMENT_COUNT_ERROR_MESSAGE = "makeMutedColor " +
@@ -772,11 +788,9 @@ public class GssFunctions {
           || "transparent".equalsIgnoreCase(foregroundColorStr)) {
         return foregroundColorStr;
       }
-      Color backgroundColor = ColorParser.parseAny(backgroundColorStr);
-      Color foregroundColor = ColorParser.parseAny(foregroundColorStr);
+      int backgroundColor = ColorParser.parseAnyArgb(backgroundColorStr);
+      int foregroundColor = ColorParser.parseAnyArgb(foregroundColorStr);
 
-      float[] backgroundColorHsb = toHsb(backgroundColor);
-      float[] foregroundColorHsb = toHsb(foregroundColor);
       float lossOfSaturationForMutedTone = Float.valueOf(lossStr);
 
       // Make sure that 0 <= lossOfSaturationForMutedTone <= 1
@@ -791,14 +805,13 @@ public class GssFunctions {
       // For example, if the background has a brightness of 50, and 100 for the
       // foreground, the muted color will have 75. If we have a dark background,
       // it should be the reverse.
-      float mutedHue = foregroundColorHsb[0];
+      float mutedHue = hue(foregroundColor);
       float mutedSaturation = Math.max(
-          foregroundColorHsb[1] - lossOfSaturationForMutedTone, 0);
-      float mutedBrightness = (foregroundColorHsb[2] + backgroundColorHsb[2]) /
-          2;
+          saturation(foregroundColor) - lossOfSaturationForMutedTone, 0);
+      float mutedBrightness =
+          (brightness(foregroundColor) + brightness(backgroundColor)) / 2;
 
-      Color mutedColor
-          = Color.getHSBColor(mutedHue, mutedSaturation, mutedBrightness);
+      int mutedColor = hsbToRgb(mutedHue, mutedSaturation, mutedBrightness);
 
       return formatColor(mutedColor);
     }
@@ -826,7 +839,8 @@ public class GssFunctions {
   /**
    * Abstract class implementing the shared logic for the arithmetic functions.
    */
-  private static abstract class LeftAssociativeOperator implements GssFunction {
+  private static abstract class LeftAssociativeOperator
+      implements PureGssFunction {
 
     /**
      * Returns the number of expected arguments of this GSS function.
@@ -1082,7 +1096,7 @@ public class GssFunctions {
    * as close as possible to what is being requested. See the unit test for
    * some examples.
    */
-  public static class AdjustBrightness implements GssFunction {
+  public static class AdjustBrightness implements PureGssFunction {
 
     /**
      * Returns the number of expected arguments of this GSS function.
@@ -1130,10 +1144,10 @@ public class GssFunctions {
       return value;
     }
 
-    private String formatColorWithAdjustedBrightness (float[] originalHsb,
+    private String formatColorWithAdjustedBrightness(int originalColor,
         float adjustedBrightness) {
-      return formatColor(Color.getHSBColor(originalHsb[0],
-          originalHsb[1], adjustedBrightness));
+      return formatColor(hsbToRgb(hue(originalColor),
+          saturation(originalColor), adjustedBrightness));
     }
 
     protected String adjustBrightness(String originalColorStr,
@@ -1144,16 +1158,16 @@ public class GssFunctions {
       if ("transparent".equalsIgnoreCase(originalColorStr)) {
         return originalColorStr;
       }
-      Color originalColor = ColorParser.parseAny(originalColorStr);
+      int originalColor = ColorParser.parseAnyArgb(originalColorStr);
       float brightnessFloat = Float.parseFloat(brightnessStr) / (float)100.0;
 
-      float[] originalColorHsb = toHsb(originalColor);
-      float requestedBrightness = originalColorHsb[2] + brightnessFloat;
+      float originalBrightness = brightness(originalColor);
+      float requestedBrightness = originalBrightness + brightnessFloat;
 
       // If we're not "saturating" to white or black, then we can meet
       // exactly what the caller requests.
       if (requestedBrightness >= 0.0 && requestedBrightness <= 1.0) {
-        return formatColorWithAdjustedBrightness(originalColorHsb,
+        return formatColorWithAdjustedBrightness(originalColor,
             requestedBrightness);
       }
 
@@ -1161,16 +1175,16 @@ public class GssFunctions {
       // be as close as possible to the requested brightness difference.
       requestedBrightness = normalize(requestedBrightness);
       float oppositeDirectionBrightness =
-          normalize(originalColorHsb[2] - brightnessFloat);
+          normalize(originalBrightness - brightnessFloat);
 
       // Calculate the distance between what the caller requests and the two
       // possibilites we have, then return the closest.
       float chosenBrightness = Math.abs(brightnessFloat -
-          (originalColorHsb[2] - requestedBrightness)) >
+          (originalBrightness - requestedBrightness)) >
               Math.abs(brightnessFloat -
-                  (originalColorHsb[2] - oppositeDirectionBrightness)) ?
+                  (originalBrightness - oppositeDirectionBrightness)) ?
                       oppositeDirectionBrightness : requestedBrightness;
-      return formatColorWithAdjustedBrightness(originalColorHsb,
+      return formatColorWithAdjustedBrightness(originalColor,
           chosenBrightness);
     }
 
@@ -1220,7 +1234,7 @@ public class GssFunctions {
    *   color.
    * </ol>
    */
-  public static class MakeContrastingColor implements GssFunction {
+  public static class MakeContrastingColor implements PureGssFunction {
 
     /**
      * Number of iterations to approximate the closest contrasting color.
@@ -1230,6 +1244,9 @@ public class GssFunctions {
      */
     private static final int NUM_ITERATIONS = 8;
 
+    private static final int BLACK = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+
     @Override
     public Integer getNumExpectedArguments() {
       return 2;
@@ -1262,50 +1279,49 @@ public class GssFunctions {
       if ("transparent".equalsIgnoreCase(inputColorStr)) {
         return inputColorStr;
       }
-      Color inputColor = ColorParser.parseAny(inputColorStr);
+      int inputColor = ColorParser.parseAnyArgb(inputColorStr);
       float similarity = Float.parseFloat(similarityStr);
 
-      float[] distantColor = toHsb(
-          getDistantColor(inputColor, Color.BLACK, Color.WHITE));
+      // All the colors below share the hue of the input color, so only their
+      // saturation and brightness are tracked.
+      float hue = hue(inputColor);
+      int distantColor = getDistantColor(inputColor, BLACK, WHITE);
+      float distantSaturation = saturation(distantColor);
+      float distantBrightness = brightness(distantColor);
 
-      float[] startColor = toHsb(inputColor);
-      float[] endColor = distantColor;
-      float[] closestContrastColor = null;
+      float startSaturation = saturation(inputColor);
+      float startBrightness = brightness(inputColor);
+      float endSaturation = distantSaturation;
+      float endBrightness = distantBrightness;
+      float closestSaturation = 0;
+      float closestBrightness = 0;
 
       for (int i = 0; i < NUM_ITERATIONS; i++) {
-        closestContrastColor = blendSb(startColor, endColor, 0.5f);
-        if (testContrast(inputColor, hsbToColor(closestContrastColor))) {
-          endColor = closestContrastColor;
+        closestSaturation = mix(startSaturation, endSaturation, 0.5f);
+        closestBrightness = mix(startBrightness, endBrightness, 0.5f);
+        if (testContrast(inputColor,
+            hsbToRgb(hue, closestSaturation, closestBrightness))) {
+          endSaturation = closestSaturation;
+          endBrightness = closestBrightness;
         } else {
-          startColor = closestContrastColor;
+          startSaturation = closestSaturation;
+          startBrightness = closestBrightness;
         }
       }
 
-      float[] resultColor = blendSb(
-          closestContrastColor, distantColor, similarity);
-      return formatColor(hsbToColor(resultColor));
+      return formatColor(hsbToRgb(hue,
+          mix(closestSaturation, distantSaturation, similarity),
+          mix(closestBrightness, distantBrightness, similarity)));
     }
 
-    private Color getDistantColor(
-        Color color, Color first, Color second) {
+    private int getDistantColor(int color, int first, int second) {
       int firstLuminanceDiff = ColorUtil.luminanceDiff(color, first);
       int secondLuminanceDiff = ColorUtil.luminanceDiff(color, second);
       return firstLuminanceDiff >= secondLuminanceDiff ? first : second;
     }
 
-    private float[] blendSb(float[] keepHue, float[] other, float similarity) {
-      float[] result = Arrays.copyOf(keepHue, keepHue.length);
-      mix(ColorUtil.S, keepHue, other, similarity, result);
-      mix(ColorUtil.B, keepHue, other, similarity, result);
-      return result;
-    }
-
-    private void mix(
-        int componentIdx, float[] sourceHsb, float[] otherColorHsb,
-        float sourceSimilarity, float[] resultHsb) {
-      resultHsb[componentIdx] =
-          sourceHsb[componentIdx] * sourceSimilarity
-          + otherColorHsb[componentIdx] * (1f - sourceSimilarity);
+    private float mix(float source, float other, float sourceSimilarity) {
+      return source * sourceSimilarity + other * (1f - sourceSimilarity);
     }
   }
 
@@ -1327,7 +1343,7 @@ public class GssFunctions {
    * <p>
    * {@code MYDEF = BAR;}
    */
-  public static class SelectFrom implements GssFunction {
+  public static class SelectFrom implements PureGssFunction {
     @Override
     public Integer getNumExpectedArguments() {
       return 3;
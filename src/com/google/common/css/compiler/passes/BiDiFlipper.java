@@ -16,6 +16,7 @@
 
 package com.google.common.css.compiler.passes;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -41,7 +42,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 /**
  * Compiler pass that BiDi flips all the flippable nodes.
@@ -165,10 +165,10 @@ public class BiDiFlipper extends DefaultTreeVisitor
                     "padding");
 
   /**
-   * Map with the patterns to match URLs against if swap_ltr_rtl_in_url flag is
-   * true, and their replacement string. Only the first occurrence of the
-   * pattern is flipped. This would match "ltr" and "rtl" if they occur as a
-   * word inside the path specified by the url.
+   * The words swapped in URLs if swap_ltr_rtl_in_url flag is true. Only the
+   * first occurrence of "ltr", or if there is none, of "rtl" is flipped. A
+   * word only counts if it is not preceded by a letter and is followed by at
+   * least one of the separators "-", "_", "." and "/".
    * For example, for
    * <p>
    *   background: url(/foo/rtl/bkg.gif)
@@ -186,19 +186,13 @@ public class BiDiFlipper extends DefaultTreeVisitor
    *   background: url(/foo/bkg-rtl.gif)
    * <p>
    */
-  private static final Map<Pattern, String> URL_LTRTL_PATTERN_FOR_FLIPPING =
-    new ImmutableMap.Builder<Pattern, String>()
-    .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)ltr([-_\\./]+)"),
-        "$1rtl$2")
-    .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)rtl([-_\\./]+)"),
-        "$1ltr$2")
-    .build();
+  private static final String URL_LTR = "ltr";
+  private static final String URL_RTL = "rtl";
 
   /**
-   * Map with the patterns to match URLs against if swap_left_right_in_url flag
-   * is true, and their replacement string. Only the first occurrence of the
-   * pattern is flipped. This would match "left" and "right" if they occur as a
-   * word inside the path specified by the url.
+   * The words swapped in URLs if swap_left_right_in_url flag is true, in the
+   * same way as {@link #URL_LTR} and {@link #URL_RTL}. Only the first
+   * occurrence of "left", or if there is none, of "right" is flipped.
    * For example, for
    * <p>
    *   background: url(/foo/right/bkg.gif)
@@ -216,13 +210,8 @@ public class BiDiFlipper extends DefaultTreeVisitor
    *   background: url(/foo/bkg-right.gif)
    * <p>
    */
-  private static final Map<Pattern, String> URL_LEFTRIGHT_PATTERN_FOR_FLIPPING =
-    new ImmutableMap.Builder<Pattern, String>()
-    .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)left([-_\\./]+)"),
-        "$1right$2")
-    .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)right([-_\\./]+)"),
-        "$1left$2")
-    .build();
+  private static final String URL_LEFT = "left";
+  private static final String URL_RIGHT = "right";
 
   /**
    * Return if the string is "left" or "center" or "right".
@@ -511,28 +500,82 @@ public class BiDiFlipper extends DefaultTreeVisitor
   /**
    * Performs appropriate replacements needed for BiDi flipping.
    */
-  private String flipValue(String value) {
-    for (String s : EXACT_MATCHING_FOR_FLIPPING.keySet()) {
-      if (value.equals(s)) {
-        value = EXACT_MATCHING_FOR_FLIPPING.get(s);
-        break;
-      }
+  @VisibleForTesting
+  static String flipValue(String value) {
+    String exactMatch = EXACT_MATCHING_FOR_FLIPPING.get(value);
+    if (exactMatch != null) {
+      value = exactMatch;
     }
-    for (String s : ENDS_WITH_MATCHING_FOR_FLIPPING.keySet()) {
-      if (value.endsWith(s)) {
-        value = value.replace(s, ENDS_WITH_MATCHING_FOR_FLIPPING.get(s));
-        break;
-      }
+    String suffix = findFlippableSuffix(value);
+    if (suffix != null) {
+      value = value.replace(suffix, ENDS_WITH_MATCHING_FOR_FLIPPING.get(suffix));
     }
-    for (String s : CONTAINS_MATCHING_FOR_FLIPPING.keySet()) {
-      if (value.indexOf(s) > 0) {
-        value = value.replace(s, CONTAINS_MATCHING_FOR_FLIPPING.get(s));
-        break;
-      }
+    String infix = findFlippableInfix(value);
+    if (infix != null) {
+      value = value.replace(infix, CONTAINS_MATCHING_FOR_FLIPPING.get(infix));
     }
     return value;
   }
 
+  /**
+   * Returns the key of {@link #ENDS_WITH_MATCHING_FOR_FLIPPING} that the value
+   * ends with, or null. At most one key can match, as none of them is a suffix
+   * of another.
+   */
+  private static String findFlippableSuffix(String value) {
+    // All the suffixes end with "left" or "right".
+    int length = value.length();
+    if (length == 0 || value.charAt(length - 1) != 't') {
+      return null;
+    }
+    int wordStart;
+    if (value.endsWith("left")) {
+      wordStart = length - 4;
+    } else if (value.endsWith("right")) {
+      wordStart = length - 5;
+    } else {
+      return null;
+    }
+    if (wordStart == 0) {
+      return null;
+    }
+    switch (value.charAt(wordStart - 1)) {
+      case '-':
+        return value.substring(wordStart - 1);
+      case 'm':
+        return value.regionMatches(wordStart - 7, "-bottom", 0, 7)
+            ? value.substring(wordStart - 7) : null;
+      case 'p':
+        return value.regionMatches(wordStart - 4, "-top", 0, 4)
+            ? value.substring(wordStart - 4) : null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the key of {@link #CONTAINS_MATCHING_FOR_FLIPPING} whose first
+   * occurrence in the value is past its start, trying "-left-" first, or null.
+   */
+  private static String findFlippableInfix(String value) {
+    int left = -1;
+    int right = -1;
+    for (int i = value.indexOf('-'); i >= 0 && (left < 0 || right < 0);
+        i = value.indexOf('-', i + 1)) {
+      if (left < 0 && value.startsWith("-left-", i)) {
+        left = i;
+      } else if (right < 0 && value.startsWith("-right-", i)) {
+        right = i;
+      }
+    }
+    if (left > 0) {
+      return "-left-";
+    } else if (right > 0) {
+      return "-right-";
+    }
+    return null;
+  }
+
   /**
    * Returns flipped node after making appropriate replacements needed for
    * BiDi flipping, if the node is either a LiteralNode or PropertyNode.
@@ -577,31 +620,82 @@ public class BiDiFlipper extends DefaultTreeVisitor
    }
 
   /**
-   * Performs appropriate replacements required for flipping url.
+   * Performs appropriate replacements required for flipping url. The words to
+   * flip are all found in a single scan of the url.
    */
-  private String flipUrlValue(String value) {
+  @VisibleForTesting
+  String flipUrlValue(String value) {
     if (null == value) {
       return null;
     }
-    if (shouldSwapLtrRtlInUrl) {
-      for (Pattern p : URL_LTRTL_PATTERN_FOR_FLIPPING.keySet()) {
-        if (p.matcher(value).find()) {
-          String s = URL_LTRTL_PATTERN_FOR_FLIPPING.get(p);
-          value =  p.matcher(value).replaceFirst(s);
-          break;
+    if (!shouldSwapLtrRtlInUrl && !shouldSwapLeftRightInUrl) {
+      return value;
+    }
+    int ltr = -1;
+    int rtl = -1;
+    int left = -1;
+    int right = -1;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if ((c != 'l' && c != 'r')
+          || (i > 0 && isAsciiLetter(value.charAt(i - 1)))) {
+        continue;
+      }
+      if (c == 'l') {
+        if (ltr < 0 && isUrlWordAt(value, i, URL_LTR)) {
+          ltr = i;
+        } else if (left < 0 && isUrlWordAt(value, i, URL_LEFT)) {
+          left = i;
+        }
+      } else {
+        if (rtl < 0 && isUrlWordAt(value, i, URL_RTL)) {
+          rtl = i;
+        } else if (right < 0 && isUrlWordAt(value, i, URL_RIGHT)) {
+          right = i;
         }
       }
     }
-    if (shouldSwapLeftRightInUrl) {
-      for (Pattern p : URL_LEFTRIGHT_PATTERN_FOR_FLIPPING.keySet()) {
-        if (p.matcher(value).find()) {
-          String s = URL_LEFTRIGHT_PATTERN_FOR_FLIPPING.get(p);
-          value = p.matcher(value).replaceFirst(s);
-          break;
-        }
+
+    // Swapping "ltr" and "rtl" neither moves nor creates the other words, as
+    // a word is delimited by non-letters on both sides.
+    StringBuilder sb = null;
+    if (shouldSwapLtrRtlInUrl && (ltr >= 0 || rtl >= 0)) {
+      sb = new StringBuilder(value);
+      if (ltr >= 0) {
+        sb.replace(ltr, ltr + URL_LTR.length(), URL_RTL);
+      } else {
+        sb.replace(rtl, rtl + URL_RTL.length(), URL_LTR);
       }
     }
-    return value;
+    if (shouldSwapLeftRightInUrl && (left >= 0 || right >= 0)) {
+      if (sb == null) {
+        sb = new StringBuilder(value);
+      }
+      if (left >= 0) {
+        sb.replace(left, left + URL_LEFT.length(), URL_RIGHT);
+      } else {
+        sb.replace(right, right + URL_RIGHT.length(), URL_LEFT);
+      }
+    }
+    return sb == null ? value : sb.toString();
+  }
+
+  /**
+   * Returns whether the word occurs at the given index of the url and is
+   * followed by at least one separator.
+   */
+  private static boolean isUrlWordAt(String url, int index, String word) {
+    int end = index + word.length();
+    return url.startsWith(word, index) && end < url.length()
+        && isUrlSeparator(url.charAt(end));
+  }
+
+  private static boolean isUrlSeparator(char c) {
+    return c == '-' || c == '_' || c == '.' || c == '/';
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
   }
 
   /**
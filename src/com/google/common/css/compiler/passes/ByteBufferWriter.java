@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A writer that encodes the characters written to it in UTF-8 straight into
+ * a {@link ByteBuffer}, which is not grown: writing more than fits throws a
+ * {@link BufferOverflowException}. Unpaired surrogates are replaced with
+ * question marks, like {@link java.io.OutputStreamWriter} does.
+ */
+final class ByteBufferWriter extends Writer {
+
+  private final ByteBuffer out;
+  private final CharsetEncoder encoder = Charsets.UTF_8.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  /**
+   * A high surrogate at the end of the last write, which is encoded together
+   * with the next character.
+   */
+  private char pendingHighSurrogate = 0;
+
+  ByteBufferWriter(ByteBuffer out) {
+    this.out = out;
+  }
+
+  @Override
+  public void write(char[] buffer, int offset, int length) {
+    if (length == 0) {
+      return;
+    }
+    if (pendingHighSurrogate != 0) {
+      char[] pair = {pendingHighSurrogate, buffer[offset]};
+      pendingHighSurrogate = 0;
+      encode(CharBuffer.wrap(pair), false);
+      offset++;
+      length--;
+    }
+    encode(CharBuffer.wrap(buffer, offset, length), false);
+  }
+
+  @Override
+  public void write(String s, int offset, int length) {
+    write(s.toCharArray(), offset, length);
+  }
+
+  private void encode(CharBuffer in, boolean endOfInput) {
+    CoderResult result = encoder.encode(in, out, endOfInput);
+    if (result.isOverflow()) {
+      throw new BufferOverflowException();
+    }
+    if (in.hasRemaining()) {
+      // Only a high surrogate waiting for its pair is left over.
+      pendingHighSurrogate = in.get();
+    }
+  }
+
+  @Override
+  public void flush() {}
+
+  /**
+   * Ends the encoding, replacing a high surrogate left at the end. Nothing
+   * can be written afterwards.
+   */
+  @Override
+  public void close() {
+    char[] rest = pendingHighSurrogate != 0
+        ? new char[] {pendingHighSurrogate} : new char[0];
+    pendingHighSurrogate = 0;
+    encode(CharBuffer.wrap(rest), true);
+    if (encoder.flush(out).isOverflow()) {
+      throw new BufferOverflowException();
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.common.css.compiler.passes;
 
+import com.google.common.base.Objects;
 import com.google.common.css.compiler.ast.CssAttributeSelectorNode;
 import com.google.common.css.compiler.ast.CssClassSelectorNode;
 import com.google.common.css.compiler.ast.CssCombinatorNode;
@@ -23,6 +24,7 @@ import com.google.common.css.compiler.ast.CssFontFaceNode;
 import com.google.common.css.compiler.ast.CssIdSelectorNode;
 import com.google.common.css.compiler.ast.CssKeyframesNode;
 import com.google.common.css.compiler.ast.CssMediaRuleNode;
+import com.google.common.css.compiler.ast.CssNode;
 import com.google.common.css.compiler.ast.CssPseudoClassNode;
 import com.google.common.css.compiler.ast.CssPseudoElementNode;
 import com.google.common.css.compiler.ast.CssRulesetNode;
@@ -36,7 +38,9 @@ import com.google.common.css.compiler.ast.CssTree;
  * as this ruleset belongs to.
  *
  * <p>This pass can only be used if {@link MapChunkAwareNodesToChunk} pass has been
- * run before. Otherwise this pass won't work.
+ * run before. Otherwise this pass won't work. A printer for the {@code null}
+ * chunk prints the nodes that are not mapped to any chunk, which is the whole
+ * tree if that pass has not been run.
  *
  * @param <T> type of chunk id objects set on {@link CssSelectorNode} instances
  *
@@ -64,10 +68,21 @@ public class ChunkCompactPrinter<T> extends CompactPrinter {
     this.chunk = chunk;
   }
 
+  /**
+   * Create a chunk printer for a subtree and a given chunk.
+   *
+   * @param subtree the subtree to be printed (with regard to a selected chunk)
+   * @param chunk the chunk selected for printing
+   */
+  ChunkCompactPrinter(CssNode subtree, T chunk) {
+    super(subtree);
+    this.chunk = chunk;
+  }
+
   @Override
   public boolean enterRuleset(CssRulesetNode ruleset) {
     for (CssSelectorNode selector : ruleset.getSelectors().childIterable()) {
-      if (chunk.equals(selector.getChunk())) {
+      if (Objects.equal(chunk, selector.getChunk())) {
         return true;
       }
     }
@@ -76,7 +91,7 @@ public class ChunkCompactPrinter<T> extends CompactPrinter {
 
   @Override
   public boolean enterSelector(CssSelectorNode selector) {
-    printSelector = chunk.equals(selector.getChunk());
+    printSelector = Objects.equal(chunk, selector.getChunk());
     if (printSelector) {
       return super.enterSelector(selector);
     }
@@ -92,7 +107,7 @@ public class ChunkCompactPrinter<T> extends CompactPrinter {
 
   @Override
   public boolean enterMediaRule(CssMediaRuleNode media) {
-    printSelector = chunk.equals(media.getChunk());
+    printSelector = Objects.equal(chunk, media.getChunk());
     if (!printSelector) {
       return false;
     }
@@ -101,14 +116,14 @@ public class ChunkCompactPrinter<T> extends CompactPrinter {
 
   @Override
   public void leaveMediaRule(CssMediaRuleNode media) {
-    if (printSelector) {
+    if (Objects.equal(chunk, media.getChunk())) {
       super.leaveMediaRule(media);
     }
   }
 
   @Override
   public boolean enterKeyframesRule(CssKeyframesNode keyframes) {
-    printSelector = chunk.equals(keyframes.getChunk());
+    printSelector = Objects.equal(chunk, keyframes.getChunk());
     if (!printSelector) {
       return false;
     }
@@ -117,14 +132,14 @@ public class ChunkCompactPrinter<T> extends CompactPrinter {
 
   @Override
   public void leaveKeyframesRule(CssKeyframesNode keyframes) {
-    if (printSelector) {
+    if (Objects.equal(chunk, keyframes.getChunk())) {
       super.leaveKeyframesRule(keyframes);
     }
   }
 
   @Override
   public boolean enterFontFace(CssFontFaceNode cssFontFaceNode) {
-    printSelector = chunk.equals(cssFontFaceNode.getChunk());
+    printSelector = Objects.equal(chunk, cssFontFaceNode.getChunk());
     if (!printSelector) {
       return false;
     }
@@ -16,6 +16,7 @@
 
 package com.google.common.css.compiler.passes;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.css.compiler.ast.CssAttributeSelectorNode;
 import com.google.common.css.compiler.ast.CssBlockNode;
@@ -56,6 +57,12 @@ import com.google.common.css.compiler.ast.CssValueNode;
 import com.google.common.css.compiler.ast.DefaultTreeVisitor;
 import com.google.common.css.compiler.ast.VisitController;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.logging.Logger;
 
 /**
@@ -84,6 +91,9 @@ public class CompactPrinter extends DefaultTreeVisitor
    */
   protected StringBuilder sb = null;
 
+  /** Where the output goes while it is printed, if it is streamed. */
+  private StreamingOutput output = null;
+
   public CompactPrinter(CssNode subtree) {
     this.subtree = subtree;
     this.visitController = this.subtree.getVisitController();
@@ -280,6 +290,9 @@ public class CompactPrinter extends DefaultTreeVisitor
   public void leaveDeclarationBlock(CssDeclarationBlockNode block) {
     deleteLastCharIfCharIs(';');
     sb.append('}');
+    if (output != null) {
+      output.maybeFlush(sb);
+    }
   }
 
   @Override
@@ -481,6 +494,100 @@ public class CompactPrinter extends DefaultTreeVisitor
     compactedPrintedString = sb.toString();
   }
 
+  /**
+   * Prints the tree to the given writer instead of building the output as a
+   * string. The output is written in pieces of a few kilobytes while the tree
+   * is visited, so it is never held in memory as a whole. The writer is
+   * flushed but not closed, and {@link #getCompactPrintedString} returns
+   * {@code null} afterwards.
+   *
+   * @param out the writer to print to
+   * @return the number of characters printed
+   * @throws IOException if the writer throws one
+   */
+  public long printTo(Writer out) throws IOException {
+    startPrinting(out, visitController);
+    visitController.startVisit(this);
+    return finishPrinting();
+  }
+
+  /**
+   * Prints the tree into the given buffer, encoded in UTF-8, starting at its
+   * position. Afterwards the position of the buffer is at the end of the
+   * output, and {@link #getCompactPrintedString} returns {@code null}.
+   *
+   * @param out the buffer to print into, which can be a direct buffer
+   * @return the number of characters printed
+   * @throws BufferOverflowException if the output does not fit in the
+   *     buffer, see {@link #measure}
+   */
+  public long printTo(ByteBuffer out) {
+    ByteBufferWriter writer = new ByteBufferWriter(out);
+    try {
+      long printed = printTo(writer);
+      writer.close();
+      return printed;
+    } catch (IOException e) {
+      // A ByteBufferWriter does not throw IOExceptions.
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Measures the output of this printer without holding it in memory, so
+   * that a buffer of exactly the right size can be allocated before printing
+   * into it. Measuring takes a visit of the tree, like printing does.
+   *
+   * @return the size of the output
+   */
+  public OutputSize measure() {
+    OutputSize.Counter counter = new OutputSize.Counter();
+    try {
+      printTo(counter);
+    } catch (IOException e) {
+      // A counter does not throw IOExceptions.
+      throw new AssertionError(e);
+    }
+    return counter.getSize();
+  }
+
+  /**
+   * Prepares to print to the given writer while a visit driven by the given
+   * controller, which is stopped if the writer fails, calls this printer.
+   */
+  void startPrinting(Writer out, VisitController controller) {
+    sb = new StringBuilder(2 * StreamingOutput.FLUSH_THRESHOLD);
+    output = new StreamingOutput(out, controller);
+    compactedPrintedString = null;
+  }
+
+  /**
+   * Writes the rest of the output after the visit that calls this printer.
+   *
+   * @return the number of characters printed
+   * @throws IOException if the writer threw one at any point
+   */
+  long finishPrinting() throws IOException {
+    try {
+      return output.finish(sb);
+    } finally {
+      output = null;
+      sb = null;
+    }
+  }
+
+  /**
+   * Prints the tree to the given stream, encoded in UTF-8, in the same way
+   * as {@link #printTo(Writer)}. The stream is flushed but not closed.
+   *
+   * @param out the stream to print to
+   * @return the number of characters printed
+   * @throws IOException if the stream throws one
+   */
+  public long printTo(OutputStream out) throws IOException {
+    return printTo(new OutputStreamWriter(out, Charsets.UTF_8));
+  }
+
   /**
    * Appends the given value node to the buffer.
    *
@@ -17,7 +17,6 @@
 package com.google.common.css.compiler.passes;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Sets;
 import com.google.common.css.SourceCodeLocation;
 import com.google.common.css.compiler.ast.CssCompilerPass;
 import com.google.common.css.compiler.ast.CssDeclarationNode;
@@ -28,8 +27,6 @@ import com.google.common.css.compiler.ast.ErrorManager;
 import com.google.common.css.compiler.ast.GssError;
 import com.google.common.css.compiler.ast.VisitController;
 
-import java.util.Set;
-
 /**
  * Compiler pass that reports an error if a ruleset has two of the same
  * declarations that are not marked as alternate. This must be run before
@@ -45,10 +42,18 @@ public class DisallowDuplicateDeclarations extends DefaultTreeVisitor
       + "ruleset. If this is intentional please use the /* @alternate */ "
       + "annotation. ";
 
+  /** The selector key under which the declarations are stored. */
+  private static final int RULESET = 0;
+
   private final VisitController visitController;
   private final ErrorManager errorManager;
 
-  private final Set<String> propertyNames = Sets.newHashSet();
+  /**
+   * The declarations seen so far in the current ruleset. All of them share
+   * the same selector key.
+   */
+  private final SelectorPropertyTable<CssDeclarationNode> declarations =
+      new SelectorPropertyTable<CssDeclarationNode>();
 
   public DisallowDuplicateDeclarations(VisitController visitController,
       ErrorManager errorManager) {
@@ -64,8 +69,8 @@ public class DisallowDuplicateDeclarations extends DefaultTreeVisitor
       processDeclaration((CssDeclarationNode)child, node.getSourceCodeLocation());
     }
 
-    // Clear the map for future re-use
-    propertyNames.clear();
+    // Clear the table for future re-use
+    declarations.clear();
 
     return true;
   }
@@ -93,24 +98,18 @@ public class DisallowDuplicateDeclarations extends DefaultTreeVisitor
       return;
     }
 
-    // If the declaration is star-hacked then we make the star be part of
-    // the property name to ensure that we do not consider hacked
-    // declarations as overridden by the non-hacked ones.
-    // TODO(henrywong): This is copied from MarkRemovableRulesetNodes. We
-    // should refactor this logic probably.
-    if (declaration.hasStarHack()) {
-      propertyName = "*" + propertyName;
-    }
-
     // Ignore rules w/ the @alternate annotation.
     if (PassUtil.hasAlternateAnnotation(declaration)) {
       return;
     }
 
-    if (propertyNames.contains(propertyName)) {
+    // Star-hacked declarations get property keys of their own to ensure
+    // that we do not consider them as duplicates of the non-hacked ones.
+    int property = declarations.propertyKey(declaration);
+    if (declarations.get(RULESET, property) != null) {
       errorManager.report(new GssError(ERROR_STR + declaration, location));
     } else {
-      propertyNames.add(propertyName);
+      declarations.put(RULESET, property, declaration);
     }
   }
 }
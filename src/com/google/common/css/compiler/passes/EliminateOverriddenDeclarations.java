@@ -0,0 +1,251 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.Lists;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssPriorityNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.CssValueNode;
+import com.google.common.css.compiler.ast.MutatingVisitController;
+import com.google.common.css.compiler.ast.SkippingTreeVisitor;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compiler pass that removes overridden declarations without splitting the
+ * rulesets first.
+ *
+ * <p>The result is the same as running {@link SplitRulesetNodes},
+ * {@link MarkRemovableRulesetNodes} and {@link EliminateUselessRulesetNodes}
+ * and then merging the pieces back together. However, the analysis treats
+ * each ruleset as a grid of (selector, declaration) cells. It keeps the cells
+ * that are still visible in a side table keyed by selector and property
+ * (see {@link SelectorPropertyTable}), so the tree stays close to its input
+ * size. Only the rulesets that lose
+ * declarations are rebuilt. Each rebuilt ruleset groups consecutive selectors
+ * that keep the same declarations, which is what the merge passes would make
+ * of the split cells.
+ *
+ * <p>Like {@link MarkRemovableRulesetNodes}, this pass only looks at the
+ * rulesets at the top level of the stylesheet.
+ */
+public class EliminateOverriddenDeclarations extends SkippingTreeVisitor
+    implements CssCompilerPass {
+
+  private final MutatingVisitController visitController;
+
+  /** The analyzed rulesets, from the last one to the first. */
+  private final List<Cells> analyzedRulesets = Lists.newArrayList();
+
+  public EliminateOverriddenDeclarations(CssTree tree) {
+    this(tree, false);
+  }
+
+  /**
+   * Creates a new pass over the specified tree.
+   *
+   * @param skipping whether to skip over rulesets containing properties that
+   *     might make them unsafe to modify (see {@link SkippingTreeVisitor})
+   */
+  public EliminateOverriddenDeclarations(CssTree tree, boolean skipping) {
+    super(skipping);
+    this.visitController = tree.getMutatingVisitController();
+  }
+
+  @Override
+  public boolean enterBlock(CssBlockNode block) {
+    // As in MarkRemovableRulesetNodes, the cells are looked at from the last
+    // one to the first, and a cell is removed if a later one already sets the
+    // same property (or a shorthand of it) for the same selector.
+    SelectorPropertyTable<Cell> cells = new SelectorPropertyTable<Cell>();
+
+    for (int i = block.numChildren() - 1; i >= 0; i--) {
+      if (block.getChildAt(i) instanceof CssRulesetNode) {
+        CssRulesetNode ruleset = (CssRulesetNode) block.getChildAt(i);
+        if (canModifyRuleset(ruleset)) {
+          Cells rulesetCells = new Cells(block, i, ruleset);
+          processRuleset(cells, rulesetCells);
+          analyzedRulesets.add(rulesetCells);
+        }
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public void runPass() {
+    visitController.startVisit(this);
+    // Rebuilding back to front keeps the indices of the remaining rulesets
+    // valid.
+    for (Cells rulesetCells : analyzedRulesets) {
+      if (!rulesetCells.removed.isEmpty()) {
+        rulesetCells.block.replaceChildAt(
+            rulesetCells.index, rulesetCells.rebuild());
+      }
+    }
+    analyzedRulesets.clear();
+  }
+
+  private void processRuleset(SelectorPropertyTable<Cell> cells,
+      Cells rulesetCells) {
+    List<CssSelectorNode> selectors =
+        rulesetCells.ruleset.getSelectors().getChildren();
+    List<CssNode> declarations = rulesetCells.declarations;
+    for (int s = selectors.size() - 1; s >= 0; s--) {
+      int selector = cells.selectorKey(selectors.get(s));
+      for (int d = declarations.size() - 1; d >= 0; d--) {
+        if (declarations.get(d) instanceof CssDeclarationNode) {
+          processCell(cells, selector,
+              new Cell(rulesetCells, s * declarations.size() + d,
+                  (CssDeclarationNode) declarations.get(d)));
+        }
+      }
+    }
+  }
+
+  /**
+   * Decides whether the given cell is kept, following the rules of
+   * {@link MarkRemovableRulesetNodes}.
+   */
+  private void processCell(SelectorPropertyTable<Cell> cells,
+      int selector, Cell cell) {
+    CssDeclarationNode declaration = cell.declaration;
+    if (MarkRemovableRulesetNodes.PROPERTIES_NOT_TO_BE_CHECKED.contains(
+        declaration.getPropertyName().getPropertyName())) {
+      return;
+    }
+    int property = cells.propertyKey(declaration);
+
+    Cell previousCell = cells.get(selector, property);
+    if (previousCell != null) {
+      if (cell.isImportant() && !previousCell.isImportant()) {
+        previousCell.remove();
+        cells.put(selector, property, cell);
+      } else {
+        cell.remove();
+      }
+    } else if (hasOverridingShorthand(cells, selector, cell)) {
+      cell.remove();
+    } else if (PassUtil.hasAlternateAnnotation(declaration)) {
+      // The declaration has @alternate, so do not let it mask other
+      // declarations that precede it.
+    } else {
+      cells.put(selector, property, cell);
+    }
+  }
+
+  private boolean hasOverridingShorthand(SelectorPropertyTable<Cell> cells,
+      int selector, Cell cell) {
+    for (String shorthand
+        : cell.declaration.getPropertyName().getProperty().getShorthands()) {
+      Cell shorthandCell = cells.get(selector, cells.shorthandKey(shorthand));
+      if (shorthandCell != null
+          && (!cell.isImportant() || shorthandCell.isImportant())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A (selector, declaration) pair of a ruleset. */
+  private static class Cell {
+    final Cells rulesetCells;
+    final int index;
+    final CssDeclarationNode declaration;
+    private Boolean important;
+
+    Cell(Cells rulesetCells, int index, CssDeclarationNode declaration) {
+      this.rulesetCells = rulesetCells;
+      this.index = index;
+      this.declaration = declaration;
+    }
+
+    boolean isImportant() {
+      if (important == null) {
+        important = false;
+        for (CssValueNode value
+            : declaration.getPropertyValue().childIterable()) {
+          if (value instanceof CssPriorityNode) {
+            important = true;
+            break;
+          }
+        }
+      }
+      return important;
+    }
+
+    void remove() {
+      rulesetCells.removed.set(index);
+    }
+  }
+
+  /**
+   * The cells of a ruleset, numbered selector by selector, and the ones that
+   * have been removed.
+   */
+  private static class Cells {
+    final CssBlockNode block;
+    final int index;
+    final CssRulesetNode ruleset;
+    final List<CssNode> declarations;
+    final BitSet removed = new BitSet();
+
+    Cells(CssBlockNode block, int index, CssRulesetNode ruleset) {
+      this.block = block;
+      this.index = index;
+      this.ruleset = ruleset;
+      this.declarations = ruleset.getDeclarations().getChildren();
+    }
+
+    List<CssRulesetNode> rebuild() {
+      List<CssSelectorNode> selectors = ruleset.getSelectors().getChildren();
+      int size = declarations.size();
+      List<CssRulesetNode> replacements = Lists.newArrayList();
+      CssRulesetNode current = null;
+      BitSet currentKept = null;
+      for (int s = 0; s < selectors.size(); s++) {
+        BitSet kept = new BitSet(size);
+        kept.set(0, size);
+        kept.andNot(removed.get(s * size, (s + 1) * size));
+        if (kept.isEmpty()) {
+          current = null;
+          currentKept = null;
+          continue;
+        }
+        if (!kept.equals(currentKept)) {
+          current = new CssRulesetNode();
+          current.setSourceCodeLocation(ruleset.getSourceCodeLocation());
+          for (int d = kept.nextSetBit(0); d >= 0; d = kept.nextSetBit(d + 1)) {
+            current.addDeclaration(declarations.get(d).deepCopy());
+          }
+          replacements.add(current);
+          currentKept = kept;
+        }
+        current.addSelector(selectors.get(s).deepCopy());
+      }
+      return replacements;
+    }
+  }
+}
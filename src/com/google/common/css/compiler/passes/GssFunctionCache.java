@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.css.SourceCodeLocation;
+import com.google.common.css.compiler.ast.CssHexColorNode;
+import com.google.common.css.compiler.ast.CssLiteralNode;
+import com.google.common.css.compiler.ast.CssNumericNode;
+import com.google.common.css.compiler.ast.CssValueNode;
+import com.google.common.css.compiler.ast.PureGssFunction;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A memo cache for the results of calls to {@link PureGssFunction}s, keyed by
+ * the name of the function and the values of the arguments.
+ *
+ * <p>A cache is usually created for a single compilation, but it can be
+ * shared by several compilations, also concurrently, as long as they map the
+ * same function names to the same functions. The cache keeps its own copies
+ * of the results and every lookup returns fresh copies, so the nodes returned
+ * can be inserted into the tree and modified freely.
+ *
+ * <p>Only calls whose arguments are all numbers, hex colors or literals are
+ * cached; for those the printed value and the type of a node determine the
+ * result of a pure function.
+ *
+ */
+public class GssFunctionCache {
+
+  /** The default maximum number of cached calls. */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  private static final Set<Class<?>> CACHEABLE_ARGUMENT_CLASSES =
+      ImmutableSet.<Class<?>>of(
+          CssNumericNode.class, CssHexColorNode.class, CssLiteralNode.class);
+
+  private final Cache<List<String>, List<CssValueNode>> cache;
+
+  public GssFunctionCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param maximumSize the maximum number of calls to cache; the least
+   *     recently used are evicted first
+   */
+  public GssFunctionCache(int maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .<List<String>, List<CssValueNode>>build();
+  }
+
+  /**
+   * Returns the key of a call, or {@code null} if the call cannot be cached.
+   */
+  @Nullable
+  public List<String> getKey(String functionName,
+      List<CssValueNode> arguments) {
+    List<String> key = Lists.newArrayListWithCapacity(arguments.size() + 1);
+    key.add(functionName);
+    for (CssValueNode argument : arguments) {
+      if (!CACHEABLE_ARGUMENT_CLASSES.contains(argument.getClass())) {
+        return null;
+      }
+      // The class is part of the key since functions check argument types.
+      key.add(argument.getClass().getSimpleName() + ':' + argument);
+    }
+    return ImmutableList.copyOf(key);
+  }
+
+  /**
+   * Returns copies of the cached result of a call, or {@code null} if the call
+   * is not in the cache. The copies get the given source code location.
+   *
+   * @param key the key returned by {@link #getKey}
+   * @param location the location of the copies, usually that of the first
+   *     argument of the call, as for the results of the built-in functions
+   */
+  @Nullable
+  public List<CssValueNode> get(List<String> key,
+      @Nullable SourceCodeLocation location) {
+    List<CssValueNode> result = cache.getIfPresent(key);
+    if (result == null) {
+      return null;
+    }
+    List<CssValueNode> copies = Lists.newArrayListWithCapacity(result.size());
+    for (CssValueNode node : result) {
+      CssValueNode copy = node.deepCopy();
+      copy.setSourceCodeLocation(location);
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  /**
+   * Caches the result of a call. The cache keeps copies of the nodes, so
+   * the result can be inserted into the tree.
+   */
+  public void put(List<String> key, List<CssValueNode> result) {
+    List<CssValueNode> copies = Lists.newArrayListWithCapacity(result.size());
+    for (CssValueNode node : result) {
+      copies.add(node.deepCopy());
+    }
+    cache.put(key, ImmutableList.copyOf(copies));
+  }
+
+  /** Returns the number of calls in the cache. */
+  public long size() {
+    return cache.size();
+  }
+}
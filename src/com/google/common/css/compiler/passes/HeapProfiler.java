@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.passes.TreeHeapEstimator.Estimate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * A diagnostic mode that records, for each phase of a compilation, the peak
+ * heap usage during the phase and an estimate of the heap retained by the
+ * tree afterwards, by node type. It is meant to find out which pass makes a
+ * large job run out of memory.
+ *
+ * <p>Each phase is bracketed by {@link #startPhase()} and
+ * {@link #endPhase(String, CssTree, Object)}. Starting a phase runs the
+ * garbage collector, so the heap in use at the start of the phase is the
+ * live heap, and resets the peak usage of the heap memory pools; the peak
+ * reported at the end of the phase is the sum of the peaks of the pools.
+ * Both slow the compilation down considerably; the estimate of the tree can
+ * be sampled, see {@link TreeHeapEstimator}.
+ *
+ */
+public class HeapProfiler {
+
+  /** What was recorded for one phase. */
+  public static class PhaseProfile {
+    private final String name;
+    private final long liveHeapAtStart;
+    private final long peakHeap;
+    private final SortedMap<String, Estimate> estimates;
+
+    PhaseProfile(String name, long liveHeapAtStart, long peakHeap,
+        SortedMap<String, Estimate> estimates) {
+      this.name = name;
+      this.liveHeapAtStart = liveHeapAtStart;
+      this.peakHeap = peakHeap;
+      this.estimates = ImmutableSortedMap.copyOfSorted(estimates);
+    }
+
+    /** Returns the name of the phase, such as the name of the pass. */
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the heap in use after a garbage collection, in bytes. */
+    public long getLiveHeapAtStart() {
+      return liveHeapAtStart;
+    }
+
+    /** Returns the peak heap usage during the phase, in bytes. */
+    public long getPeakHeap() {
+      return peakHeap;
+    }
+
+    /**
+     * Returns the estimated heap retained by the tree at the end of the
+     * phase, by category.
+     */
+    public SortedMap<String, Estimate> getEstimates() {
+      return estimates;
+    }
+
+    /** Returns the sum of the estimates of all the categories, in bytes. */
+    public long getEstimatedTotal() {
+      long total = 0;
+      for (Estimate estimate : estimates.values()) {
+        total += estimate.getBytes();
+      }
+      return total;
+    }
+  }
+
+  private static final Comparator<Map.Entry<String, Estimate>>
+      BY_BYTES_DESCENDING = new Comparator<Map.Entry<String, Estimate>>() {
+        @Override
+        public int compare(Map.Entry<String, Estimate> a,
+            Map.Entry<String, Estimate> b) {
+          long difference = b.getValue().getBytes() - a.getValue().getBytes();
+          return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+        }
+      };
+
+  private final TreeHeapEstimator estimator;
+  private final List<MemoryPoolMXBean> heapPools = Lists.newArrayList();
+  private final List<PhaseProfile> profiles = Lists.newArrayList();
+  private long liveHeapAtStart = -1;
+
+  /**
+   * @param samplingInterval estimate the tree from one in this many
+   *     top-level statements; 1 walks the whole tree
+   */
+  public HeapProfiler(int samplingInterval) {
+    this.estimator = new TreeHeapEstimator(samplingInterval);
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        heapPools.add(pool);
+      }
+    }
+  }
+
+  /**
+   * Starts a phase.
+   */
+  public void startPhase() {
+    System.gc();
+    liveHeapAtStart = 0;
+    for (MemoryPoolMXBean pool : heapPools) {
+      liveHeapAtStart += pool.getUsage().getUsed();
+      pool.resetPeakUsage();
+    }
+  }
+
+  /**
+   * Ends the phase started last, records the peak heap usage and estimates
+   * the heap retained by the tree.
+   *
+   * @param name the name of the phase
+   * @param tree the tree as it is at the end of the phase
+   * @param substitutionMap the substitution map used for renaming, if any
+   */
+  public void endPhase(String name, CssTree tree,
+      @Nullable Object substitutionMap) {
+    Preconditions.checkState(liveHeapAtStart >= 0,
+        "endPhase called without startPhase");
+    long peakHeap = 0;
+    for (MemoryPoolMXBean pool : heapPools) {
+      peakHeap += pool.getPeakUsage().getUsed();
+    }
+    profiles.add(new PhaseProfile(name, liveHeapAtStart, peakHeap,
+        estimator.estimate(tree, substitutionMap)));
+    liveHeapAtStart = -1;
+  }
+
+  /**
+   * Returns the profiles of the phases ended so far, in order.
+   */
+  public List<PhaseProfile> getProfiles() {
+    return ImmutableList.copyOf(profiles);
+  }
+
+  /**
+   * Writes a report of all the phases: a summary line per phase followed by
+   * the estimates of each phase, largest category first.
+   */
+  public void writeReport(Appendable out) throws IOException {
+    out.append(String.format("%-50s %12s %12s %12s%n", "Phase",
+        "Live (KB)", "Peak (KB)", "Tree (KB)"));
+    for (PhaseProfile profile : profiles) {
+      out.append(String.format("%-50s %12d %12d %12d%n", profile.getName(),
+          profile.getLiveHeapAtStart() / 1024, profile.getPeakHeap() / 1024,
+          profile.getEstimatedTotal() / 1024));
+    }
+    for (PhaseProfile profile : profiles) {
+      out.append(String.format("%nAfter %s:%n", profile.getName()));
+      List<Map.Entry<String, Estimate>> entries =
+          Lists.newArrayList(profile.getEstimates().entrySet());
+      Collections.sort(entries, BY_BYTES_DESCENDING);
+      for (Map.Entry<String, Estimate> entry : entries) {
+        out.append(String.format("  %-48s %12d %12d KB%n", entry.getKey(),
+            entry.getValue().getCount(),
+            entry.getValue().getBytes() / 1024));
+      }
+    }
+  }
+}
@@ -20,10 +20,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Table;
 import com.google.common.css.compiler.ast.CssBlockNode;
 import com.google.common.css.compiler.ast.CssClassSelectorNode;
 import com.google.common.css.compiler.ast.CssCompilerPass;
@@ -113,9 +111,10 @@ public class MarkRemovableRulesetNodes extends SkippingTreeVisitor
     // All the children of the block, which are ruleset nodes, are looked at
     // in reverse order, from the last one to the first. We mark as removable
     // those nodes that we are found as overridden already.
-    // Collect the already-seen pairs of selectors and property names in this
+    // Collect the already-seen pairs of selectors and properties in this
     // table, save the CssRulesetNode also.
-    Table<String, String, CssRulesetNode> rules = HashBasedTable.create();
+    SelectorPropertyTable<CssRulesetNode> rules =
+        new SelectorPropertyTable<CssRulesetNode>();
 
     for (int i = block.numChildren() - 1; i >= 0; i--) {
       if (block.getChildAt(i) instanceof CssRulesetNode) {
@@ -157,7 +156,7 @@ public class MarkRemovableRulesetNodes extends SkippingTreeVisitor
    * or removed by looking at the given previous rules.
    */
   private void processRuleset(
-      Table<String, String, CssRulesetNode> rules, CssRulesetNode ruleset) {
+      SelectorPropertyTable<CssRulesetNode> rules, CssRulesetNode ruleset) {
     if ((referencedRules != null) && !referencedRules.isEmpty()) {
       // If this rule is not referenced to in the code we remove it.
       if (isSelectorUnreferenced(ruleset.getSelectors().getChildAt(0))) {
@@ -177,27 +176,22 @@ public class MarkRemovableRulesetNodes extends SkippingTreeVisitor
     CssDeclarationNode declaration =
       (CssDeclarationNode) ruleset.getDeclarations().getChildAt(0);
     CssPropertyNode propertyNode = declaration.getPropertyName();
-    String propertyName = propertyNode.getPropertyName();
-    if (PROPERTIES_NOT_TO_BE_CHECKED.contains(propertyName)) {
+    if (PROPERTIES_NOT_TO_BE_CHECKED.contains(
+        propertyNode.getPropertyName())) {
       return;
     }
-    // If the declaration is star-hacked then we make the star be part of
-    // the property name to ensure that we do not consider hacked
-    // declarations as overridden by the non-hacked ones.
-    if (declaration.hasStarHack()) {
-      propertyName = "*" + propertyName;
-    }
-
-    String selector = PassUtil.printSelector(
-        ruleset.getSelectors().getChildAt(0));
+    // Star-hacked declarations get property keys of their own to ensure that
+    // we do not consider them as overridden by the non-hacked ones.
+    int property = rules.propertyKey(declaration);
+    int selector = rules.selectorKey(ruleset.getSelectors().getChildAt(0));
 
-    CssRulesetNode previousRuleset = rules.get(selector, propertyName);
+    CssRulesetNode previousRuleset = rules.get(selector, property);
     if (previousRuleset != null) {
       // If the new rule is important and the saved was not, then remove the saved one.
       if (isImportantRule(ruleset) && !isImportantRule(previousRuleset)) {
         tree.getRulesetNodesToRemove().addRulesetNode(previousRuleset);
         // Replace the non-important ruleset in the map, keep the important one.
-        rules.put(selector, propertyName, ruleset);
+        rules.put(selector, property, ruleset);
       } else {
         tree.getRulesetNodesToRemove().addRulesetNode(ruleset);
       }
@@ -208,7 +202,7 @@ public class MarkRemovableRulesetNodes extends SkippingTreeVisitor
       // declarations that precede it.  However, @alternate rules may be masked
       // by succeeding non-@alternate rules.
     } else {
-      rules.put(selector, propertyName, ruleset);
+      rules.put(selector, property, ruleset);
     }
   }
 
@@ -277,17 +271,17 @@ public class MarkRemovableRulesetNodes extends SkippingTreeVisitor
    * related shorthand property of equal or higher importance.
    *
    * @param propertyNode the property node of the rule to check
-   * @param selector the printed representation of the selector of the rule
+   * @param selector the key of the selector of the rule
    * @param rules rulesets occurring after the ruleset to check (represented as
-   *     a map from selector/property pairs to rulesets for easy searching)
+   *     a table from selector/property pairs to rulesets for easy searching)
    * @param ruleset the ruleset to check (assumed to contain one rule)
    * @return whether the given ruleset has an overriding ruleset which uses a
    *     related shorthand property
    */
   private boolean hasOverridingShorthand(
       CssPropertyNode propertyNode,
-      String selector,
-      Table<String, String, CssRulesetNode> rules,
+      int selector,
+      SelectorPropertyTable<CssRulesetNode> rules,
       final CssRulesetNode ruleset) {
 
     Supplier<Boolean> rulesetIsImportant = Suppliers.memoize(
@@ -299,7 +293,8 @@ public class MarkRemovableRulesetNodes extends SkippingTreeVisitor
         });
 
     for (String shorthand : propertyNode.getProperty().getShorthands()) {
-      CssRulesetNode shorthandRuleset = rules.get(selector, shorthand);
+      CssRulesetNode shorthandRuleset =
+          rules.get(selector, rules.shorthandKey(shorthand));
       if ((shorthandRuleset != null)
           && (!rulesetIsImportant.get() || isImportantRule(shorthandRuleset))) {
         return true;
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssRefinerNode;
+import com.google.common.css.compiler.ast.CssRootNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.MutatingVisitController;
+import com.google.common.css.compiler.ast.SkippingTreeVisitor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compiler pass that merges rulesets that have the same declarations or the
+ * same selectors even if they are not adjacent, as long as this cannot change
+ * which declarations apply to an element.
+ *
+ * <p>Merging two rulesets moves the declarations of one of them, for the
+ * selectors of that ruleset, across the rulesets in between. This is safe
+ * unless one of those rulesets sets a property of the same family (see
+ * {@link ReorderForCompression#getFamily}) for an element that a moved
+ * selector may also match with the same specificity. Families are coarser
+ * than partitions: they also bring together vendor-prefixed aliases and
+ * properties that a shorthand of another partition resets, such as
+ * {@code line-height} and {@code font}. The {@code all} property conflicts
+ * with every family.
+ * Two selectors are assumed to match a common element unless their last
+ * compound selectors name different elements, different ids or different
+ * pseudo-elements. The pass tries both moving the later ruleset up and the
+ * earlier ruleset down.
+ *
+ * <p>Rulesets are indexed by their declarations, by their selectors and by the
+ * families they set, so only the rulesets in between that set a relevant
+ * family are looked at. Any node other than a ruleset acts as a barrier.
+ * Merged rulesets are marked for removal by
+ * {@link EliminateUselessRulesetNodes}.
+ */
+public class MergeNonAdjacentRulesetNodes extends SkippingTreeVisitor
+    implements CssCompilerPass {
+
+  /**
+   * The maximum number of selector pairs compared for one merge. Beyond that,
+   * the merge is given up to keep the pass near-linear.
+   */
+  @VisibleForTesting
+  static final int MAX_COMPARISONS_PER_MERGE = 1000;
+
+  /** The family of the {@code all} property, which conflicts with any. */
+  private static final String ANY_FAMILY = "*";
+
+  private final CssTree tree;
+  private final MutatingVisitController visitController;
+
+  public MergeNonAdjacentRulesetNodes(CssTree tree) {
+    this(tree, false);
+  }
+
+  public MergeNonAdjacentRulesetNodes(CssTree tree, boolean skipping) {
+    super(skipping);
+    this.tree = tree;
+    this.visitController = tree.getMutatingVisitController();
+  }
+
+  @Override
+  public boolean enterTree(CssRootNode root) {
+    tree.resetRulesetNodesToRemove();
+    return true;
+  }
+
+  @Override
+  public boolean enterBlock(CssBlockNode block) {
+    Segment segment = new Segment();
+    for (CssNode child : block.childIterable()) {
+      if (child instanceof CssRulesetNode
+          && !((CssRulesetNode) child).getSelectors().isEmpty()
+          && hasOnlyDeclarations((CssRulesetNode) child)) {
+        segment.add((CssRulesetNode) child);
+      } else {
+        segment = new Segment();
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void runPass() {
+    visitController.startVisit(this);
+  }
+
+  private static boolean hasOnlyDeclarations(CssRulesetNode ruleset) {
+    for (CssNode child : ruleset.getDeclarations().childIterable()) {
+      if (!(child instanceof CssDeclarationNode)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether the ruleset can be merged with another one. As in
+   * {@link MergeAdjacentRulesetNodesWithSameDeclarations}, selectors with
+   * pseudo-elements are left alone, since an unrecognized one invalidates
+   * the whole ruleset. Rulesets whose selectors belong to different chunks
+   * are left alone as well.
+   */
+  private boolean isMergeable(CssRulesetNode ruleset) {
+    if (!canModifyRuleset(ruleset) || ruleset.getDeclarations().isEmpty()) {
+      return false;
+    }
+    Object chunk = ruleset.getSelectors().getChildAt(0).getChunk();
+    for (CssSelectorNode selector : ruleset.getSelectors().childIterable()) {
+      if (!Objects.equal(chunk, selector.getChunk())) {
+        return false;
+      }
+      for (CssRefinerNode refiner : selector.getRefiners().childIterable()) {
+        if (refiner.getRefinerType() == CssRefinerNode.Refiner.PSEUDO_ELEMENT) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A run of adjacent rulesets, with the indexes used to find merge
+   * candidates and the rulesets in between that could conflict.
+   */
+  private class Segment {
+    private final List<CssRulesetNode> rulesets = Lists.newArrayList();
+    private final List<String> fingerprints = Lists.newArrayList();
+    private final List<String> selectorKeys = Lists.newArrayList();
+    private final Set<Integer> removed = Sets.newHashSet();
+    private final Map<String, Integer> byDeclarations = Maps.newHashMap();
+    private final Map<String, Integer> bySelectors = Maps.newHashMap();
+    private final Map<String, NavigableSet<Integer>> byFamily =
+        Maps.newHashMap();
+
+    void add(CssRulesetNode ruleset) {
+      int position = rulesets.size();
+      rulesets.add(ruleset);
+      fingerprints.add(fingerprint(ruleset));
+      selectorKeys.add(selectorKey(ruleset));
+      if (isMergeable(ruleset) && merge(position)) {
+        return;
+      }
+      index(position);
+    }
+
+    /**
+     * Tries to merge the ruleset at the given position with an earlier one.
+     *
+     * @return whether the ruleset was merged away
+     */
+    private boolean merge(int position) {
+      CssRulesetNode ruleset = rulesets.get(position);
+      Integer candidate = lookUp(byDeclarations, fingerprints, position);
+      if (candidate != null) {
+        CssRulesetNode earlier = rulesets.get(candidate);
+        if (canMove(ruleset, candidate, position)) {
+          moveSelectors(ruleset, earlier);
+          remove(position);
+          selectorKeys.set(candidate, selectorKey(earlier));
+          bySelectors.put(selectorKeys.get(candidate), candidate);
+          return true;
+        } else if (canMove(earlier, candidate, position)) {
+          moveSelectors(earlier, ruleset);
+          selectorKeys.set(position, selectorKey(ruleset));
+          remove(candidate);
+          return false;
+        }
+      }
+      candidate = lookUp(bySelectors, selectorKeys, position);
+      if (candidate != null) {
+        CssRulesetNode earlier = rulesets.get(candidate);
+        if (canMove(ruleset, candidate, position)) {
+          for (CssNode declaration
+              : ruleset.getDeclarations().childIterable()) {
+            earlier.addDeclaration(declaration);
+          }
+          remove(position);
+          fingerprints.set(candidate, fingerprint(earlier));
+          index(candidate);
+          return true;
+        } else if (canMove(earlier, candidate, position)) {
+          List<CssNode> declarations = Lists.newArrayList(
+              earlier.getDeclarations().childIterable());
+          declarations.add(ruleset.getDeclarations().getChildAt(0));
+          ruleset.getDeclarations().replaceChildAt(0, declarations);
+          fingerprints.set(position, fingerprint(ruleset));
+          remove(candidate);
+          return false;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the earlier ruleset with the same key as the ruleset at the given
+     * position, if it is still there and still has that key.
+     */
+    @Nullable
+    private Integer lookUp(Map<String, Integer> index, List<String> keys,
+        int position) {
+      Integer candidate = index.get(keys.get(position));
+      if (candidate == null || removed.contains(candidate)
+          || !keys.get(candidate).equals(keys.get(position))
+          || !isMergeable(rulesets.get(candidate))) {
+        return null;
+      }
+      return candidate;
+    }
+
+    private void index(int position) {
+      byDeclarations.put(fingerprints.get(position), position);
+      bySelectors.put(selectorKeys.get(position), position);
+      for (String family : families(rulesets.get(position))) {
+        NavigableSet<Integer> positions = byFamily.get(family);
+        if (positions == null) {
+          positions = Sets.newTreeSet();
+          byFamily.put(family, positions);
+        }
+        positions.add(position);
+      }
+    }
+
+    private void remove(int position) {
+      removed.add(position);
+      tree.getRulesetNodesToRemove().addRulesetNode(rulesets.get(position));
+    }
+
+    /**
+     * Whether the declarations of {@code moved} may be moved, for its
+     * selectors, across the rulesets strictly between {@code from} and
+     * {@code to}.
+     */
+    private boolean canMove(CssRulesetNode moved, int from, int to) {
+      Set<String> families = families(moved);
+      if (!families.add(ANY_FAMILY)) {
+        return false;
+      }
+      int comparisons = 0;
+      Set<Integer> checked = Sets.newHashSet();
+      for (String family : families) {
+        NavigableSet<Integer> positions = byFamily.get(family);
+        if (positions == null) {
+          continue;
+        }
+        for (int position : positions.subSet(from, false, to, false)) {
+          if (removed.contains(position) || !checked.add(position)) {
+            continue;
+          }
+          CssRulesetNode between = rulesets.get(position);
+          for (CssSelectorNode selector
+              : moved.getSelectors().childIterable()) {
+            for (CssSelectorNode other
+                : between.getSelectors().childIterable()) {
+              if (++comparisons > MAX_COMPARISONS_PER_MERGE
+                  || mayConflict(selector, other)) {
+                return false;
+              }
+            }
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+  private static void moveSelectors(CssRulesetNode from, CssRulesetNode to) {
+    Set<String> present = Sets.newHashSet();
+    for (CssSelectorNode selector : to.getSelectors().childIterable()) {
+      present.add(PassUtil.printSelector(selector));
+    }
+    for (CssSelectorNode selector : from.getSelectors().childIterable()) {
+      if (present.add(PassUtil.printSelector(selector))) {
+        to.addSelector(selector);
+      }
+    }
+  }
+
+  /**
+   * Returns a key for the declarations of the ruleset, which includes the
+   * chunk of its first selector since rulesets of different chunks must not
+   * be merged.
+   */
+  private static String fingerprint(CssRulesetNode ruleset) {
+    return ruleset.getSelectors().getChildAt(0).getChunk() + "\n"
+        + ruleset.getDeclarations().toString();
+  }
+
+  /**
+   * Returns a key for the selectors of the ruleset, which includes their
+   * chunks since rulesets of different chunks must not be merged.
+   */
+  private static String selectorKey(CssRulesetNode ruleset) {
+    StringBuilder key = new StringBuilder(
+        PassUtil.printSelectorList(ruleset.getSelectors()));
+    for (CssSelectorNode selector : ruleset.getSelectors().childIterable()) {
+      key.append('\n').append(selector.getChunk());
+    }
+    return key.toString();
+  }
+
+  private static Set<String> families(CssRulesetNode ruleset) {
+    Set<String> families = Sets.newHashSet();
+    for (CssNode child : ruleset.getDeclarations().childIterable()) {
+      String family =
+          ReorderForCompression.getFamily((CssDeclarationNode) child);
+      families.add(family == null ? ANY_FAMILY : family);
+    }
+    return families;
+  }
+
+  /**
+   * Whether the two selectors may match the same element with the same
+   * specificity, in which case the order of their rulesets matters.
+   */
+  @VisibleForTesting
+  static boolean mayConflict(CssSelectorNode a, CssSelectorNode b) {
+    if (!a.getSpecificity().equals(b.getSpecificity())) {
+      return false;
+    }
+    CssSelectorNode subjectA = subject(a);
+    CssSelectorNode subjectB = subject(b);
+    String elementA = elementName(subjectA);
+    String elementB = elementName(subjectB);
+    if (elementA != null && elementB != null && !elementA.equals(elementB)) {
+      return false;
+    }
+    String idA = refiner(subjectA, CssRefinerNode.Refiner.ID);
+    String idB = refiner(subjectB, CssRefinerNode.Refiner.ID);
+    if (idA != null && idB != null && !idA.equals(idB)) {
+      return false;
+    }
+    String pseudoA = refiner(subjectA, CssRefinerNode.Refiner.PSEUDO_ELEMENT);
+    String pseudoB = refiner(subjectB, CssRefinerNode.Refiner.PSEUDO_ELEMENT);
+    return pseudoA == null ? pseudoB == null : pseudoA.equals(pseudoB);
+  }
+
+  /** Returns the last compound selector, which names the matched element. */
+  private static CssSelectorNode subject(CssSelectorNode selector) {
+    while (selector.getCombinator() != null) {
+      selector = selector.getCombinator().getSelector();
+    }
+    return selector;
+  }
+
+  @Nullable
+  private static String elementName(CssSelectorNode selector) {
+    String name = selector.getSelectorName();
+    if (name == null || name.isEmpty() || name.equals("*")) {
+      return null;
+    }
+    return name.toLowerCase();
+  }
+
+  @Nullable
+  private static String refiner(CssSelectorNode selector,
+      CssRefinerNode.Refiner type) {
+    for (CssRefinerNode refiner : selector.getRefiners().childIterable()) {
+      if (refiner.getRefinerType() == type) {
+        return refiner.getRefinerName();
+      }
+    }
+    return null;
+  }
+}
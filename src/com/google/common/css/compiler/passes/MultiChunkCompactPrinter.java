@@ -0,0 +1,481 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssDeclarationBlockNode;
+import com.google.common.css.compiler.ast.CssFontFaceNode;
+import com.google.common.css.compiler.ast.CssKeyframesNode;
+import com.google.common.css.compiler.ast.CssMediaRuleNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.CssUnknownAtRuleNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Compact-printer for {@link CssTree} instances that prints the output of
+ * several chunks in a single traversal of the tree. The output of each chunk
+ * is the same as that of a {@link ChunkCompactPrinter} for the chunk, but the
+ * tree is walked once instead of once per chunk.
+ *
+ * <p>Every ruleset, {@code @media} rule, {@code @keyframes} rule and
+ * {@code @font-face} rule at the top level is printed once and then appended
+ * to the output of the chunks it belongs to. A ruleset whose selectors belong
+ * to several chunks sends each chunk its own selectors followed by the shared
+ * declaration block. The nodes that do not belong to a chunk, such as
+ * {@code @import} rules, go to the output of every chunk.
+ *
+ * <p>The top-level nodes can also be printed in parallel, in contiguous
+ * slices whose outputs are concatenated chunk by chunk; see
+ * {@link #runPass(ExecutorService, int)}.
+ *
+ * <p>This pass can only be used if {@link MapChunkAwareNodesToChunk} pass has
+ * been run before.
+ *
+ * @param <T> type of chunk id objects set on {@link CssSelectorNode} instances
+ */
+public class MultiChunkCompactPrinter<T> implements CssCompilerPass {
+
+  private final CssTree tree;
+  private final List<T> chunks;
+
+  /** The output of each chunk, in the order of the chunks. */
+  private Map<T, StringBuilder> chunkOutputs = null;
+
+  /**
+   * Creates a printer for the given chunks.
+   *
+   * @param tree CSS AST to be printed
+   * @param chunks the chunks to print; nodes of other chunks are not printed
+   */
+  public MultiChunkCompactPrinter(CssTree tree, Iterable<T> chunks) {
+    this.tree = tree;
+    this.chunks = ImmutableList.copyOf(chunks);
+  }
+
+  /**
+   * Returns the compact printed output of the given chunk, which must be one
+   * of the chunks of this printer.
+   */
+  public String getCompactPrintedString(T chunk) {
+    Preconditions.checkState(chunkOutputs != null, "Not printed yet");
+    StringBuilder output = chunkOutputs.get(chunk);
+    Preconditions.checkArgument(output != null, "Unknown chunk: %s", chunk);
+    return output.toString();
+  }
+
+  @Override
+  public void runPass() {
+    chunkOutputs = new ChunkOutputPrinter<T>(tree, chunks).print();
+  }
+
+  /**
+   * Prints the tree using the given executor. The top-level nodes are split
+   * into the given number of contiguous slices, each printed in a single
+   * traversal by a printer of its own, and the outputs of the slices are
+   * concatenated chunk by chunk.
+   *
+   * @param executor the executor to print the slices on
+   * @param slices the number of slices to split the top-level nodes into
+   */
+  public void runPass(ExecutorService executor, int slices) {
+    Preconditions.checkArgument(slices > 0);
+    List<CssNode> nodes = tree.getRoot().getBody().getChildren();
+    int sliceSize = Math.max(1, (nodes.size() + slices - 1) / slices);
+    List<Future<Map<T, StringBuilder>>> futures = Lists.newArrayList();
+    for (int start = 0; start < nodes.size(); start += sliceSize) {
+      final List<CssNode> slice = nodes.subList(
+          start, Math.min(nodes.size(), start + sliceSize));
+      futures.add(executor.submit(new Callable<Map<T, StringBuilder>>() {
+        @Override
+        public Map<T, StringBuilder> call() {
+          return new ChunkOutputPrinter<T>(tree, chunks).print(slice);
+        }
+      }));
+    }
+
+    chunkOutputs = newChunkOutputs(chunks);
+    try {
+      for (Future<Map<T, StringBuilder>> future : futures) {
+        for (Map.Entry<T, StringBuilder> sliceOutput
+            : future.get().entrySet()) {
+          chunkOutputs.get(sliceOutput.getKey()).append(
+              sliceOutput.getValue());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private static <T> Map<T, StringBuilder> newChunkOutputs(List<T> chunks) {
+    Map<T, StringBuilder> outputs = Maps.newLinkedHashMap();
+    for (T chunk : chunks) {
+      outputs.put(chunk, new StringBuilder());
+    }
+    return outputs;
+  }
+
+  /**
+   * Prints the output of the chunks in one traversal of the tree or of some
+   * of its top-level nodes. It reuses the printing of {@link CompactPrinter}
+   * for each node and moves what it prints to the outputs of the chunks.
+   */
+  private static final class ChunkOutputPrinter<T> extends CompactPrinter {
+
+    private final CssTree tree;
+    private final CssBlockNode body;
+    private final List<T> chunks;
+
+    /** The output of each chunk, in the order of the chunks. */
+    private Map<T, StringBuilder> chunkOutputs = null;
+
+    /** The ruleset being printed, if its selectors are being recorded. */
+    private CssRulesetNode ruleset = null;
+    private int rulesetStart;
+    private int declarationsStart;
+
+    /**
+     * The chunks of the selectors of the current ruleset, and the positions in
+     * the builder where each selector starts and ends, without the comma that
+     * follows it.
+     */
+    private final List<Object> selectorChunks = Lists.newArrayList();
+    private int[] selectorBounds = new int[16];
+
+    /**
+     * How many selectors of the current ruleset are being visited; selectors
+     * entered at depth zero are the top-level ones of the ruleset.
+     */
+    private int selectorDepth = 0;
+
+    /** Where the current top-level chunk-aware node starts in the builder. */
+    private int topLevelStart;
+
+    /**
+     * The chunk of the {@code @media} rule the current node is in, or
+     * {@code null} at the top level.
+     */
+    private Object containerChunk = null;
+
+    /**
+     * The node whose children are skipped because it is not printed; its
+     * leave method must not print either.
+     */
+    private CssNode skippedNode = null;
+
+    ChunkOutputPrinter(CssTree tree, List<T> chunks) {
+      super(tree);
+      this.tree = tree;
+      this.body = tree.getRoot().getBody();
+      this.chunks = chunks;
+    }
+
+    /** Prints the whole tree in one traversal. */
+    Map<T, StringBuilder> print() {
+      startChunkPrinting();
+      tree.getVisitController().startVisit(this);
+      finishChunkPrinting();
+      return chunkOutputs;
+    }
+
+    /** Prints the given top-level nodes, one traversal each. */
+    Map<T, StringBuilder> print(List<CssNode> nodes) {
+      startChunkPrinting();
+      for (CssNode node : nodes) {
+        node.getVisitController().startVisit(this);
+      }
+      finishChunkPrinting();
+      return chunkOutputs;
+    }
+
+    private void startChunkPrinting() {
+      chunkOutputs = newChunkOutputs(chunks);
+      sb = new StringBuilder();
+    }
+
+    private void finishChunkPrinting() {
+      appendToAllChunks();
+      sb = null;
+    }
+
+    /**
+     * Appends what has been printed since the last chunk-aware top-level node
+     * to the output of every chunk.
+     */
+    private void appendToAllChunks() {
+      if (sb.length() > 0) {
+        for (StringBuilder output : chunkOutputs.values()) {
+          output.append(sb);
+        }
+        sb.setLength(0);
+      }
+    }
+
+    /**
+     * Starts printing a chunk-aware node at the top level, or decides to skip a
+     * nested one that does not belong to the chunk of its {@code @media} rule.
+     *
+     * @return whether the node is printed
+     */
+    private boolean enterChunkAwareNode(CssNode node, Object chunk) {
+      boolean print;
+      if (node.getParent() == body) {
+        appendToAllChunks();
+        topLevelStart = sb.length();
+        print = chunkOutputs.containsKey(chunk);
+      } else {
+        print = containerChunk == null || containerChunk.equals(chunk);
+      }
+      if (!print) {
+        skippedNode = node;
+      }
+      return print;
+    }
+
+    /**
+     * Finishes a chunk-aware node, moving its output to its chunk if it is at
+     * the top level.
+     *
+     * @return whether the node was printed
+     */
+    private boolean leaveChunkAwareNode(CssNode node, Object chunk) {
+      if (skippedNode == node) {
+        skippedNode = null;
+        return false;
+      }
+      if (node.getParent() == body) {
+        chunkOutputs.get(chunk).append(sb, topLevelStart, sb.length());
+        sb.setLength(topLevelStart);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean enterRuleset(CssRulesetNode node) {
+      if (node.getParent() == body) {
+        appendToAllChunks();
+      }
+      boolean print = false;
+      for (CssSelectorNode selector : node.getSelectors().childIterable()) {
+        if (containerChunk == null
+            ? chunkOutputs.containsKey(selector.getChunk())
+            : containerChunk.equals(selector.getChunk())) {
+          print = true;
+          break;
+        }
+      }
+      if (!print) {
+        skippedNode = node;
+        return false;
+      }
+      ruleset = node;
+      rulesetStart = sb.length();
+      selectorChunks.clear();
+      return super.enterRuleset(node);
+    }
+
+    @Override
+    public boolean enterSelector(CssSelectorNode selector) {
+      if (ruleset != null && selectorDepth++ == 0) {
+        int i = selectorChunks.size();
+        if (2 * i + 2 > selectorBounds.length) {
+          selectorBounds = Arrays.copyOf(selectorBounds, 4 * i + 4);
+        }
+        selectorBounds[2 * i] = sb.length();
+        selectorChunks.add(selector.getChunk());
+      }
+      return super.enterSelector(selector);
+    }
+
+    @Override
+    public void leaveSelector(CssSelectorNode selector) {
+      if (ruleset != null && --selectorDepth == 0) {
+        selectorBounds[2 * selectorChunks.size() - 1] = sb.length();
+      }
+      super.leaveSelector(selector);
+    }
+
+    @Override
+    public boolean enterDeclarationBlock(CssDeclarationBlockNode block) {
+      if (ruleset != null) {
+        declarationsStart = sb.length();
+      }
+      return super.enterDeclarationBlock(block);
+    }
+
+    @Override
+    public void leaveRuleset(CssRulesetNode node) {
+      if (skippedNode == node) {
+        skippedNode = null;
+        return;
+      }
+      super.leaveRuleset(node);
+      ruleset = null;
+      if (containerChunk == null) {
+        // A top-level ruleset goes to the chunks of its selectors.
+        Object firstChunk = selectorChunks.get(0);
+        if (!hasOtherChunks(firstChunk)) {
+          chunkOutputs.get(firstChunk).append(sb, rulesetStart, sb.length());
+        } else {
+          for (int i = 0; i < selectorChunks.size(); i++) {
+            Object chunk = selectorChunks.get(i);
+            StringBuilder output = chunkOutputs.get(chunk);
+            if (output != null && selectorChunks.indexOf(chunk) == i) {
+              appendRulesetForChunk(output, chunk);
+            }
+          }
+        }
+        sb.setLength(rulesetStart);
+      } else if (hasOtherChunks(containerChunk)) {
+        // A ruleset in an @media rule keeps the selectors of its chunk.
+        StringBuilder filtered = new StringBuilder();
+        appendRulesetForChunk(filtered, containerChunk);
+        sb.setLength(rulesetStart);
+        sb.append(filtered);
+      }
+    }
+
+    /**
+     * Returns whether any selector of the current ruleset belongs to a chunk
+     * other than the given one.
+     */
+    private boolean hasOtherChunks(Object chunk) {
+      for (Object selectorChunk : selectorChunks) {
+        if (!chunk.equals(selectorChunk)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Appends the current ruleset with only the selectors of the given chunk.
+     */
+    private void appendRulesetForChunk(StringBuilder output, Object chunk) {
+      boolean first = true;
+      for (int i = 0; i < selectorChunks.size(); i++) {
+        if (chunk.equals(selectorChunks.get(i))) {
+          if (!first) {
+            output.append(',');
+          }
+          first = false;
+          output.append(sb, selectorBounds[2 * i], selectorBounds[2 * i + 1]);
+        }
+      }
+      output.append(sb, declarationsStart, sb.length());
+    }
+
+    @Override
+    public boolean enterMediaRule(CssMediaRuleNode media) {
+      if (!enterChunkAwareNode(media, media.getChunk())) {
+        return false;
+      }
+      if (media.getParent() == body) {
+        containerChunk = media.getChunk();
+      }
+      return super.enterMediaRule(media);
+    }
+
+    @Override
+    public void leaveMediaRule(CssMediaRuleNode media) {
+      if (skippedNode != media) {
+        super.leaveMediaRule(media);
+        if (media.getParent() == body) {
+          containerChunk = null;
+        }
+      }
+      leaveChunkAwareNode(media, media.getChunk());
+    }
+
+    @Override
+    public boolean enterKeyframesRule(CssKeyframesNode keyframes) {
+      return enterChunkAwareNode(keyframes, keyframes.getChunk())
+          && super.enterKeyframesRule(keyframes);
+    }
+
+    @Override
+    public void leaveKeyframesRule(CssKeyframesNode keyframes) {
+      if (skippedNode != keyframes) {
+        super.leaveKeyframesRule(keyframes);
+      }
+      leaveChunkAwareNode(keyframes, keyframes.getChunk());
+    }
+
+    @Override
+    public boolean enterFontFace(CssFontFaceNode fontFace) {
+      return enterChunkAwareNode(fontFace, fontFace.getChunk())
+          && super.enterFontFace(fontFace);
+    }
+
+    @Override
+    public void leaveFontFace(CssFontFaceNode fontFace) {
+      if (skippedNode != fontFace) {
+        super.leaveFontFace(fontFace);
+      }
+      leaveChunkAwareNode(fontFace, fontFace.getChunk());
+    }
+
+    /**
+     * Prints a top-level unknown at-rule that contains rulesets, such as
+     * {@code @supports}, with a {@link ChunkCompactPrinter} per chunk, since
+     * each chunk keeps different rulesets of it. Such rules are rare.
+     */
+    @Override
+    public boolean enterUnknownAtRule(CssUnknownAtRuleNode node) {
+      if (node.getParent() == body && node.getBlock() instanceof CssBlockNode) {
+        appendToAllChunks();
+        for (Map.Entry<T, StringBuilder> output : chunkOutputs.entrySet()) {
+          ChunkCompactPrinter<T> printer =
+              new ChunkCompactPrinter<T>(node, output.getKey());
+          printer.runPass();
+          output.getValue().append(printer.getCompactPrintedString());
+        }
+        skippedNode = node;
+        return false;
+      }
+      return super.enterUnknownAtRule(node);
+    }
+
+    @Override
+    public void leaveUnknownAtRule(CssUnknownAtRuleNode node) {
+      if (skippedNode == node) {
+        skippedNode = null;
+        return;
+      }
+      super.leaveUnknownAtRule(node);
+    }
+  }
+}
@@ -0,0 +1,1019 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.css.compiler.ast.CssAttributeSelectorNode;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssClassSelectorNode;
+import com.google.common.css.compiler.ast.CssCombinatorNode;
+import com.google.common.css.compiler.ast.CssComponentNode;
+import com.google.common.css.compiler.ast.CssCompositeValueNode;
+import com.google.common.css.compiler.ast.CssConditionalBlockNode;
+import com.google.common.css.compiler.ast.CssConditionalRuleNode;
+import com.google.common.css.compiler.ast.CssDeclarationBlockNode;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssDefinitionNode;
+import com.google.common.css.compiler.ast.CssFontFaceNode;
+import com.google.common.css.compiler.ast.CssFunctionNode;
+import com.google.common.css.compiler.ast.CssIdSelectorNode;
+import com.google.common.css.compiler.ast.CssImportBlockNode;
+import com.google.common.css.compiler.ast.CssImportRuleNode;
+import com.google.common.css.compiler.ast.CssKeyListNode;
+import com.google.common.css.compiler.ast.CssKeyNode;
+import com.google.common.css.compiler.ast.CssKeyframeRulesetNode;
+import com.google.common.css.compiler.ast.CssKeyframesNode;
+import com.google.common.css.compiler.ast.CssMediaRuleNode;
+import com.google.common.css.compiler.ast.CssMixinDefinitionNode;
+import com.google.common.css.compiler.ast.CssMixinNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssNodesListNode;
+import com.google.common.css.compiler.ast.CssPageRuleNode;
+import com.google.common.css.compiler.ast.CssPageSelectorNode;
+import com.google.common.css.compiler.ast.CssPropertyValueNode;
+import com.google.common.css.compiler.ast.CssPseudoClassNode;
+import com.google.common.css.compiler.ast.CssPseudoElementNode;
+import com.google.common.css.compiler.ast.CssRootNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssSelectorListNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.CssTreeVisitor;
+import com.google.common.css.compiler.ast.CssUnknownAtRuleNode;
+import com.google.common.css.compiler.ast.CssValueNode;
+import com.google.common.css.compiler.ast.VisitController;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A printer that prints a tree in several formats at once, such as compact
+ * and pretty-printed, in a single visit of the tree. Each output is streamed
+ * to its own writer while the tree is visited, like
+ * {@link CompactPrinter#printTo(Writer)} does.
+ *
+ * <p>Every visitor method is forwarded to one printer per output. If a
+ * printer skips the children of a node, it is not called for them, just as
+ * if it were visiting the tree on its own, while the other printers still
+ * visit them.
+ */
+public class MultiSinkPrinter implements CssTreeVisitor {
+
+  /** The formats that can be printed. */
+  public enum Format {
+    /** Prints a compact representation, like {@link CompactPrinter}. */
+    COMPRESSED,
+
+    /** Pretty-prints the tree, like {@link PrettyPrinter}. */
+    PRETTY_PRINTED,
+
+    /**
+     * Prints a template with holes for the constant references, like
+     * {@link TemplateCompactPrinter}, of the nodes not mapped to any chunk.
+     */
+    TEMPLATE,
+  }
+
+  private final CssTree tree;
+  private final List<Sink> sinks = Lists.newArrayList();
+
+  /** The printers driven by the current visit. */
+  private CssTreeVisitor[] visitors;
+
+  /**
+   * For each printer, zero if it is visiting the current node, or else how
+   * deep the visit is below the node whose children the printer skips.
+   */
+  private int[] skipDepths;
+
+  /** For each printer, whether the node whose children it skips is left. */
+  private boolean[] leaveSkippedNode;
+
+  public MultiSinkPrinter(CssTree tree) {
+    this.tree = tree;
+  }
+
+  /**
+   * Adds an output in the given format.
+   *
+   * @param format the format to print in
+   * @param out the writer to print to, which is flushed but not closed
+   * @return this printer
+   */
+  public MultiSinkPrinter addOutput(Format format, Writer out) {
+    switch (format) {
+      case COMPRESSED:
+        return addOutput(new CompactSink(new CompactPrinter(tree), out));
+      case PRETTY_PRINTED:
+        return addOutput(new PrettySink(
+            new PrettyPrinter(tree.getVisitController()), out));
+      case TEMPLATE:
+        return addTemplateOutput(null, out);
+      default:
+        throw new AssertionError("Unknown format " + format);
+    }
+  }
+
+  /**
+   * Adds a template output for the given chunk.
+   *
+   * @param chunk the chunk to print, or {@code null} for the nodes not mapped
+   *     to any chunk
+   * @param out the writer to print to, which is flushed but not closed
+   * @return this printer
+   */
+  public MultiSinkPrinter addTemplateOutput(Object chunk, Writer out) {
+    return addOutput(new CompactSink(
+        new TemplateCompactPrinter<Object>(tree, chunk), out));
+  }
+
+  /**
+   * Adds a compact output for the given chunk, like
+   * {@link ChunkCompactPrinter} prints.
+   *
+   * @param chunk the chunk to print, or {@code null} for the nodes not mapped
+   *     to any chunk
+   * @param out the writer to print to, which is flushed but not closed
+   * @return this printer
+   */
+  public MultiSinkPrinter addChunkOutput(Object chunk, Writer out) {
+    return addOutput(new CompactSink(
+        new ChunkCompactPrinter<Object>(tree, chunk), out));
+  }
+
+  private MultiSinkPrinter addOutput(Sink sink) {
+    sinks.add(sink);
+    return this;
+  }
+
+  /**
+   * Prints the tree to all outputs.
+   *
+   * @return the number of characters printed to each output, in the order
+   *     in which the outputs were added
+   * @throws IOException if any of the writers throws one, in which case the
+   *     visit stops for all outputs
+   */
+  public long[] print() throws IOException {
+    Preconditions.checkState(!sinks.isEmpty(), "No outputs to print to");
+    VisitController visitController = tree.getVisitController();
+    visitors = new CssTreeVisitor[sinks.size()];
+    skipDepths = new int[sinks.size()];
+    leaveSkippedNode = new boolean[sinks.size()];
+    for (int i = 0; i < visitors.length; i++) {
+      visitors[i] = sinks.get(i).start(visitController);
+    }
+    visitController.startVisit(this);
+
+    long[] printed = new long[visitors.length];
+    IOException failure = null;
+    for (int i = 0; i < visitors.length; i++) {
+      try {
+        printed[i] = sinks.get(i).finish();
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    visitors = null;
+    if (failure != null) {
+      throw failure;
+    }
+    return printed;
+  }
+
+  /**
+   * Returns whether the printer visits the node being entered, and otherwise
+   * keeps track of the depth below the node whose children it skips.
+   */
+  private boolean isActive(int i) {
+    if (skipDepths[i] == 0) {
+      return true;
+    }
+    skipDepths[i]++;
+    return false;
+  }
+
+  /**
+   * Skips the children of the entered node for the printer, the same way the
+   * visit controller would if the printer were visiting on its own.
+   *
+   * @param leaveNode whether the node is still left after its children are
+   *     skipped
+   */
+  private void skip(int i, boolean leaveNode) {
+    skipDepths[i] = 1;
+    leaveSkippedNode[i] = leaveNode;
+  }
+
+  /**
+   * Returns whether any printer visits the children of the entered node. If
+   * none does, the visit controller skips them, and unless it still leaves
+   * the node, the depths counted for it are taken back.
+   */
+  private boolean visitChildren(boolean leaveNode) {
+    for (int depth : skipDepths) {
+      if (depth == 0) {
+        return true;
+      }
+    }
+    if (!leaveNode) {
+      for (int i = 0; i < skipDepths.length; i++) {
+        skipDepths[i]--;
+      }
+    }
+    return false;
+  }
+
+  /** Returns whether the printer should be called for the node being left. */
+  private boolean isLeaving(int i) {
+    if (skipDepths[i] == 0) {
+      return true;
+    }
+    if (--skipDepths[i] > 0) {
+      return false;
+    }
+    boolean leave = leaveSkippedNode[i];
+    leaveSkippedNode[i] = false;
+    return leave;
+  }
+
+  @Override
+  public boolean enterTree(CssRootNode root) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterTree(root);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveTree(CssRootNode root) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveTree(root);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterImportBlock(CssImportBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterImportBlock(block);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveImportBlock(CssImportBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveImportBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterBlock(CssBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterBlock(block)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveBlock(CssBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterConditionalBlock(CssConditionalBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterConditionalBlock(block);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveConditionalBlock(CssConditionalBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveConditionalBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterDeclarationBlock(CssDeclarationBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterDeclarationBlock(block);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveDeclarationBlock(CssDeclarationBlockNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveDeclarationBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterRuleset(CssRulesetNode ruleset) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterRuleset(ruleset)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveRuleset(CssRulesetNode ruleset) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveRuleset(ruleset);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterSelectorBlock(CssSelectorListNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterSelectorBlock(block);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveSelectorBlock(CssSelectorListNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveSelectorBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterDeclaration(CssDeclarationNode declaration) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterDeclaration(declaration);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveDeclaration(CssDeclarationNode declaration) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveDeclaration(declaration);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterSelector(CssSelectorNode selector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterSelector(selector);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveSelector(CssSelectorNode selector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveSelector(selector);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterClassSelector(CssClassSelectorNode classSelector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterClassSelector(classSelector);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveClassSelector(CssClassSelectorNode classSelector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveClassSelector(classSelector);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterIdSelector(CssIdSelectorNode idSelector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterIdSelector(idSelector);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveIdSelector(CssIdSelectorNode idSelector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveIdSelector(idSelector);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterPseudoClass(CssPseudoClassNode pseudoClass) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterPseudoClass(pseudoClass);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leavePseudoClass(CssPseudoClassNode pseudoClass) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leavePseudoClass(pseudoClass);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterPseudoElement(CssPseudoElementNode pseudoElement) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterPseudoElement(pseudoElement);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leavePseudoElement(CssPseudoElementNode pseudoElement) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leavePseudoElement(pseudoElement);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterAttributeSelector(CssAttributeSelectorNode attributeSelector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterAttributeSelector(attributeSelector);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveAttributeSelector(CssAttributeSelectorNode attributeSelector) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveAttributeSelector(attributeSelector);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterPropertyValue(CssPropertyValueNode propertyValue) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterPropertyValue(propertyValue);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leavePropertyValue(CssPropertyValueNode propertyValue) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leavePropertyValue(propertyValue);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterCompositeValueNode(CssCompositeValueNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterCompositeValueNode(value)) {
+        skip(i, true);
+      }
+    }
+    return visitChildren(true);
+  }
+
+  @Override
+  public void leaveCompositeValueNode(CssCompositeValueNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveCompositeValueNode(value);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterValueNode(CssValueNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterValueNode(value);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveValueNode(CssValueNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveValueNode(value);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterCompositeValueNodeOperator(CssCompositeValueNode parent) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterCompositeValueNodeOperator(parent);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveCompositeValueNodeOperator(CssCompositeValueNode parent) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveCompositeValueNodeOperator(parent);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterFunctionNode(CssFunctionNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterFunctionNode(value);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveFunctionNode(CssFunctionNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveFunctionNode(value);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterArgumentNode(CssValueNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterArgumentNode(value);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveArgumentNode(CssValueNode value) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveArgumentNode(value);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterCombinator(CssCombinatorNode combinator) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterCombinator(combinator);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveCombinator(CssCombinatorNode combinator) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveCombinator(combinator);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterKey(CssKeyNode key) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterKey(key);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveKey(CssKeyNode key) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveKey(key);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterKeyBlock(CssKeyListNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterKeyBlock(block);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveKeyBlock(CssKeyListNode block) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveKeyBlock(block);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterKeyframeRuleset(CssKeyframeRulesetNode key) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterKeyframeRuleset(key)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveKeyframeRuleset(CssKeyframeRulesetNode key) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveKeyframeRuleset(key);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterConditionalRule(CssConditionalRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterConditionalRule(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveConditionalRule(CssConditionalRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveConditionalRule(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterImportRule(CssImportRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterImportRule(node);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveImportRule(CssImportRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveImportRule(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterMediaRule(CssMediaRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterMediaRule(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveMediaRule(CssMediaRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveMediaRule(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterPageRule(CssPageRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterPageRule(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leavePageRule(CssPageRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leavePageRule(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterPageSelector(CssPageSelectorNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterPageSelector(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leavePageSelector(CssPageSelectorNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leavePageSelector(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterFontFace(CssFontFaceNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterFontFace(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveFontFace(CssFontFaceNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveFontFace(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterDefinition(CssDefinitionNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterDefinition(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveDefinition(CssDefinitionNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveDefinition(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterUnknownAtRule(CssUnknownAtRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterUnknownAtRule(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveUnknownAtRule(CssUnknownAtRuleNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveUnknownAtRule(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterMediaTypeListDelimiter(CssNodesListNode<? extends CssNode> node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterMediaTypeListDelimiter(node);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveMediaTypeListDelimiter(CssNodesListNode<? extends CssNode> node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveMediaTypeListDelimiter(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterComponent(CssComponentNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterComponent(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveComponent(CssComponentNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveComponent(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterKeyframesRule(CssKeyframesNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i) && !visitors[i].enterKeyframesRule(node)) {
+        skip(i, false);
+      }
+    }
+    return visitChildren(false);
+  }
+
+  @Override
+  public void leaveKeyframesRule(CssKeyframesNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveKeyframesRule(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterMixinDefinition(CssMixinDefinitionNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterMixinDefinition(node);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveMixinDefinition(CssMixinDefinitionNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveMixinDefinition(node);
+      }
+    }
+  }
+
+  @Override
+  public boolean enterMixin(CssMixinNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isActive(i)) {
+        visitors[i].enterMixin(node);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void leaveMixin(CssMixinNode node) {
+    for (int i = 0; i < visitors.length; i++) {
+      if (isLeaving(i)) {
+        visitors[i].leaveMixin(node);
+      }
+    }
+  }
+
+  @Override
+  public void visit(CssNode node) {}
+
+  /** An output, with the printer that prints it. */
+  private abstract static class Sink {
+    protected final Writer out;
+
+    Sink(Writer out) {
+      this.out = out;
+    }
+
+    /** Prepares the printer for the visit and returns it. */
+    abstract CssTreeVisitor start(VisitController visitController);
+
+    /** Finishes the output and returns the number of characters printed. */
+    abstract long finish() throws IOException;
+  }
+
+  private static class CompactSink extends Sink {
+    private final CompactPrinter printer;
+
+    CompactSink(CompactPrinter printer, Writer out) {
+      super(out);
+      this.printer = printer;
+    }
+
+    @Override
+    CssTreeVisitor start(VisitController visitController) {
+      printer.startPrinting(out, visitController);
+      return printer;
+    }
+
+    @Override
+    long finish() throws IOException {
+      return printer.finishPrinting();
+    }
+  }
+
+  private static class PrettySink extends Sink {
+    private final PrettyPrinter printer;
+
+    PrettySink(PrettyPrinter printer, Writer out) {
+      super(out);
+      this.printer = printer;
+    }
+
+    @Override
+    CssTreeVisitor start(VisitController visitController) {
+      printer.startPrinting(out, visitController);
+      return printer;
+    }
+
+    @Override
+    long finish() throws IOException {
+      return printer.finishPrinting();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.css.compiler.ast.CssTree;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * The exact size of a printed stylesheet, in characters and in UTF-8 encoded
+ * bytes. It is measured by printing the stylesheet without keeping the
+ * output, see {@link CompactPrinter#measure()}, so that a buffer of the right
+ * size can be allocated before the stylesheet is printed into it.
+ */
+public final class OutputSize {
+
+  private final long chars;
+  private final long utf8Bytes;
+
+  OutputSize(long chars, long utf8Bytes) {
+    this.chars = chars;
+    this.utf8Bytes = utf8Bytes;
+  }
+
+  /** Returns the number of characters of the output. */
+  public long getChars() {
+    return chars;
+  }
+
+  /** Returns the number of bytes of the output when encoded in UTF-8. */
+  public long getUtf8Bytes() {
+    return utf8Bytes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof OutputSize)) {
+      return false;
+    }
+    OutputSize other = (OutputSize) o;
+    return chars == other.chars && utf8Bytes == other.utf8Bytes;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (31 * chars + utf8Bytes);
+  }
+
+  @Override
+  public String toString() {
+    return chars + " chars, " + utf8Bytes + " UTF-8 bytes";
+  }
+
+  /**
+   * Measures the compact output of each of the given chunks, as printed by
+   * {@link ChunkCompactPrinter}, in a single visit of the tree.
+   *
+   * @param tree the tree to measure, with its nodes mapped to chunks
+   * @param chunks the chunks to measure
+   * @return the size of each chunk
+   */
+  public static <T> Map<T, OutputSize> ofChunks(CssTree tree,
+      Iterable<T> chunks) {
+    MultiSinkPrinter printer = new MultiSinkPrinter(tree);
+    Map<T, Counter> counters = Maps.newLinkedHashMap();
+    for (T chunk : chunks) {
+      Counter counter = new Counter();
+      Preconditions.checkArgument(counters.put(chunk, counter) == null,
+          "Duplicate chunk %s", chunk);
+      printer.addChunkOutput(chunk, counter);
+    }
+    Map<T, OutputSize> sizes = Maps.newLinkedHashMap();
+    if (counters.isEmpty()) {
+      return sizes;
+    }
+    try {
+      printer.print();
+    } catch (IOException e) {
+      // A counter does not throw IOExceptions.
+      throw new AssertionError(e);
+    }
+    for (Map.Entry<T, Counter> counter : counters.entrySet()) {
+      sizes.put(counter.getKey(), counter.getValue().getSize());
+    }
+    return sizes;
+  }
+
+  /**
+   * A writer that drops what is written to it and only counts the
+   * characters and the bytes they take in UTF-8.
+   */
+  static final class Counter extends Writer {
+    private long chars = 0;
+    private long utf8Bytes = 0;
+
+    /** Whether the last character written was a high surrogate. */
+    private boolean highSurrogate = false;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      for (int i = offset; i < offset + length; i++) {
+        write(buffer[i]);
+      }
+    }
+
+    @Override
+    public void write(String s, int offset, int length) {
+      for (int i = offset; i < offset + length; i++) {
+        write(s.charAt(i));
+      }
+    }
+
+    @Override
+    public void write(int c) {
+      chars++;
+      char ch = (char) c;
+      if (highSurrogate && Character.isLowSurrogate(ch)) {
+        // A pair takes four bytes, one of which was counted already.
+        utf8Bytes += 3;
+        highSurrogate = false;
+        return;
+      }
+      highSurrogate = Character.isHighSurrogate(ch);
+      if (ch < 0x80) {
+        utf8Bytes += 1;
+      } else if (ch < 0x800) {
+        utf8Bytes += 2;
+      } else if (highSurrogate || Character.isLowSurrogate(ch)) {
+        // Unless it is paired, a surrogate is replaced by a question mark.
+        utf8Bytes += 1;
+      } else {
+        utf8Bytes += 3;
+      }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    OutputSize getSize() {
+      return new OutputSize(chars, utf8Bytes);
+    }
+  }
+}
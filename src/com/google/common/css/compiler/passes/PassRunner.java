@@ -16,17 +16,21 @@
 
 package com.google.common.css.compiler.passes;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.css.CompilerTracer;
 import com.google.common.css.JobDescription;
 import com.google.common.css.PrefixingSubstitutionMap;
 import com.google.common.css.RecordingSubstitutionMap;
 import com.google.common.css.SubstitutionMap;
 import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssMixinDefinitionNode;
 import com.google.common.css.compiler.ast.CssTree;
 import com.google.common.css.compiler.ast.ErrorManager;
 import com.google.common.css.compiler.ast.GssFunction;
+import com.google.common.css.compiler.ast.VisitCounter;
 
 import java.util.Map;
 
@@ -46,6 +50,13 @@ public class PassRunner {
   private final JobDescription job;
   private final ErrorManager errorManager;
   private final RecordingSubstitutionMap recordingSubstitutionMap;
+  private CompilerTracer tracer = CompilerTracer.NONE;
+  private GssFunctionCache gssFunctionCache = new GssFunctionCache();
+  private HeapProfiler heapProfiler = null;
+  /** The tree passes are being run on, while a heap profiler is set. */
+  private CssTree profiledTree = null;
+  private Map<String, CssMixinDefinitionNode> mixinDefinitions = null;
+  private ConstantDefinitions constantDefinitions = null;
 
   public PassRunner(JobDescription job, ErrorManager errorManager) {
     this(job, errorManager, createSubstitutionMap(job));
@@ -58,133 +69,224 @@ public class PassRunner {
     this.recordingSubstitutionMap = recordingSubstitutionMap;
   }
 
+  /**
+   * Sets the tracer that is told about every pass this runner runs.
+   */
+  public void setTracer(CompilerTracer tracer) {
+    this.tracer = Preconditions.checkNotNull(tracer);
+  }
+
+  /**
+   * Sets the cache for the results of calls to pure GSS functions. By
+   * default each runner has its own cache; setting the same cache on several
+   * runners shares the results between compilations. {@code null} disables
+   * caching.
+   */
+  public void setGssFunctionCache(@Nullable GssFunctionCache cache) {
+    this.gssFunctionCache = cache;
+  }
+
+  /**
+   * Sets the heap profiler that profiles every pass this runner runs, or
+   * {@code null} to profile nothing.
+   */
+  public void setHeapProfiler(@Nullable HeapProfiler heapProfiler) {
+    this.heapProfiler = heapProfiler;
+  }
+
   /**
    * Runs the passes on the specified {@link CssTree}. This method may be
    * invoked multiple times, as one compilation job may have one {@link CssTree}
    * per input file.
    */
   public void runPasses(CssTree cssTree) {
+    profiledTree = heapProfiler != null ? cssTree : null;
+    try {
+      runPassesInternal(cssTree);
+    } finally {
+      profiledTree = null;
+    }
+  }
+
+  private void runPassesInternal(CssTree cssTree) {
     if (job.processDependencies) {
-      new CheckDependencyNodes(cssTree.getMutatingVisitController(),
-          errorManager).runPass();
+      runPass(new CheckDependencyNodes(cssTree.getMutatingVisitController(),
+          errorManager));
     }
 
-    new CreateStandardAtRuleNodes(cssTree.getMutatingVisitController(),
-        errorManager).runPass();
-    new CreateMixins(cssTree.getMutatingVisitController(),
-        errorManager).runPass();
-    new CreateDefinitionNodes(cssTree.getMutatingVisitController(),
-        errorManager).runPass();
-    new CreateConstantReferences(cssTree.getMutatingVisitController())
-        .runPass();
-    new CreateConditionalNodes(cssTree.getMutatingVisitController(),
-        errorManager).runPass();
-    new CreateComponentNodes(cssTree.getMutatingVisitController(),
-        errorManager).runPass();
-
-    new HandleUnknownAtRuleNodes(cssTree.getMutatingVisitController(),
+    runPass(new CreateStandardAtRuleNodes(
+        cssTree.getMutatingVisitController(), errorManager));
+    runPass(new CreateMixins(cssTree.getMutatingVisitController(),
+        errorManager));
+    runPass(new CreateDefinitionNodes(cssTree.getMutatingVisitController(),
+        errorManager));
+    runPass(new CreateConstantReferences(
+        cssTree.getMutatingVisitController()));
+    runPass(new CreateConditionalNodes(cssTree.getMutatingVisitController(),
+        errorManager));
+    runPass(new CreateComponentNodes(cssTree.getMutatingVisitController(),
+        errorManager));
+
+    runPass(new HandleUnknownAtRuleNodes(cssTree.getMutatingVisitController(),
         errorManager, job.allowedAtRules,
-        true /* report */, false /* remove */).runPass();
-    new ProcessKeyframes(cssTree.getMutatingVisitController(),
+        true /* report */, false /* remove */));
+    runPass(new ProcessKeyframes(cssTree.getMutatingVisitController(),
         errorManager, job.allowKeyframes || job.allowWebkitKeyframes,
-        job.simplifyCss).runPass();
-    new ProcessRefiners(cssTree.getMutatingVisitController(), errorManager,
-        job.simplifyCss).runPass();
+        job.simplifyCss));
+    runPass(new ProcessRefiners(cssTree.getMutatingVisitController(),
+        errorManager, job.simplifyCss));
 
     // Collect mixin definitions and replace mixins
     CollectMixinDefinitions collectMixinDefinitions =
         new CollectMixinDefinitions(cssTree.getMutatingVisitController(),
             errorManager);
-    collectMixinDefinitions.runPass();
-    new ReplaceMixins(cssTree.getMutatingVisitController(), errorManager,
-        collectMixinDefinitions.getDefinitions()).runPass();
+    runPass(collectMixinDefinitions);
+    mixinDefinitions = collectMixinDefinitions.getDefinitions();
+    runPass(new ReplaceMixins(cssTree.getMutatingVisitController(),
+        errorManager, collectMixinDefinitions.getDefinitions()));
 
-    new ProcessComponents<Object>(cssTree.getMutatingVisitController(),
-        errorManager).runPass();
+    runPass(new ProcessComponents<Object>(
+        cssTree.getMutatingVisitController(), errorManager));
     // Eliminate conditional nodes.
-    new EliminateConditionalNodes(
+    runPass(new EliminateConditionalNodes(
         cssTree.getMutatingVisitController(),
-        ImmutableSet.copyOf(job.trueConditionNames)).runPass();
+        ImmutableSet.copyOf(job.trueConditionNames)));
     // Collect constant definitions.
     CollectConstantDefinitions collectConstantDefinitionsPass =
         new CollectConstantDefinitions(cssTree);
-    collectConstantDefinitionsPass.runPass();
+    runPass(collectConstantDefinitionsPass);
+    constantDefinitions =
+        collectConstantDefinitionsPass.getConstantDefinitions();
     // Replace constant references.
     ReplaceConstantReferences replaceConstantReferences =
         new ReplaceConstantReferences(cssTree,
             collectConstantDefinitionsPass.getConstantDefinitions(),
             true /* removeDefs */, errorManager,
             false);
-    replaceConstantReferences.runPass();
+    runPass(replaceConstantReferences);
 
     Map<String, GssFunction> gssFunctionMap = getGssFunctionMap();
-    new ResolveCustomFunctionNodes(
-        cssTree.getMutatingVisitController(), errorManager,
-        gssFunctionMap, job.allowUnrecognizedFunctions,
-        job.allowedNonStandardFunctions)
-        .runPass();
+    ResolveCustomFunctionNodes resolveCustomFunctionNodes =
+        new ResolveCustomFunctionNodes(
+            cssTree.getMutatingVisitController(), errorManager,
+            gssFunctionMap, job.allowUnrecognizedFunctions,
+            job.allowedNonStandardFunctions);
+    resolveCustomFunctionNodes.setFunctionCache(gssFunctionCache);
+    runPass(resolveCustomFunctionNodes);
 
     if (job.simplifyCss) {
       // Eliminate empty rules.
-      new EliminateEmptyRulesetNodes(cssTree.getMutatingVisitController())
-          .runPass();
+      runPass(new EliminateEmptyRulesetNodes(
+          cssTree.getMutatingVisitController()));
       // Eliminating units for zero values.
-      new EliminateUnitsFromZeroNumericValues(
-          cssTree.getMutatingVisitController()).runPass();
+      runPass(new EliminateUnitsFromZeroNumericValues(
+          cssTree.getMutatingVisitController()));
       // Optimize color values.
-      new ColorValueOptimizer(
-          cssTree.getMutatingVisitController()).runPass();
+      runPass(new ColorValueOptimizer(
+          cssTree.getMutatingVisitController()));
       // Compress redundant top-right-bottom-left value lists.
-      new AbbreviatePositionalValues(
-          cssTree.getMutatingVisitController()).runPass();
+      runPass(new AbbreviatePositionalValues(
+          cssTree.getMutatingVisitController()));
     }
     if (job.eliminateDeadStyles) {
       // Report errors for duplicate declarations
-      new DisallowDuplicateDeclarations(
-          cssTree.getVisitController(), errorManager).runPass();
-      // Split rules by selector and declaration.
-      new SplitRulesetNodes(cssTree.getMutatingVisitController()).runPass();
-      // Dead code elimination.
-      new MarkRemovableRulesetNodes(cssTree).runPass();
-      new EliminateUselessRulesetNodes(cssTree).runPass();
+      runPass(new DisallowDuplicateDeclarations(
+          cssTree.getVisitController(), errorManager));
+      // Dead code elimination, splitting only the rulesets that lose
+      // declarations.
+      runPass(new EliminateOverriddenDeclarations(cssTree));
       // Merge of rules with same selector.
-      new MergeAdjacentRulesetNodesWithSameSelector(cssTree).runPass();
-      new EliminateUselessRulesetNodes(cssTree).runPass();
+      runPass(new MergeAdjacentRulesetNodesWithSameSelector(cssTree));
+      runPass(new EliminateUselessRulesetNodes(cssTree));
       // Merge of rules with same styles.
-      new MergeAdjacentRulesetNodesWithSameDeclarations(cssTree).runPass();
-      new EliminateUselessRulesetNodes(cssTree).runPass();
+      runPass(new MergeAdjacentRulesetNodesWithSameDeclarations(cssTree));
+      runPass(new EliminateUselessRulesetNodes(cssTree));
+      // Merge of non-adjacent rules where no rule in between conflicts.
+      if (job.mergeNonAdjacentRulesets) {
+        runPass(new MergeNonAdjacentRulesetNodes(cssTree));
+        runPass(new EliminateUselessRulesetNodes(cssTree));
+      }
     }
     // Perform BiDi flipping if required.
     if (job.needsBiDiFlipping()) {
-      new MarkNonFlippableNodes(cssTree.getVisitController(),
-          errorManager).runPass();
-      new BiDiFlipper(cssTree.getMutatingVisitController(),
-                        job.swapLtrRtlInUrl, job.swapLeftRightInUrl).runPass();
+      runPass(new MarkNonFlippableNodes(cssTree.getVisitController(),
+          errorManager));
+      runPass(new BiDiFlipper(cssTree.getMutatingVisitController(),
+                        job.swapLtrRtlInUrl, job.swapLeftRightInUrl));
     }
     // If specified, remove all vendor-specific properties except for the
     // whitelisted vendor.
     if (job.vendor != null) {
-      new RemoveVendorSpecificProperties(job.vendor,
-          cssTree.getMutatingVisitController()).runPass();
+      runPass(new RemoveVendorSpecificProperties(job.vendor,
+          cssTree.getMutatingVisitController()));
     }
     // Unless all unrecognized properties are allowed, check for unrecognized
     // properties.
     if (!job.allowUnrecognizedProperties) {
-      new VerifyRecognizedProperties(job.allowedUnrecognizedProperties,
-          cssTree.getVisitController(), errorManager).runPass();
+      runPass(new VerifyRecognizedProperties(
+          job.allowedUnrecognizedProperties,
+          cssTree.getVisitController(), errorManager));
     }
     // Rename class names
     if (recordingSubstitutionMap != null) {
-      new CssClassRenaming(
+      runPass(new CssClassRenaming(
           cssTree.getMutatingVisitController(),
-          recordingSubstitutionMap, null).runPass();
+          recordingSubstitutionMap, null));
     }
+    // Reorder declarations and rulesets for better compression, once the
+    // output is otherwise final.
+    if (job.optimizeForCompression) {
+      runPass(new ReorderForCompression(cssTree, true /* skipping */));
+    }
+  }
+
+  /**
+   * Runs a single pass, reporting it to the tracer if tracing is enabled and
+   * to the heap profiler if there is one.
+   */
+  private void runPass(CssCompilerPass pass) {
+    if (profiledTree != null) {
+      heapProfiler.startPhase();
+      runTracedPass(pass);
+      heapProfiler.endPhase(pass.getClass().getSimpleName(), profiledTree,
+          recordingSubstitutionMap);
+    } else {
+      runTracedPass(pass);
+    }
+  }
+
+  private void runTracedPass(CssCompilerPass pass) {
+    if (!tracer.isEnabled()) {
+      pass.runPass();
+      return;
+    }
+    CompilerTracer.Span span = tracer.startSpan(CompilerTracer.Phase.PASS,
+        pass.getClass().getSimpleName(), null);
+    long nodesVisitedBefore = VisitCounter.getCount();
+    pass.runPass();
+    span.end(VisitCounter.getCount() - nodesVisitedBefore, 0);
   }
 
   public @Nullable RecordingSubstitutionMap getRecordingSubstitutionMap() {
     return recordingSubstitutionMap;
   }
 
+  /**
+   * Returns the mixin definitions that were expanded by the last run, by
+   * name, or {@code null} if the passes have not been run.
+   */
+  public @Nullable Map<String, CssMixinDefinitionNode> getMixinDefinitions() {
+    return mixinDefinitions;
+  }
+
+  /**
+   * Returns the constant definitions that were replaced by the last run, or
+   * {@code null} if the passes have not been run.
+   */
+  public @Nullable ConstantDefinitions getConstantDefinitions() {
+    return constantDefinitions;
+  }
+
   /**
    * Creates the CSS class substitution map from the provider, if any.
    * Wraps it in a substitution map that optionally prefixes all of the renamed
@@ -18,6 +18,7 @@ package com.google.common.css.compiler.passes;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.css.compiler.ast.CssAtRuleNode.Type;
 import com.google.common.css.compiler.ast.CssAttributeSelectorNode;
@@ -56,6 +57,11 @@ import com.google.common.css.compiler.ast.CssValueNode;
 import com.google.common.css.compiler.ast.DefaultTreeVisitor;
 import com.google.common.css.compiler.ast.VisitController;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
 /**
  * A pretty-printer for {@link CssTree} instances. This is work in progress.
  * Look at PrettyPrinterTest to see what's supported.
@@ -68,6 +74,7 @@ public class PrettyPrinter extends DefaultTreeVisitor
     implements CssCompilerPass {
 
   private StringBuilder sb = null;
+  private StreamingOutput output = null;
   private String prettyPrintedString = null;
   private String indent = "";
   private VisitController visitController;
@@ -209,6 +216,9 @@ public class PrettyPrinter extends DefaultTreeVisitor
     indent = indent.substring(0, indent.length() - 2);
     sb.append(indent);
     sb.append("}\n");
+    if (output != null) {
+      output.maybeFlush(sb);
+    }
   }
 
   @Override
@@ -503,7 +513,8 @@ public class PrettyPrinter extends DefaultTreeVisitor
   }
 
   private void deleteEndingIfEndingIs(String s) {
-    if (sb.subSequence(sb.length() - s.length(), sb.length()).equals(s)) {
+    if (sb.length() >= s.length()
+        && sb.subSequence(sb.length() - s.length(), sb.length()).equals(s)) {
       sb.delete(sb.length() - s.length(), sb.length());
     }
   }
@@ -519,6 +530,59 @@ public class PrettyPrinter extends DefaultTreeVisitor
     prettyPrintedString = sb.toString();
   }
 
+  /**
+   * Prints the tree to the given writer instead of building the output as a
+   * string, writing it in pieces while the tree is visited. The writer is
+   * flushed but not closed, and {@link #getPrettyPrintedString} returns
+   * {@code null} afterwards.
+   *
+   * @param out the writer to print to
+   * @return the number of characters printed
+   * @throws IOException if the writer throws one
+   */
+  public long printTo(Writer out) throws IOException {
+    startPrinting(out, visitController);
+    visitController.startVisit(this);
+    return finishPrinting();
+  }
+
+  /**
+   * Prepares to print to the given writer while a visit driven by the given
+   * controller, which is stopped if the writer fails, calls this printer.
+   */
+  void startPrinting(Writer out, VisitController controller) {
+    sb = new StringBuilder(2 * StreamingOutput.FLUSH_THRESHOLD);
+    output = new StreamingOutput(out, controller);
+    prettyPrintedString = null;
+  }
+
+  /**
+   * Writes the rest of the output after the visit that calls this printer.
+   *
+   * @return the number of characters printed
+   * @throws IOException if the writer threw one at any point
+   */
+  long finishPrinting() throws IOException {
+    try {
+      return output.finish(sb);
+    } finally {
+      output = null;
+      sb = null;
+    }
+  }
+
+  /**
+   * Prints the tree to the given stream, encoded in UTF-8, in the same way
+   * as {@link #printTo(Writer)}. The stream is flushed but not closed.
+   *
+   * @param out the stream to print to
+   * @return the number of characters printed
+   * @throws IOException if the stream throws one
+   */
+  public long printTo(OutputStream out) throws IOException {
+    return printTo(new OutputStreamWriter(out, Charsets.UTF_8));
+  }
+
   private String maybeStripQuotes(String v) {
     if (v.startsWith("'") || v.startsWith("\"")) {
       assert(v.endsWith(v.substring(0, 1)));
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.SkippingTreeVisitor;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * Compiler pass that reorders declarations and rulesets so that the output
+ * compresses better with gzip, without changing which declarations apply to
+ * an element.
+ *
+ * <p>Each property is assigned a family: its name without vendor prefix or
+ * hack, up to the first hyphen, so that {@code margin} and
+ * {@code margin-left} or {@code -webkit-transition} and
+ * {@code transition-delay} share one. A few families are merged because
+ * their properties overlap, e.g. {@code font} takes in {@code line-height}
+ * and {@code top} belongs to the same family as {@code inset}. Properties of
+ * different families never affect each other, so:
+ * <ul>
+ * <li>the declarations of a ruleset are sorted by family, keeping the order of
+ * declarations of the same family;
+ * <li>within a run of adjacent rulesets, a ruleset may move across another one
+ * unless they share a family. The run is reordered to put rulesets with the
+ * same declarations, and otherwise with the same properties, next to each
+ * other.
+ * </ul>
+ *
+ * <p>Any node other than a ruleset with only declarations acts as a barrier,
+ * as do rulesets that {@link SkippingTreeVisitor#canModifyRuleset} rejects and
+ * rulesets that use the {@code all} property. Since it only moves whole
+ * rulesets, the pass should run last, after the passes that merge rulesets.
+ */
+public class ReorderForCompression extends SkippingTreeVisitor
+    implements CssCompilerPass {
+
+  private static final Logger logger = Logger.getLogger(
+      ReorderForCompression.class.getName());
+
+  /** Families of whole property names that other families overlap. */
+  private static final Map<String, String> PROPERTY_FAMILIES =
+      ImmutableMap.of("line-height", "font");
+
+  /** Families that overlap, keyed by the first part of the property name. */
+  private static final Map<String, String> MERGED_FAMILIES =
+      ImmutableMap.<String, String>builder()
+          .put("top", "inset")
+          .put("right", "inset")
+          .put("bottom", "inset")
+          .put("left", "inset")
+          .put("width", "size")
+          .put("height", "size")
+          .put("min", "size")
+          .put("max", "size")
+          .put("inline", "size")
+          .put("block", "size")
+          .put("justify", "align")
+          .put("place", "align")
+          .put("gap", "grid")
+          .put("row", "grid")
+          .put("column", "grid")
+          .put("columns", "grid")
+          .put("word", "overflow")
+          .put("page", "break")
+          .build();
+
+  private final CssTree tree;
+  private final boolean measure;
+  private final List<CssBlockNode> blocks = Lists.newArrayList();
+  private int deflatedSizeBefore = -1;
+  private int deflatedSizeAfter = -1;
+
+  public ReorderForCompression(CssTree tree) {
+    this(tree, false);
+  }
+
+  public ReorderForCompression(CssTree tree, boolean skipping) {
+    this(tree, skipping, false);
+  }
+
+  /**
+   * @param tree the tree to reorder
+   * @param skipping whether rulesets that {@link #canModifyRuleset} rejects
+   *     are left in place
+   * @param measure whether to measure the deflated size of the compact output
+   *     before and after reordering and log it at {@code FINE}, which prints
+   *     and compresses the tree twice
+   */
+  public ReorderForCompression(CssTree tree, boolean skipping,
+      boolean measure) {
+    super(skipping);
+    this.tree = tree;
+    this.measure = measure;
+  }
+
+  @Override
+  public boolean enterBlock(CssBlockNode block) {
+    blocks.add(block);
+    return true;
+  }
+
+  @Override
+  public void runPass() {
+    if (measure) {
+      deflatedSizeBefore = deflatedSize(print(tree));
+    }
+    tree.getVisitController().startVisit(this);
+    for (CssBlockNode block : blocks) {
+      reorder(block);
+    }
+    blocks.clear();
+    if (measure) {
+      deflatedSizeAfter = deflatedSize(print(tree));
+      logger.fine(String.format(
+          "Deflated output size: %d bytes before reordering, %d bytes after",
+          deflatedSizeBefore, deflatedSizeAfter));
+    }
+  }
+
+  /**
+   * Returns the deflated size of the compact output before the pass ran, or
+   * -1 if it was not measured.
+   */
+  public int getDeflatedSizeBefore() {
+    return deflatedSizeBefore;
+  }
+
+  /**
+   * Returns the deflated size of the compact output after the pass ran, or -1
+   * if it was not measured.
+   */
+  public int getDeflatedSizeAfter() {
+    return deflatedSizeAfter;
+  }
+
+  /**
+   * Returns the size of the UTF-8 encoding of the output once compressed with
+   * the deflate algorithm at its default level, as gzip does, without the
+   * gzip header and trailer.
+   */
+  public static int deflatedSize(String output) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      deflater.setInput(output.getBytes(Charsets.UTF_8));
+      deflater.finish();
+      byte[] buffer = new byte[8192];
+      int size = 0;
+      while (!deflater.finished()) {
+        size += deflater.deflate(buffer);
+      }
+      return size;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static String print(CssTree tree) {
+    CompactPrinter printer = new CompactPrinter(tree);
+    printer.runPass();
+    return printer.getCompactPrintedString();
+  }
+
+  /**
+   * Returns the family of the property of a declaration, or {@code null} if
+   * the property may interact with properties of any family. Also used by
+   * {@link MergeNonAdjacentRulesetNodes} to find conflicting rulesets.
+   */
+  static String getFamily(CssDeclarationNode declaration) {
+    String name =
+        declaration.getPropertyName().getPropertyName().toLowerCase();
+    if (name.startsWith("--")) {
+      return name;
+    }
+    if (name.startsWith("_") || name.startsWith("*")) {
+      name = name.substring(1);
+    }
+    if (name.startsWith("-")) {
+      name = name.substring(name.indexOf('-', 1) + 1);
+    }
+    if (name.equals("all")) {
+      return null;
+    }
+    String family = PROPERTY_FAMILIES.get(name);
+    if (family != null) {
+      return family;
+    }
+    int hyphen = name.indexOf('-');
+    family = hyphen > 0 ? name.substring(0, hyphen) : name;
+    return MERGED_FAMILIES.containsKey(family)
+        ? MERGED_FAMILIES.get(family) : family;
+  }
+
+  /**
+   * Sorts the declarations of the rulesets of the block and reorders its runs
+   * of adjacent rulesets.
+   */
+  private void reorder(CssBlockNode block) {
+    int start = 0;
+    for (int i = 0; i <= block.numChildren(); i++) {
+      if (i < block.numChildren() && sortDeclarations(block.getChildAt(i))) {
+        continue;
+      }
+      if (i - start > 1) {
+        reorderRun(block, start, i);
+      }
+      start = i + 1;
+    }
+  }
+
+  /**
+   * Sorts the declarations of the node by family if it is a ruleset that may
+   * be reordered, and returns whether it is one.
+   */
+  private boolean sortDeclarations(CssNode node) {
+    if (!(node instanceof CssRulesetNode)) {
+      return false;
+    }
+    CssRulesetNode ruleset = (CssRulesetNode) node;
+    if (ruleset.getSelectors().isEmpty() || !canModifyRuleset(ruleset)) {
+      return false;
+    }
+    final Map<CssNode, String> families = Maps.newHashMap();
+    for (CssNode child : ruleset.getDeclarations().childIterable()) {
+      if (!(child instanceof CssDeclarationNode)) {
+        return false;
+      }
+      String family = getFamily((CssDeclarationNode) child);
+      if (family == null) {
+        return false;
+      }
+      families.put(child, family);
+    }
+    List<CssNode> declarations =
+        Lists.newArrayList(ruleset.getDeclarations().childIterable());
+    // The sort is stable, so declarations of the same family keep their order.
+    Collections.sort(declarations, new Comparator<CssNode>() {
+      @Override
+      public int compare(CssNode a, CssNode b) {
+        return families.get(a).compareTo(families.get(b));
+      }
+    });
+    if (!declarations.equals(ruleset.getDeclarations().getChildren())) {
+      ruleset.getDeclarations().replaceChildren(
+          0, declarations.size(), declarations);
+    }
+    return true;
+  }
+
+  /**
+   * Reorders the rulesets from {@code start} to {@code end} in the block. Each
+   * ruleset has to stay after the previous ruleset that shares a family with
+   * it. Among the rulesets that can go next, the first one with the same
+   * declarations as the last one placed is taken, or else the first one with
+   * the same properties, or else the first one.
+   */
+  private void reorderRun(CssBlockNode block, int start, int end) {
+    int size = end - start;
+    List<CssRulesetNode> rulesets = Lists.newArrayListWithCapacity(size);
+    List<List<Integer>> successors = Lists.newArrayListWithCapacity(size);
+    int[] predecessorCounts = new int[size];
+    String[] declarationKeys = new String[size];
+    String[] propertyKeys = new String[size];
+    Map<String, Integer> lastByFamily = Maps.newHashMap();
+    for (int i = 0; i < size; i++) {
+      CssRulesetNode ruleset = (CssRulesetNode) block.getChildAt(start + i);
+      rulesets.add(ruleset);
+      successors.add(Lists.<Integer>newArrayList());
+      Set<String> families = Sets.newHashSet();
+      StringBuilder properties = new StringBuilder();
+      for (CssNode child : ruleset.getDeclarations().childIterable()) {
+        CssDeclarationNode declaration = (CssDeclarationNode) child;
+        families.add(getFamily(declaration));
+        properties.append(declaration.getPropertyName().getPropertyName())
+            .append(';');
+      }
+      for (String family : families) {
+        Integer previous = lastByFamily.put(family, i);
+        if (previous != null) {
+          successors.get(previous).add(i);
+          predecessorCounts[i]++;
+        }
+      }
+      declarationKeys[i] = ruleset.getDeclarations().toString();
+      propertyKeys[i] = properties.toString();
+    }
+
+    Candidates candidates = new Candidates(declarationKeys, propertyKeys);
+    for (int i = 0; i < size; i++) {
+      if (predecessorCounts[i] == 0) {
+        candidates.add(i);
+      }
+    }
+    List<CssRulesetNode> reordered = Lists.newArrayListWithCapacity(size);
+    boolean changed = false;
+    int last = -1;
+    while (reordered.size() < size) {
+      int next = candidates.takeNext(last);
+      changed |= next != reordered.size();
+      reordered.add(rulesets.get(next));
+      for (int successor : successors.get(next)) {
+        if (--predecessorCounts[successor] == 0) {
+          candidates.add(successor);
+        }
+      }
+      last = next;
+    }
+    if (changed) {
+      block.replaceChildren(start, end, reordered);
+    }
+  }
+
+  /**
+   * The rulesets of a run that can go next, indexed by their declarations and
+   * by their properties.
+   */
+  private static class Candidates {
+    private final String[] declarationKeys;
+    private final String[] propertyKeys;
+    private final TreeSet<Integer> all = new TreeSet<Integer>();
+    private final Map<String, TreeSet<Integer>> byDeclarations =
+        Maps.newHashMap();
+    private final Map<String, TreeSet<Integer>> byProperties =
+        Maps.newHashMap();
+
+    Candidates(String[] declarationKeys, String[] propertyKeys) {
+      this.declarationKeys = declarationKeys;
+      this.propertyKeys = propertyKeys;
+    }
+
+    void add(int index) {
+      all.add(index);
+      index(byDeclarations, declarationKeys[index]).add(index);
+      index(byProperties, propertyKeys[index]).add(index);
+    }
+
+    /**
+     * Removes and returns the candidate to place after the ruleset at
+     * {@code last}, which is -1 at the start of the run.
+     */
+    int takeNext(int last) {
+      int next = all.first();
+      if (last >= 0) {
+        TreeSet<Integer> same = byDeclarations.get(declarationKeys[last]);
+        if (same == null || same.isEmpty()) {
+          same = byProperties.get(propertyKeys[last]);
+        }
+        if (same != null && !same.isEmpty()) {
+          next = same.first();
+        }
+      }
+      all.remove(next);
+      byDeclarations.get(declarationKeys[next]).remove(next);
+      byProperties.get(propertyKeys[next]).remove(next);
+      return next;
+    }
+
+    private static TreeSet<Integer> index(
+        Map<String, TreeSet<Integer>> indexes, String key) {
+      TreeSet<Integer> index = indexes.get(key);
+      if (index == null) {
+        index = new TreeSet<Integer>();
+        indexes.put(key, index);
+      }
+      return index;
+    }
+  }
+}
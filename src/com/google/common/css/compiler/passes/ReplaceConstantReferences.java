@@ -18,13 +18,20 @@ package com.google.common.css.compiler.passes;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.css.compiler.ast.CssCompilerPass;
 import com.google.common.css.compiler.ast.CssCompositeValueNode;
 import com.google.common.css.compiler.ast.CssConstantReferenceNode;
 import com.google.common.css.compiler.ast.CssDefinitionNode;
+import com.google.common.css.compiler.ast.CssFunctionArgumentsNode;
+import com.google.common.css.compiler.ast.CssFunctionNode;
 import com.google.common.css.compiler.ast.CssLiteralNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssPropertyValueNode;
 import com.google.common.css.compiler.ast.CssTree;
 import com.google.common.css.compiler.ast.CssValueNode;
 import com.google.common.css.compiler.ast.DefaultTreeVisitor;
@@ -33,7 +40,11 @@ import com.google.common.css.compiler.ast.GssError;
 import com.google.common.css.compiler.ast.MutatingVisitController;
 import com.google.common.css.compiler.ast.Proxiable;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -51,6 +62,18 @@ public class ReplaceConstantReferences extends DefaultTreeVisitor
   private final ErrorManager errorManager;
   private final boolean allowUndefinedConstants;
 
+  /** Resolved values of the definitions, set by {@link #runPass}. */
+  private Map<String, List<CssValueNode>> resolvedValues;
+
+  /** Resolved values of the definitions as used in function arguments. */
+  private Map<String, List<CssValueNode>> resolvedFunArgValues;
+
+  /** Definitions that still contain references to undefined constants. */
+  private final Set<String> unresolvedConstants = Sets.newHashSet();
+
+  /** Definitions that are part of, or depend on, a cycle. */
+  private final Set<String> cyclicConstants = Sets.newHashSet();
+
   /**
    * This constructor is only used by other projects.
    * It should not be used in new code.
@@ -110,22 +133,53 @@ public class ReplaceConstantReferences extends DefaultTreeVisitor
       return;
     }
 
+    String name = node.getValue();
+    if (cyclicConstants.contains(name)) {
+      // Already reported when the definitions were resolved.
+      return;
+    }
+    if (resolvedValues != null) {
+      List<CssValueNode> values = (node.inFunArgs()
+          ? resolvedFunArgValues : resolvedValues).get(name);
+      if (values != null) {
+        // The resolved value already has all of its nested references
+        // replaced, so only revisit it when it still contains undefined
+        // constants that have to be reported at this use.
+        replaceWith(visitController, node, copyValues(values, false),
+            unresolvedConstants.contains(name));
+        return;
+      }
+    }
+
     CssDefinitionNode constantNode =
-        constantDefinitions.getConstantDefinition(node.getValue());
+        constantDefinitions.getConstantDefinition(name);
 
     if (constantNode == null) {
       if (!allowUndefinedConstants) {
         errorManager.report(new GssError("GSS constant not defined: "
-            + node.getValue(), node.getSourceCodeLocation()));
+            + name, node.getSourceCodeLocation()));
       }
       return;
     }
 
-    List<CssValueNode> params = constantNode.getParameters();
-    List<CssValueNode> temp = Lists.newArrayListWithCapacity(params.size());
-    boolean inFunArgs = node.inFunArgs();
+    replaceWith(visitController, node,
+        copyValues(constantNode.getParameters(), node.inFunArgs()),
+        true /* visitTheReplacementNodes */);
+  }
+
+  /**
+   * Copies the given values for insertion at a reference. Proxiable nodes are
+   * proxied instead of copied.
+   *
+   * @param values the values to copy
+   * @param inFunArgs whether the reference occurs in function arguments, in
+   *     which case whitespace nodes are inserted between the values
+   */
+  private static List<CssValueNode> copyValues(List<CssValueNode> values,
+      boolean inFunArgs) {
+    List<CssValueNode> temp = Lists.newArrayListWithCapacity(values.size());
     boolean intermediate = false;
-    for (CssValueNode n : params) {
+    for (CssValueNode n : values) {
       if (inFunArgs && intermediate) {
         // Usually, the parser consumes whitespace and lets tree
         // structure suffice to distinguish elements of the AST. But
@@ -148,14 +202,165 @@ public class ReplaceConstantReferences extends DefaultTreeVisitor
       }
       intermediate = true;
     }
+    return temp;
+  }
+
+  private static void replaceWith(MutatingVisitController controller,
+      CssConstantReferenceNode node, List<CssValueNode> values,
+      boolean visitTheReplacementNodes) {
     // The composite value is used so that we can store nodes with different
     // separators in one another. visitController.replaceCurrentBlockChildWith
     // will unwrap the value if it can in the current context.
     CssCompositeValueNode tempNode = new CssCompositeValueNode(
-        temp, CssCompositeValueNode.Operator.SPACE,
+        values, CssCompositeValueNode.Operator.SPACE,
         node.getSourceCodeLocation());
-    visitController.replaceCurrentBlockChildWith(
-        Lists.newArrayList(tempNode), true);
+    controller.replaceCurrentBlockChildWith(
+        Lists.newArrayList(tempNode), visitTheReplacementNodes);
+  }
+
+  /**
+   * Resolves every constant definition once, so that a chain of definitions
+   * is not re-expanded at each of its uses. Definitions are resolved in
+   * dependency order; definitions that are part of a cycle, or that depend on
+   * one, are reported and left unresolved.
+   */
+  private void resolveConstantDefinitions() {
+    Map<String, Set<String>> dependencies = Maps.newHashMap();
+    Map<String, List<String>> dependents = Maps.newHashMap();
+    for (String name : constantDefinitions.getConstantsNames()) {
+      CssDefinitionNode def = constantDefinitions.getConstantDefinition(name);
+      ReferenceCollector collector = new ReferenceCollector();
+      def.getVisitController().startVisit(collector);
+      Set<String> deps = Sets.newLinkedHashSet();
+      for (String dep : collector.references) {
+        if (constantDefinitions.getConstantDefinition(dep) != null) {
+          deps.add(dep);
+        }
+      }
+      dependencies.put(name, deps);
+      for (String dep : deps) {
+        List<String> list = dependents.get(dep);
+        if (list == null) {
+          list = Lists.newArrayList();
+          dependents.put(dep, list);
+        }
+        list.add(name);
+      }
+    }
+
+    // Kahn's algorithm; iterative so that long chains of definitions are fine.
+    Map<String, Integer> pending = Maps.newHashMap();
+    Deque<String> ready = new ArrayDeque<String>();
+    for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+      pending.put(entry.getKey(), entry.getValue().size());
+      if (entry.getValue().isEmpty()) {
+        ready.add(entry.getKey());
+      }
+    }
+    List<String> order =
+        Lists.newArrayListWithCapacity(dependencies.size());
+    while (!ready.isEmpty()) {
+      String name = ready.poll();
+      order.add(name);
+      List<String> list = dependents.get(name);
+      if (list == null) {
+        continue;
+      }
+      for (String dependent : list) {
+        int count = pending.get(dependent) - 1;
+        pending.put(dependent, count);
+        if (count == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+
+    if (order.size() < dependencies.size()) {
+      Set<String> remaining = Sets.newLinkedHashSet(dependencies.keySet());
+      remaining.removeAll(order);
+      reportCycles(remaining, dependencies);
+      cyclicConstants.addAll(remaining);
+    }
+
+    resolveInOrder(order);
+  }
+
+  /**
+   * Reports each cycle among the given definitions once. Every remaining
+   * definition depends on at least one other remaining definition, so
+   * following those dependencies always ends up in a cycle.
+   */
+  private void reportCycles(Set<String> remaining,
+      Map<String, Set<String>> dependencies) {
+    Set<String> explored = Sets.newHashSet();
+    for (String start : remaining) {
+      List<String> path = Lists.newArrayList();
+      Map<String, Integer> pathIndex = Maps.newHashMap();
+      String current = start;
+      while (!explored.contains(current)) {
+        explored.add(current);
+        pathIndex.put(current, path.size());
+        path.add(current);
+        String next = null;
+        for (String dep : dependencies.get(current)) {
+          if (remaining.contains(dep)) {
+            next = dep;
+            break;
+          }
+        }
+        current = next;
+      }
+      Integer cycleStart = pathIndex.get(current);
+      if (cycleStart == null || errorManager == null) {
+        continue;
+      }
+      List<String> cycle = Lists.newArrayList(
+          path.subList(cycleStart, path.size()));
+      cycle.add(current);
+      errorManager.report(new GssError(
+          "Cycle in GSS constant definitions: " + Joiner.on(" -> ").join(cycle),
+          constantDefinitions.getConstantDefinition(current)
+              .getSourceCodeLocation()));
+    }
+  }
+
+  /**
+   * Resolves the definitions in dependency order, both as they would be
+   * inserted at a reference outside of function arguments and inside of them.
+   */
+  private void resolveInOrder(List<String> order) {
+    resolvedValues = Maps.newHashMap();
+    resolvedFunArgValues = Maps.newHashMap();
+    for (String name : order) {
+      List<CssValueNode> params =
+          constantDefinitions.getConstantDefinition(name).getParameters();
+
+      CssPropertyValueNode value =
+          new CssPropertyValueNode(copyValues(params, false));
+      boolean unresolved = resolve(value);
+      resolvedValues.put(name, ImmutableList.copyOf(value.getChildren()));
+
+      CssFunctionNode function = new CssFunctionNode(null, null);
+      CssFunctionArgumentsNode args =
+          new CssFunctionArgumentsNode(copyValues(params, true));
+      function.setArguments(args);
+      unresolved |= resolve(function);
+      resolvedFunArgValues.put(name, ImmutableList.copyOf(args.getChildren()));
+
+      if (unresolved) {
+        unresolvedConstants.add(name);
+      }
+    }
+  }
+
+  /**
+   * Replaces the references below the given node with the values resolved so
+   * far. Returns whether some references could not be replaced.
+   */
+  private boolean resolve(CssNode node) {
+    Resolver resolver = new Resolver(node.getMutatingVisitController());
+    resolver.controller.startVisit(resolver);
+    return resolver.unresolved;
   }
 
   @Override
@@ -176,7 +381,67 @@ public class ReplaceConstantReferences extends DefaultTreeVisitor
           }
         }
       }
+      resolveConstantDefinitions();
     }
     visitController.startVisit(this);
   }
+
+  /**
+   * Collects the names of the constants referenced in a definition.
+   */
+  private static class ReferenceCollector extends DefaultTreeVisitor {
+    private final List<String> references = Lists.newArrayList();
+
+    @Override
+    public boolean enterValueNode(CssValueNode node) {
+      if (node instanceof CssConstantReferenceNode) {
+        references.add(node.getValue());
+      }
+      return true;
+    }
+
+    @Override
+    public boolean enterArgumentNode(CssValueNode node) {
+      return enterValueNode(node);
+    }
+  }
+
+  /**
+   * Replaces the references in a copy of a definition with the already
+   * resolved values of the definitions they refer to. References to undefined
+   * or cyclic constants are left in place.
+   */
+  private class Resolver extends DefaultTreeVisitor {
+    private final MutatingVisitController controller;
+    private boolean unresolved = false;
+
+    Resolver(MutatingVisitController controller) {
+      this.controller = controller;
+    }
+
+    @Override
+    public boolean enterValueNode(CssValueNode node) {
+      if (node instanceof CssConstantReferenceNode) {
+        String name = node.getValue();
+        List<CssValueNode> values = (node.inFunArgs()
+            ? resolvedFunArgValues : resolvedValues).get(name);
+        if (values == null) {
+          unresolved = true;
+        } else {
+          if (unresolvedConstants.contains(name)) {
+            unresolved = true;
+          }
+          replaceWith(controller, (CssConstantReferenceNode) node,
+              copyValues(values, false),
+              false /* visitTheReplacementNodes */);
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public boolean enterArgumentNode(CssValueNode node) {
+      return enterValueNode(node);
+    }
+  }
 }
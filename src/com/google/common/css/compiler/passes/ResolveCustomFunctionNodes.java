@@ -32,11 +32,14 @@ import com.google.common.css.compiler.ast.GssFunction;
 import com.google.common.css.compiler.ast.GssFunctionException;
 import com.google.common.css.compiler.ast.MutatingVisitController;
 import com.google.common.css.compiler.ast.Proxiable;
+import com.google.common.css.compiler.ast.PureGssFunction;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 /**
  * This compiler pass replaces {@link CssCustomFunctionNode} instances with the
  * list of nodes returned by the GssFunction.
@@ -50,6 +53,7 @@ public class ResolveCustomFunctionNodes extends DefaultTreeVisitor
   private final ErrorManager errorManager;
   private final boolean allowUnknownFunctions;
   private final Set<String> allowedNonStandardFunctions;
+  private GssFunctionCache functionCache = null;
 
   /**
    * Constructs the pass.
@@ -107,6 +111,14 @@ public class ResolveCustomFunctionNodes extends DefaultTreeVisitor
         allowedNonStandardFunctions);
   }
 
+  /**
+   * Sets the cache for the results of calls to pure functions, or
+   * {@code null} to evaluate every call.
+   */
+  public void setFunctionCache(@Nullable GssFunctionCache functionCache) {
+    this.functionCache = functionCache;
+  }
+
   @Override
   public void leaveFunctionNode(CssFunctionNode functionNode) {
     if (!(functionNode instanceof Proxiable)) {
@@ -220,8 +232,22 @@ public class ResolveCustomFunctionNodes extends DefaultTreeVisitor
       List<CssValueNode> arguments,
       ErrorManager errorManager) throws GssFunctionException {
 
-    List<CssValueNode> functionResult =
-        function.getCallResultNodes(arguments, errorManager);
+    List<String> key = null;
+    List<CssValueNode> functionResult = null;
+    if (functionCache != null && function instanceof PureGssFunction) {
+      key = functionCache.getKey(node.getFunctionName(), arguments);
+      if (key != null) {
+        functionResult = functionCache.get(key, arguments.isEmpty()
+            ? node.getSourceCodeLocation()
+            : arguments.get(0).getSourceCodeLocation());
+      }
+    }
+    if (functionResult == null) {
+      functionResult = function.getCallResultNodes(arguments, errorManager);
+      if (key != null) {
+        functionCache.put(key, functionResult);
+      }
+    }
     node.setResult(functionResult);
     return functionResult;
   }
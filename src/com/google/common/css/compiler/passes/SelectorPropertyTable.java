@@ -0,0 +1,357 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.compiler.ast.CssAttributeSelectorNode;
+import com.google.common.css.compiler.ast.CssCombinatorNode;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssPseudoClassNode;
+import com.google.common.css.compiler.ast.CssPseudoClassNode.FunctionType;
+import com.google.common.css.compiler.ast.CssRefinerNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.Property;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table from (selector, property) pairs to values, used by the passes that
+ * look for overridden and duplicate declarations.
+ *
+ * <p>Selectors are interned by structure: two selectors that the compact
+ * printer prints the same way get the same key, without being printed.
+ * Properties are keyed by their {@linkplain Property#getOrdinal ordinal};
+ * user-defined properties are numbered after the recognized ones, and
+ * star-hacked declarations get keys of their own, so they are not considered
+ * overridden by the non-hacked ones. The two keys are packed into a
+ * {@code long} and the entries are kept in parallel arrays with open
+ * addressing, so lookups and insertions do not allocate.
+ *
+ * @param <V> the type of the values, which must not be null
+ */
+final class SelectorPropertyTable<V> {
+
+  /** The initial number of slots of each hash table; a power of two. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** The interned selectors; the key of a selector is its index. */
+  private final List<CssSelectorNode> selectors = Lists.newArrayList();
+
+  /** The hash of the selector in each slot. */
+  private int[] selectorHashes = new int[INITIAL_CAPACITY];
+
+  /** The key plus one of the selector in each slot, or zero if empty. */
+  private int[] selectorSlots = new int[INITIAL_CAPACITY];
+
+  /** The keys of the user-defined properties seen so far. */
+  private final Map<String, Integer> userDefinedProperties = Maps.newHashMap();
+
+  private long[] keys = new long[INITIAL_CAPACITY];
+  private Object[] values = new Object[INITIAL_CAPACITY];
+
+  /**
+   * The generation in which each slot was filled. Slots of older generations
+   * are empty, which makes {@link #clear} constant-time.
+   */
+  private int[] generations = new int[INITIAL_CAPACITY];
+  private int generation = 1;
+  private int size = 0;
+
+  /**
+   * Returns the key of the given selector, which is the same for all the
+   * selectors that print the same way.
+   */
+  int selectorKey(CssSelectorNode selector) {
+    int hash = hashSelector(selector);
+    int mask = selectorSlots.length - 1;
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      if (selectorSlots[slot] == 0) {
+        int key = selectors.size();
+        selectors.add(selector);
+        selectorHashes[slot] = hash;
+        selectorSlots[slot] = key + 1;
+        if (2 * selectors.size() > selectorSlots.length) {
+          growSelectors();
+        }
+        return key;
+      }
+      if (selectorHashes[slot] == hash && sameSelector(
+          selectors.get(selectorSlots[slot] - 1), selector)) {
+        return selectorSlots[slot] - 1;
+      }
+    }
+  }
+
+  /** Returns the key of the property of the given declaration. */
+  int propertyKey(CssDeclarationNode declaration) {
+    return propertyKey(declaration.getPropertyName().getProperty(),
+        declaration.hasStarHack());
+  }
+
+  /** Returns the key of the given shorthand property, without a star hack. */
+  int shorthandKey(String shorthand) {
+    return propertyKey(Property.byName(shorthand), false);
+  }
+
+  private int propertyKey(Property property, boolean hasStarHack) {
+    int ordinal = property.getOrdinal();
+    if (ordinal == Property.UNRECOGNIZED_ORDINAL) {
+      Integer userDefined = userDefinedProperties.get(property.getName());
+      if (userDefined == null) {
+        userDefined = Property.recognizedPropertyCount()
+            + userDefinedProperties.size();
+        userDefinedProperties.put(property.getName(), userDefined);
+      }
+      ordinal = userDefined;
+    }
+    return (ordinal << 1) | (hasStarHack ? 1 : 0);
+  }
+
+  /**
+   * Returns the value stored for the given selector and property keys, or
+   * {@code null} if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  V get(int selectorKey, int propertyKey) {
+    int slot = find(pack(selectorKey, propertyKey));
+    return generations[slot] == generation ? (V) values[slot] : null;
+  }
+
+  /** Stores a value for the given selector and property keys. */
+  void put(int selectorKey, int propertyKey, V value) {
+    long key = pack(selectorKey, propertyKey);
+    int slot = find(key);
+    if (generations[slot] != generation) {
+      generations[slot] = generation;
+      keys[slot] = key;
+      size++;
+    }
+    values[slot] = value;
+    if (2 * size > keys.length) {
+      growEntries();
+    }
+  }
+
+  /** Removes all the values; the interned keys stay valid. */
+  void clear() {
+    if (size > 0) {
+      size = 0;
+      if (++generation == 0) {
+        Arrays.fill(generations, 0);
+        generation = 1;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot holding the given key, or the empty slot where it would
+   * be inserted.
+   */
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int slot = mix((int) (key ^ (key >>> 32))) & mask;
+    while (generations[slot] == generation && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void growEntries() {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldGenerations = generations;
+    keys = new long[2 * oldKeys.length];
+    values = new Object[keys.length];
+    generations = new int[keys.length];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldGenerations[i] == generation) {
+        int slot = find(oldKeys[i]);
+        generations[slot] = generation;
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void growSelectors() {
+    int[] oldHashes = selectorHashes;
+    int[] oldSlots = selectorSlots;
+    selectorHashes = new int[2 * oldHashes.length];
+    selectorSlots = new int[selectorHashes.length];
+    int mask = selectorSlots.length - 1;
+    for (int i = 0; i < oldSlots.length; i++) {
+      if (oldSlots[i] != 0) {
+        int slot = mix(oldHashes[i]) & mask;
+        while (selectorSlots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        selectorHashes[slot] = oldHashes[i];
+        selectorSlots[slot] = oldSlots[i];
+      }
+    }
+  }
+
+  private static long pack(int selectorKey, int propertyKey) {
+    return ((long) selectorKey << 32) | (propertyKey & 0xFFFFFFFFL);
+  }
+
+  /** Spreads the bits of a hash so that linear probing works well. */
+  private static int mix(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  // The hash and the equality of selectors follow what the compact printer
+  // prints: the element name, the refiners and then the combinator and the
+  // selector it leads to.
+
+  private static int hashSelector(CssSelectorNode selector) {
+    int hash = 0;
+    for (CssSelectorNode s = selector; s != null; s = next(s)) {
+      hash = 31 * hash + hashName(s.getSelectorName());
+      List<CssRefinerNode> refiners = s.getRefiners().getChildren();
+      for (int i = 0; i < refiners.size(); i++) {
+        hash = 31 * hash + hashRefiner(refiners.get(i));
+      }
+      CssCombinatorNode combinator = s.getCombinator();
+      hash = 31 * hash + (combinator == null
+          ? 0 : 1 + combinator.getCombinatorType().ordinal());
+    }
+    return hash;
+  }
+
+  private static int hashRefiner(CssRefinerNode refiner) {
+    int hash = 31 * refiner.getRefinerType().ordinal()
+        + hashName(refiner.getRefinerName());
+    if (refiner instanceof CssPseudoClassNode) {
+      CssPseudoClassNode pseudoClass = (CssPseudoClassNode) refiner;
+      switch (pseudoClass.getFunctionType()) {
+        case NTH:
+        case LANG:
+          hash = 31 * hash + hashArgument(pseudoClass);
+          break;
+        case NOT:
+          hash = 31 * hash + hashSelector(pseudoClass.getNotSelector());
+          break;
+        default:
+          break;
+      }
+    } else if (refiner instanceof CssAttributeSelectorNode) {
+      CssAttributeSelectorNode attribute = (CssAttributeSelectorNode) refiner;
+      hash = 31 * hash + hashName(attribute.getAttributeName());
+      hash = 31 * hash + attribute.getMatchType().ordinal();
+    }
+    return hash;
+  }
+
+  /** Hashes the argument the way it is printed, without spaces for NTH. */
+  private static int hashArgument(CssPseudoClassNode pseudoClass) {
+    String argument = pseudoClass.getArgument();
+    boolean skipSpaces = pseudoClass.getFunctionType() == FunctionType.NTH;
+    int hash = 0;
+    for (int i = 0; i < argument.length(); i++) {
+      char c = argument.charAt(i);
+      if (!skipSpaces || c != ' ') {
+        hash = 31 * hash + c;
+      }
+    }
+    return hash;
+  }
+
+  private static int hashName(String name) {
+    return name == null ? 0 : name.hashCode();
+  }
+
+  private static boolean sameSelector(CssSelectorNode a, CssSelectorNode b) {
+    while (a != null && b != null) {
+      if (!sameName(a.getSelectorName(), b.getSelectorName())) {
+        return false;
+      }
+      List<CssRefinerNode> refinersA = a.getRefiners().getChildren();
+      List<CssRefinerNode> refinersB = b.getRefiners().getChildren();
+      if (refinersA.size() != refinersB.size()) {
+        return false;
+      }
+      for (int i = 0; i < refinersA.size(); i++) {
+        if (!sameRefiner(refinersA.get(i), refinersB.get(i))) {
+          return false;
+        }
+      }
+      CssCombinatorNode combinatorA = a.getCombinator();
+      CssCombinatorNode combinatorB = b.getCombinator();
+      if (combinatorA != null && combinatorB != null
+          && combinatorA.getCombinatorType()
+              != combinatorB.getCombinatorType()) {
+        return false;
+      }
+      a = next(a);
+      b = next(b);
+    }
+    return a == null && b == null;
+  }
+
+  private static boolean sameRefiner(CssRefinerNode a, CssRefinerNode b) {
+    if (a.getRefinerType() != b.getRefinerType()
+        || a.getClass() != b.getClass()
+        || !sameName(a.getRefinerName(), b.getRefinerName())) {
+      return false;
+    }
+    if (a instanceof CssPseudoClassNode) {
+      CssPseudoClassNode pseudoClassA = (CssPseudoClassNode) a;
+      CssPseudoClassNode pseudoClassB = (CssPseudoClassNode) b;
+      if (pseudoClassA.getFunctionType() != pseudoClassB.getFunctionType()) {
+        return false;
+      }
+      switch (pseudoClassA.getFunctionType()) {
+        case NTH:
+          return pseudoClassA.getArgument().replace(" ", "").equals(
+              pseudoClassB.getArgument().replace(" ", ""));
+        case LANG:
+          return pseudoClassA.getArgument().equals(pseudoClassB.getArgument());
+        case NOT:
+          return sameSelector(
+              pseudoClassA.getNotSelector(), pseudoClassB.getNotSelector());
+        default:
+          return true;
+      }
+    } else if (a instanceof CssAttributeSelectorNode) {
+      CssAttributeSelectorNode attributeA = (CssAttributeSelectorNode) a;
+      CssAttributeSelectorNode attributeB = (CssAttributeSelectorNode) b;
+      // Attribute selectors are rare enough that printing the values does
+      // not matter.
+      return sameName(
+              attributeA.getAttributeName(), attributeB.getAttributeName())
+          && attributeA.getMatchType() == attributeB.getMatchType()
+          && attributeA.getValue().toString().equals(
+              attributeB.getValue().toString());
+    }
+    return true;
+  }
+
+  /** Compares two names, for which {@code null} prints like "". */
+  private static boolean sameName(String a, String b) {
+    return (a == null ? "" : a).equals(b == null ? "" : b);
+  }
+
+  private static CssSelectorNode next(CssSelectorNode selector) {
+    CssCombinatorNode combinator = selector.getCombinator();
+    return combinator == null ? null : combinator.getSelector();
+  }
+}
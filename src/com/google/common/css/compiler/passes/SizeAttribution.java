@@ -0,0 +1,575 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.SourceCodeLocation;
+import com.google.common.css.compiler.ast.CssAtRuleNode;
+import com.google.common.css.compiler.ast.CssCompositeValueNode;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssDefinitionNode;
+import com.google.common.css.compiler.ast.CssFunctionNode;
+import com.google.common.css.compiler.ast.CssMixinDefinitionNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssNodesListNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.CssValueNode;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import javax.annotation.Nullable;
+
+/**
+ * Attributes the bytes of the compact output of a stylesheet to the input
+ * files, the top-level rules, the mixins and the constants that produced
+ * them, along with an estimate of what they take once compressed with gzip.
+ *
+ * <p>Each top-level node is printed on its own, as by {@link CompactPrinter},
+ * and the bytes it emits are charged to the innermost ruleset, selector,
+ * declaration or value being printed. A declaration copied from a mixin
+ * definition, or a value copied from a constant definition, still has the
+ * source code location of the definition, which is how the mixin or constant
+ * is found. Their bytes are charged to the file of the node they were
+ * expanded into, and separately to the mixin or constant.
+ *
+ * <p>The gzip estimate is made by compressing the output in windows of a few
+ * kilobytes, each ending with a flush so that its compressed size is known.
+ * The compressed size of a window is shared among its bytes in proportion,
+ * so repetitive parts of the output are charged less than unique ones.
+ */
+public final class SizeAttribution {
+
+  /** The minimum number of bytes compressed between two flushes. */
+  private static final int GZIP_WINDOW_SIZE = 4096;
+
+  /** The size attributed to a file, a top-level rule, a mixin or a constant. */
+  public static final class Entry {
+    private final String name;
+    private long bytes;
+    private double gzipBytes;
+
+    Entry(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** Returns the number of bytes of the compact output, in UTF-8. */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /** Returns the estimated number of bytes once compressed with gzip. */
+    public long getGzipBytes() {
+      return Math.round(gzipBytes);
+    }
+
+    @Override
+    public String toString() {
+      return name + ": " + bytes + " bytes, " + getGzipBytes()
+          + " gzipped";
+    }
+  }
+
+  /** Orders entries by decreasing size, then by name. */
+  private static final Comparator<Entry> BY_SIZE = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry a, Entry b) {
+      if (a.bytes != b.bytes) {
+        return a.bytes > b.bytes ? -1 : 1;
+      }
+      return a.name.compareTo(b.name);
+    }
+  };
+
+  private final Entry total = new Entry("total");
+  private final Map<String, Entry> byFile = Maps.newHashMap();
+  private final Map<String, Entry> byTopLevelNode = Maps.newHashMap();
+  private final Map<String, Entry> byMixin = Maps.newHashMap();
+  private final Map<String, Entry> byConstant = Maps.newHashMap();
+
+  private SizeAttribution() {}
+
+  /**
+   * Attributes the compact output of the tree.
+   *
+   * @param tree the compiled tree
+   * @param mixinDefinitions the mixin definitions that were expanded in the
+   *     tree, by name, or {@code null} if unknown
+   * @param constantDefinitions the constant definitions that were expanded
+   *     in the tree, or {@code null} if unknown
+   */
+  public static SizeAttribution compute(CssTree tree,
+      @Nullable Map<String, CssMixinDefinitionNode> mixinDefinitions,
+      @Nullable ConstantDefinitions constantDefinitions) {
+    Map<SourceCodeLocation, String> mixins = Maps.newHashMap();
+    if (mixinDefinitions != null) {
+      for (Map.Entry<String, CssMixinDefinitionNode> mixin
+          : mixinDefinitions.entrySet()) {
+        indexLocations(mixin.getValue().getBlock(), mixin.getKey(), mixins);
+      }
+    }
+    Map<SourceCodeLocation, String> constants = Maps.newHashMap();
+    if (constantDefinitions != null) {
+      for (String name : constantDefinitions.getConstantsNames()) {
+        for (CssDefinitionNode definition
+            : constantDefinitions.getConstantDefinitions(name)) {
+          for (CssValueNode value : definition.getParameters()) {
+            indexLocations(value, name, constants);
+          }
+        }
+      }
+    }
+
+    SizeAttribution attribution = new SizeAttribution();
+    List<CssNode> window = Lists.newArrayList();
+    List<AttributingPrinter> printers = Lists.newArrayList();
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      long windowBytes = 0;
+      List<CssNode> nodes = tree.getRoot().getBody().getChildren();
+      for (int i = 0; i < nodes.size(); i++) {
+        AttributingPrinter printer =
+            new AttributingPrinter(nodes.get(i), mixins, constants);
+        printer.runPass();
+        printers.add(printer);
+        windowBytes += printer.output.length;
+        if (windowBytes >= GZIP_WINDOW_SIZE || i == nodes.size() - 1) {
+          attribution.addWindow(printers, windowBytes,
+              deflate(deflater, printers, i == nodes.size() - 1));
+          printers.clear();
+          windowBytes = 0;
+        }
+      }
+    } finally {
+      deflater.end();
+    }
+    return attribution;
+  }
+
+  /** Returns the size of the whole output. */
+  public Entry getTotal() {
+    return total;
+  }
+
+  /** Returns the size attributed to each input file, largest first. */
+  public List<Entry> getByFile() {
+    return sorted(byFile);
+  }
+
+  /**
+   * Returns the size of each top-level rule, named after its selectors or
+   * at-rule and its location, largest first.
+   */
+  public List<Entry> getByTopLevelNode() {
+    return sorted(byTopLevelNode);
+  }
+
+  /** Returns the size of the expansions of each mixin, largest first. */
+  public List<Entry> getByMixin() {
+    return sorted(byMixin);
+  }
+
+  /** Returns the size of the expansions of each constant, largest first. */
+  public List<Entry> getByConstant() {
+    return sorted(byConstant);
+  }
+
+  /**
+   * Writes the report as a JSON object with the total size and the sizes by
+   * file, by top-level rule, by mixin and by constant, largest first. The
+   * writer is not closed.
+   */
+  public void writeReport(Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.setIndent("  ");
+    writer.beginObject();
+    writer.name("total");
+    writeEntry(writer, total);
+    writeEntries(writer, "files", getByFile());
+    writeEntries(writer, "topLevelRules", getByTopLevelNode());
+    writeEntries(writer, "mixins", getByMixin());
+    writeEntries(writer, "constants", getByConstant());
+    writer.endObject();
+    writer.flush();
+  }
+
+  private static void writeEntries(JsonWriter writer, String name,
+      List<Entry> entries) throws IOException {
+    writer.name(name).beginArray();
+    for (Entry entry : entries) {
+      writeEntry(writer, entry);
+    }
+    writer.endArray();
+  }
+
+  private static void writeEntry(JsonWriter writer, Entry entry)
+      throws IOException {
+    writer.beginObject();
+    writer.name("name").value(entry.getName());
+    writer.name("bytes").value(entry.getBytes());
+    writer.name("gzipBytes").value(entry.getGzipBytes());
+    writer.endObject();
+  }
+
+  private static List<Entry> sorted(Map<String, Entry> entries) {
+    List<Entry> list = Lists.newArrayList(entries.values());
+    Collections.sort(list, BY_SIZE);
+    return ImmutableList.copyOf(list);
+  }
+
+  /** Maps the location of the node and of its descendants to the name. */
+  private static void indexLocations(CssNode node, String name,
+      Map<SourceCodeLocation, String> names) {
+    if (node.getSourceCodeLocation() != null) {
+      names.put(node.getSourceCodeLocation(), name);
+    }
+    if (node instanceof CssDeclarationNode) {
+      indexLocations(((CssDeclarationNode) node).getPropertyName(), name,
+          names);
+    }
+    if (node instanceof CssNodesListNode) {
+      for (CssNode child : ((CssNodesListNode<?>) node).childIterable()) {
+        indexLocations(child, name, names);
+      }
+    } else if (node instanceof CssDeclarationNode) {
+      indexLocations(((CssDeclarationNode) node).getPropertyValue(), name,
+          names);
+    } else if (node instanceof CssCompositeValueNode) {
+      for (CssValueNode value : ((CssCompositeValueNode) node).getValues()) {
+        indexLocations(value, name, names);
+      }
+    } else if (node instanceof CssFunctionNode) {
+      indexLocations(((CssFunctionNode) node).getArguments(), name, names);
+    }
+  }
+
+  /**
+   * Compresses the output of the printers and returns the number of
+   * compressed bytes, including the end of the stream if it is the last
+   * window.
+   */
+  private static long deflate(Deflater deflater,
+      List<AttributingPrinter> printers, boolean last) {
+    byte[] buffer = new byte[GZIP_WINDOW_SIZE];
+    long compressed = 0;
+    for (AttributingPrinter printer : printers) {
+      deflater.setInput(printer.output);
+      while (!deflater.needsInput()) {
+        compressed += deflater.deflate(buffer);
+      }
+    }
+    if (last) {
+      deflater.finish();
+      while (!deflater.finished()) {
+        compressed += deflater.deflate(buffer);
+      }
+    } else {
+      int length;
+      do {
+        length = deflater.deflate(buffer, 0, buffer.length,
+            Deflater.SYNC_FLUSH);
+        compressed += length;
+      } while (length == buffer.length);
+    }
+    return compressed;
+  }
+
+  private void addWindow(List<AttributingPrinter> printers, long bytes,
+      long gzipBytes) {
+    double ratio = bytes == 0 ? 0 : (double) gzipBytes / bytes;
+    for (AttributingPrinter printer : printers) {
+      for (Map.Entry<Owner, long[]> charge : printer.charges.entrySet()) {
+        Owner owner = charge.getKey();
+        long chargedBytes = charge.getValue()[0];
+        add(total, chargedBytes, ratio);
+        add(entry(byFile, owner.file), chargedBytes, ratio);
+        add(entry(byTopLevelNode, printer.name), chargedBytes, ratio);
+        if (owner.mixin != null) {
+          add(entry(byMixin, owner.mixin), chargedBytes, ratio);
+        }
+        if (owner.constant != null) {
+          add(entry(byConstant, owner.constant), chargedBytes, ratio);
+        }
+      }
+    }
+  }
+
+  private static void add(Entry entry, long bytes, double ratio) {
+    entry.bytes += bytes;
+    entry.gzipBytes += bytes * ratio;
+  }
+
+  private static Entry entry(Map<String, Entry> entries, String name) {
+    Entry entry = entries.get(name);
+    if (entry == null) {
+      entry = new Entry(name);
+      entries.put(name, entry);
+    }
+    return entry;
+  }
+
+  private static String getFileName(@Nullable SourceCodeLocation location) {
+    if (location == null || location.getSourceCode() == null) {
+      return "<unknown>";
+    }
+    return location.getSourceCode().getFileName();
+  }
+
+  /** Names a top-level node after its selectors or at-rule and location. */
+  private static String getName(CssNode node) {
+    String name;
+    if (node instanceof CssRulesetNode) {
+      name = PassUtil.printSelectorList(
+          ((CssRulesetNode) node).getSelectors());
+    } else if (node instanceof CssAtRuleNode) {
+      CssAtRuleNode atRule = (CssAtRuleNode) node;
+      name = "@" + atRule.getName().getValue();
+      if (!atRule.getParameters().isEmpty()) {
+        name += " " + Joiner.on(' ').join(atRule.getParameters());
+      }
+    } else {
+      name = node.getClass().getSimpleName();
+    }
+    SourceCodeLocation location = node.getSourceCodeLocation();
+    if (location != null && location.getSourceCode() != null) {
+      name += " (" + getFileName(location) + ":"
+          + location.getBeginLineNumber() + ")";
+    }
+    return name;
+  }
+
+  /** Where output bytes are charged to. */
+  private static final class Owner {
+    final String file;
+    @Nullable final String mixin;
+    @Nullable final String constant;
+
+    Owner(String file, @Nullable String mixin, @Nullable String constant) {
+      this.file = file;
+      this.mixin = mixin;
+      this.constant = constant;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Owner)) {
+        return false;
+      }
+      Owner other = (Owner) o;
+      return file.equals(other.file)
+          && (mixin == null ? other.mixin == null : mixin.equals(other.mixin))
+          && (constant == null
+              ? other.constant == null : constant.equals(other.constant));
+    }
+
+    @Override
+    public int hashCode() {
+      return file.hashCode() * 31 * 31
+          + (mixin == null ? 0 : mixin.hashCode()) * 31
+          + (constant == null ? 0 : constant.hashCode());
+    }
+  }
+
+  /**
+   * Prints a top-level node and charges the bytes it emits to the owner of
+   * the innermost node being printed.
+   */
+  private static final class AttributingPrinter extends CompactPrinter {
+    final String name;
+    final Map<SourceCodeLocation, String> mixins;
+    final Map<SourceCodeLocation, String> constants;
+    final Map<Owner, long[]> charges = Maps.newLinkedHashMap();
+    final OutputSize.Counter bytes = new OutputSize.Counter();
+    final Deque<CssNode> nodes = Lists.newLinkedList();
+    final Deque<Owner> owners = Lists.newLinkedList();
+    int charged = 0;
+    byte[] output;
+
+    AttributingPrinter(CssNode node, Map<SourceCodeLocation, String> mixins,
+        Map<SourceCodeLocation, String> constants) {
+      super(node);
+      this.name = getName(node);
+      this.mixins = mixins;
+      this.constants = constants;
+      this.owners.push(
+          new Owner(getFileName(node.getSourceCodeLocation()), null, null));
+    }
+
+    /** Charges what was printed since the last charge to the current owner. */
+    private void charge() {
+      long before = bytes.getSize().getUtf8Bytes();
+      for (int i = charged; i < sb.length(); i++) {
+        bytes.write(sb.charAt(i));
+      }
+      long charge = bytes.getSize().getUtf8Bytes() - before;
+      if (sb.length() < charged) {
+        // Only separators are deleted, which take one byte each.
+        charge = sb.length() - charged;
+      }
+      charged = sb.length();
+      if (charge != 0) {
+        long[] total = charges.get(owners.peek());
+        if (total == null) {
+          total = new long[1];
+          charges.put(owners.peek(), total);
+        }
+        total[0] += charge;
+      }
+    }
+
+    private void enter(CssNode node) {
+      charge();
+      Owner parent = owners.peek();
+      SourceCodeLocation location = node.getSourceCodeLocation();
+      if (location == null && node instanceof CssDeclarationNode) {
+        // Copies of declarations, such as those of mixins, only keep the
+        // location of their property name.
+        location = ((CssDeclarationNode) node).getPropertyName()
+            .getSourceCodeLocation();
+      }
+      String mixin = location == null ? null : mixins.get(location);
+      String constant = location == null ? null : constants.get(location);
+      String file = parent.file;
+      if (mixin == null && constant == null && location != null
+          && location.getSourceCode() != null) {
+        file = getFileName(location);
+      }
+      nodes.push(node);
+      owners.push(new Owner(file,
+          mixin != null ? mixin : parent.mixin,
+          constant != null ? constant : parent.constant));
+    }
+
+    /**
+     * Stops charging to the owner of the node. What the printer emits when it
+     * leaves the node, such as separators, is charged to the enclosing node.
+     */
+    private void leave(CssNode node) {
+      if (nodes.peek() == node) {
+        nodes.pop();
+        owners.pop();
+      }
+    }
+
+    @Override
+    public void runPass() {
+      super.runPass();
+      charge();
+      output = getCompactPrintedString().getBytes(Charsets.UTF_8);
+    }
+
+    @Override
+    public boolean enterRuleset(CssRulesetNode ruleset) {
+      enter(ruleset);
+      boolean visitChildren = super.enterRuleset(ruleset);
+      if (!visitChildren) {
+        charge();
+        leave(ruleset);
+      }
+      return visitChildren;
+    }
+
+    @Override
+    public void leaveRuleset(CssRulesetNode ruleset) {
+      charge();
+      super.leaveRuleset(ruleset);
+      leave(ruleset);
+    }
+
+    @Override
+    public boolean enterSelector(CssSelectorNode selector) {
+      enter(selector);
+      return super.enterSelector(selector);
+    }
+
+    @Override
+    public void leaveSelector(CssSelectorNode selector) {
+      charge();
+      super.leaveSelector(selector);
+      leave(selector);
+    }
+
+    @Override
+    public boolean enterDeclaration(CssDeclarationNode declaration) {
+      enter(declaration);
+      return super.enterDeclaration(declaration);
+    }
+
+    @Override
+    public void leaveDeclaration(CssDeclarationNode declaration) {
+      charge();
+      super.leaveDeclaration(declaration);
+      leave(declaration);
+    }
+
+    @Override
+    public boolean enterValueNode(CssValueNode value) {
+      enter(value);
+      return super.enterValueNode(value);
+    }
+
+    @Override
+    public void leaveValueNode(CssValueNode value) {
+      charge();
+      super.leaveValueNode(value);
+      leave(value);
+    }
+
+    @Override
+    public boolean enterCompositeValueNode(CssCompositeValueNode value) {
+      enter(value);
+      return super.enterCompositeValueNode(value);
+    }
+
+    @Override
+    public void leaveCompositeValueNode(CssCompositeValueNode value) {
+      charge();
+      super.leaveCompositeValueNode(value);
+      leave(value);
+    }
+
+    @Override
+    public boolean enterFunctionNode(CssFunctionNode function) {
+      enter(function);
+      return super.enterFunctionNode(function);
+    }
+
+    @Override
+    public void leaveFunctionNode(CssFunctionNode function) {
+      charge();
+      super.leaveFunctionNode(function);
+      leave(function);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssCompilerPass;
+import com.google.common.css.compiler.ast.CssMediaRuleNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.DefaultTreeVisitor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pass which splits the top-level {@code @media} rules off the stylesheet, so
+ * that the rules for each media query can be served as a stylesheet of its
+ * own, linked with the query as its {@code media} attribute. Browsers do not
+ * block rendering on stylesheets whose media query does not match.
+ *
+ * <p>The media rules and the selectors in them are mapped to their media
+ * query as their chunk, so that a {@link ChunkCompactPrinter} for the
+ * {@code null} chunk prints the stylesheet without them. Media rules only
+ * contain rulesets and {@code @page} rules once
+ * {@link CreateStandardAtRuleNodes} has run. {@link #printMediaQuery} prints
+ * the contents of all the rules with the same media query, without the
+ * {@code @media} wrapper. Rules for the {@code all} query are left in the
+ * stylesheet.
+ *
+ * <p>The split stylesheets must be linked after the main one, in the order of
+ * {@link #getMediaQueries}. The rules in them then come after all the rules
+ * of the main stylesheet instead of where they were, which only makes a
+ * difference if a later rule of the main stylesheet has the same specificity
+ * and sets the same property.
+ *
+ * <p>This pass cannot be combined with {@link MapChunkAwareNodesToChunk}.
+ */
+public class SplitMediaRules extends DefaultTreeVisitor
+    implements CssCompilerPass {
+
+  private static final String ALL = "all";
+
+  private final CssTree tree;
+
+  /** The top-level media rules that are split off, by media query. */
+  private final Map<String, List<CssMediaRuleNode>> mediaRules =
+      Maps.newLinkedHashMap();
+
+  /** The top-level media rule being visited, if it is split off. */
+  private CssMediaRuleNode splitRule = null;
+
+  /** The media query of {@link #splitRule}. */
+  private String query = null;
+
+  public SplitMediaRules(CssTree tree) {
+    this.tree = tree;
+  }
+
+  @Override
+  public boolean enterMediaRule(CssMediaRuleNode media) {
+    if (splitRule == null) {
+      if (media.getParent() != tree.getRoot().getBody()) {
+        return true;
+      }
+      MediaQueryPrinter printer = new MediaQueryPrinter(media, null);
+      printer.runPass();
+      if (printer.query.equals(ALL)) {
+        return true;
+      }
+      splitRule = media;
+      query = printer.query;
+      List<CssMediaRuleNode> rules = mediaRules.get(query);
+      if (rules == null) {
+        rules = Lists.newArrayList();
+        mediaRules.put(query, rules);
+      }
+      rules.add(media);
+    }
+    media.setChunk(query);
+    return true;
+  }
+
+  @Override
+  public void leaveMediaRule(CssMediaRuleNode media) {
+    if (media == splitRule) {
+      splitRule = null;
+      query = null;
+    }
+  }
+
+  @Override
+  public boolean enterSelector(CssSelectorNode selector) {
+    if (query != null) {
+      selector.setChunk(query);
+    }
+    return true;
+  }
+
+  @Override
+  public void runPass() {
+    mediaRules.clear();
+    tree.getVisitController().startVisit(this);
+  }
+
+  /**
+   * Returns the media queries of the rules that were split off, in the order
+   * in which they first appear in the stylesheet.
+   */
+  public List<String> getMediaQueries() {
+    return ImmutableList.copyOf(mediaRules.keySet());
+  }
+
+  /**
+   * Prints the contents of all the top-level media rules with the given media
+   * query, in the order in which they appear in the stylesheet, without the
+   * {@code @media} wrapper.
+   *
+   * @param mediaQuery one of the {@linkplain #getMediaQueries media queries}
+   * @param out the writer to print to, which is not closed
+   * @return the number of characters printed
+   */
+  public long printMediaQuery(String mediaQuery, Writer out)
+      throws IOException {
+    List<CssMediaRuleNode> rules = mediaRules.get(mediaQuery);
+    if (rules == null) {
+      throw new IllegalArgumentException(
+          "No media rules were split off for " + mediaQuery);
+    }
+    long printed = 0;
+    for (CssMediaRuleNode media : rules) {
+      MediaQueryPrinter printer = new MediaQueryPrinter(media, mediaQuery);
+      printer.runPass();
+      String css = printer.getCompactPrintedString();
+      out.write(css);
+      printed += css.length();
+    }
+    out.flush();
+    return printed;
+  }
+
+  /**
+   * Prints the contents of a media rule without its {@code @media} wrapper,
+   * or, if it is not given a chunk, only finds its media query.
+   */
+  private static final class MediaQueryPrinter
+      extends ChunkCompactPrinter<String> {
+    private final CssMediaRuleNode media;
+    private final boolean printContents;
+    private int queryStart;
+    String query;
+
+    MediaQueryPrinter(CssMediaRuleNode media, String chunk) {
+      super(media, chunk);
+      this.media = media;
+      this.printContents = chunk != null;
+    }
+
+    @Override
+    public boolean enterMediaRule(CssMediaRuleNode node) {
+      if (node == media) {
+        queryStart = sb.length();
+        return true;
+      }
+      return super.enterMediaRule(node);
+    }
+
+    @Override
+    public void leaveMediaRule(CssMediaRuleNode node) {
+      if (node != media) {
+        super.leaveMediaRule(node);
+      }
+    }
+
+    @Override
+    public boolean enterBlock(CssBlockNode block) {
+      if (block.getParent() == media) {
+        // The media query has been printed as the parameters of the rule.
+        query = sb.substring(queryStart);
+        sb.setLength(queryStart);
+        return printContents;
+      }
+      return super.enterBlock(block);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.css.compiler.ast.VisitController;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Moves the output of a printer from its {@link StringBuilder} to a
+ * {@link Writer} while the tree is being visited, so that the whole output is
+ * never held in memory.
+ *
+ * <p>The printers delete trailing separators from their builders, so the
+ * builder may only be emptied at a point where no such deletion can reach
+ * back into the text already written. The end of a declaration block is such
+ * a point: the text written then ends with a closing brace (and, for the
+ * pretty printer, a newline), and no separator that is deleted later
+ * contains either.
+ */
+final class StreamingOutput {
+
+  /** The number of buffered characters above which they are written. */
+  static final int FLUSH_THRESHOLD = 8192;
+
+  private final Writer out;
+  private final VisitController visitController;
+
+  /** The buffer through which the characters are copied to the writer. */
+  private char[] chars = new char[2 * FLUSH_THRESHOLD];
+
+  private long charactersWritten = 0;
+  private IOException exception = null;
+
+  StreamingOutput(Writer out, VisitController visitController) {
+    this.out = out;
+    this.visitController = visitController;
+  }
+
+  /**
+   * Writes the contents of the builder and empties it if it has grown past
+   * the threshold.
+   */
+  void maybeFlush(StringBuilder sb) {
+    if (sb.length() >= FLUSH_THRESHOLD) {
+      flush(sb);
+    }
+  }
+
+  /**
+   * Writes the rest of the builder and flushes the writer.
+   *
+   * @return the number of characters written in total
+   * @throws IOException if writing failed at any point of the visit
+   */
+  long finish(StringBuilder sb) throws IOException {
+    flush(sb);
+    if (exception != null) {
+      throw exception;
+    }
+    out.flush();
+    return charactersWritten;
+  }
+
+  private void flush(StringBuilder sb) {
+    if (exception != null) {
+      return;
+    }
+    int length = sb.length();
+    if (chars.length < length) {
+      chars = new char[length];
+    }
+    sb.getChars(0, length, chars, 0);
+    try {
+      out.write(chars, 0, length);
+    } catch (IOException e) {
+      // The visitor methods cannot throw it, so keep it for finish().
+      exception = e;
+      visitController.stopVisit();
+      return;
+    }
+    charactersWritten += length;
+    sb.setLength(0);
+  }
+}
@@ -16,19 +16,25 @@
 
 package com.google.common.css.compiler.passes;
 
+import com.google.common.collect.Queues;
 import com.google.common.css.compiler.ast.CssConstantReferenceNode;
 import com.google.common.css.compiler.ast.CssDeclarationNode;
 import com.google.common.css.compiler.ast.CssFontFaceNode;
 import com.google.common.css.compiler.ast.CssKeyframeRulesetNode;
+import com.google.common.css.compiler.ast.CssKeyframesNode;
+import com.google.common.css.compiler.ast.CssMediaRuleNode;
 import com.google.common.css.compiler.ast.CssRulesetNode;
 import com.google.common.css.compiler.ast.CssTree;
 import com.google.common.css.compiler.ast.CssValueNode;
 
+import java.util.Deque;
+
 /**
  * Printer for templates, which outputs GSS with holes to be filled
- * for references. In addition, the declaration boundaries are
- * explicitly noted, so that a declaration can be removed if it ends
- * up empty.
+ * for references. In addition, the declaration, rule and rule group
+ * boundaries are explicitly noted, so that a declaration, rule or
+ * {@code @media} and {@code @keyframes} rule group can be removed if
+ * it ends up empty. See {@link TemplateStylesheetLinker}.
  *
  * @param <T> type of chunk id objects
  *
@@ -46,9 +52,8 @@ public class TemplateCompactPrinter<T> extends ChunkCompactPrinter<T> {
   public static final char RULE_START = '\u0118';
   public static final char RULE_END = '\u0119';
 
-  // TODO(reinerp): Add delimiters RULE_GROUP_START, RULE_GROUP_END
-  // for @keyframes and @media rule groups, so that the TemplateStylesheetLinker
-  // can drop empty @keyframes{} clauses.
+  public static final char RULE_GROUP_START = '\u011a';
+  public static final char RULE_GROUP_END = '\u011b';
 
   /**
    * Whether currently visited rule has any selectors that belong to the
@@ -56,6 +61,9 @@ public class TemplateCompactPrinter<T> extends ChunkCompactPrinter<T> {
    */
   private boolean printRule = false;
 
+  /** Whether each of the currently visited rule groups is printed. */
+  private final Deque<Boolean> printGroups = Queues.newArrayDeque();
+
   /**
    * Create a template printer for a given chunk.
    *
@@ -108,9 +116,10 @@ public class TemplateCompactPrinter<T> extends ChunkCompactPrinter<T> {
 
   @Override
   public boolean enterFontFace(CssFontFaceNode cssFontFaceNode) {
+    int start = sb.length();
     printRule = super.enterFontFace(cssFontFaceNode);
     if (printRule) {
-      sb.append(RULE_START);
+      sb.insert(start, RULE_START);
     }
     return printRule;
   }
@@ -140,9 +149,48 @@ public class TemplateCompactPrinter<T> extends ChunkCompactPrinter<T> {
     super.leaveKeyframeRuleset(ruleset);
   }
 
+  @Override
+  public boolean enterMediaRule(CssMediaRuleNode media) {
+    int start = sb.length();
+    boolean printGroup = super.enterMediaRule(media);
+    if (printGroup) {
+      sb.insert(start, RULE_GROUP_START);
+    }
+    printGroups.push(printGroup);
+    return printGroup;
+  }
+
+  @Override
+  public void leaveMediaRule(CssMediaRuleNode media) {
+    super.leaveMediaRule(media);
+    if (printGroups.pop()) {
+      sb.append(RULE_GROUP_END);
+    }
+  }
+
+  @Override
+  public boolean enterKeyframesRule(CssKeyframesNode keyframes) {
+    int start = sb.length();
+    boolean printGroup = super.enterKeyframesRule(keyframes);
+    if (printGroup) {
+      sb.insert(start, RULE_GROUP_START);
+    }
+    printGroups.push(printGroup);
+    return printGroup;
+  }
+
+  @Override
+  public void leaveKeyframesRule(CssKeyframesNode keyframes) {
+    super.leaveKeyframesRule(keyframes);
+    if (printGroups.pop()) {
+      sb.append(RULE_GROUP_END);
+    }
+  }
+
   @Override
   protected void deleteLastCharIfCharIs(char ch) {
-    if (ch == ';' && sb.charAt(sb.length() - 1) == DECLARATION_END) {
+    if (ch == ';' && sb.length() > 1
+        && sb.charAt(sb.length() - 1) == DECLARATION_END) {
       sb.deleteCharAt(sb.length() - 2);
     } else {
       super.deleteLastCharIfCharIs(ch);
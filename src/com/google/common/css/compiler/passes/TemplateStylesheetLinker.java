@@ -0,0 +1,374 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Links the output of a {@link TemplateCompactPrinter} into stylesheets. The
+ * template is parsed once into a table of literal byte ranges, constant
+ * slots and declaration, rule and rule group boundaries. A stylesheet is then
+ * rendered for a given set of constant values by copying these byte ranges
+ * and values into a {@link ByteBuffer}, without any further scanning of the
+ * template.
+ *
+ * <p>While rendering, a declaration is dropped if it refers to constants and
+ * all of them have empty values. A rule is dropped if none of its
+ * declarations are left, and a rule group, such as a {@code @media} rule, is
+ * dropped if none of its rules are left.
+ *
+ * <p>Constant references are only recognized inside declarations, so that
+ * attribute selectors such as {@code [href$=x]} are kept as they are.
+ *
+ * <p>Instances are immutable and can be shared between threads.
+ */
+public final class TemplateStylesheetLinker {
+
+  // Opcodes of the segment table, each followed by two arguments.
+  private static final int LITERAL = 0;
+  private static final int REFERENCE = 1;
+  private static final int DECLARATION_START = 2;
+  private static final int DECLARATION_END = 3;
+  private static final int RULE_START = 4;
+  private static final int RULE_END = 5;
+
+  /** The number of ints used by each segment. */
+  private static final int SEGMENT_SIZE = 3;
+
+  /** The UTF-8 encoded literal text of the template. */
+  private final byte[] literals;
+
+  /**
+   * The segments of the template, as opcode and argument triples. Literals
+   * have their offset and length in {@link #literals} as arguments,
+   * references have their slot, and declaration ends have 1 as argument if
+   * they close a block.
+   */
+  private final int[] segments;
+
+  /** The names of the referenced constants, indexed by slot. */
+  private final ImmutableList<String> constantNames;
+
+  /** How many times each slot is referenced. */
+  private final int[] references;
+
+  /** The deepest nesting of rules and rule groups. */
+  private final int maxDepth;
+
+  private TemplateStylesheetLinker(byte[] literals, int[] segments,
+      ImmutableList<String> constantNames, int[] references, int maxDepth) {
+    this.literals = literals;
+    this.segments = segments;
+    this.constantNames = constantNames;
+    this.references = references;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Parses the output of a {@link TemplateCompactPrinter}.
+   *
+   * @param template the printed template
+   * @return a linker for the template
+   * @throws IllegalArgumentException if the boundaries in the template are
+   *     not properly nested
+   */
+  public static TemplateStylesheetLinker parse(String template) {
+    ByteArrayOutputStream literals = new ByteArrayOutputStream();
+    SegmentTable segments = new SegmentTable();
+    Map<String, Integer> slots = Maps.newLinkedHashMap();
+    StringBuilder literal = new StringBuilder();
+    boolean inDeclaration = false;
+    int depth = 0;
+    int maxDepth = 0;
+
+    for (int i = 0; i < template.length(); i++) {
+      char c = template.charAt(i);
+      int op = -1;
+      int slot = 0;
+      switch (c) {
+        case TemplateCompactPrinter.REFERENCE_START:
+          int end = inDeclaration ? referenceEnd(template, i + 1) : -1;
+          if (end < 0) {
+            break;
+          }
+          String name = template.substring(i + 1, end);
+          Integer existing = slots.get(name);
+          if (existing == null) {
+            existing = slots.size();
+            slots.put(name, existing);
+          }
+          op = REFERENCE;
+          slot = existing;
+          i = end;
+          break;
+        case TemplateCompactPrinter.DECLARATION_START:
+          checkTemplate(!inDeclaration, template, i);
+          inDeclaration = true;
+          op = DECLARATION_START;
+          break;
+        case TemplateCompactPrinter.DECLARATION_END:
+          checkTemplate(inDeclaration, template, i);
+          inDeclaration = false;
+          op = DECLARATION_END;
+          break;
+        case TemplateCompactPrinter.RULE_START:
+        case TemplateCompactPrinter.RULE_GROUP_START:
+          checkTemplate(!inDeclaration, template, i);
+          maxDepth = Math.max(maxDepth, ++depth);
+          op = RULE_START;
+          break;
+        case TemplateCompactPrinter.RULE_END:
+        case TemplateCompactPrinter.RULE_GROUP_END:
+          checkTemplate(!inDeclaration && depth > 0, template, i);
+          depth--;
+          op = RULE_END;
+          break;
+        default:
+          break;
+      }
+      if (op < 0) {
+        literal.append(c);
+        continue;
+      }
+      addLiteral(literal, literals, segments);
+      segments.add(op, slot, 0);
+    }
+    checkTemplate(!inDeclaration && depth == 0, template, template.length());
+    addLiteral(literal, literals, segments);
+
+    int[] table = segments.toArray();
+    int[] references = new int[slots.size()];
+    for (int i = 0; i < table.length; i += SEGMENT_SIZE) {
+      if (table[i] == REFERENCE) {
+        references[table[i + 1]]++;
+      } else if (table[i] == DECLARATION_END) {
+        int next = i + SEGMENT_SIZE;
+        if (next >= table.length || table[next] != DECLARATION_START) {
+          table[i + 1] = 1;
+        }
+      }
+    }
+    return new TemplateStylesheetLinker(literals.toByteArray(), table,
+        ImmutableList.copyOf(slots.keySet()), references, maxDepth);
+  }
+
+  /** Moves the pending literal text, if any, into the segment table. */
+  private static void addLiteral(StringBuilder literal,
+      ByteArrayOutputStream literals, SegmentTable segments) {
+    if (literal.length() > 0) {
+      byte[] bytes = literal.toString().getBytes(Charsets.UTF_8);
+      segments.add(LITERAL, literals.size(), bytes.length);
+      literals.write(bytes, 0, bytes.length);
+      literal.setLength(0);
+    }
+  }
+
+  /**
+   * Returns the index of the {@link TemplateCompactPrinter#REFERENCE_END}
+   * closing a constant name starting at the given index, or -1 if there is
+   * no constant name there.
+   */
+  private static int referenceEnd(String template, int start) {
+    for (int i = start; i < template.length(); i++) {
+      char c = template.charAt(i);
+      if (c == TemplateCompactPrinter.REFERENCE_END) {
+        return i > start ? i : -1;
+      }
+      if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z'
+          || c >= '0' && c <= '9' || c == '_' || c == '-')) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static void checkTemplate(boolean expression, String template,
+      int index) {
+    if (!expression) {
+      throw new IllegalArgumentException("Unbalanced template boundary at "
+          + index + " in: "
+          + template.substring(Math.max(0, index - 40),
+              Math.min(template.length(), index + 40)));
+    }
+  }
+
+  /**
+   * Returns the names of the constants referenced by the template, in the
+   * order of their slots.
+   */
+  public ImmutableList<String> getConstantNames() {
+    return constantNames;
+  }
+
+  /**
+   * Encodes the values of the referenced constants for {@link #render}.
+   * Constants missing from the map get empty values.
+   *
+   * @param constants the constant values, by name
+   * @return the UTF-8 encoded values, indexed by slot
+   */
+  public byte[][] encode(Map<String, String> constants) {
+    byte[][] values = new byte[constantNames.size()][];
+    for (int slot = 0; slot < values.length; slot++) {
+      String value = constants.get(constantNames.get(slot));
+      values[slot] = value == null ? null : value.getBytes(Charsets.UTF_8);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the size of the stylesheet rendered with the given values before
+   * any empty declarations, rules or rule groups are dropped. This is enough
+   * room for {@link #render(byte[][], ByteBuffer)}.
+   *
+   * @param values the encoded constant values, indexed by slot
+   */
+  public int maxRenderedSize(byte[][] values) {
+    checkValues(values);
+    int size = literals.length;
+    for (int slot = 0; slot < values.length; slot++) {
+      if (values[slot] != null) {
+        size += references[slot] * values[slot].length;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Renders the stylesheet for the given constant values.
+   *
+   * @param constants the constant values, by name
+   * @return a buffer holding the UTF-8 encoded stylesheet, ready to be read
+   */
+  public ByteBuffer render(Map<String, String> constants) {
+    byte[][] values = encode(constants);
+    ByteBuffer out = ByteBuffer.allocate(maxRenderedSize(values));
+    render(values, out);
+    out.flip();
+    return out;
+  }
+
+  /**
+   * Renders the stylesheet for the given constant values into a buffer,
+   * starting at its position. Afterwards the position of the buffer is at
+   * the end of the stylesheet.
+   *
+   * @param values the encoded constant values, indexed by slot, where null
+   *     stands for an empty value
+   * @param out the buffer to render into
+   * @throws BufferOverflowException if the buffer is too small
+   */
+  public void render(byte[][] values, ByteBuffer out) {
+    checkValues(values);
+    int[] marks = new int[maxDepth];
+    int[] keptChildren = new int[maxDepth];
+    int depth = 0;
+    int declarationStart = -1;
+    boolean hasReferences = false;
+    boolean hasValues = false;
+    int lastDeclarationEnd = -1;
+
+    for (int i = 0; i < segments.length; i += SEGMENT_SIZE) {
+      switch (segments[i]) {
+        case LITERAL:
+          out.put(literals, segments[i + 1], segments[i + 2]);
+          break;
+        case REFERENCE:
+          byte[] value = values[segments[i + 1]];
+          hasReferences = true;
+          if (value != null && value.length > 0) {
+            out.put(value);
+            hasValues = true;
+          }
+          break;
+        case DECLARATION_START:
+          declarationStart = out.position();
+          hasReferences = false;
+          hasValues = false;
+          break;
+        case DECLARATION_END:
+          if (!hasReferences || hasValues) {
+            lastDeclarationEnd = out.position();
+            if (depth > 0) {
+              keptChildren[depth - 1]++;
+            }
+          } else {
+            out.position(declarationStart);
+            // The printer leaves out the separator after the last declaration
+            // of a block, so it goes away with the last one left.
+            if (segments[i + 1] == 1 && lastDeclarationEnd == declarationStart
+                && out.get(declarationStart - 1) == ';') {
+              out.position(declarationStart - 1);
+            }
+          }
+          break;
+        case RULE_START:
+          marks[depth] = out.position();
+          keptChildren[depth] = 0;
+          depth++;
+          break;
+        case RULE_END:
+          depth--;
+          if (keptChildren[depth] == 0) {
+            out.position(marks[depth]);
+          } else if (depth > 0) {
+            keptChildren[depth - 1]++;
+          }
+          break;
+        default:
+          throw new AssertionError("Unknown segment " + segments[i]);
+      }
+    }
+  }
+
+  private void checkValues(byte[][] values) {
+    Preconditions.checkArgument(values.length == constantNames.size(),
+        "Expected %s values, got %s", constantNames.size(), values.length);
+  }
+
+  /** A growable table of segments. */
+  private static class SegmentTable {
+    private int[] segments = new int[16 * SEGMENT_SIZE];
+    private int size = 0;
+
+    void add(int op, int first, int second) {
+      if (size + SEGMENT_SIZE > segments.length) {
+        int[] grown = new int[segments.length * 2];
+        System.arraycopy(segments, 0, grown, 0, size);
+        segments = grown;
+      }
+      segments[size++] = op;
+      segments[size++] = first;
+      segments[size++] = second;
+    }
+
+    int[] toArray() {
+      int[] result = new int[size];
+      System.arraycopy(segments, 0, result, 0, size);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.SourceCode;
+import com.google.common.css.SourceCodeLocation;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.CssCommentNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssTree;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Estimates how much heap a {@link CssTree} retains, broken down by category:
+ * one category per type of node, plus the comments attached to nodes, the
+ * source code locations, the source code they point into and the substitution
+ * map used for renaming.
+ *
+ * <p>The estimate walks the object graph with reflection and sums the shallow
+ * sizes of the objects it reaches, assuming a 64-bit JVM with compressed
+ * references: 12 byte object headers, 16 byte array headers, 4 byte
+ * references and 8 byte alignment. Every object is counted once, in the
+ * category of the first node it is reached from. Objects of the JDK are not
+ * inspected with reflection: strings and arrays are measured directly and
+ * collections and maps are estimated from their size.
+ *
+ * <p>With a sampling interval of {@code n}, only one in {@code n} of the
+ * top-level statements of the stylesheet is walked and the sizes and counts
+ * found for them are scaled up, so the walk of a large tree costs about
+ * {@code 1/n} of the full walk.
+ *
+ */
+public class TreeHeapEstimator {
+
+  /** Category of the comments attached to nodes. */
+  public static final String COMMENTS = "comments";
+
+  /** Category of the {@link SourceCodeLocation}s of nodes. */
+  public static final String SOURCE_CODE_LOCATIONS = "SourceCodeLocation";
+
+  /** Category of the {@link SourceCode} that locations point into. */
+  public static final String SOURCE_CODE = "SourceCode";
+
+  /** Category of the substitution map. */
+  public static final String SUBSTITUTION_MAP = "SubstitutionMap";
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  /** The estimated retained size and number of objects of a category. */
+  public static class Estimate {
+    private double bytes;
+    private double count;
+
+    /** Returns the estimated number of bytes retained by the category. */
+    public long getBytes() {
+      return Math.round(bytes);
+    }
+
+    /**
+     * Returns the estimated number of nodes of the category or, for the
+     * categories that are not node types, of objects.
+     */
+    public long getCount() {
+      return Math.round(count);
+    }
+  }
+
+  /** An object still to be walked, with what it is to be accounted to. */
+  private static class Item {
+    final Object object;
+    final String category;
+    final double weight;
+
+    Item(Object object, String category, double weight) {
+      this.object = object;
+      this.category = category;
+      this.weight = weight;
+    }
+  }
+
+  private static final Map<Class<?>, ClassLayout> layouts =
+      Maps.newConcurrentMap();
+
+  /** The shallow size and the reference fields of a class. */
+  private static class ClassLayout {
+    final long shallowSize;
+    final List<Field> referenceFields;
+
+    ClassLayout(long shallowSize, List<Field> referenceFields) {
+      this.shallowSize = shallowSize;
+      this.referenceFields = referenceFields;
+    }
+  }
+
+  private final int samplingInterval;
+
+  /**
+   * @param samplingInterval walk one in this many top-level statements;
+   *     1 walks the whole tree
+   */
+  public TreeHeapEstimator(int samplingInterval) {
+    Preconditions.checkArgument(samplingInterval >= 1);
+    this.samplingInterval = samplingInterval;
+  }
+
+  /**
+   * Estimates the heap retained by the tree and the substitution map, if any.
+   *
+   * @return the estimates by category, in alphabetical order
+   */
+  public SortedMap<String, Estimate> estimate(CssTree tree,
+      @Nullable Object substitutionMap) {
+    SortedMap<String, Estimate> estimates = Maps.newTreeMap();
+    Set<Object> visited =
+        Collections.newSetFromMap(
+            new IdentityHashMap<Object, Boolean>());
+    Deque<Item> stack = new ArrayDeque<Item>();
+
+    // Sample the top-level statements: the ones that are skipped are marked
+    // as visited so that the walk from the root does not enter them.
+    CssBlockNode body = tree.getRoot().getBody();
+    if (body != null && samplingInterval > 1) {
+      List<CssNode> children = body.getChildren();
+      int sampled = (children.size() + samplingInterval - 1) / samplingInterval;
+      double weight = sampled == 0 ? 1 : (double) children.size() / sampled;
+      for (int i = 0; i < children.size(); i++) {
+        CssNode child = children.get(i);
+        if (visited.add(child) && i % samplingInterval == 0) {
+          stack.push(new Item(child, categoryOf(child), weight));
+        }
+      }
+    }
+    if (substitutionMap != null && visited.add(substitutionMap)) {
+      stack.push(new Item(substitutionMap, SUBSTITUTION_MAP, 1));
+    }
+    visited.add(tree);
+    stack.push(new Item(tree, tree.getClass().getSimpleName(), 1));
+
+    while (!stack.isEmpty()) {
+      Item item = stack.pop();
+      walk(item, estimates, visited, stack);
+    }
+    return estimates;
+  }
+
+  private void walk(Item item, Map<String, Estimate> estimates,
+      Set<Object> visited, Deque<Item> stack) {
+    Object object = item.object;
+    Class<?> clazz = object.getClass();
+    String category = item.category;
+    // Source code is shared by all the sampled and skipped nodes, so it is
+    // never scaled.
+    double weight = category.equals(SOURCE_CODE) ? 1 : item.weight;
+    Estimate estimate = estimates.get(category);
+    if (estimate == null) {
+      estimate = new Estimate();
+      estimates.put(category, estimate);
+    }
+    if (object instanceof CssNode || object instanceof SourceCodeLocation
+        || object instanceof SourceCode) {
+      estimate.count += weight;
+    }
+
+    if (clazz.isArray()) {
+      Class<?> component = clazz.getComponentType();
+      int length = Array.getLength(object);
+      estimate.bytes += weight * align(ARRAY_HEADER
+          + (long) length * sizeOf(component));
+      if (!component.isPrimitive()) {
+        for (int i = 0; i < length; i++) {
+          push(Array.get(object, i), category, item.weight, visited, stack);
+        }
+      }
+    } else if (object instanceof String) {
+      int length = ((String) object).length();
+      // The string and its character array.
+      estimate.bytes += weight * (align(OBJECT_HEADER + REFERENCE + 4)
+          + align(ARRAY_HEADER + 2L * length));
+    } else if (object instanceof Collection && isJdkClass(clazz)) {
+      Collection<?> collection = (Collection<?>) object;
+      // A backing array, plus an entry per element for linked structures.
+      estimate.bytes += weight * (align(OBJECT_HEADER + 3 * REFERENCE)
+          + align(ARRAY_HEADER + (long) collection.size() * REFERENCE));
+      if (!(object instanceof List)) {
+        estimate.bytes += weight * collection.size()
+            * align(OBJECT_HEADER + 3 * REFERENCE + 4);
+      }
+      for (Object element : collection) {
+        push(element, category, item.weight, visited, stack);
+      }
+    } else if (object instanceof Map && isJdkClass(clazz)) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      // A table of references and an entry per mapping.
+      estimate.bytes += weight * (align(OBJECT_HEADER + 4 * REFERENCE)
+          + align(ARRAY_HEADER + 2L * map.size() * REFERENCE)
+          + map.size() * align(OBJECT_HEADER + 3 * REFERENCE + 4));
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        push(entry.getKey(), category, item.weight, visited, stack);
+        push(entry.getValue(), category, item.weight, visited, stack);
+      }
+    } else if (isJdkClass(clazz)) {
+      // Boxed primitives, enums of the JDK and the like.
+      estimate.bytes += weight * align(OBJECT_HEADER + 8);
+    } else {
+      ClassLayout layout = layoutOf(clazz);
+      estimate.bytes += weight * layout.shallowSize;
+      for (Field field : layout.referenceFields) {
+        Object value;
+        try {
+          value = field.get(object);
+        } catch (IllegalAccessException e) {
+          continue;
+        }
+        String fieldCategory = category;
+        if (object instanceof CssNode && field.getName().equals("comments")
+            && field.getDeclaringClass() == CssNode.class) {
+          fieldCategory = COMMENTS;
+        }
+        push(value, fieldCategory, item.weight, visited, stack);
+      }
+      // The fields of JDK superclasses are not walked, so the contents they
+      // hold are reached through the collection instead.
+      if (object instanceof Collection) {
+        for (Object element : (Collection<?>) object) {
+          push(element, category, item.weight, visited, stack);
+        }
+      } else if (object instanceof Map) {
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+          push(entry.getKey(), category, item.weight, visited, stack);
+          push(entry.getValue(), category, item.weight, visited, stack);
+        }
+      }
+    }
+  }
+
+  private void push(@Nullable Object value, String category, double weight,
+      Set<Object> visited, Deque<Item> stack) {
+    if (value == null || value instanceof Class || value instanceof Enum
+        || !visited.add(value)) {
+      return;
+    }
+    if (value instanceof CssCommentNode) {
+      category = COMMENTS;
+    } else if (value instanceof CssNode) {
+      category = categoryOf((CssNode) value);
+    } else if (value instanceof SourceCodeLocation) {
+      category = SOURCE_CODE_LOCATIONS;
+    } else if (value instanceof SourceCode) {
+      category = SOURCE_CODE;
+    }
+    stack.push(new Item(value, category, weight));
+  }
+
+  private static boolean isJdkClass(Class<?> clazz) {
+    String name = clazz.getName();
+    return name.startsWith("java.") || name.startsWith("javax.")
+        || name.startsWith("sun.") || name.startsWith("jdk.");
+  }
+
+  private static String categoryOf(CssNode node) {
+    return node.getClass().getSimpleName();
+  }
+
+  /**
+   * Returns the shallow size of a class and its reference fields. The fields
+   * declared by JDK superclasses, such as {@code AbstractMap}, are counted
+   * in the shallow size but not followed: since JDK 9 they cannot be made
+   * accessible.
+   */
+  private static ClassLayout layoutOf(Class<?> clazz) {
+    ClassLayout layout = layouts.get(clazz);
+    if (layout != null) {
+      return layout;
+    }
+    long size = OBJECT_HEADER;
+    List<Field> referenceFields = Lists.newArrayList();
+    for (Class<?> c = clazz; c != null && c != Object.class;
+        c = c.getSuperclass()) {
+      boolean followFields = !isJdkClass(c);
+      for (Field field : c.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        size += sizeOf(field.getType());
+        if (followFields && !field.getType().isPrimitive()) {
+          try {
+            field.setAccessible(true);
+            referenceFields.add(field);
+          } catch (RuntimeException e) {
+            // The field is counted in the shallow size but not followed. This
+            // is a SecurityException, or an InaccessibleObjectException for a
+            // class in a module that is not open.
+          }
+        }
+      }
+    }
+    layout = new ClassLayout(align(size), referenceFields);
+    layouts.put(clazz, layout);
+    return layout;
+  }
+
+  private static int sizeOf(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    return REFERENCE;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -18,17 +18,17 @@ package com.google.common.css.compiler.passes;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Ordering;
-import com.google.common.collect.Sets;
-import com.google.common.collect.TreeMultimap;
 import com.google.common.css.compiler.ast.*;
+import com.google.common.primitives.Ints;
 
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -122,65 +122,45 @@ public class UnsafeMergeRulesetNodes implements CssCompilerPass {
       return;
     }
 
-    List<CssNode> rulesets = Lists.newArrayList();
-
-    for (Map.Entry<CssDeclarationNode, Collection<CssSelectorNode>> entry
-        : collectPhaseVisitor.getDecToSels()) {
-      rulesets.add(makeOneDeclarationRuleset(entry.getKey(), entry.getValue()));
-    }
-
-    for (Map.Entry<Collection<CssDeclarationNode>, Set<CssSelectorNode>> entry
-        : collectPhaseVisitor.getPartitions()) {
-      rulesets.add(makePartitionRuleset(entry.getKey(), entry.getValue()));
-    }
-
     new ReplacePhaseTreeVisitor(
         tree.getMutatingVisitController(),
-        rulesets,
+        collectPhaseVisitor.buildRulesets(),
         collectPhaseVisitor.getPlaceholderRuleset())
         .runPass();
   }
 
-  /**
-   * Makes a ruleset with many selectors and one declaration.
-   */
-  private CssRulesetNode makeOneDeclarationRuleset(
-      CssDeclarationNode dec, Iterable<CssSelectorNode> sels) {
-    CssRulesetNode ruleset = new CssRulesetNode(new CssDeclarationBlockNode());
-    ruleset.addDeclaration(dec);
-    for (CssSelectorNode sel : sels) {
-      ruleset.addSelector(sel.deepCopy());
-    }
-    return ruleset;
-  }
-
-  /**
-   * Makes a ruleset with many selectors and many declarations, whose
-   * properties are assumed to be from the same partition.
-   */
-  private CssRulesetNode makePartitionRuleset(
-      Iterable<CssDeclarationNode> decs, Iterable<CssSelectorNode> sels) {
-    CssRulesetNode ruleset = new CssRulesetNode(new CssDeclarationBlockNode());
-    for (CssDeclarationNode dec : decs) {
-      ruleset.addDeclaration(dec.deepCopy());
-    }
-    for (CssSelectorNode sel : sels) {
-      ruleset.addSelector(sel.deepCopy());
-    }
-    return ruleset;
-  }
-
   /**
    * The tree visitor for the collect phase, which collects all the rules
    * replacing them with one placeholder rule.
+   *
+   * <p>Declarations and selectors are interned by their string
+   * representation, and the collected pairs are kept as packed integer IDs,
+   * so that grouping them is a matter of sorting arrays of longs.
    */
   private static class CollectPhaseTreeVisitor extends SkippingTreeVisitor
       implements CssCompilerPass {
     private final MutatingVisitController visitController;
     private final boolean byPartition;
-    private final Multimap<CssDeclarationNode, CssSelectorNode> decToSel =
-        TreeMultimap.create(DECLARATION_COMPARATOR, TO_STRING_COMPARATOR);
-    private final Partitioner partitioner = new Partitioner();
+    private final Interner<CssDeclarationNode> declarations =
+        new Interner<CssDeclarationNode>();
+    private final Interner<CssSelectorNode> selectors =
+        new Interner<CssSelectorNode>();
+
+    /**
+     * The declaration/selector pairs that are not grouped by partition, each
+     * packed as the declaration ID followed by the selector ID.
+     */
+    private final LongArray decToSel = new LongArray();
+
+    /**
+     * The declaration/selector pairs grouped by partition, each packed as the
+     * selector ID followed by the index of the pair in
+     * {@link #partitionedDeclarations}, which is its order of addition.
+     */
+    private final Map<String, LongArray> partitions = Maps.newHashMap();
+    private final List<String> partitionNames = Lists.newArrayList();
+    private final IntArray partitionedDeclarations = new IntArray();
+
     private CssRulesetNode placeholderRuleset = null;
 
     public CollectPhaseTreeVisitor(
@@ -209,21 +189,6 @@ public class UnsafeMergeRulesetNodes implements CssCompilerPass {
       visitController.startVisit(this);
     }
 
-    /**
-     * Returns entries of declaration/selectors grouped by declarations.
-     */
-    Iterable<Map.Entry<CssDeclarationNode, Collection<CssSelectorNode>>> getDecToSels() {
-      return decToSel.asMap().entrySet();
-    }
-
-    /**
-     * Returns entries of declarations/selectors grouped by partitions, then
-     * selectors.
-     */
-    Iterable<Map.Entry<Collection<CssDeclarationNode>, Set<CssSelectorNode>>> getPartitions() {
-      return partitioner.getMap().entrySet();
-    }
-
     /**
      * Returns the placeholder ruleset, to be replaced.
      */
@@ -235,18 +200,33 @@ public class UnsafeMergeRulesetNodes implements CssCompilerPass {
       for (CssNode abstractDecl : ruleset.getDeclarations().childIterable()) {
         Preconditions.checkState(abstractDecl instanceof CssDeclarationNode);
         CssDeclarationNode dec = (CssDeclarationNode) abstractDecl;
-        boolean inPartition = byPartition
-            || ORDER_DEPENDENT_PARTITIONS.contains(dec.getPropertyName().getPartition());
+        int declaration = declarations.intern(dec);
+        String partitionName = dec.getPropertyName().getPartition();
+        LongArray partition = byPartition
+            || ORDER_DEPENDENT_PARTITIONS.contains(partitionName)
+            ? getPartition(partitionName) : null;
         for (CssSelectorNode sel : ruleset.getSelectors().childIterable()) {
-          if (inPartition) {
-            partitioner.add(dec, sel);
+          int selector = selectors.intern(sel);
+          if (partition != null) {
+            partition.add(pack(selector, partitionedDeclarations.size()));
+            partitionedDeclarations.add(declaration);
           } else {
-            decToSel.put(dec, sel);
+            decToSel.add(pack(declaration, selector));
           }
         }
       }
     }
 
+    private LongArray getPartition(String partitionName) {
+      LongArray partition = partitions.get(partitionName);
+      if (partition == null) {
+        partition = new LongArray();
+        partitions.put(partitionName, partition);
+        partitionNames.add(partitionName);
+      }
+      return partition;
+    }
+
     private void deleteRuleset() {
       if (placeholderRuleset == null) {
         // We don't have a place holder yet. Create one.
@@ -257,6 +237,98 @@ public class UnsafeMergeRulesetNodes implements CssCompilerPass {
         visitController.removeCurrentNode();
       }
     }
+
+    /**
+     * Computes the new rulesets: first one ruleset per declaration that is not
+     * grouped by partition, ordered by {@link #DECLARATION_COMPARATOR}, and
+     * then one ruleset per group of declarations in the same partition,
+     * ordered by {@link #TO_STRING_ITERABLE_COMPARATOR}. The selectors of
+     * each ruleset are ordered by {@link #TO_STRING_COMPARATOR}.
+     */
+    List<CssNode> buildRulesets() {
+      int[] declarationOrder = declarations.rank(DECLARATION_ORDER);
+      int[] declarationStringOrder = declarations.rank(STRING_ORDER);
+      int[] selectorOrder = selectors.rank(STRING_ORDER);
+      int[] selectorsByOrder = invert(selectorOrder);
+      List<CssNode> rulesets = Lists.newArrayList();
+
+      // One ruleset for each declaration that is not grouped by partition.
+      long[] pairs = decToSel.toArray();
+      for (int i = 0; i < pairs.length; i++) {
+        pairs[i] = pack(declarationOrder[high(pairs[i])],
+            selectorOrder[low(pairs[i])]);
+      }
+      Arrays.sort(pairs);
+      int[] declarationsByOrder = invert(declarationOrder);
+      CssRulesetNode ruleset = null;
+      for (int i = 0; i < pairs.length; i++) {
+        if (i == 0 || high(pairs[i]) != high(pairs[i - 1])) {
+          ruleset = new CssRulesetNode(new CssDeclarationBlockNode());
+          ruleset.addDeclaration(
+              declarations.get(declarationsByOrder[high(pairs[i])]));
+          rulesets.add(ruleset);
+        } else if (pairs[i] == pairs[i - 1]) {
+          continue;
+        }
+        ruleset.addSelector(
+            selectors.get(selectorsByOrder[low(pairs[i])]).deepCopy());
+      }
+
+      // One ruleset for each group of declarations of a partition, with the
+      // selectors sharing that group.
+      Map<IntArray, IntArray> groups = Maps.newHashMap();
+      for (String partitionName : partitionNames) {
+        long[] entries = partitions.get(partitionName).toArray();
+        Arrays.sort(entries);
+        boolean orderDependent =
+            ORDER_DEPENDENT_PARTITIONS.contains(partitionName);
+        int start = 0;
+        while (start < entries.length) {
+          int end = start + 1;
+          while (end < entries.length
+              && high(entries[end]) == high(entries[start])) {
+            end++;
+          }
+          IntArray group = new IntArray();
+          for (int i = start; i < end; i++) {
+            int declaration = partitionedDeclarations.get(low(entries[i]));
+            group.add(orderDependent
+                ? declaration : declarationOrder[declaration]);
+          }
+          if (!orderDependent) {
+            group.sortAndRemoveDuplicates();
+            for (int i = 0; i < group.size(); i++) {
+              group.set(i, declarationsByOrder[group.get(i)]);
+            }
+          }
+          IntArray groupSelectors = groups.get(group);
+          if (groupSelectors == null) {
+            groupSelectors = new IntArray();
+            groups.put(group, groupSelectors);
+          }
+          groupSelectors.add(selectorOrder[high(entries[start])]);
+          start = end;
+        }
+      }
+      List<IntArray> sortedGroups = Lists.newArrayList(groups.keySet());
+      Collections.sort(sortedGroups,
+          IntArray.lexicographicalOrder(declarationStringOrder));
+      for (IntArray group : sortedGroups) {
+        ruleset = new CssRulesetNode(new CssDeclarationBlockNode());
+        for (int i = 0; i < group.size(); i++) {
+          ruleset.addDeclaration(declarations.get(group.get(i)).deepCopy());
+        }
+        IntArray groupSelectors = groups.get(group);
+        groupSelectors.sortAndRemoveDuplicates();
+        for (int i = 0; i < groupSelectors.size(); i++) {
+          ruleset.addSelector(
+              selectors.get(selectorsByOrder[groupSelectors.get(i)])
+              .deepCopy());
+        }
+        rulesets.add(ruleset);
+      }
+      return rulesets;
+    }
   }
 
   /**
@@ -293,154 +365,195 @@ public class UnsafeMergeRulesetNodes implements CssCompilerPass {
   }
 
   /**
-   * A partition organizes pairs of declaration/selector.
+   * Assigns dense IDs to nodes with the same string representation, keeping
+   * the first node seen for each.
    */
-  private static abstract class Partition {
-    @SuppressWarnings("unused")
-    protected final String partition;
-
-    protected Partition(String partition) {
-      this.partition = partition;
+  private static class Interner<T extends CssNode> {
+    private final Map<String, Integer> ids = Maps.newHashMap();
+    private final List<T> nodes = Lists.newArrayList();
+    private final List<String> strings = Lists.newArrayList();
+
+    int intern(T node) {
+      String string = node.toString();
+      Integer id = ids.get(string);
+      if (id == null) {
+        id = nodes.size();
+        ids.put(string, id);
+        nodes.add(node);
+        strings.add(string);
+      }
+      return id;
     }
 
-    /**
-     * Creates a new partition.
-     */
-    public static Partition newPartition(String partition) {
-      return ORDER_DEPENDENT_PARTITIONS.contains(partition)
-          ? new OrderDependentPartition(partition)
-          : new OrderIndependentPartition(partition);
+    T get(int id) {
+      return nodes.get(id);
     }
 
     /**
-     * Adds the given pair of declaration/selector to the partition. Assumes
-     * that the selector belongs to this partition.
-     */
-    public abstract void add(CssDeclarationNode declaration, CssSelectorNode selector);
-
-    /**
-     * Adds the pairs of this partition to the given map.
-     */
-    public abstract void addTo(Map<Collection<CssDeclarationNode>, Set<CssSelectorNode>> outMap);
-
-    /**
-     * Returns the selectors keyed by the given declarations in the given map.
+     * Returns the rank of each ID when the nodes are sorted by the given
+     * order, indexed by ID.
      */
-    protected Set<CssSelectorNode> getSelectorsByDeclarations(
-        Collection<CssDeclarationNode> declarations,
-        Map<Collection<CssDeclarationNode>, Set<CssSelectorNode>> map) {
-      Set<CssSelectorNode> selectors = map.get(declarations);
-      if (selectors == null) {
-        selectors = Sets.newTreeSet(TO_STRING_COMPARATOR);
-        map.put(declarations, selectors);
+    int[] rank(final NodeOrder<? super T> order) {
+      Integer[] byRank = new Integer[nodes.size()];
+      for (int i = 0; i < byRank.length; i++) {
+        byRank[i] = i;
+      }
+      Arrays.sort(byRank, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer id1, Integer id2) {
+          return order.compare(nodes.get(id1), strings.get(id1),
+              nodes.get(id2), strings.get(id2));
+        }
+      });
+      int[] ranks = new int[byRank.length];
+      for (int i = 0; i < byRank.length; i++) {
+        ranks[byRank[i]] = i;
       }
-      return selectors;
+      return ranks;
     }
   }
 
-  /**
-   * A partition whose declarations are order-independent.
-   */
-  private static class OrderIndependentPartition extends Partition {
-    private final Multimap<CssSelectorNode, CssDeclarationNode> inMap;
+  /** An order on nodes that may use their precomputed string representation. */
+  private interface NodeOrder<T> {
+    int compare(T node1, String string1, T node2, String string2);
+  }
 
-    private OrderIndependentPartition(String partition) {
-      super(partition);
-      this.inMap = TreeMultimap.create(TO_STRING_COMPARATOR, DECLARATION_COMPARATOR);
+  private static final NodeOrder<CssNode> STRING_ORDER =
+      new NodeOrder<CssNode>() {
+    @Override
+    public int compare(
+        CssNode node1, String string1, CssNode node2, String string2) {
+      return string1.compareTo(string2);
     }
+  };
 
+  private static final NodeOrder<CssDeclarationNode> DECLARATION_ORDER =
+      new NodeOrder<CssDeclarationNode>() {
     @Override
-    public void add(CssDeclarationNode declaration, CssSelectorNode selector) {
-      inMap.put(selector, declaration);
+    public int compare(CssDeclarationNode node1, String string1,
+        CssDeclarationNode node2, String string2) {
+      return compareDeclarations(node1, string1, node2, string2);
     }
+  };
 
-    @Override
-    public void addTo(Map<Collection<CssDeclarationNode>, Set<CssSelectorNode>> outMap) {
-      for (Map.Entry<CssSelectorNode, Collection<CssDeclarationNode>> entry
-          : inMap.asMap().entrySet()) {
-        getSelectorsByDeclarations(entry.getValue(), outMap).add(entry.getKey());
-      }
+  private static int[] invert(int[] permutation) {
+    int[] inverse = new int[permutation.length];
+    for (int i = 0; i < permutation.length; i++) {
+      inverse[permutation[i]] = i;
     }
+    return inverse;
   }
 
-  /**
-   * A partition whose declarations are order-dependent.
-   */
-  private static class OrderDependentPartition extends Partition {
-    private final Map<CssSelectorNode, List<CssDeclarationNode>> inMap;
+  private static long pack(int high, int low) {
+    return ((long) high << 32) | (low & 0xFFFFFFFFL);
+  }
 
-    private OrderDependentPartition(String partition) {
-      super(partition);
-      this.inMap = Maps.newTreeMap(TO_STRING_COMPARATOR);
-    }
+  private static int high(long packed) {
+    return (int) (packed >>> 32);
+  }
 
-    @Override
-    public void add(CssDeclarationNode declaration, CssSelectorNode selector) {
-      getDeclarations(selector).add(declaration);
-    }
+  private static int low(long packed) {
+    return (int) packed;
+  }
 
-    @Override
-    public void addTo(Map<Collection<CssDeclarationNode>, Set<CssSelectorNode>> outMap) {
-      for (Map.Entry<CssSelectorNode, List<CssDeclarationNode>> entry
-          : inMap.entrySet()) {
-        getSelectorsByDeclarations(entry.getValue(), outMap).add(entry.getKey());
+  /** A growable array of longs. */
+  private static class LongArray {
+    private long[] values = new long[16];
+    private int size = 0;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
       }
+      values[size++] = value;
     }
 
-    private List<CssDeclarationNode> getDeclarations(CssSelectorNode selector) {
-      List<CssDeclarationNode> declarations = inMap.get(selector);
-      if (declarations == null) {
-        declarations = Lists.newLinkedList();
-        inMap.put(selector, declarations);
-      }
-      return declarations;
+    long[] toArray() {
+      return Arrays.copyOf(values, size);
     }
   }
 
   /**
-   * A partitioner adds up pairs of declaration/selector to build a map from
-   * groups of declarations in the same partition to selectors.
+   * A growable array of ints, with value semantics so that it can be used as
+   * a key.
    */
-  private static class Partitioner {
-    /**
-     * This map stores all the declaration/selector pairs added to the
-     * partitioner, grouped by partitions.
-     */
-    private final Map<String, Partition> partitions = Maps.newHashMap();
+  private static class IntArray {
+    private int[] values = new int[4];
+    private int size = 0;
 
-    /**
-     * Adds a declaration/selector pair to the partitioner.
-     *
-     * @param declaration the declaration of the pair to add
-     * @param selector the selector of the pair to add
-     */
-    public void add(CssDeclarationNode declaration, CssSelectorNode selector) {
-      String partitionName = declaration.getPropertyName().getPartition();
-      getPartition(partitionName).add(declaration, selector);
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
     }
 
-    /**
-     * Computes a conveninent map from groups of declarations to sets of
-     * selectors from all the additions to the partitioner.
-     *
-     * @return a map conveniently summarizing all the additions to the partitioner
-     */
-    public Map<Collection<CssDeclarationNode>, Set<CssSelectorNode>> getMap() {
-      Map<Collection<CssDeclarationNode>, Set<CssSelectorNode>> map =
-          Maps.newTreeMap(TO_STRING_ITERABLE_COMPARATOR);
-      for (Partition partition : partitions.values()) {
-        partition.addTo(map);
+    int get(int index) {
+      return values[index];
+    }
+
+    void set(int index, int value) {
+      values[index] = value;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void sortAndRemoveDuplicates() {
+      Arrays.sort(values, 0, size);
+      int distinct = 0;
+      for (int i = 0; i < size; i++) {
+        if (i == 0 || values[i] != values[distinct - 1]) {
+          values[distinct++] = values[i];
+        }
       }
-      return map;
+      size = distinct;
     }
 
-    private Partition getPartition(String partitionName) {
-      Partition partition = partitions.get(partitionName);
-      if (partition == null) {
-        partition = Partition.newPartition(partitionName);
-        partitions.put(partitionName, partition);
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof IntArray)) {
+        return false;
       }
-      return partition;
+      IntArray that = (IntArray) object;
+      if (size != that.size) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        if (values[i] != that.values[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 1;
+      for (int i = 0; i < size; i++) {
+        hash = 31 * hash + values[i];
+      }
+      return hash;
+    }
+
+    /**
+     * Orders arrays of IDs lexicographically by the given ranks of the IDs,
+     * shorter arrays first when one is a prefix of the other.
+     */
+    static Comparator<IntArray> lexicographicalOrder(final int[] ranks) {
+      return new Comparator<IntArray>() {
+        @Override
+        public int compare(IntArray a, IntArray b) {
+          for (int i = 0; i < a.size && i < b.size; i++) {
+            int c = Ints.compare(ranks[a.values[i]], ranks[b.values[i]]);
+            if (c != 0) {
+              return c;
+            }
+          }
+          return Ints.compare(a.size, b.size);
+        }
+      };
     }
   }
 
@@ -484,22 +597,38 @@ public class UnsafeMergeRulesetNodes implements CssCompilerPass {
 
   /**
    * Compare declarations, ensuring that shorthand properties appear before
-   * their related properties and using their string representation otherwise.
+   * their related properties. Declarations are ordered by partition, then by
+   * the number of shorthands of their property, and then by their string
+   * representation, which is a total order in which a shorthand comes before
+   * every property it is a shorthand of.
    */
   @VisibleForTesting
   static final Comparator<CssDeclarationNode> DECLARATION_COMPARATOR =
       new Comparator<CssDeclarationNode>() {
     @Override
     public int compare(CssDeclarationNode o1, CssDeclarationNode o2) {
-      Property property1 = o1.getPropertyName().getProperty();
-      Property property2 = o2.getPropertyName().getProperty();
-      if (property1.getShorthands().contains(property2.getName())) {
-        return 1;
-      } else if (property2.getShorthands().contains(property1.getName())) {
-        return -1;
-      } else {
-        return TO_STRING_COMPARATOR.compare(o1, o2);
-      }
+      return compareDeclarations(o1, o1.toString(), o2, o2.toString());
     }
   };
+
+  private static int compareDeclarations(CssDeclarationNode node1,
+      String string1, CssDeclarationNode node2, String string2) {
+    Property property1 = node1.getPropertyName().getProperty();
+    Property property2 = node2.getPropertyName().getProperty();
+    return ComparisonChain.start()
+        .compare(property1.getPartition(), property2.getPartition())
+        .compare(shorthandDepth(property1), shorthandDepth(property2))
+        .compare(string1, string2)
+        .result();
+  }
+
+  /**
+   * Returns the number of shorthands of the property, not counting the
+   * property itself (as for {@code border-radius}).
+   */
+  private static int shorthandDepth(Property property) {
+    Set<String> shorthands = property.getShorthands();
+    return shorthands.size()
+        - (shorthands.contains(property.getName()) ? 1 : 0);
+  }
 }
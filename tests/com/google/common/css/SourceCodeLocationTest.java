@@ -134,4 +134,22 @@ public class SourceCodeLocationTest extends TestCase {
     assertFalse(loc1.equals(loc2));
     assertFalse(loc2.equals(loc1));
   }
+
+  public void testComparisonOfDifferentSourceCodes() {
+    SourceCode sourceCode1 = new SourceCode("testfile1", "abcdef");
+    SourceCodeLocation loc1 =
+      new SourceCodeLocation(sourceCode1, 2, 1, 3, 2, 1, 3);
+    SourceCode sourceCode2 = new SourceCode("testfile2", "abcdef");
+    SourceCodeLocation loc2 =
+      new SourceCodeLocation(sourceCode2, 0, 1, 1, 2, 1, 3);
+    SourceCode sourceCode3 = new SourceCode("testfile2", "bcdefg");
+    SourceCodeLocation loc3 =
+      new SourceCodeLocation(sourceCode3, 0, 1, 1, 2, 1, 3);
+    // Different source codes are ordered by name and then by content, not by
+    // identity, so that the order is the same in every run.
+    assertTrue(loc1.compareTo(loc2) < 0);
+    assertTrue(loc2.compareTo(loc1) > 0);
+    assertTrue(loc2.compareTo(loc3) < 0);
+    assertTrue(loc3.compareTo(loc2) > 0);
+  }
 }
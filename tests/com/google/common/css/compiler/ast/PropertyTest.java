@@ -17,10 +17,14 @@
 package com.google.common.css.compiler.ast;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.css.Vendor;
 
 import junit.framework.TestCase;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Unit test for {@link Property}. For legacy reasons, much of the behavior of
  * {@link Property} is verified by {@link CssPropertyNodeTest} rather than this
@@ -80,4 +84,72 @@ public class PropertyTest extends TestCase {
     assertEquals(ImmutableSet.of("-moz-border-radius"),
         mozBorderRadiusTopLeft.getShorthands());
   }
+
+  public void testByNameReturnsInternedRecognizedProperties() {
+    for (String name : Property.allRecognizedPropertyNames()) {
+      Property property = Property.byName(name);
+      assertEquals(name, property.getName());
+      assertSame(property, Property.byName(new String(name)));
+      assertSame(property, Property.byOrdinal(property.getOrdinal()));
+    }
+  }
+
+  public void testOrdinalsAreDense() {
+    int count = Property.recognizedPropertyCount();
+    assertEquals(Property.allRecognizedProperties().size(), count);
+    boolean[] seen = new boolean[count];
+    for (Property property : Property.allRecognizedProperties()) {
+      assertTrue(property.isRecognizedProperty());
+      assertFalse(seen[property.getOrdinal()]);
+      seen[property.getOrdinal()] = true;
+    }
+  }
+
+  public void testUnrecognizedProperty() {
+    Property property = Property.byName("-foo-bar");
+    assertFalse(property.isRecognizedProperty());
+    assertEquals(Property.UNRECOGNIZED_ORDINAL, property.getOrdinal());
+    assertEquals("-foo-bar", property.getName());
+  }
+
+  public void testHasShorthandMatchesGetShorthands() {
+    ImmutableSet<Property> properties = ImmutableSet.<Property>builder()
+        .addAll(Property.allRecognizedProperties())
+        .add(Property.byName("border-foo"))
+        .add(Property.byName("margin-bar"))
+        .build();
+    for (Property property : properties) {
+      for (Property other : properties) {
+        assertEquals(property.getName() + " / " + other.getName(),
+            property.getShorthands().contains(other.getName()),
+            property.hasShorthand(other));
+      }
+    }
+  }
+
+  public void testPerfectHashKeepsEqualHashCodes() {
+    String[] names =
+        {"aik", "ak-", "c--", "akk", "am-", "c-k", "aikakk", "ak-am-"};
+    assertEquals("aik".hashCode(), "c--".hashCode());
+    assertEquals("aikakk".hashCode(), "c--c-k".hashCode());
+    List<Property> properties = Lists.newArrayList();
+    for (String name : names) {
+      properties.add(Property.byName(name));
+    }
+    int[] seeds = new int[2];
+    Property[] table = new Property[properties.size()];
+    Map<String, Property> collisions =
+        Property.buildPerfectHash(properties, seeds, table);
+    for (Property property : properties) {
+      assertSame(property,
+          Property.lookUp(property.getName(), seeds, table, collisions));
+    }
+    assertNull(Property.lookUp("c--c-k", seeds, table, collisions));
+    assertNull(Property.lookUp("color", seeds, table, collisions));
+  }
+
+  public void testUserDefinedPropertiesAreReused() {
+    Property property = Property.byName("-foo-baz");
+    assertSame(property, Property.byName(new String("-foo-baz")));
+  }
 }
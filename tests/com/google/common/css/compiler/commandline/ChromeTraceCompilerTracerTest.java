@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.css.CompilerTracer;
+import com.google.common.css.CompilerTracer.Phase;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+
+/**
+ * Unit tests for {@link ChromeTraceCompilerTracer}.
+ *
+ */
+public class ChromeTraceCompilerTracerTest extends TestCase {
+
+  public void testWritesCompleteEvents() throws Exception {
+    ChromeTraceCompilerTracer tracer = new ChromeTraceCompilerTracer();
+    tracer.startSpan(Phase.PARSE, "GssParser", "a.gss").end(0, 0);
+    tracer.startSpan(Phase.PASS, "SplitRulesetNodes", null).end(42, 0);
+    // Spans that are never ended are not written.
+    tracer.startSpan(Phase.PRINT, "CompactPrinter", null);
+
+    StringWriter out = new StringWriter();
+    tracer.writeTo(out);
+    JsonArray events = new JsonParser().parse(out.toString())
+        .getAsJsonObject().getAsJsonArray("traceEvents");
+
+    assertEquals(3, events.size());
+    JsonObject threadName = events.get(0).getAsJsonObject();
+    assertEquals("M", threadName.get("ph").getAsString());
+    assertEquals(Thread.currentThread().getName(),
+        threadName.getAsJsonObject("args").get("name").getAsString());
+
+    JsonObject parse = events.get(1).getAsJsonObject();
+    assertEquals("GssParser", parse.get("name").getAsString());
+    assertEquals("parse", parse.get("cat").getAsString());
+    assertEquals("X", parse.get("ph").getAsString());
+    assertEquals("a.gss",
+        parse.getAsJsonObject("args").get("file").getAsString());
+
+    JsonObject pass = events.get(2).getAsJsonObject();
+    assertEquals("pass", pass.get("cat").getAsString());
+    assertFalse(pass.getAsJsonObject("args").has("file"));
+    assertEquals(42,
+        pass.getAsJsonObject("args").get("nodesVisited").getAsLong());
+    assertTrue(pass.get("ts").getAsDouble()
+        >= parse.get("ts").getAsDouble());
+  }
+
+  public void testParseSpansReportInputAndNodes() throws Exception {
+    ChromeTraceCompilerTracer tracer = new ChromeTraceCompilerTracer();
+    String first = ".a { color: red; }";
+    String second = "@def C 1px; .b, .c { width: C; }";
+    new GssParser(ImmutableList.of(
+        new SourceCode("a.gss", first), new SourceCode("b.gss", second)),
+        tracer).parse();
+
+    StringWriter out = new StringWriter();
+    tracer.writeTo(out);
+    JsonArray events = new JsonParser().parse(out.toString())
+        .getAsJsonObject().getAsJsonArray("traceEvents");
+
+    JsonObject a = events.get(1).getAsJsonObject().getAsJsonObject("args");
+    JsonObject b = events.get(2).getAsJsonObject().getAsJsonObject("args");
+    assertEquals(first.length(), a.get("bytesEmitted").getAsLong());
+    assertEquals(second.length(), b.get("bytesEmitted").getAsLong());
+    assertTrue(a.get("nodesVisited").getAsLong() > 0);
+    assertTrue(b.get("nodesVisited").getAsLong()
+        > a.get("nodesVisited").getAsLong());
+  }
+
+  public void testCombine() throws Exception {
+    ChromeTraceCompilerTracer first = new ChromeTraceCompilerTracer();
+    ChromeTraceCompilerTracer second = new ChromeTraceCompilerTracer();
+    assertSame(first, CompilerTracer.combine(
+        ImmutableList.of(first, CompilerTracer.NONE)));
+    assertSame(CompilerTracer.NONE, CompilerTracer.combine(
+        ImmutableList.<CompilerTracer>of()));
+
+    CompilerTracer.combine(ImmutableList.<CompilerTracer>of(first, second))
+        .startSpan(Phase.WRITE, "Output", "out.css").end(0, 10);
+    StringWriter firstOut = new StringWriter();
+    first.writeTo(firstOut);
+    StringWriter secondOut = new StringWriter();
+    second.writeTo(secondOut);
+    assertTrue(firstOut.toString().contains("\"bytesEmitted\":10"));
+    assertTrue(secondOut.toString().contains("\"bytesEmitted\":10"));
+  }
+}
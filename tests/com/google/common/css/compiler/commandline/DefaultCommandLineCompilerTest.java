@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.css.DefaultExitCodeHandler;
+import com.google.common.css.JobDescription;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.passes.MultiSinkPrinter;
+import com.google.common.io.Files;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link DefaultCommandLineCompiler}.
+ *
+ */
+public class DefaultCommandLineCompilerTest extends TestCase {
+
+  private File outputDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    outputDir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    for (File file : outputDir.listFiles()) {
+      file.delete();
+    }
+    outputDir.delete();
+    super.tearDown();
+  }
+
+  public void testGetMediaQueryFile() throws Exception {
+    File outputFile = new File("out", "style.css");
+    Set<String> names = Sets.newHashSet(outputFile.getName());
+    assertEquals(new File("out", "style.print.css"),
+        DefaultCommandLineCompiler.getMediaQueryFile(
+            outputFile, "print", names));
+    assertEquals(new File("out", "style.screen-and-min-width-800px.css"),
+        DefaultCommandLineCompiler.getMediaQueryFile(
+            outputFile, "screen and (min-width:800px)", names));
+    assertEquals(new File("out", "style.print-2.css"),
+        DefaultCommandLineCompiler.getMediaQueryFile(
+            outputFile, "PRINT", names));
+    assertEquals(new File("out", "style.media.css"),
+        DefaultCommandLineCompiler.getMediaQueryFile(
+            outputFile, "(\u2202)", names));
+    assertEquals(new File("out", "style.media.json"),
+        DefaultCommandLineCompiler.getMediaManifestFile(outputFile));
+  }
+
+  public void testSplitMediaQueries() throws Exception {
+    JobDescription job = new JobDescriptionBuilder()
+        .setInputs(ImmutableList.of(new SourceCode("test.gss",
+            ".a{color:red}@media print{.a{color:black}}.b{color:blue}")))
+        .setOutputFormat(JobDescription.OutputFormat.COMPRESSED)
+        .getJobDescription();
+    ClosureCommandLineCompiler compiler = new ClosureCommandLineCompiler(job,
+        new DefaultExitCodeHandler(),
+        new DefaultCommandLineCompiler.CompilerErrorManager());
+    compiler.setSplitMediaQueries(true);
+    File outputFile = new File(outputDir, "style.css");
+    compiler.execute(null, ImmutableMap.of(
+        MultiSinkPrinter.Format.COMPRESSED, outputFile));
+
+    assertEquals(".a{color:red}.b{color:blue}",
+        Files.toString(outputFile, Charsets.UTF_8));
+    assertEquals(".a{color:black}", Files.toString(
+        new File(outputDir, "style.print.css"), Charsets.UTF_8));
+    assertEquals("{\n"
+        + "  \"file\": \"" + outputFile.getPath() + "\",\n"
+        + "  \"media\": [\n"
+        + "    {\n"
+        + "      \"query\": \"print\",\n"
+        + "      \"file\": \""
+        + new File(outputDir, "style.print.css").getPath() + "\"\n"
+        + "    }\n"
+        + "  ]\n"
+        + "}",
+        Files.toString(new File(outputDir, "style.media.json"),
+            Charsets.UTF_8));
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Unit tests for {@link OutputArtifacts}.
+ *
+ */
+public class OutputArtifactsTest extends TestCase {
+
+  private static final String CSS = ".a{color:red}";
+  private static final String CSS_SHA256 =
+      "018915ff051a5c4cf58bda6774dd6f7885c51d95454e3e0e8dc7b6acc2bb6d27";
+
+  private File dir;
+
+  @Override
+  protected void setUp() throws Exception {
+    dir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  public void testWritesOnlyTheFileByDefault() throws Exception {
+    OutputArtifacts artifacts = new OutputArtifacts();
+    File file = new File(dir, "out.css");
+    write(artifacts.open(file), CSS);
+    assertFalse(file.exists());
+
+    List<OutputArtifacts.Artifact> written = artifacts.commit();
+    assertEquals(1, written.size());
+    OutputArtifacts.Artifact artifact = written.get(0);
+    assertEquals(file, artifact.getFile());
+    assertEquals(CSS.length(), artifact.getSize());
+    assertNull(artifact.getGzipFile());
+    assertEquals(-1, artifact.getGzipSize());
+    assertEquals(CSS, Files.toString(file, Charsets.UTF_8));
+    assertEquals(1, dir.listFiles().length);
+  }
+
+  public void testWritesGzipSiblingsAndHashedNames() throws Exception {
+    OutputArtifacts artifacts = new OutputArtifacts(9, true);
+    File file = new File(dir, "out.css");
+    write(artifacts.open(file), CSS);
+    OutputArtifacts.Artifact artifact = artifacts.commit().get(0);
+
+    assertEquals(CSS_SHA256, artifact.getSha256());
+    assertEquals(new File(dir, "out.018915ff051a5c4c.css"),
+        artifact.getFile());
+    assertEquals(file, artifact.getLogicalFile());
+    assertFalse(file.exists());
+    assertEquals(CSS, Files.toString(artifact.getFile(), Charsets.UTF_8));
+
+    assertEquals(new File(artifact.getFile().getPath() + ".gz"),
+        artifact.getGzipFile());
+    assertEquals(artifact.getGzipFile().length(), artifact.getGzipSize());
+    GZIPInputStream gzip = new GZIPInputStream(
+        new FileInputStream(artifact.getGzipFile()));
+    assertEquals(CSS, new String(ByteStreams.toByteArray(gzip), "UTF-8"));
+    gzip.close();
+  }
+
+  public void testSameContentHasSameHash() throws Exception {
+    OutputArtifacts artifacts = new OutputArtifacts(OutputArtifacts.NO_GZIP,
+        true);
+    write(artifacts.open(new File(dir, "a.css")), CSS);
+    write(artifacts.open(new File(dir, "b.css")), CSS);
+    write(artifacts.open(new File(dir, "c.css")), CSS + " ");
+    List<OutputArtifacts.Artifact> written = artifacts.commit();
+    assertEquals(written.get(0).getSha256(), written.get(1).getSha256());
+    assertFalse(written.get(0).getSha256().equals(
+        written.get(2).getSha256()));
+  }
+
+  public void testDiscardDeletesTemporaryFiles() throws Exception {
+    OutputArtifacts artifacts = new OutputArtifacts(6, true);
+    OutputStream out = artifacts.open(new File(dir, "out.css"));
+    out.write(CSS.getBytes("UTF-8"));
+    artifacts.discard();
+    assertEquals(0, dir.listFiles().length);
+    assertTrue(artifacts.getArtifacts().isEmpty());
+  }
+
+  public void testCommitFailsWhileOutputIsOpen() throws Exception {
+    OutputArtifacts artifacts = new OutputArtifacts();
+    artifacts.open(new File(dir, "out.css"));
+    try {
+      artifacts.commit();
+      fail();
+    } catch (IllegalStateException expected) {
+      // OK
+    }
+    artifacts.discard();
+  }
+
+  public void testInvalidGzipLevel() {
+    try {
+      new OutputArtifacts(10, false);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      // OK
+    }
+  }
+
+  public void testWritesManifest() throws Exception {
+    OutputArtifacts artifacts = new OutputArtifacts(1, false);
+    File file = new File(dir, "out.css");
+    write(artifacts.open(file), CSS);
+    OutputArtifacts.Artifact artifact = artifacts.commit().get(0);
+
+    StringWriter manifest = new StringWriter();
+    artifacts.writeManifest(manifest);
+    JsonObject entry = new JsonParser().parse(manifest.toString())
+        .getAsJsonObject().getAsJsonObject(file.getPath());
+    assertEquals(file.getPath(), entry.get("file").getAsString());
+    assertEquals(CSS.length(), entry.get("size").getAsLong());
+    assertEquals(artifact.getSha256(), entry.get("sha256").getAsString());
+    assertEquals(file.getPath() + ".gz", entry.get("gzipFile").getAsString());
+    assertEquals(artifact.getGzipSize(), entry.get("gzipSize").getAsLong());
+  }
+
+  public void testGetHashedFile() {
+    assertEquals(new File("dir", "out.0123.css"),
+        OutputArtifacts.getHashedFile(new File("dir", "out.css"), "0123"));
+    assertEquals(new File("out.min.0123.css"),
+        OutputArtifacts.getHashedFile(new File("out.min.css"), "0123"));
+    assertEquals(new File("out.0123"),
+        OutputArtifacts.getHashedFile(new File("out"), "0123"));
+    assertEquals(new File(".css.0123"),
+        OutputArtifacts.getHashedFile(new File(".css"), "0123"));
+  }
+
+  private static void write(OutputStream out, String content)
+      throws Exception {
+    out.write(content.getBytes("UTF-8"));
+    out.close();
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.commandline;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.css.JobDescription;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.common.css.compiler.passes.DummyErrorManager;
+import com.google.common.css.compiler.passes.MapChunkAwareNodesToChunk;
+import com.google.common.css.compiler.passes.MultiChunkCompactPrinter;
+import com.google.common.css.compiler.passes.PassRunner;
+import com.google.common.css.testing.SyntheticStylesheetGenerator;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.gson.stream.JsonWriter;
+
+import junit.framework.TestCase;
+
+import org.kohsuke.args4j.CmdLineParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests that compiling the same inputs always produces the same bytes, no
+ * matter the identity hash codes of the JVM or the number of threads.
+ *
+ */
+public class ReproducibleOutputTest extends TestCase {
+
+  /**
+   * Values of -XX:hashCode, which selects how identity hash codes are made:
+   * at random, all the same, or with the default thread-local generator.
+   */
+  private static final List<String> HASH_CODE_MODES =
+      ImmutableList.of("0", "2", "5");
+
+  private static final List<String> OUTPUT_FILES = ImmutableList.of(
+      "out.css", "pretty.css", "renaming.json", "manifest.json");
+
+  private final SyntheticStylesheetGenerator generator =
+      new SyntheticStylesheetGenerator().setSeed(48).setRules(500)
+          .setChunks(4);
+
+  public void testCommandLineOutputDoesNotDependOnHashCodes()
+      throws Exception {
+    File inputDir = Files.createTempDir();
+    List<String> inputs = Lists.newArrayList();
+    for (SourceCode input : generator.generate()) {
+      File file = new File(inputDir, input.getFileName());
+      Files.write(input.getFileContents(), file, Charsets.UTF_8);
+      inputs.add(file.getPath());
+    }
+
+    Map<String, byte[]> expected = null;
+    for (String hashCodeMode : HASH_CODE_MODES) {
+      File outputDir = Files.createTempDir();
+      compileInNewJvm(hashCodeMode, inputs, outputDir);
+      Map<String, byte[]> outputs = Maps.newLinkedHashMap();
+      for (String name : OUTPUT_FILES) {
+        outputs.put(name, Files.toByteArray(new File(outputDir, name)));
+      }
+      if (expected == null) {
+        expected = outputs;
+      } else {
+        for (String name : OUTPUT_FILES) {
+          assertTrue(name + " with -XX:hashCode=" + hashCodeMode,
+              Arrays.equals(expected.get(name), outputs.get(name)));
+        }
+      }
+      deleteDirectory(outputDir);
+    }
+    deleteDirectory(inputDir);
+  }
+
+  public void testOutputDoesNotDependOnThreadCount() throws Exception {
+    final List<String> expected = compileChunks(1);
+    for (int threads : new int[] {2, 4}) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        // Several compilations at once, each printing in parallel.
+        List<Future<List<String>>> results = Lists.newArrayList();
+        for (int i = 0; i < threads; i++) {
+          final int printingThreads = threads;
+          results.add(executor.submit(new Callable<List<String>>() {
+            @Override
+            public List<String> call() throws Exception {
+              return compileChunks(printingThreads);
+            }
+          }));
+        }
+        for (Future<List<String>> result : results) {
+          assertEquals(expected, result.get());
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Runs the command line compiler in a new JVM with the given identity hash
+   * code mode, with all the options that affect the output.
+   */
+  private void compileInNewJvm(String hashCodeMode, List<String> inputs,
+      File outputDir) throws Exception {
+    List<String> command = Lists.newArrayList(
+        new File(System.getProperty("java.home"), "bin/java").getPath(),
+        "-XX:+UnlockExperimentalVMOptions",
+        "-XX:hashCode=" + hashCodeMode,
+        "-cp", getClassPath(),
+        ClosureCommandLineCompiler.class.getName(),
+        // Relative to the output directory, so that the manifest is the same.
+        "--output-file", "out.css",
+        "--output-file:pretty", "pretty.css",
+        "--output-renaming-map", "renaming.json",
+        "--output-manifest", "manifest.json",
+        "--output-gzip-level", "9",
+        "--rename", "CLOSURE",
+        "--optimize-for-compression",
+        "--allow-unrecognized-properties");
+    for (String condition : generator.getConditionNames()) {
+      command.add("--define");
+      command.add(condition);
+    }
+    command.addAll(inputs);
+    Process process = new ProcessBuilder(command)
+        .directory(outputDir)
+        .redirectErrorStream(true)
+        .start();
+    String output = new String(
+        ByteStreams.toByteArray(process.getInputStream()), Charsets.UTF_8);
+    assertEquals(output, 0, process.waitFor());
+  }
+
+  /**
+   * Compiles the corpus in this JVM and prints each chunk with the given
+   * number of threads.
+   */
+  private List<String> compileChunks(int threads) throws Exception {
+    List<SourceCode> inputs = generator.generate();
+    CssTree tree = new GssParser(inputs).parse();
+    JobDescription job = new JobDescriptionBuilder()
+        .setTrueConditionNames(
+            Lists.newArrayList(generator.getConditionNames()))
+        .setAllowUnrecognizedProperties(true)
+        .setAllowKeyframes(true)
+        .setProcessDependencies(true)
+        .simplifyCss()
+        .eliminateDeadStyles()
+        .optimizeForCompression()
+        .setCssSubstitutionMapProvider(
+            RenamingType.CLOSURE.getCssSubstitutionMapProvider())
+        .getJobDescription();
+    new PassRunner(job, new DummyErrorManager()).runPasses(tree);
+
+    Map<String, String> fileToChunk = Maps.newHashMap();
+    List<String> chunks = Lists.newArrayList();
+    for (SourceCode input : inputs) {
+      fileToChunk.put(input.getFileName(), input.getFileName());
+      chunks.add(input.getFileName());
+    }
+    new MapChunkAwareNodesToChunk<String>(tree, fileToChunk).runPass();
+    MultiChunkCompactPrinter<String> printer =
+        new MultiChunkCompactPrinter<String>(tree, chunks);
+    if (threads == 1) {
+      printer.runPass();
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        printer.runPass(executor, threads * 4);
+      } finally {
+        executor.shutdown();
+      }
+    }
+    List<String> outputs = Lists.newArrayList();
+    for (String chunk : chunks) {
+      outputs.add(printer.getCompactPrintedString(chunk));
+    }
+    return outputs;
+  }
+
+  /** Returns the class path of the compiler and the libraries it uses. */
+  private static String getClassPath() throws Exception {
+    List<String> entries = Lists.newArrayList();
+    for (Class<?> clazz : ImmutableList.of(ClosureCommandLineCompiler.class,
+        Joiner.class, JsonWriter.class, CmdLineParser.class)) {
+      entries.add(new File(clazz.getProtectionDomain().getCodeSource()
+          .getLocation().toURI()).getPath());
+    }
+    return Joiner.on(File.pathSeparator).join(entries);
+  }
+
+  private static void deleteDirectory(File dir) throws IOException {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.gssfunctions;
+
+import com.google.common.css.compiler.gssfunctions.ColorParser.Format;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link ColorParser}.
+ *
+ */
+public class ColorParserTest extends TestCase {
+
+  public void testHex() {
+    assertEquals(0xFFF6E43A, ColorParser.parseAnyArgb("#f6e43a"));
+    assertEquals(0xFFF6E43A, ColorParser.parseAnyArgb("#F6E43A"));
+    assertEquals(0xFFCC44DD, ColorParser.parseAnyArgb("#c4d"));
+    assertEquals(0xFFCC44DD, ColorParser.parseAnyArgb("  #c4d "));
+  }
+
+  public void testHexWithAlpha() {
+    assertEquals(0x80336699,
+        new ColorParser(Format.HEX8).parseArgb("#33669980"));
+    assertEquals(0x88336699, new ColorParser(Format.HEX4).parseArgb("#3698"));
+    assertNotParsed(Format.HEX6, "#33669980");
+    assertNotParsed(Format.HEX3, "#3698");
+  }
+
+  public void testRgb() {
+    assertEquals(0xFFFF0A00, ColorParser.parseAnyArgb("rgb(255, 10, 0)"));
+    assertEquals(0xFFFF0A00, ColorParser.parseAnyArgb("rgb( 255 ,10,\t0 )"));
+    assertEquals(0xFFFF0000, ColorParser.parseAnyArgb("rgb(300, -5, +0)"));
+    assertEquals(0xFFFF001A, ColorParser.parseAnyArgb("rgb(100%, 0%, 10%)"));
+    assertEquals(0xFF80001A, ColorParser.parseAnyArgb("rgb(50.2%, -1%, 10%)"));
+  }
+
+  public void testRgba() {
+    assertEquals(0x80336699,
+        ColorParser.parseAnyArgb("rgba(51, 102, 153, 0.5)"));
+    assertEquals(0x00336699,
+        ColorParser.parseAnyArgb("rgba(51, 102, 153, -1)"));
+    assertEquals(0xFFFF001A,
+        ColorParser.parseAnyArgb("rgba(100%, 0%, 10%, 1.5)"));
+  }
+
+  public void testKeywords() {
+    assertEquals(0xFFFF0000, ColorParser.parseAnyArgb("red"));
+    assertEquals(0xFF4682B4, ColorParser.parseAnyArgb("SteelBlue"));
+    assertEquals(0xFFFFA500,
+        new ColorParser(Format.CSS_KEYWORDS).parseArgb("orange"));
+    assertNotParsed(Format.HTML_KEYWORDS, "orange");
+  }
+
+  public void testInvalid() {
+    assertNotParsed(Format.HEX6, "#12345g");
+    assertNotParsed(Format.CSS_RGB, "rgb(1.5, 2, 3)");
+    assertNotParsed(Format.CSS_RGB, "rgb(1%, 2, 3)");
+    assertNotParsed(Format.CSS_RGB, "rgb(1., 2, 3)");
+    assertNotParsed(Format.CSS_RGB, "rgb(1, 2, 3) x");
+    assertNotParsed(Format.CSS_RGB, "RGB(1, 2, 3)");
+    assertNotParsed(Format.CSS_RGBA, "rgba(1, 2, 3, 50%)");
+    assertNotParsed(Format.CSS_RGBA, "rgba(1, 2, 3)");
+  }
+
+  public void testCachedParse() {
+    ColorParser parser = new ColorParser(Format.values());
+    for (String value : new String[] {
+        "#336699", "#369", "#3698", "#33669980", "rgba(51, 102, 153, 0.5)",
+        "rgb(20%, 40%, 60%)", "navy"}) {
+      int argb = new ColorParser(Format.values()).parseArgb(value);
+      assertEquals(value, argb, parser.parseArgb(value));
+      // A second parse is answered from the cache.
+      assertEquals(value, argb, parser.parseArgb(value));
+    }
+  }
+
+  private static void assertNotParsed(Format format, String value) {
+    try {
+      new ColorParser(format).parseArgb(value);
+      fail("Parsed " + value + " as " + format);
+    } catch (IllegalArgumentException expected) {
+      // OK.
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.gssfunctions;
+
+import junit.framework.TestCase;
+
+import java.awt.Color;
+
+/**
+ * Unit tests for {@link ColorUtil}.
+ *
+ */
+public class ColorUtilTest extends TestCase {
+
+  public void testFormatColor() {
+    assertEquals("#00000A", ColorUtil.formatColor(0xFF00000A));
+    assertEquals("#336699", ColorUtil.formatColor(0x80336699));
+    assertEquals("#FFFFFF", ColorUtil.formatColor(0xFFFFFFFF));
+  }
+
+  public void testComponents() {
+    int argb = 0x80336699;
+    assertEquals(0x80, ColorUtil.alpha(argb));
+    assertEquals(0x33, ColorUtil.red(argb));
+    assertEquals(0x66, ColorUtil.green(argb));
+    assertEquals(0x99, ColorUtil.blue(argb));
+    assertEquals(0xFF336699, ColorUtil.rgb(0x33, 0x66, 0x99));
+  }
+
+  public void testRgbOutOfRange() {
+    for (int[] components : new int[][] {{256, 0, 0}, {0, -1, 0}}) {
+      try {
+        ColorUtil.rgb(components[0], components[1], components[2]);
+        fail("IllegalArgumentException expected");
+      } catch (IllegalArgumentException expected) {
+        // OK.
+      }
+    }
+  }
+
+  public void testHsbMatchesAwt() {
+    float[] hsb = new float[3];
+    for (int r = 0; r < 256; r += 5) {
+      for (int g = 0; g < 256; g += 3) {
+        for (int b = 0; b < 256; b += 7) {
+          int argb = ColorUtil.rgb(r, g, b);
+          Color.RGBtoHSB(r, g, b, hsb);
+          assertEquals(hsb[0], ColorUtil.hue(argb));
+          assertEquals(hsb[1], ColorUtil.saturation(argb));
+          assertEquals(hsb[2], ColorUtil.brightness(argb));
+          assertEquals(Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]),
+              ColorUtil.hsbToRgb(hsb[0], hsb[1], hsb[2]));
+        }
+      }
+    }
+  }
+
+  public void testHsbToRgbMatchesAwt() {
+    for (float h = -1f; h <= 2f; h += 0.013f) {
+      for (float s = 0f; s <= 1f; s += 0.05f) {
+        for (float b = 0f; b <= 1f; b += 0.05f) {
+          assertEquals(Color.HSBtoRGB(h, s, b), ColorUtil.hsbToRgb(h, s, b));
+        }
+      }
+    }
+  }
+
+  public void testContrast() {
+    assertTrue(ColorUtil.testContrast(0xFF000000, 0xFFFFFFFF));
+    assertFalse(ColorUtil.testContrast(0xFF336699, 0xFF336699));
+    // The luminance differs by 103, below the threshold of 125.
+    assertFalse(ColorUtil.testContrast(0xFF336699, 0xFFFFCC00));
+    assertTrue(ColorUtil.testContrast(0xFF336699, 0xFFFFCC00, 0.2f));
+  }
+}
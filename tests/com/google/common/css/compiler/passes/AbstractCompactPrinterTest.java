@@ -20,6 +20,9 @@ import com.google.common.base.Joiner;
 import com.google.common.css.compiler.ast.CssTree;
 import com.google.common.css.compiler.ast.FunctionalTestBase;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 /**
  * Base class for compact printer tests.
  *
@@ -59,5 +62,13 @@ public abstract class AbstractCompactPrinterTest extends FunctionalTestBase {
     CompactPrinter pass = new CompactPrinter(treeToCheck);
     pass.runPass();
     assertEquals(expected, pass.getCompactPrintedString());
+
+    StringWriter streamed = new StringWriter();
+    try {
+      assertEquals(expected.length(), pass.printTo(streamed));
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    assertEquals(expected, streamed.toString());
   }
 }
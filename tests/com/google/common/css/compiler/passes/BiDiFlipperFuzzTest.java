@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.ImmutableMap;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Differential tests of the url and property name flipping of
+ * {@link BiDiFlipper} against the regular expression based implementation it
+ * replaced, on randomly generated strings.
+ *
+ */
+public class BiDiFlipperFuzzTest extends TestCase {
+
+  private static final int ITERATIONS = 200000;
+
+  private static final String[] FRAGMENTS = {"ltr", "rtl", "left", "right",
+      "Left", "lt", "rtl", "-", "_", ".", "/", "a", "Z", "1", " ", "-left-",
+      "-right-", "-bottom", "-top", "bottom", "top", "border", "padding",
+      "-webkit", "resize", "e-resize", "nesw-resize", "img", ".png", "%20"};
+
+  public void testFlipUrlValue() {
+    Random random = new Random(1);
+    for (int flags = 0; flags < 4; flags++) {
+      boolean swapLtrRtl = (flags & 1) != 0;
+      boolean swapLeftRight = (flags & 2) != 0;
+      BiDiFlipper flipper =
+          new BiDiFlipper(null, swapLtrRtl, swapLeftRight);
+      for (int i = 0; i < ITERATIONS; i++) {
+        String url = randomString(random);
+        assertEquals(url,
+            referenceFlipUrlValue(url, swapLtrRtl, swapLeftRight),
+            flipper.flipUrlValue(url));
+      }
+    }
+  }
+
+  public void testFlipValue() {
+    Random random = new Random(2);
+    for (String value : REFERENCE_EXACT_MATCHING.keySet()) {
+      assertEquals(referenceFlipValue(value), BiDiFlipper.flipValue(value));
+    }
+    for (int i = 0; i < ITERATIONS; i++) {
+      String value = randomString(random);
+      assertEquals(value,
+          referenceFlipValue(value), BiDiFlipper.flipValue(value));
+    }
+  }
+
+  private static String randomString(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int fragments = random.nextInt(8);
+    for (int i = 0; i < fragments; i++) {
+      sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+    }
+    return sb.toString();
+  }
+
+  // The previous implementation.
+
+  private static final Map<String, String> REFERENCE_EXACT_MATCHING =
+      new ImmutableMap.Builder<String, String>()
+      .put("ltr", "rtl")
+      .put("rtl", "ltr")
+      .put("left", "right")
+      .put("right", "left")
+      .put("e-resize", "w-resize")
+      .put("w-resize", "e-resize")
+      .put("ne-resize", "nw-resize")
+      .put("nw-resize", "ne-resize")
+      .put("nesw-resize", "nwse-resize")
+      .put("nwse-resize", "nesw-resize")
+      .put("se-resize", "sw-resize")
+      .put("sw-resize", "se-resize")
+      .build();
+
+  private static final Map<String, String> REFERENCE_ENDS_WITH_MATCHING =
+      new ImmutableMap.Builder<String, String>()
+      .put("-left", "-right")
+      .put("-right", "-left")
+      .put("-bottomleft", "-bottomright")
+      .put("-topleft", "-topright")
+      .put("-bottomright", "-bottomleft")
+      .put("-topright", "-topleft")
+      .build();
+
+  private static final Map<String, String> REFERENCE_CONTAINS_MATCHING =
+      new ImmutableMap.Builder<String, String>()
+      .put("-left-", "-right-")
+      .put("-right-", "-left-")
+      .build();
+
+  private static final Map<Pattern, String> REFERENCE_URL_LTRTL =
+      new ImmutableMap.Builder<Pattern, String>()
+      .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)ltr([-_\\./]+)"),
+          "$1rtl$2")
+      .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)rtl([-_\\./]+)"),
+          "$1ltr$2")
+      .build();
+
+  private static final Map<Pattern, String> REFERENCE_URL_LEFTRIGHT =
+      new ImmutableMap.Builder<Pattern, String>()
+      .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)left([-_\\./]+)"),
+          "$1right$2")
+      .put(Pattern.compile("(?<![a-zA-Z])([-_\\./]*)right([-_\\./]+)"),
+          "$1left$2")
+      .build();
+
+  private static String referenceFlipValue(String value) {
+    for (String s : REFERENCE_EXACT_MATCHING.keySet()) {
+      if (value.equals(s)) {
+        value = REFERENCE_EXACT_MATCHING.get(s);
+        break;
+      }
+    }
+    for (String s : REFERENCE_ENDS_WITH_MATCHING.keySet()) {
+      if (value.endsWith(s)) {
+        value = value.replace(s, REFERENCE_ENDS_WITH_MATCHING.get(s));
+        break;
+      }
+    }
+    for (String s : REFERENCE_CONTAINS_MATCHING.keySet()) {
+      if (value.indexOf(s) > 0) {
+        value = value.replace(s, REFERENCE_CONTAINS_MATCHING.get(s));
+        break;
+      }
+    }
+    return value;
+  }
+
+  private static String referenceFlipUrlValue(String value,
+      boolean swapLtrRtl, boolean swapLeftRight) {
+    if (swapLtrRtl) {
+      for (Pattern p : REFERENCE_URL_LTRTL.keySet()) {
+        if (p.matcher(value).find()) {
+          value = p.matcher(value).replaceFirst(REFERENCE_URL_LTRTL.get(p));
+          break;
+        }
+      }
+    }
+    if (swapLeftRight) {
+      for (Pattern p : REFERENCE_URL_LEFTRIGHT.keySet()) {
+        if (p.matcher(value).find()) {
+          value =
+              p.matcher(value).replaceFirst(REFERENCE_URL_LEFTRIGHT.get(p));
+          break;
+        }
+      }
+    }
+    return value;
+  }
+}
@@ -16,6 +16,13 @@
 
 package com.google.common.css.compiler.passes;
 
+import com.google.common.base.Charsets;
+import com.google.common.css.compiler.ast.CssTree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 
 /**
  * Tests the compact printer visitor.
@@ -355,4 +362,65 @@ public class CompactPrinterTest extends AbstractCompactPrinterTest {
             + "transparent 100%);",
             "}"));
   }
+
+  public void testPrintToStreamsLargeOutput() throws Exception {
+    CssTree tree = parseStyleSheet(largeStyleSheet());
+    CompactPrinter printer = new CompactPrinter(tree);
+    printer.runPass();
+    String expected = printer.getCompactPrintedString();
+    assertTrue(expected.length() > 4 * StreamingOutput.FLUSH_THRESHOLD);
+
+    StringWriter writer = new StringWriter();
+    assertEquals(expected.length(), printer.printTo(writer));
+    assertEquals(expected, writer.toString());
+    assertNull(printer.getCompactPrintedString());
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    printer.printTo(stream);
+    assertEquals(expected, new String(stream.toByteArray(), Charsets.UTF_8));
+  }
+
+  public void testPrintToStopsAtFailingWriter() throws Exception {
+    CssTree tree = parseStyleSheet(largeStyleSheet());
+    final int[] writes = {0};
+    Writer failing = new Writer() {
+      @Override
+      public void write(char[] chars, int offset, int length)
+          throws IOException {
+        writes[0]++;
+        throw new IOException("disk full");
+      }
+
+      @Override
+      public void flush() {}
+
+      @Override
+      public void close() {}
+    };
+    try {
+      new CompactPrinter(tree).printTo(failing);
+      fail("IOException expected");
+    } catch (IOException e) {
+      assertEquals("disk full", e.getMessage());
+    }
+    assertEquals(1, writes[0]);
+  }
+
+  /**
+   * Returns a style sheet that prints to several times the size at which the
+   * streaming printer writes its output.
+   */
+  static String largeStyleSheet() {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      if (i % 100 == 0) {
+        source.append("@media print { .p").append(i)
+            .append(" { color: red; } }\n");
+      }
+      source.append(".c").append(i).append(", .d").append(i)
+          .append(" { content: '\u00e9\u4e2d'; margin: 0 1px 2px; }\n");
+    }
+    source.append("@font-face { font-family: 'Roboto'; }\n");
+    return source.toString();
+  }
 }
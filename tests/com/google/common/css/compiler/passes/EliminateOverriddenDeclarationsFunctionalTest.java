@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.css.SourceCodeLocation;
+import com.google.common.css.compiler.ast.CssBlockNode;
+import com.google.common.css.compiler.ast.FunctionalTestBase;
+
+/**
+ * Functional tests for {@link EliminateOverriddenDeclarations}.
+ */
+public class EliminateOverriddenDeclarationsFunctionalTest
+    extends FunctionalTestBase {
+
+  private SourceCodeLocation firstLocation;
+
+  public void testOverriddenRulesetIsRemoved() {
+    testTreeConstruction(
+        linesToString(
+            "foo { background-color: blue;}",
+            "foo { border-left: 5px;}",
+            "foo { background-color: red;}"),
+        "[[foo]{[border-left:[5px]]}, "
+        + "[foo]{[background-color:[red]]}]");
+  }
+
+  public void testRulesetThatLosesNothingIsNotSplit() {
+    testTreeConstruction(
+        linesToString(
+            ".a, .b { color: red; margin: 0;}",
+            ".c { color: blue;}"),
+        "[[.a, .b]{[color:[red], margin:[0]]}, [.c]{[color:[blue]]}]");
+  }
+
+  public void testOnlyOverriddenCellsAreRemoved() {
+    testTreeConstruction(
+        linesToString(
+            ".a, .b, .c, .d { color: red; margin: 0;}",
+            ".b, .c { color: blue;}"),
+        "[[.a]{[color:[red], margin:[0]]}, [.b, .c]{[margin:[0]]}, "
+        + "[.d]{[color:[red], margin:[0]]}, [.b, .c]{[color:[blue]]}]");
+  }
+
+  public void testFullyOverriddenRulesetIsRemoved() {
+    testTreeConstruction(
+        linesToString(
+            ".a, .b { margin-left: 1px; margin-top: 2px;}",
+            ".b, .a { margin: 0;}"),
+        "[[.b, .a]{[margin:[0]]}]");
+  }
+
+  public void testOverriddenWithinRuleset() {
+    testTreeConstruction(
+        ".a, .b { color: red; padding: 0; color: blue;}",
+        "[[.a, .b]{[padding:[0], color:[blue]]}]");
+  }
+
+  public void testImportantDeclarationIsKept() {
+    testTreeConstruction(
+        linesToString(
+            ".a, .b { color: red !important;}",
+            ".a { color: blue;}"),
+        "[[.a, .b]{[color:[red, !important]]}]");
+  }
+
+  public void testLaterImportantDeclarationWins() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: blue; margin: 0;}",
+            ".a { color: red !important;}"),
+        "[[.a]{[margin:[0]]}, [.a]{[color:[red, !important]]}]");
+  }
+
+  public void testDisplayIsNotChecked() {
+    testTreeConstruction(
+        linesToString(
+            ".a { display: none;}",
+            ".a { display: block;}"),
+        "[[.a]{[display:[none]]}, [.a]{[display:[block]]}]");
+  }
+
+  public void testSplitRulesetsKeepSourceCodeLocation() {
+    testTreeConstruction(
+        linesToString(
+            ".a, .b { color: red; margin: 0;}",
+            ".a { color: blue;}"),
+        "[[.a]{[margin:[0]]}, [.b]{[color:[red], margin:[0]]}, "
+        + "[.a]{[color:[blue]]}]");
+    CssBlockNode body = tree.getRoot().getBody();
+    assertNotNull(firstLocation);
+    assertSame(firstLocation, body.getChildAt(0).getSourceCodeLocation());
+    assertSame(firstLocation, body.getChildAt(1).getSourceCodeLocation());
+    assertEquals(2, body.getChildAt(2).getSourceCodeLocation().getLineNumber());
+  }
+
+  @Override
+  protected void runPass() {
+    firstLocation = tree.getRoot().getBody().getChildAt(0)
+        .getSourceCodeLocation();
+    new EliminateOverriddenDeclarations(tree).runPass();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.css.compiler.ast.CssDeclarationBlockNode;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssLiteralNode;
+import com.google.common.css.compiler.ast.CssNumericNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssStringNode;
+import com.google.common.css.compiler.ast.CssValueNode;
+import com.google.common.css.compiler.ast.ErrorManager;
+import com.google.common.css.compiler.ast.GssFunction;
+import com.google.common.css.compiler.ast.GssFunctionException;
+import com.google.common.css.compiler.ast.PureGssFunction;
+import com.google.common.css.compiler.ast.testing.NewFunctionalTestBase;
+import com.google.common.css.compiler.gssfunctions.GssFunctions;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link GssFunctionCache} and its use by
+ * {@link ResolveCustomFunctionNodes}.
+ *
+ */
+public class GssFunctionCacheTest extends NewFunctionalTestBase {
+
+  /** Counts the calls to a function, pure or not. */
+  private static class CountingFunction implements GssFunction {
+    private final GssFunction delegate;
+    int calls = 0;
+
+    CountingFunction(GssFunction delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Integer getNumExpectedArguments() {
+      return delegate.getNumExpectedArguments();
+    }
+
+    @Override
+    public List<CssValueNode> getCallResultNodes(List<CssValueNode> args,
+        ErrorManager errorManager) throws GssFunctionException {
+      calls++;
+      return delegate.getCallResultNodes(args, errorManager);
+    }
+
+    @Override
+    public String getCallResultString(List<String> args)
+        throws GssFunctionException {
+      return delegate.getCallResultString(args);
+    }
+  }
+
+  private static class PureCountingFunction extends CountingFunction
+      implements PureGssFunction {
+    PureCountingFunction(GssFunction delegate) {
+      super(delegate);
+    }
+  }
+
+  private CountingFunction plus;
+  private CountingFunction blend;
+  private GssFunctionCache cache;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    plus = new PureCountingFunction(new GssFunctions.AddToNumericValue());
+    blend = new CountingFunction(new GssFunctions.BlendColorsHsb());
+    cache = new GssFunctionCache();
+  }
+
+  @Override
+  protected void runPass() {
+    Map<String, GssFunction> functions = ImmutableMap.<String, GssFunction>of(
+        "plus", plus, "blend", blend);
+    ResolveCustomFunctionNodes pass = new ResolveCustomFunctionNodes(
+        tree.getMutatingVisitController(), errorManager, functions, false,
+        ImmutableSet.<String>of());
+    pass.setFunctionCache(cache);
+    pass.runPass();
+  }
+
+  public void testPureFunctionIsEvaluatedOncePerArguments() throws Exception {
+    test(".a { width: plus(2px, 3px); height: plus(2px, 3px); }"
+        + ".b { width: plus(2px, 3px); height: plus(2px, 4px); }",
+        ".a { width: 5px; height: 5px; } .b { width: 5px; height: 6px; }");
+    assertEquals(2, plus.calls);
+    assertEquals(2, cache.size());
+  }
+
+  public void testResultsAreFreshNodes() throws Exception {
+    parseAndRun(".a { width: plus(2px, 3px); height: plus(2px, 3px); }");
+    CssDeclarationBlockNode declarations =
+        ((CssRulesetNode) tree.getRoot().getBody().getChildAt(0))
+            .getDeclarations();
+    CssValueNode width = ((CssDeclarationNode) declarations.getChildAt(0))
+        .getPropertyValue().getChildAt(0);
+    CssValueNode height = ((CssDeclarationNode) declarations.getChildAt(1))
+        .getPropertyValue().getChildAt(0);
+    assertNotSame(width, height);
+    ((CssNumericNode) width).setNumericPart("1");
+    assertEquals("5px", height.toString());
+  }
+
+  public void testImpureFunctionIsAlwaysEvaluated() throws Exception {
+    parseAndRun(".a { color: blend(#000, #fff); }"
+        + ".b { color: blend(#000, #fff); }");
+    assertEquals(2, blend.calls);
+    assertEquals(0, cache.size());
+  }
+
+  public void testErrorsAreNotCached() throws Exception {
+    parseAndRun(".a { width: plus(2px, 3em); }"
+        + ".b { width: plus(2px, 3em); }",
+        "Parameters' units don't match (\"px\" vs \"em\")",
+        "Parameters' units don't match (\"px\" vs \"em\")");
+    assertEquals(2, plus.calls);
+  }
+
+  public void testCacheIsSharedBetweenCompilations() throws Exception {
+    parseAndRun(".a { width: plus(2px, 3px); }");
+    parseAndRun(".b { width: plus(2px, 3px); }");
+    assertEquals(1, plus.calls);
+  }
+
+  public void testKeysDependOnArgumentTypes() throws Exception {
+    List<String> numeric = cache.getKey("f", ImmutableList.<CssValueNode>of(
+        new CssNumericNode("1", "px")));
+    List<String> literal = cache.getKey("f", ImmutableList.<CssValueNode>of(
+        new CssLiteralNode("1px")));
+    assertFalse(numeric.equals(literal));
+    assertNull(cache.getKey("f", ImmutableList.<CssValueNode>of(
+        new CssStringNode(CssStringNode.Type.DOUBLE_QUOTED_STRING, "1px"))));
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.css.compiler.ast.FunctionalTestBase;
+
+/**
+ * Functional tests for {@link MergeNonAdjacentRulesetNodes}.
+ */
+public class MergeNonAdjacentRulesetNodesFunctionalTest
+    extends FunctionalTestBase {
+
+  public void testSameDeclarationsWithUnrelatedRulesetInBetween() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            ".b { margin: 0;}",
+            ".c { color: red;}"),
+        "[[.a, .c]{[color:[red]]}, [.b]{[margin:[0]]}]");
+  }
+
+  public void testSameSelectorWithUnrelatedRulesetInBetween() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            ".b { margin: 0;}",
+            ".a { padding: 0;}"),
+        "[[.a]{[color:[red], padding:[0]]}, [.b]{[margin:[0]]}]");
+  }
+
+  public void testConflictingRulesetInBetweenPreventsMerge() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            ".b { color: blue;}",
+            ".c { color: red;}"),
+        "[[.a]{[color:[red]]}, [.b]{[color:[blue]]}, [.c]{[color:[red]]}]");
+  }
+
+  public void testShorthandInBetweenConflicts() {
+    testTreeConstruction(
+        linesToString(
+            ".a { margin-left: 0;}",
+            ".b { margin: 1px;}",
+            ".a { margin-left: 0;}"),
+        "[[.a]{[margin-left:[0]]}, [.b]{[margin:[1px]]}, "
+        + "[.a]{[margin-left:[0]]}]");
+  }
+
+  public void testShorthandOfAnotherPartitionInBetweenConflicts() {
+    testTreeConstruction(
+        linesToString(
+            ".a { line-height: 2;}",
+            ".b { font: 12px/1 serif;}",
+            ".c { line-height: 2;}"),
+        "[[.a]{[line-height:[2]]}, [.b]{[font:[12px/1, serif]]}, "
+        + "[.c]{[line-height:[2]]}]");
+  }
+
+  public void testPrefixedAliasInBetweenConflicts() {
+    testTreeConstruction(
+        linesToString(
+            ".a { transition: none;}",
+            ".b { -webkit-transition: opacity 1s;}",
+            ".c { transition: none;}"),
+        "[[.a]{[transition:[none]]}, "
+        + "[.b]{[-webkit-transition:[opacity, 1s]]}, "
+        + "[.c]{[transition:[none]]}]");
+  }
+
+  public void testAllPropertyInBetweenConflicts() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            ".b { all: initial;}",
+            ".c { color: red;}"),
+        "[[.a]{[color:[red]]}, [.b]{[all:[initial]]}, [.c]{[color:[red]]}]");
+  }
+
+  public void testEarlierRulesetMovesDownWhenLaterCannotMoveUp() {
+    // .c cannot move above .b, but .a is more specific than .b, so .a can
+    // move down instead.
+    testTreeConstruction(
+        linesToString(
+            "div.a { color: red;}",
+            ".b { color: blue;}",
+            ".c { color: red;}"),
+        "[[.b]{[color:[blue]]}, [.c, div.a]{[color:[red]]}]");
+  }
+
+  public void testDifferentSpecificityDoesNotConflict() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            "#b { color: blue;}",
+            ".c { color: red;}"),
+        "[[.a, .c]{[color:[red]]}, [#b]{[color:[blue]]}]");
+  }
+
+  public void testDifferentElementsDoNotConflict() {
+    testTreeConstruction(
+        linesToString(
+            "div { color: red;}",
+            "span { color: blue;}",
+            "p { color: red;}"),
+        "[[div, p]{[color:[red]]}, [span]{[color:[blue]]}]");
+  }
+
+  public void testNonRulesetIsBarrier() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            "@media print { .b { margin: 0;}}",
+            ".c { color: red;}"),
+        "[[.a]{[color:[red]]}, @media[print]{[[.b]{[margin:[0]]}]}, "
+        + "[.c]{[color:[red]]}]");
+  }
+
+  @Override
+  protected void runPass() {
+    new MergeNonAdjacentRulesetNodes(tree).runPass();
+    new EliminateUselessRulesetNodes(tree).runPass();
+  }
+}
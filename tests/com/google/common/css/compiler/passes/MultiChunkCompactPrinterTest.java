@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.css.JobDescription;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for {@link MultiChunkCompactPrinter}.
+ */
+public class MultiChunkCompactPrinterTest extends ChunkCompactPrinterTest {
+
+  private static final List<String> CHUNKS =
+      ImmutableList.of("foo", "bar", "baz");
+
+  @Override
+  public void testChunkOutput() {
+    setupTestTree();
+    MultiChunkCompactPrinter<String> printer =
+        new MultiChunkCompactPrinter<String>(newTree, CHUNKS);
+    printer.runPass();
+    assertEquals("foo{}a{}a#a{}a#a b{}b+i{}@media print{foo{}}"
+        + "@font-face{font-family:'Roboto'}",
+        printer.getCompactPrintedString("foo"));
+    assertEquals(".bar{}b{}b#b{}b>i+em{}@keyframes my-animation{0%{}}",
+        printer.getCompactPrintedString("bar"));
+    assertEquals("hr,i{}i{}hr{}i,hr{}a i{}a+i{}",
+        printer.getCompactPrintedString("baz"));
+  }
+
+  public void testOnlyRequestedChunksArePrinted() {
+    setupTestTree();
+    MultiChunkCompactPrinter<String> printer =
+        new MultiChunkCompactPrinter<String>(newTree, ImmutableList.of("baz"));
+    printer.runPass();
+    assertEquals("hr,i{}i{}hr{}i,hr{}a i{}a+i{}",
+        printer.getCompactPrintedString("baz"));
+    try {
+      printer.getCompactPrintedString("foo");
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+  }
+
+  public void testMatchesChunkCompactPrinter() throws Exception {
+    CssTree tree = compileChunkedStyleSheet();
+    MultiChunkCompactPrinter<String> printer =
+        new MultiChunkCompactPrinter<String>(tree, CHUNKS);
+    printer.runPass();
+    for (String chunk : CHUNKS) {
+      assertEquals(chunk, printChunk(tree, chunk),
+          printer.getCompactPrintedString(chunk));
+    }
+  }
+
+  public void testParallelPrintingMatchesChunkCompactPrinter()
+      throws Exception {
+    CssTree tree = compileChunkedStyleSheet();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int slices : new int[] {1, 3, 7, 1000}) {
+        MultiChunkCompactPrinter<String> printer =
+            new MultiChunkCompactPrinter<String>(tree, CHUNKS);
+        printer.runPass(executor, slices);
+        for (String chunk : CHUNKS) {
+          assertEquals(chunk + " in " + slices + " slices",
+              printChunk(tree, chunk), printer.getCompactPrintedString(chunk));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testParallelPrintingWithDependencyDeclarations()
+      throws Exception {
+    List<SourceCode> sources = Lists.newArrayList();
+    for (int file = 0; file < CHUNKS.size(); file++) {
+      StringBuilder source = new StringBuilder();
+      source.append("@provide c").append(file).append(";\n");
+      if (file > 0) {
+        source.append("@require c").append(file - 1).append(";\n");
+      }
+      source.append(".f").append(file).append(" { color: red; }\n");
+      sources.add(new SourceCode(CHUNKS.get(file) + ".css",
+          source.toString()));
+    }
+    CssTree tree = new GssParser(sources).parse();
+    new PassRunner(new JobDescriptionBuilder()
+        .setProcessDependencies(true).getJobDescription(),
+        new DummyErrorManager()).runPasses(tree);
+    Map<String, String> fileToChunk = ImmutableMap.of(
+        "foo.css", "foo", "bar.css", "bar", "baz.css", "baz");
+    new MapChunkAwareNodesToChunk<String>(tree, fileToChunk).runPass();
+
+    // Each @provide and @require node is a slice of its own.
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      MultiChunkCompactPrinter<String> printer =
+          new MultiChunkCompactPrinter<String>(tree, CHUNKS);
+      printer.runPass(executor, 1000);
+      for (String chunk : CHUNKS) {
+        assertEquals(chunk, printChunk(tree, chunk),
+            printer.getCompactPrintedString(chunk));
+      }
+      assertEquals(".f0{color:red}", printer.getCompactPrintedString("foo"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private String printChunk(CssTree tree, String chunk) {
+    ChunkCompactPrinter<String> printer =
+        new ChunkCompactPrinter<String>(tree, chunk);
+    printer.runPass();
+    return printer.getCompactPrintedString();
+  }
+
+  /**
+   * Compiles a style sheet from one file per chunk, with dead code
+   * elimination so that the merged rulesets have selectors from several
+   * chunks.
+   */
+  private CssTree compileChunkedStyleSheet() throws Exception {
+    List<SourceCode> sources = Lists.newArrayList();
+    for (int file = 0; file < CHUNKS.size(); file++) {
+      StringBuilder source = new StringBuilder();
+      for (int i = 0; i < 60; i++) {
+        source.append(".f").append(file).append("r").append(i)
+            .append(i % 3 == 0 ? " > p" : "")
+            .append(" { color: c").append(i % 4)
+            .append("; margin: ").append(i % 2).append("px; }\n");
+        if (i % 20 == 5) {
+          source.append("@media print { .m").append(file)
+              .append(" { color: c").append(i % 4).append("; } }\n");
+        }
+      }
+      source.append("@keyframes k").append(file)
+          .append(" { from { top: 0; } to { top: 1px; } }\n");
+      source.append("@font-face { font-family: f").append(file)
+          .append("; }\n");
+      sources.add(new SourceCode(CHUNKS.get(file) + ".css",
+          source.toString()));
+    }
+    CssTree tree = new GssParser(sources).parse();
+    JobDescription job = new JobDescriptionBuilder()
+        .setAllowUnrecognizedProperties(true)
+        .setAllowKeyframes(true)
+        .simplifyCss()
+        .eliminateDeadStyles()
+        .getJobDescription();
+    new PassRunner(job, new DummyErrorManager())
+        .runPasses(tree);
+    Map<String, String> fileToChunk = ImmutableMap.of(
+        "foo.css", "foo", "bar.css", "bar", "baz.css", "baz");
+    new MapChunkAwareNodesToChunk<String>(tree, fileToChunk).runPass();
+    return tree;
+  }
+}
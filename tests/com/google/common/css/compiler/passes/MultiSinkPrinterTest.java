@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.css.compiler.ast.CssFontFaceNode;
+import com.google.common.css.compiler.ast.CssMediaRuleNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.DefaultTreeVisitor;
+import com.google.common.css.compiler.ast.FunctionalTestBase;
+import com.google.common.css.compiler.ast.VisitCounter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Unit tests for {@link MultiSinkPrinter}.
+ */
+public class MultiSinkPrinterTest extends FunctionalTestBase {
+
+  public void testPrintsAllFormatsInOneVisit() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+
+    long visitsBefore = VisitCounter.getCount();
+    CompactPrinter compactPrinter = new CompactPrinter(newTree);
+    compactPrinter.runPass();
+    long visitsPerPrinter = VisitCounter.getCount() - visitsBefore;
+    PrettyPrinter prettyPrinter =
+        new PrettyPrinter(newTree.getVisitController());
+    prettyPrinter.runPass();
+    TemplateCompactPrinter<Object> templatePrinter =
+        new TemplateCompactPrinter<Object>(newTree, null);
+    templatePrinter.runPass();
+
+    StringWriter compact = new StringWriter();
+    StringWriter pretty = new StringWriter();
+    StringWriter template = new StringWriter();
+    visitsBefore = VisitCounter.getCount();
+    long[] printed = new MultiSinkPrinter(newTree)
+        .addOutput(MultiSinkPrinter.Format.COMPRESSED, compact)
+        .addOutput(MultiSinkPrinter.Format.PRETTY_PRINTED, pretty)
+        .addOutput(MultiSinkPrinter.Format.TEMPLATE, template)
+        .print();
+    assertEquals(visitsPerPrinter, VisitCounter.getCount() - visitsBefore);
+
+    assertEquals(compactPrinter.getCompactPrintedString(), compact.toString());
+    assertEquals(prettyPrinter.getPrettyPrintedString(), pretty.toString());
+    assertEquals(templatePrinter.getCompactPrintedString(),
+        template.toString());
+    assertEquals(compact.toString().length(), printed[0]);
+    assertEquals(pretty.toString().length(), printed[1]);
+    assertEquals(template.toString().length(), printed[2]);
+  }
+
+  public void testOutputsSkippingNodesIndependently() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+    newTree.getVisitController().startVisit(new DefaultTreeVisitor() {
+      private int selectors = 0;
+
+      @Override
+      public boolean enterSelector(CssSelectorNode selector) {
+        selector.setChunk(selectors++ % 3 == 0 ? "odd" : "even");
+        return true;
+      }
+
+      @Override
+      public boolean enterMediaRule(CssMediaRuleNode media) {
+        media.setChunk("odd");
+        return true;
+      }
+
+      @Override
+      public boolean enterFontFace(CssFontFaceNode fontFace) {
+        fontFace.setChunk("even");
+        return true;
+      }
+    });
+
+    StringWriter odd = new StringWriter();
+    StringWriter compact = new StringWriter();
+    StringWriter even = new StringWriter();
+    new MultiSinkPrinter(newTree)
+        .addTemplateOutput("odd", odd)
+        .addOutput(MultiSinkPrinter.Format.COMPRESSED, compact)
+        .addTemplateOutput("even", even)
+        .print();
+
+    CompactPrinter compactPrinter = new CompactPrinter(newTree);
+    compactPrinter.runPass();
+    assertEquals(compactPrinter.getCompactPrintedString(), compact.toString());
+    for (String chunk : new String[] {"odd", "even"}) {
+      TemplateCompactPrinter<Object> templatePrinter =
+          new TemplateCompactPrinter<Object>(newTree, chunk);
+      templatePrinter.runPass();
+      assertEquals(templatePrinter.getCompactPrintedString(),
+          (chunk.equals("odd") ? odd : even).toString());
+    }
+  }
+
+  public void testNodeDeclinedByAllOutputs() throws Exception {
+    buildTreeWithNewParser(".a{color:red}.skipped{color:green}"
+        + ".b{color:blue}");
+    runPassesOnNewTree();
+    newTree.getVisitController().startVisit(new DefaultTreeVisitor() {
+      private final String[] chunks = {"a", "skipped", "b"};
+      private int selectors = 0;
+
+      @Override
+      public boolean enterSelector(CssSelectorNode selector) {
+        selector.setChunk(chunks[selectors++]);
+        return true;
+      }
+    });
+
+    StringWriter a = new StringWriter();
+    StringWriter b = new StringWriter();
+    new MultiSinkPrinter(newTree)
+        .addTemplateOutput("a", a)
+        .addTemplateOutput("b", b)
+        .print();
+
+    for (String chunk : new String[] {"a", "b"}) {
+      TemplateCompactPrinter<Object> templatePrinter =
+          new TemplateCompactPrinter<Object>(newTree, chunk);
+      templatePrinter.runPass();
+      assertEquals(templatePrinter.getCompactPrintedString(),
+          (chunk.equals("a") ? a : b).toString());
+    }
+    assertTrue(b.toString().contains("blue"));
+  }
+
+  public void testFailingOutputStopsPrinting() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+    Writer failing = new Writer() {
+      @Override
+      public void write(char[] chars, int offset, int length)
+          throws IOException {
+        throw new IOException("disk full");
+      }
+
+      @Override
+      public void flush() {}
+
+      @Override
+      public void close() {}
+    };
+    StringWriter compact = new StringWriter();
+    try {
+      new MultiSinkPrinter(newTree)
+          .addOutput(MultiSinkPrinter.Format.COMPRESSED, compact)
+          .addOutput(MultiSinkPrinter.Format.PRETTY_PRINTED, failing)
+          .print();
+      fail("IOException expected");
+    } catch (IOException e) {
+      assertEquals("disk full", e.getMessage());
+    }
+    assertTrue(compact.toString().length()
+        < 2 * StreamingOutput.FLUSH_THRESHOLD);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.DefaultTreeVisitor;
+import com.google.common.css.compiler.ast.FunctionalTestBase;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link OutputSize}.
+ */
+public class OutputSizeTest extends FunctionalTestBase {
+
+  public void testMeasureMatchesPrintedOutput() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+    CompactPrinter printer = new CompactPrinter(newTree);
+    printer.runPass();
+    String expected = printer.getCompactPrintedString();
+
+    OutputSize size = printer.measure();
+    assertEquals(expected.length(), size.getChars());
+    assertEquals(expected.getBytes(Charsets.UTF_8).length,
+        size.getUtf8Bytes());
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect((int) size.getUtf8Bytes());
+    assertEquals(expected.length(), printer.printTo(buffer));
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    assertEquals(expected, new String(bytes, Charsets.UTF_8));
+  }
+
+  public void testPrintToSmallBufferOverflows() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+    CompactPrinter printer = new CompactPrinter(newTree);
+    OutputSize size = printer.measure();
+    try {
+      printer.printTo(ByteBuffer.allocate((int) size.getUtf8Bytes() - 1));
+      fail("BufferOverflowException expected");
+    } catch (BufferOverflowException expected) {
+      // OK
+    }
+  }
+
+  public void testCounterMatchesEncoder() throws Exception {
+    String text = "a\u00e9\u4e2d\ud83d\ude00 \ud83d \ude00\ud83d";
+    OutputSize.Counter counter = new OutputSize.Counter();
+    counter.write(text.substring(0, 4));
+    counter.write(text.substring(4));
+    assertEquals(new OutputSize(text.length(),
+        text.getBytes(Charsets.UTF_8).length), counter.getSize());
+  }
+
+  public void testOfChunks() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+    newTree.getVisitController().startVisit(new DefaultTreeVisitor() {
+      private int selectors = 0;
+
+      @Override
+      public boolean enterSelector(CssSelectorNode selector) {
+        selector.setChunk(selectors++ % 3 == 0 ? "odd" : "even");
+        return true;
+      }
+    });
+
+    Map<String, OutputSize> sizes =
+        OutputSize.ofChunks(newTree, ImmutableList.of("odd", "even"));
+    assertEquals(ImmutableList.of("odd", "even"),
+        ImmutableList.copyOf(sizes.keySet()));
+    for (String chunk : sizes.keySet()) {
+      ChunkCompactPrinter<String> printer =
+          new ChunkCompactPrinter<String>(newTree, chunk);
+      printer.runPass();
+      String expected = printer.getCompactPrintedString();
+      assertEquals(new OutputSize(expected.length(),
+          expected.getBytes(Charsets.UTF_8).length), sizes.get(chunk));
+    }
+  }
+}
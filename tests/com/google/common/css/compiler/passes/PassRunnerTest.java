@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.css.CompilerTracer;
+import com.google.common.css.JobDescription;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link PassRunner}.
+ *
+ */
+public class PassRunnerTest extends TestCase {
+
+  /** A tracer that remembers every span it was asked to start and end. */
+  private static class RecordingTracer extends CompilerTracer {
+    final List<String> started = Lists.newArrayList();
+    final List<Long> nodesVisited = Lists.newArrayList();
+
+    @Override
+    public Span startSpan(Phase phase, String name, String fileName) {
+      started.add(phase + ":" + name + (fileName != null ? ":" + fileName : ""));
+      return new Span() {
+        @Override
+        public void end(long nodes, long bytes) {
+          nodesVisited.add(nodes);
+        }
+      };
+    }
+  }
+
+  public void testTracerSeesParsingAndEveryPass() throws Exception {
+    RecordingTracer tracer = new RecordingTracer();
+    List<SourceCode> inputs = ImmutableList.of(
+        new SourceCode("a.gss", "@def COLOR red; .a { color: COLOR; }"),
+        new SourceCode("b.gss", ".b { color: blue; }"));
+
+    CssTree tree = new GssParser(inputs, tracer).parse();
+    JobDescription job = new JobDescriptionBuilder()
+        .simplifyCss().eliminateDeadStyles().getJobDescription();
+    PassRunner passRunner = new PassRunner(job, new DummyErrorManager());
+    passRunner.setTracer(tracer);
+    passRunner.runPasses(tree);
+
+    assertEquals("PARSE:GssParser:a.gss", tracer.started.get(0));
+    assertEquals("PARSE:GssParser:b.gss", tracer.started.get(1));
+    assertTrue(tracer.started.contains("PASS:CreateStandardAtRuleNodes"));
+    assertTrue(tracer.started.contains("PASS:ReplaceConstantReferences"));
+    assertTrue(
+        tracer.started.contains("PASS:EliminateOverriddenDeclarations"));
+    assertEquals(tracer.started.size(), tracer.nodesVisited.size());
+    // Every pass after parsing walks at least the root of the tree.
+    for (long nodes : tracer.nodesVisited.subList(2,
+        tracer.nodesVisited.size())) {
+      assertTrue(nodes > 0);
+    }
+  }
+
+  public void testNoTracerByDefault() throws Exception {
+    assertFalse(CompilerTracer.NONE.isEnabled());
+    CssTree tree = new GssParser(new SourceCode("a.gss", ".a { color: red; }"))
+        .parse();
+    new PassRunner(new JobDescriptionBuilder().getJobDescription(),
+        new DummyErrorManager()).runPasses(tree);
+  }
+}
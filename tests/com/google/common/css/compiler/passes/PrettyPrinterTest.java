@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.css.compiler.ast.FunctionalTestBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+/**
+ * Unit tests for the streaming output of {@link PrettyPrinter}.
+ */
+public class PrettyPrinterTest extends FunctionalTestBase {
+
+  public void testPrintToStreamsLargeOutput() throws Exception {
+    buildTreeWithNewParser(CompactPrinterTest.largeStyleSheet());
+    runPassesOnNewTree();
+    PrettyPrinter printer = new PrettyPrinter(newTree.getVisitController());
+    printer.runPass();
+    String expected = printer.getPrettyPrintedString();
+    assertTrue(expected.length() > 4 * StreamingOutput.FLUSH_THRESHOLD);
+
+    StringWriter writer = new StringWriter();
+    assertEquals(expected.length(), printer.printTo(writer));
+    assertEquals(expected, writer.toString());
+    assertNull(printer.getPrettyPrintedString());
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    printer.printTo(stream);
+    assertEquals(expected, new String(stream.toByteArray(), Charsets.UTF_8));
+  }
+}
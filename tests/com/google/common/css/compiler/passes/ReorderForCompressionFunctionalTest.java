@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.css.compiler.ast.FunctionalTestBase;
+
+/**
+ * Functional tests for {@link ReorderForCompression}.
+ */
+public class ReorderForCompressionFunctionalTest extends FunctionalTestBase {
+
+  private ReorderForCompression pass;
+
+  public void testDeclarationsAreSortedByFamily() {
+    testTreeConstruction(
+        linesToString(
+            ".a { margin: 0; color: red; margin-left: 1px; -moz-margin-end: 0;",
+            "  padding: 0;}"),
+        "[[.a]{[color:[red], margin:[0], margin-left:[1px], "
+        + "-moz-margin-end:[0], padding:[0]]}]");
+  }
+
+  public void testOverlappingPropertiesKeepTheirOrder() {
+    testTreeConstruction(
+        linesToString(
+            ".a { line-height: 2; color: red; font-size: 12px;",
+            "  left: 0; inset: 1px; top: 0;}"),
+        "[[.a]{[color:[red], line-height:[2], font-size:[12px], "
+        + "left:[0], inset:[1px], top:[0]]}]");
+  }
+
+  public void testRulesetsWithSameDeclarationsAreGrouped() {
+    testTreeConstruction(
+        linesToString(
+            ".a { padding: 0;}",
+            ".b { color: red;}",
+            ".c { padding: 0;}"),
+        "[[.a]{[padding:[0]]}, [.c]{[padding:[0]]}, [.b]{[color:[red]]}]");
+  }
+
+  public void testRulesetsWithSamePropertiesAreGrouped() {
+    testTreeConstruction(
+        linesToString(
+            ".a { padding: 0;}",
+            ".b { color: red;}",
+            ".c { padding: 1px;}",
+            ".d { color: blue;}"),
+        "[[.a]{[padding:[0]]}, [.c]{[padding:[1px]]}, "
+        + "[.b]{[color:[red]]}, [.d]{[color:[blue]]}]");
+  }
+
+  public void testConflictingRulesetInBetweenPreventsGrouping() {
+    testTreeConstruction(
+        linesToString(
+            ".a { color: red;}",
+            ".b { margin: 0; color: blue;}",
+            ".c { color: red;}"),
+        "[[.a]{[color:[red]]}, [.b]{[color:[blue], margin:[0]]}, "
+        + "[.c]{[color:[red]]}]");
+  }
+
+  public void testShorthandInBetweenPreventsGrouping() {
+    testTreeConstruction(
+        linesToString(
+            ".a { margin-left: 0;}",
+            ".b { margin: 1px;}",
+            ".c { margin-left: 0;}"),
+        "[[.a]{[margin-left:[0]]}, [.b]{[margin:[1px]]}, "
+        + "[.c]{[margin-left:[0]]}]");
+  }
+
+  public void testAllPropertyIsBarrier() {
+    testTreeConstruction(
+        linesToString(
+            ".a { padding: 0;}",
+            ".b { color: red; all: initial;}",
+            ".c { padding: 0;}"),
+        "[[.a]{[padding:[0]]}, [.b]{[color:[red], all:[initial]]}, "
+        + "[.c]{[padding:[0]]}]");
+  }
+
+  public void testRulesetWithDisplayIsBarrier() {
+    testTreeConstruction(
+        linesToString(
+            ".a { padding: 0;}",
+            ".b { display: block; color: red;}",
+            ".c { padding: 0;}"),
+        "[[.a]{[padding:[0]]}, [.b]{[display:[block], color:[red]]}, "
+        + "[.c]{[padding:[0]]}]");
+  }
+
+  public void testMediaRuleIsBarrierAndReorderedInside() {
+    testTreeConstruction(
+        linesToString(
+            ".a { padding: 0;}",
+            "@media print {",
+            "  .b { top: 0;}",
+            "  .c { color: red;}",
+            "  .d { top: 0;}",
+            "}",
+            ".e { padding: 0;}"),
+        "[[.a]{[padding:[0]]}, "
+        + "@media[print]{[[.b]{[top:[0]]}, [.d]{[top:[0]]}, "
+        + "[.c]{[color:[red]]}]}, "
+        + "[.e]{[padding:[0]]}]");
+  }
+
+  public void testDeflatedSizeIsMeasured() {
+    testTreeConstruction(
+        linesToString(
+            ".a { padding: 0;}",
+            ".b { color: red;}",
+            ".c { padding: 0;}"),
+        "[[.a]{[padding:[0]]}, [.c]{[padding:[0]]}, [.b]{[color:[red]]}]");
+    assertEquals(
+        ReorderForCompression.deflatedSize(
+            ".a{padding:0}.b{color:red}.c{padding:0}"),
+        pass.getDeflatedSizeBefore());
+    assertEquals(
+        ReorderForCompression.deflatedSize(
+            ".a{padding:0}.c{padding:0}.b{color:red}"),
+        pass.getDeflatedSizeAfter());
+  }
+
+  public void testDeflatedSize() {
+    assertTrue(ReorderForCompression.deflatedSize("") > 0);
+    StringBuilder repeated = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      repeated.append(".a{padding:0}");
+    }
+    assertTrue(ReorderForCompression.deflatedSize(repeated.toString()) < 100);
+  }
+
+  @Override
+  protected void runPass() {
+    pass = new ReorderForCompression(tree, true /* skipping */,
+        true /* measure */);
+    pass.runPass();
+  }
+}
@@ -24,6 +24,7 @@ import com.google.common.css.compiler.passes.testing.PassesTestBase;
  * @author oana@google.com (Oana Florescu)
  */
 public class ReplaceConstantReferencesFunctionalTest extends PassesTestBase {
+  private boolean allowUndefinedConstants = true;
 
   public void testReplaceConstants1() {
     testTreeConstruction(linesToString(
@@ -180,6 +181,51 @@ public class ReplaceConstantReferencesFunctionalTest extends PassesTestBase {
       "[@media [screen] [and] [(min-resolution:96dpi)]{[.A]{[color:[[red]];]}}]");
   }
 
+  public void testLongDefinitionChain() throws Exception {
+    StringBuilder gss = new StringBuilder("@def C0 red;\n");
+    for (int i = 1; i < 5000; i++) {
+      gss.append("@def C").append(i).append(" C").append(i - 1).append(";\n");
+    }
+    gss.append(".A { color: C4999; background: f(C4999); }");
+    testTreeConstruction(gss.toString(),
+        "[[.A]{[color:[[red]];background:[f(red)];]}]");
+  }
+
+  public void testChainInFunctionArguments() {
+    testTreeConstruction(linesToString(
+        "@def A 1px 2px;",
+        "@def B A 3px;",
+        ".A {",
+        "  margin: B;",
+        "  padding: f(B);",
+        "}"),
+        "[[.A]{[margin:[[1px][2px][3px]];padding:[f(1px 2px 3px)];]}]");
+  }
+
+  public void testCycleIsReported() throws Exception {
+    parseAndRun(linesToString(
+        "@def A B;",
+        "@def B C;",
+        "@def C A;",
+        "@def D A;",
+        ".A {",
+        "  color: D;",
+        "}"),
+        "Cycle in GSS constant definitions: A -> B -> C -> A");
+  }
+
+  public void testUndefinedConstantInChainIsReported() throws Exception {
+    allowUndefinedConstants = false;
+    parseAndRun(linesToString(
+        "@def A UNDEFINED;",
+        "@def B A;",
+        ".A {",
+        "  color: B;",
+        "  background: B;",
+        "}"),
+        "GSS constant not defined: UNDEFINED");
+  }
+
   @Override
   protected void runPass() {
     new CreateDefinitionNodes(tree.getMutatingVisitController(), errorManager).runPass();
@@ -190,6 +236,6 @@ public class ReplaceConstantReferencesFunctionalTest extends PassesTestBase {
     defPass.runPass();
     new ReplaceConstantReferences(tree, defPass.getConstantDefinitions(),
         true /* removeDefs */, errorManager,
-        true /* allowUndefinedConstants */).runPass();
+        allowUndefinedConstants).runPass();
   }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssDeclarationNode;
+import com.google.common.css.compiler.ast.CssNode;
+import com.google.common.css.compiler.ast.CssRulesetNode;
+import com.google.common.css.compiler.ast.CssSelectorNode;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.common.css.compiler.ast.GssParserException;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link SelectorPropertyTable}.
+ */
+public class SelectorPropertyTableTest extends TestCase {
+
+  private final SelectorPropertyTable<String> table =
+      new SelectorPropertyTable<String>();
+
+  public void testSelectorKeysFollowPrintedSelectors() throws Exception {
+    List<CssSelectorNode> selectors = parseRuleset(
+        "a, a, .b, .b, a.b, .b a, a .b, a > .b, a + .b, a ~ .b, a>.b, "
+        + "#c, .c, .b:hover, .b::before, .b:before, "
+        + ":nth-child(2n + 1), :nth-child(2n+1), :nth-child(2n), "
+        + ":lang(en), :lang(fr), :not(.x), :not(.x), :not(.y), "
+        + "[x=y], [x=y], [x~=y], [x=z], [w=y], * {}")
+        .getSelectors().getChildren();
+    for (CssSelectorNode a : selectors) {
+      for (CssSelectorNode b : selectors) {
+        assertEquals(
+            PassUtil.printSelector(a) + " vs " + PassUtil.printSelector(b),
+            PassUtil.printSelector(a).equals(PassUtil.printSelector(b)),
+            table.selectorKey(a) == table.selectorKey(b));
+      }
+    }
+  }
+
+  public void testPropertyKeys() throws Exception {
+    List<CssNode> declarations = parseRuleset(
+        "a { color: red; color: blue; *color: red; background: red; "
+        + "-x-foo: 1; -x-foo: 2; -x-bar: 1; }")
+        .getDeclarations().getChildren();
+    int color = table.propertyKey((CssDeclarationNode) declarations.get(0));
+    assertEquals(color,
+        table.propertyKey((CssDeclarationNode) declarations.get(1)));
+    int starColor =
+        table.propertyKey((CssDeclarationNode) declarations.get(2));
+    assertFalse(color == starColor);
+    int background =
+        table.propertyKey((CssDeclarationNode) declarations.get(3));
+    assertFalse(color == background);
+    assertEquals(background, table.shorthandKey("background"));
+    int foo = table.propertyKey((CssDeclarationNode) declarations.get(4));
+    assertEquals(foo,
+        table.propertyKey((CssDeclarationNode) declarations.get(5)));
+    int bar = table.propertyKey((CssDeclarationNode) declarations.get(6));
+    assertFalse(foo == bar);
+    assertFalse(foo == color);
+    assertFalse(foo == starColor);
+  }
+
+  public void testPutGetAndClear() {
+    assertNull(table.get(0, 0));
+    table.put(0, 0, "a");
+    table.put(0, 1, "b");
+    table.put(1, 0, "c");
+    assertEquals("a", table.get(0, 0));
+    assertEquals("b", table.get(0, 1));
+    assertEquals("c", table.get(1, 0));
+    assertNull(table.get(1, 1));
+    table.put(0, 0, "d");
+    assertEquals("d", table.get(0, 0));
+
+    table.clear();
+    assertNull(table.get(0, 0));
+    assertNull(table.get(0, 1));
+    assertNull(table.get(1, 0));
+    table.put(1, 0, "e");
+    assertEquals("e", table.get(1, 0));
+    assertNull(table.get(0, 0));
+  }
+
+  public void testGrowth() throws Exception {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      source.append(".c").append(i).append(", ");
+    }
+    source.append(".c0 {}");
+    List<CssSelectorNode> selectors =
+        parseRuleset(source.toString()).getSelectors().getChildren();
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, table.selectorKey(selectors.get(i)));
+      for (int p = 0; p < 3; p++) {
+        table.put(i, p, i + "/" + p);
+      }
+    }
+    assertEquals(0, table.selectorKey(selectors.get(1000)));
+    for (int i = 0; i < 1000; i++) {
+      for (int p = 0; p < 3; p++) {
+        assertEquals(i + "/" + p, table.get(i, p));
+      }
+      assertNull(table.get(i, 3));
+    }
+  }
+
+  private CssRulesetNode parseRuleset(String source)
+      throws GssParserException {
+    return (CssRulesetNode) new GssParser(new SourceCode(null, source))
+        .parse().getRoot().getBody().getChildAt(0);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.common.css.testing.SyntheticStylesheetGenerator;
+
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link SizeAttribution}.
+ *
+ */
+public class SizeAttributionTest extends TestCase {
+
+  private static final String FIRST =
+      "@def BRAND_COLOR #123456;\n"
+      + "@defmixin box(W, H) {\n"
+      + "  width: W;\n"
+      + "  height: H;\n"
+      + "  border: 1px solid BRAND_COLOR;\n"
+      + "}\n"
+      + ".a { @mixin box(10px, 20px); color: BRAND_COLOR; }\n"
+      + ".b { @mixin box(30px, 40px); }\n"
+      + "@media print { .c { color: red; } }\n";
+
+  private static final String SECOND =
+      ".d { margin: 0 auto; background: BRAND_COLOR url(x.png); }\n";
+
+  private String output;
+  private SizeAttribution attribution;
+
+  private void compile(List<SourceCode> inputs) throws Exception {
+    CssTree tree = new GssParser(inputs).parse();
+    PassRunner passRunner = new PassRunner(
+        new JobDescriptionBuilder().getJobDescription(),
+        new DummyErrorManager());
+    passRunner.runPasses(tree);
+    CompactPrinter printer = new CompactPrinter(tree);
+    printer.runPass();
+    output = printer.getCompactPrintedString();
+    attribution = SizeAttribution.compute(tree,
+        passRunner.getMixinDefinitions(), passRunner.getConstantDefinitions());
+  }
+
+  private void compile() throws Exception {
+    compile(ImmutableList.of(
+        new SourceCode("first.gss", FIRST),
+        new SourceCode("second.gss", SECOND)));
+  }
+
+  private static Map<String, Long> bytes(List<SizeAttribution.Entry> entries) {
+    Map<String, Long> bytes = Maps.newLinkedHashMap();
+    for (SizeAttribution.Entry entry : entries) {
+      bytes.put(entry.getName(), entry.getBytes());
+    }
+    return bytes;
+  }
+
+  private static long sum(List<SizeAttribution.Entry> entries) {
+    long sum = 0;
+    for (SizeAttribution.Entry entry : entries) {
+      sum += entry.getBytes();
+    }
+    return sum;
+  }
+
+  public void testTotalMatchesOutput() throws Exception {
+    compile();
+    assertEquals(output.getBytes(Charsets.UTF_8).length,
+        attribution.getTotal().getBytes());
+    assertEquals(attribution.getTotal().getBytes(),
+        sum(attribution.getByFile()));
+    assertEquals(attribution.getTotal().getBytes(),
+        sum(attribution.getByTopLevelNode()));
+  }
+
+  public void testByFile() throws Exception {
+    compile();
+    String second = output.substring(output.indexOf(".d{"));
+    Map<String, Long> byFile = bytes(attribution.getByFile());
+    assertEquals(ImmutableList.of("first.gss", "second.gss"),
+        ImmutableList.copyOf(byFile.keySet()));
+    assertEquals(second.length(), byFile.get("second.gss").longValue());
+    assertEquals(output.length() - second.length(),
+        byFile.get("first.gss").longValue());
+  }
+
+  public void testByTopLevelNode() throws Exception {
+    compile();
+    Map<String, Long> byNode = bytes(attribution.getByTopLevelNode());
+    assertEquals(
+        ".b{width:30px;height:40px;border:1px solid #123456}".length(),
+        byNode.get(".b (first.gss:8)").longValue());
+    assertEquals("@media print{.c{color:red}}".length(),
+        byNode.get("@media print (first.gss:9)").longValue());
+  }
+
+  public void testByMixin() throws Exception {
+    compile();
+    Map<String, Long> byMixin = bytes(attribution.getByMixin());
+    assertEquals(ImmutableList.of("box"),
+        ImmutableList.copyOf(byMixin.keySet()));
+    // The declarations of both expansions, with their separators.
+    long expansions = "width:10px;height:20px;border:1px solid #123456;"
+        .length() + "width:30px;height:40px;border:1px solid #123456;"
+        .length();
+    assertEquals(expansions, byMixin.get("box").longValue());
+  }
+
+  public void testByConstant() throws Exception {
+    compile();
+    Map<String, Long> byConstant = bytes(attribution.getByConstant());
+    assertEquals(ImmutableList.of("BRAND_COLOR"),
+        ImmutableList.copyOf(byConstant.keySet()));
+    assertEquals(4 * "#123456".length(),
+        byConstant.get("BRAND_COLOR").longValue());
+  }
+
+  public void testGeneratedStylesheet() throws Exception {
+    compile(new SyntheticStylesheetGenerator()
+        .setSeed(49).setRules(300).setChunks(3).generate());
+    assertEquals(output.getBytes(Charsets.UTF_8).length,
+        attribution.getTotal().getBytes());
+    assertEquals(attribution.getTotal().getBytes(),
+        sum(attribution.getByFile()));
+    assertEquals(3, attribution.getByFile().size());
+    assertFalse(attribution.getByMixin().isEmpty());
+    assertFalse(attribution.getByConstant().isEmpty());
+
+    long gzipBytes = attribution.getTotal().getGzipBytes();
+    assertTrue(gzipBytes > 0);
+    assertTrue(gzipBytes < attribution.getTotal().getBytes() / 2);
+    // The estimate is shared among the rules within rounding.
+    long sum = 0;
+    for (SizeAttribution.Entry entry : attribution.getByTopLevelNode()) {
+      sum += entry.getGzipBytes();
+    }
+    assertTrue(Math.abs(gzipBytes - sum)
+        <= attribution.getByTopLevelNode().size());
+  }
+
+  public void testWriteReport() throws Exception {
+    compile();
+    StringWriter report = new StringWriter();
+    attribution.writeReport(report);
+    String json = report.toString();
+    assertTrue(json,
+        json.startsWith("{\n  \"total\": {\n    \"name\": \"total\""));
+    assertTrue(json, json.contains("\"files\": ["));
+    assertTrue(json, json.contains("\"topLevelRules\": ["));
+    assertTrue(json, json.contains("\"name\": \"box\""));
+    assertTrue(json, json.contains("\"name\": \"BRAND_COLOR\""));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+
+/**
+ * Unit tests for {@link SplitMediaRules}.
+ *
+ */
+public class SplitMediaRulesTest extends TestCase {
+
+  private CssTree tree;
+  private SplitMediaRules pass;
+
+  private void split(String css) throws Exception {
+    tree = new GssParser(new SourceCode("test.gss", css)).parse();
+    new PassRunner(new JobDescriptionBuilder().getJobDescription(),
+        new DummyErrorManager()).runPasses(tree);
+    pass = new SplitMediaRules(tree);
+    pass.runPass();
+  }
+
+  private String printMain() {
+    ChunkCompactPrinter<String> printer =
+        new ChunkCompactPrinter<String>(tree, null);
+    printer.runPass();
+    return printer.getCompactPrintedString();
+  }
+
+  private String print(String mediaQuery) throws Exception {
+    StringWriter out = new StringWriter();
+    long printed = pass.printMediaQuery(mediaQuery, out);
+    assertEquals(out.toString().length(), printed);
+    return out.toString();
+  }
+
+  public void testSplitsAndMergesMediaRules() throws Exception {
+    split(".a{color:red}"
+        + "@media print{.a{color:black}.p{display:none}}"
+        + "@media screen and (min-width:800px){.w{width:50%}}"
+        + ".b{color:blue}"
+        + "@media print{.b{color:gray}}");
+    assertEquals(ImmutableList.of("print", "screen and (min-width:800px)"),
+        pass.getMediaQueries());
+    assertEquals(".a{color:red}.b{color:blue}", printMain());
+    assertEquals(".a{color:black}.p{display:none}.b{color:gray}",
+        print("print"));
+    assertEquals(".w{width:50%}", print("screen and (min-width:800px)"));
+  }
+
+  public void testKeepsMediaRulesForAll() throws Exception {
+    split(".a{color:red}@media all{.b{margin:0}}");
+    assertEquals(ImmutableList.of(), pass.getMediaQueries());
+    assertEquals(".a{color:red}@media all{.b{margin:0}}", printMain());
+  }
+
+  public void testSplitsPageRulesInMediaRules() throws Exception {
+    split("@page{margin:0}"
+        + "@font-face{font-family:'A'}"
+        + "@media print{@page :first{margin:1in}.a{color:black}}");
+    assertEquals("@page{margin:0}@font-face{font-family:'A'}", printMain());
+    assertEquals("@page :first{margin:1in}.a{color:black}", print("print"));
+  }
+
+  public void testUnknownMediaQuery() throws Exception {
+    split("@media print{.a{color:black}}");
+    try {
+      print("screen");
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException expected) {
+      // OK
+    }
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.google.common.css.compiler.passes;
 
+import java.io.IOException;
+import java.io.StringWriter;
 
 /**
  * Unit tests for {@link TemplateCompactPrinter}.
@@ -30,6 +32,8 @@ public class TemplateCompactPrinterTest extends ChunkCompactPrinterTest {
     char rE = TemplateCompactPrinter.RULE_END;
     char dS = TemplateCompactPrinter.DECLARATION_START;
     char dE = TemplateCompactPrinter.DECLARATION_END;
+    char gS = TemplateCompactPrinter.RULE_GROUP_START;
+    char gE = TemplateCompactPrinter.RULE_GROUP_END;
 
     setupTestTree();
 
@@ -39,15 +43,15 @@ public class TemplateCompactPrinterTest extends ChunkCompactPrinterTest {
         + rS + "a#a{}" + rE
         + rS + "a#a b{}" + rE
         + rS + "b+i{}" + rE
-        + "@media print{" + rS + "foo{}" + rE + "}"
-        + "@font-face" + rS + "{" + dS
+        + gS + "@media print{" + rS + "foo{}" + rE + "}" + gE
+        + rS + "@font-face{" + dS
         + "font-family:'Roboto'" + dE + "}" + rE);
     assertTemplateOutput("bar",
         rS + ".bar{}" + rE
         + rS + "b{}" + rE
         + rS + "b#b{}" + rE
         + rS + "b>i+em{}" + rE
-        + "@keyframes my-animation{" + rS + "0%{}" + rE + "}");
+        + gS + "@keyframes my-animation{" + rS + "0%{}" + rE + "}" + gE);
     assertTemplateOutput("baz",
         rS + "hr,i{}" + rE
         + rS + "i{}" + rE
@@ -63,5 +67,13 @@ public class TemplateCompactPrinterTest extends ChunkCompactPrinterTest {
         new TemplateCompactPrinter<String>(newTree, chunk);
     printer.runPass();
     assertEquals(expected, printer.getCompactPrintedString());
+
+    StringWriter streamed = new StringWriter();
+    try {
+      printer.printTo(streamed);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    assertEquals(expected, streamed.toString());
   }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link TemplateStylesheetLinker}.
+ */
+public class TemplateStylesheetLinkerTest extends TestCase {
+
+  private static final char R = TemplateCompactPrinter.REFERENCE_START;
+  private static final char r = TemplateCompactPrinter.REFERENCE_END;
+  private static final char D = TemplateCompactPrinter.DECLARATION_START;
+  private static final char d = TemplateCompactPrinter.DECLARATION_END;
+  private static final char S = TemplateCompactPrinter.RULE_START;
+  private static final char s = TemplateCompactPrinter.RULE_END;
+  private static final char G = TemplateCompactPrinter.RULE_GROUP_START;
+  private static final char g = TemplateCompactPrinter.RULE_GROUP_END;
+
+  private static final String TEMPLATE =
+      "" + S + "a{" + D + "color:" + R + "FG" + r + ";" + d
+      + D + "margin:0" + d + "}" + s
+      + S + "b[href$=x]{" + D + "color:red;" + d
+      + D + "background:" + R + "BG" + r + d + "}" + s
+      + G + "@media print{" + S + "i{" + D + "color:" + R + "BG" + r + d
+      + "}" + s + "}" + g;
+
+  public void testConstantNames() {
+    TemplateStylesheetLinker linker = TemplateStylesheetLinker.parse(TEMPLATE);
+    assertEquals(ImmutableList.of("FG", "BG"), linker.getConstantNames());
+  }
+
+  public void testRenderAllConstants() {
+    assertRendered(
+        "a{color:blue;margin:0}b[href$=x]{color:red;background:green}"
+        + "@media print{i{color:green}}",
+        ImmutableMap.of("FG", "blue", "BG", "green"));
+  }
+
+  public void testDropsEmptyDeclarationsAndRuleGroups() {
+    assertRendered("a{color:blue;margin:0}b[href$=x]{color:red}",
+        ImmutableMap.of("FG", "blue", "BG", ""));
+  }
+
+  public void testDropsEmptyRules() {
+    String template = "" + S + "a{" + D + "color:" + R + "FG" + r + d + "}"
+        + s + S + "b{}" + s + "@import 'x.css';";
+    TemplateStylesheetLinker linker = TemplateStylesheetLinker.parse(template);
+    assertEquals("@import 'x.css';",
+        toString(linker.render(ImmutableMap.<String, String>of())));
+    assertEquals("a{color:red}@import 'x.css';",
+        toString(linker.render(ImmutableMap.of("FG", "red"))));
+  }
+
+  public void testRenderIntoBufferAtPosition() {
+    TemplateStylesheetLinker linker = TemplateStylesheetLinker.parse(TEMPLATE);
+    byte[][] values = linker.encode(ImmutableMap.of("FG", "é"));
+    ByteBuffer out = ByteBuffer.allocate(linker.maxRenderedSize(values) + 3);
+    out.put("/**".getBytes(Charsets.UTF_8));
+    linker.render(values, out);
+    out.flip();
+    assertEquals("/**a{color:é;margin:0}b[href$=x]{color:red}",
+        toString(out));
+  }
+
+  public void testUnbalancedTemplate() {
+    try {
+      TemplateStylesheetLinker.parse(S + "a{" + D + "color:red}" + s);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException expected) {
+      // OK
+    }
+  }
+
+  private void assertRendered(String expected, Map<String, String> constants) {
+    TemplateStylesheetLinker linker = TemplateStylesheetLinker.parse(TEMPLATE);
+    assertEquals(expected, toString(linker.render(constants)));
+  }
+
+  private static String toString(ByteBuffer buffer) {
+    return new String(buffer.array(), buffer.position(), buffer.remaining(),
+        Charsets.UTF_8);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.compiler.passes;
+
+import com.google.common.base.Predicates;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.MinimalSubstitutionMap;
+import com.google.common.css.RecordingSubstitutionMap;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.common.css.compiler.passes.TreeHeapEstimator.Estimate;
+import com.google.common.css.testing.SyntheticStylesheetGenerator;
+
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link TreeHeapEstimator} and {@link HeapProfiler}.
+ *
+ */
+public class TreeHeapEstimatorTest extends TestCase {
+
+  public void testCategories() throws Exception {
+    String gss = ".a { color: red; } .b, .c { width: 10px; }";
+    CssTree tree = new GssParser(new SourceCode("test.gss", gss)).parse();
+    RecordingSubstitutionMap map =
+        new RecordingSubstitutionMap(new MinimalSubstitutionMap(),
+            Predicates.<String>alwaysTrue());
+    map.get("foo");
+
+    Map<String, Estimate> estimates =
+        new TreeHeapEstimator(1).estimate(tree, map);
+
+    assertEquals(2, estimates.get("CssRulesetNode").getCount());
+    assertEquals(3, estimates.get("CssSelectorNode").getCount());
+    // The source code holds the whole input.
+    assertTrue(estimates.get(TreeHeapEstimator.SOURCE_CODE).getBytes()
+        > 2 * gss.length());
+    assertTrue(estimates.get(TreeHeapEstimator.SOURCE_CODE_LOCATIONS)
+        .getCount() > 0);
+    assertTrue(estimates.get(TreeHeapEstimator.SUBSTITUTION_MAP).getBytes()
+        > 0);
+    for (Estimate estimate : estimates.values()) {
+      assertTrue(estimate.getBytes() > 0);
+    }
+  }
+
+  public void testSampling() throws Exception {
+    List<SourceCode> inputs =
+        new SyntheticStylesheetGenerator().setRules(2000).generate();
+    CssTree tree = new GssParser(inputs).parse();
+
+    Map<String, Estimate> full = new TreeHeapEstimator(1).estimate(tree, null);
+    Map<String, Estimate> sampled =
+        new TreeHeapEstimator(10).estimate(tree, null);
+
+    assertClose(full.get("CssRulesetNode").getCount(),
+        sampled.get("CssRulesetNode").getCount());
+    assertClose(full.get("CssDeclarationNode").getBytes(),
+        sampled.get("CssDeclarationNode").getBytes());
+    // The source code is shared, so it is never scaled.
+    assertEquals(full.get(TreeHeapEstimator.SOURCE_CODE).getBytes(),
+        sampled.get(TreeHeapEstimator.SOURCE_CODE).getBytes());
+  }
+
+  public void testHeapProfilerReportsEveryPass() throws Exception {
+    CssTree tree = new GssParser(new SourceCode("test.gss",
+        "@def C red; .a { color: C; } .b { color: C; }")).parse();
+    HeapProfiler profiler = new HeapProfiler(1);
+    PassRunner passRunner = new PassRunner(new JobDescriptionBuilder()
+        .simplifyCss().eliminateDeadStyles().getJobDescription(),
+        new DummyErrorManager());
+    passRunner.setHeapProfiler(profiler);
+    passRunner.runPasses(tree);
+
+    List<HeapProfiler.PhaseProfile> profiles = profiler.getProfiles();
+    assertEquals("CreateStandardAtRuleNodes", profiles.get(0).getName());
+    for (HeapProfiler.PhaseProfile profile : profiles) {
+      assertTrue(profile.getPeakHeap() > 0);
+      assertTrue(profile.getEstimatedTotal() > 0);
+    }
+    StringWriter report = new StringWriter();
+    profiler.writeReport(report);
+    assertTrue(
+        report.toString().contains("\nEliminateOverriddenDeclarations "));
+    assertTrue(
+        report.toString().contains("After EliminateOverriddenDeclarations:"));
+  }
+
+  public void testSubclassOfJdkMap() throws Exception {
+    CssTree tree = new GssParser(new SourceCode("test.gss", ".a{}")).parse();
+    NamedMap map = new NamedMap();
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      value.append("renamed-class-");
+      map.put("class-" + i, value.toString());
+    }
+
+    Map<String, Estimate> estimates =
+        new TreeHeapEstimator(1).estimate(tree, map);
+
+    // The entries are reached through the map even though the fields of
+    // HashMap are not walked. The values average half the final length, at
+    // two bytes per character.
+    assertTrue(estimates.get(TreeHeapEstimator.SUBSTITUTION_MAP).getBytes()
+        > 100 * value.length());
+  }
+
+  /** A map whose class is not in the JDK but extends a JDK class. */
+  private static class NamedMap extends HashMap<String, String> {
+    @SuppressWarnings("unused")
+    private final String name = "named";
+  }
+
+  private static void assertClose(long expected, long actual) {
+    assertTrue(expected + " vs " + actual,
+        Math.abs(expected - actual) <= expected / 5);
+  }
+}
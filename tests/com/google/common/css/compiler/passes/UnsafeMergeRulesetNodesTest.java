@@ -21,10 +21,15 @@ import static com.google.common.css.compiler.passes.UnsafeMergeRulesetNodes.TO_S
 import static com.google.common.css.compiler.passes.UnsafeMergeRulesetNodes.TO_STRING_ITERABLE_COMPARATOR;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.css.SourceCode;
 import com.google.common.css.compiler.ast.*;
 
 import junit.framework.TestCase;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Unit tests for {@link UnsafeMergeRulesetNodes}.
  *
@@ -100,6 +105,81 @@ public class UnsafeMergeRulesetNodesTest extends TestCase {
 
   }
 
+  /**
+   * Tests that {@link UnsafeMergeRulesetNodes#DECLARATION_COMPARATOR} is a
+   * total order on the border family, whose names share a prefix without all
+   * being longhands of {@code border}.
+   */
+  public void testDeclarationComparatorOnBorderFamily() {
+    List<CssDeclarationNode> declarations = ImmutableList.of(
+        declaration("border-top-color", "red"),
+        declaration("border-spacing", "0"),
+        declaration("border-color", "red"),
+        declaration("border", "0"),
+        declaration("border-radius", "2px"),
+        declaration("border-top", "0"));
+    for (CssDeclarationNode a : declarations) {
+      for (CssDeclarationNode b : declarations) {
+        assertEquals(Integer.signum(DECLARATION_COMPARATOR.compare(a, b)),
+            -Integer.signum(DECLARATION_COMPARATOR.compare(b, a)));
+        for (CssDeclarationNode c : declarations) {
+          if (DECLARATION_COMPARATOR.compare(a, b) < 0
+              && DECLARATION_COMPARATOR.compare(b, c) < 0) {
+            testSmaller(DECLARATION_COMPARATOR.compare(a, c));
+          }
+        }
+      }
+    }
+    List<CssDeclarationNode> sorted = Lists.newArrayList(declarations);
+    Collections.sort(sorted, DECLARATION_COMPARATOR);
+    assertEquals(
+        "[border:[0], border-color:[red], border-top:[0], "
+        + "border-top-color:[red], border-radius:[2px], border-spacing:[0]]",
+        sorted.toString());
+  }
+
+  /**
+   * Tests that {@code border-radius}, which lists itself among its
+   * shorthands, compares equal to a copy of itself.
+   */
+  public void testDeclarationComparatorOnDuplicateBorderRadius() {
+    CssDeclarationNode radius1 = declaration("border-radius", "1px");
+    CssDeclarationNode radius2 = declaration("border-radius", "2px");
+    testEquals(DECLARATION_COMPARATOR.compare(radius1, radius1));
+    testEquals(DECLARATION_COMPARATOR.compare(radius1, radius1.deepCopy()));
+    testSmaller(DECLARATION_COMPARATOR.compare(radius1, radius2));
+    testGreater(DECLARATION_COMPARATOR.compare(radius2, radius1));
+    testSmaller(DECLARATION_COMPARATOR.compare(
+        declaration("border", "0"), radius1));
+    testSmaller(DECLARATION_COMPARATOR.compare(
+        radius1, declaration("border-top-left-radius", "1px")));
+  }
+
+  /**
+   * Tests the order of the new rulesets when declarations are not grouped by
+   * partition: one ruleset per declaration in declaration order, followed by
+   * the groups of the order-dependent border partition in string order.
+   */
+  public void testRulesetOrderWithoutPartitions() throws Exception {
+    CssTree tree = new GssParser(new SourceCode("test",
+        "b {color: red; margin-left: 1px; border-left: red;}"
+        + "a {margin: 0; color: red; border: 0;}"
+        + "c {padding: 0;}")).parse();
+    new UnsafeMergeRulesetNodes(tree, false, true).runPass();
+    assertEquals(
+        "[[a, b]{[color:[red]]}, [a]{[margin:[0]]}, "
+        + "[b]{[margin-left:[1px]]}, [c]{[padding:[0]]}, "
+        + "[b]{[border-left:[red]]}, [a]{[border:[0]]}]",
+        tree.getRoot().getBody().toString());
+  }
+
+  private static CssDeclarationNode declaration(String property,
+      String value) {
+    return new CssDeclarationNode(new CssPropertyNode(property),
+        new CssPropertyValueNode(ImmutableList.<CssValueNode>of(
+            new CssLiteralNode(value))));
+  }
+
   private void testEquals(int i) {
     assertEquals(0, i);
   }
@@ -0,0 +1,549 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.testing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.css.SourceCode;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates large, realistic GSS stylesheets for scale testing. The output
+ * only depends on the options and the seed, so a scaling problem found with a
+ * generated stylesheet can be reproduced by anyone from the options alone.
+ *
+ * <p>The generated inputs are split in chunks, one {@link SourceCode} per
+ * chunk. The first chunk holds the shared {@code @def} constants and
+ * {@code @defmixin} definitions; every chunk {@code @provide}s its own name
+ * and {@code @require}s the chunks before it. Rulesets use a mix of
+ * selectors and declarations, constant references, mixin calls and GSS
+ * functions, and are interleaved with {@code @if} conditionals,
+ * {@code @media} rules and {@code @keyframes}.
+ *
+ * <p>The stylesheets compile without errors with the default GSS functions,
+ * keyframes allowed and unrecognized properties allowed. Conditions are named
+ * {@code COND_0} to {@code COND_n}; see {@link #getConditionNames()}.
+ *
+ */
+public class SyntheticStylesheetGenerator {
+
+  private static final String[] ELEMENTS = {
+    "a", "div", "span", "li", "ul", "td", "input", "button", "img", "p"
+  };
+
+  private static final String[] PSEUDO_CLASSES = {
+    ":hover", ":focus", ":active", ":first-child", ":visited"
+  };
+
+  private static final String[] COMBINATORS = { " ", " ", " > ", " + " };
+
+  private static final String[] COLORS = {
+    "#fff", "#000", "#336699", "#c0c0c0", "red", "transparent", "#f4f4f4",
+    "rgb(10, 20, 30)", "#e5e5e5", "navy"
+  };
+
+  private static final String[] HEX_COLORS = {
+    "#ff0000", "#00ff00", "#0000ff", "#336699", "#cccccc", "#fafafa"
+  };
+
+  private static final String[] LENGTH_PROPERTIES = {
+    "width", "height", "top", "left", "right", "bottom", "line-height",
+    "font-size", "min-width", "max-width"
+  };
+
+  private static final String[] BOX_PROPERTIES = {
+    "margin", "padding"
+  };
+
+  private static final String[] COLOR_PROPERTIES = {
+    "color", "background-color"
+  };
+
+  /**
+   * The properties set by mixins, one pair per nesting level, so that nested
+   * mixin calls never declare the same property twice. They are not used by
+   * the declarations of rulesets, for the same reason.
+   */
+  private static final String[][] MIXIN_PROPERTIES = {
+    { "border-width", "border-color" },
+    { "outline-width", "outline-color" },
+    { "text-indent", "border-top-color" },
+    { "letter-spacing", "border-bottom-color" },
+    { "word-spacing", "border-left-color" },
+    { "border-spacing", "border-right-color" },
+  };
+
+  private static final String[][] KEYWORD_PROPERTIES = {
+    { "display", "none", "block", "inline-block", "inline" },
+    { "float", "left", "right", "none" },
+    { "position", "relative", "absolute", "static" },
+    { "text-align", "left", "right", "center" },
+    { "cursor", "pointer", "default" },
+    { "overflow", "hidden", "auto", "visible" },
+    { "font-weight", "bold", "normal" },
+    { "white-space", "nowrap", "normal" },
+  };
+
+  private static final String[] VENDOR_PROPERTIES = {
+    "-webkit-border-radius", "-moz-border-radius", "-webkit-box-shadow",
+    "-ms-filter"
+  };
+
+  private long seed = 0;
+  private int rules = 1000;
+  private int chunks = 1;
+  private int constants = 100;
+  private int defChainDepth = 3;
+  private int mixins = 10;
+  private int mixinNestingDepth = 3;
+  private int conditions = 4;
+  private int maxSelectorsPerRuleset = 3;
+  private int maxSelectorDepth = 3;
+  private int maxDeclarationsPerRuleset = 8;
+  private double conditionalRatio = 0.02;
+  private double mediaRatio = 0.02;
+  private double keyframesRatio = 0.005;
+  private double mixinCallRatio = 0.1;
+  private double functionRatio = 0.1;
+  private double constantRatio = 0.3;
+
+  /** Sets the seed of the random generator. */
+  public SyntheticStylesheetGenerator setSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Sets the number of rulesets to generate, not counting the ones within
+   * conditionals, media rules and keyframes.
+   */
+  public SyntheticStylesheetGenerator setRules(int rules) {
+    Preconditions.checkArgument(rules >= 0);
+    this.rules = rules;
+    return this;
+  }
+
+  /** Sets the number of chunks, that is, of generated input files. */
+  public SyntheticStylesheetGenerator setChunks(int chunks) {
+    Preconditions.checkArgument(chunks >= 1);
+    this.chunks = chunks;
+    return this;
+  }
+
+  /**
+   * Sets the number of {@code @def} constants; there must be at least one of
+   * each kind: colors, sizes and boxes.
+   */
+  public SyntheticStylesheetGenerator setConstants(int constants) {
+    Preconditions.checkArgument(constants >= 3);
+    this.constants = constants;
+    return this;
+  }
+
+  /**
+   * Sets the maximum length of a chain of {@code @def}s that refer to each
+   * other.
+   */
+  public SyntheticStylesheetGenerator setDefChainDepth(int defChainDepth) {
+    Preconditions.checkArgument(defChainDepth >= 1);
+    this.defChainDepth = defChainDepth;
+    return this;
+  }
+
+  /** Sets the number of {@code @defmixin} definitions. */
+  public SyntheticStylesheetGenerator setMixins(int mixins) {
+    Preconditions.checkArgument(mixins >= 1);
+    this.mixins = mixins;
+    return this;
+  }
+
+  /**
+   * Sets the maximum nesting of mixins: a mixin can call another mixin,
+   * which can call another one, up to this depth. The depth is at most six.
+   */
+  public SyntheticStylesheetGenerator setMixinNestingDepth(
+      int mixinNestingDepth) {
+    Preconditions.checkArgument(mixinNestingDepth >= 1
+        && mixinNestingDepth <= MIXIN_PROPERTIES.length);
+    this.mixinNestingDepth = mixinNestingDepth;
+    return this;
+  }
+
+  /** Sets the number of distinct conditions used by {@code @if}s. */
+  public SyntheticStylesheetGenerator setConditions(int conditions) {
+    Preconditions.checkArgument(conditions >= 1);
+    this.conditions = conditions;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of comma-separated selectors of a ruleset and the
+   * maximum number of compound selectors in each of them. The actual numbers
+   * are skewed towards one.
+   */
+  public SyntheticStylesheetGenerator setSelectorDistribution(
+      int maxSelectorsPerRuleset, int maxSelectorDepth) {
+    Preconditions.checkArgument(maxSelectorsPerRuleset >= 1);
+    Preconditions.checkArgument(maxSelectorDepth >= 1);
+    this.maxSelectorsPerRuleset = maxSelectorsPerRuleset;
+    this.maxSelectorDepth = maxSelectorDepth;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of declarations of a ruleset and the fractions
+   * of declaration values that refer to a constant or call a GSS function.
+   */
+  public SyntheticStylesheetGenerator setDeclarationDistribution(
+      int maxDeclarationsPerRuleset, double constantRatio,
+      double functionRatio) {
+    Preconditions.checkArgument(maxDeclarationsPerRuleset >= 1);
+    this.maxDeclarationsPerRuleset = maxDeclarationsPerRuleset;
+    this.constantRatio = constantRatio;
+    this.functionRatio = functionRatio;
+    return this;
+  }
+
+  /**
+   * Sets the fractions of rulesets that are accompanied by a conditional, a
+   * media rule, a keyframes rule or a mixin call.
+   */
+  public SyntheticStylesheetGenerator setAtRuleDistribution(
+      double conditionalRatio, double mediaRatio, double keyframesRatio,
+      double mixinCallRatio) {
+    this.conditionalRatio = conditionalRatio;
+    this.mediaRatio = mediaRatio;
+    this.keyframesRatio = keyframesRatio;
+    this.mixinCallRatio = mixinCallRatio;
+    return this;
+  }
+
+  /**
+   * Returns the names of the conditions used by the generated {@code @if}s.
+   */
+  public Set<String> getConditionNames() {
+    ImmutableSet.Builder<String> names = ImmutableSet.builder();
+    for (int i = 0; i < conditions; i++) {
+      names.add("COND_" + i);
+    }
+    return names.build();
+  }
+
+  /**
+   * Generates the stylesheet, one input per chunk.
+   */
+  public List<SourceCode> generate() {
+    Random random = new Random(seed);
+    List<SourceCode> inputs = Lists.newArrayListWithCapacity(chunks);
+    int rulesPerChunk = rules / chunks;
+    for (int chunk = 0; chunk < chunks; chunk++) {
+      StringBuilder sb = new StringBuilder(rulesPerChunk * 150 + 1024);
+      sb.append("@provide chunk").append(chunk).append(";\n");
+      for (int required = 0; required < chunk; required++) {
+        // Require the previous chunk and a few random earlier ones.
+        if (required == chunk - 1 || random.nextInt(8) == 0) {
+          sb.append("@require chunk").append(required).append(";\n");
+        }
+      }
+      if (chunk == 0) {
+        appendDefinitions(random, sb);
+      }
+      int chunkRules = chunk == chunks - 1
+          ? rules - rulesPerChunk * (chunks - 1) : rulesPerChunk;
+      for (int i = 0; i < chunkRules; i++) {
+        appendRuleset(random, sb, chunk, i);
+        appendAtRules(random, sb, chunk, i);
+      }
+      inputs.add(new SourceCode("chunk" + chunk + ".gss", sb.toString()));
+    }
+    return inputs;
+  }
+
+  /**
+   * Generates the stylesheet as a single string, the chunks concatenated.
+   */
+  public String generateString() {
+    StringBuilder sb = new StringBuilder();
+    for (SourceCode input : generate()) {
+      sb.append(input.getFileContents());
+    }
+    return sb.toString();
+  }
+
+  private void appendDefinitions(Random random, StringBuilder sb) {
+    for (int i = 0; i < constants; i++) {
+      // Constants come in three kinds, interleaved. Every defChainDepth-th
+      // constant of a kind starts a new chain with a literal value; the
+      // others refer to the previous constant of the same kind.
+      boolean startsChain = (i / 3) % defChainDepth == 0;
+      switch (i % 3) {
+        case 0:
+          sb.append("@def COLOR_").append(i).append(' ');
+          if (startsChain) {
+            sb.append(pick(random, COLORS));
+          } else if (random.nextInt(4) == 0) {
+            sb.append("blendColorsRgb(")
+                .append(pick(random, HEX_COLORS)).append(", ")
+                .append(pick(random, HEX_COLORS)).append(')');
+          } else {
+            sb.append(constantName(i - 3));
+          }
+          break;
+        case 1:
+          sb.append("@def SIZE_").append(i).append(' ');
+          if (startsChain) {
+            sb.append(random.nextInt(40)).append("px");
+          } else {
+            sb.append("add(").append(constantName(i - 3)).append(", ")
+                .append(random.nextInt(10)).append("px)");
+          }
+          break;
+        default:
+          sb.append("@def BOX_").append(i).append(' ');
+          if (startsChain) {
+            sb.append(random.nextInt(10)).append("px ")
+                .append(random.nextInt(10)).append("px");
+          } else {
+            sb.append(constantName(i - 3));
+          }
+          break;
+      }
+      sb.append(";\n");
+    }
+    for (int i = 0; i < mixins; i++) {
+      int level = i % mixinNestingDepth;
+      sb.append("@defmixin mixin").append(i).append("(WIDTH, COLOR) {\n");
+      sb.append("  ").append(MIXIN_PROPERTIES[level][0]).append(": WIDTH;\n");
+      sb.append("  ").append(MIXIN_PROPERTIES[level][1]).append(": COLOR;\n");
+      // A mixin calls the previous one, so that mixin calls nest up to
+      // mixinNestingDepth levels.
+      if (level != 0) {
+        sb.append("  @mixin mixin").append(i - 1)
+            .append("(add(WIDTH, 1px), COLOR);\n");
+      }
+      sb.append("}\n");
+    }
+  }
+
+  private void appendRuleset(Random random, StringBuilder sb, int chunk,
+      int index) {
+    appendSelectors(random, sb, chunk, index);
+    sb.append(" {\n");
+    appendDeclarations(random, sb);
+    if (random.nextDouble() < mixinCallRatio) {
+      sb.append("  @mixin mixin").append(random.nextInt(mixins)).append('(')
+          .append(random.nextInt(500)).append("px, ")
+          .append(pick(random, HEX_COLORS)).append(");\n");
+    }
+    sb.append("}\n");
+  }
+
+  private void appendSelectors(Random random, StringBuilder sb, int chunk,
+      int index) {
+    int selectors = skewed(random, maxSelectorsPerRuleset);
+    for (int s = 0; s < selectors; s++) {
+      if (s > 0) {
+        sb.append(", ");
+      }
+      int depth = skewed(random, maxSelectorDepth);
+      for (int d = 0; d < depth; d++) {
+        if (d > 0) {
+          sb.append(pick(random, COMBINATORS));
+        }
+        // The last compound selector is the one that is mostly unique, the
+        // ones before it are shared "context" selectors.
+        boolean last = d == depth - 1;
+        switch (random.nextInt(last ? 4 : 6)) {
+          case 0:
+            sb.append(pick(random, ELEMENTS)).append(".c").append(chunk)
+                .append('-').append(index);
+            break;
+          case 1:
+            sb.append('#').append("id").append(random.nextInt(1000));
+            break;
+          case 2:
+          case 3:
+            sb.append(".c").append(chunk).append('-')
+                .append(last ? index : random.nextInt(index + 1));
+            break;
+          default:
+            sb.append(pick(random, ELEMENTS));
+            break;
+        }
+        if (random.nextInt(10) == 0) {
+          sb.append(pick(random, PSEUDO_CLASSES));
+        }
+      }
+    }
+  }
+
+  private void appendDeclarations(Random random, StringBuilder sb) {
+    int declarations = 1 + random.nextInt(maxDeclarationsPerRuleset);
+    // Duplicate declarations are errors, so a property that has been used
+    // already in the ruleset is skipped.
+    Set<String> properties = Sets.newHashSet();
+    for (int i = 0; i < declarations; i++) {
+      String property;
+      String value;
+      switch (random.nextInt(6)) {
+        case 0:
+          property = pick(random, COLOR_PROPERTIES);
+          value = colorValue(random);
+          break;
+        case 1:
+        case 2:
+          property = pick(random, LENGTH_PROPERTIES);
+          value = lengthValue(random);
+          break;
+        case 3:
+          property = pick(random, BOX_PROPERTIES);
+          if (random.nextDouble() < constantRatio) {
+            value = constantName(constantIndex(random, 2));
+          } else {
+            value = lengthValue(random) + " " + lengthValue(random);
+          }
+          break;
+        case 4:
+          String[] keywords = pick(random, KEYWORD_PROPERTIES);
+          property = keywords[0];
+          value = keywords[1 + random.nextInt(keywords.length - 1)];
+          break;
+        default:
+          property = pick(random, VENDOR_PROPERTIES);
+          value = random.nextInt(8) + "px";
+          break;
+      }
+      if (properties.add(property)) {
+        sb.append("  ").append(property).append(": ").append(value)
+            .append(";\n");
+      }
+    }
+  }
+
+  private String colorValue(Random random) {
+    double r = random.nextDouble();
+    if (r < constantRatio) {
+      return constantName(constantIndex(random, 0));
+    }
+    if (r < constantRatio + functionRatio) {
+      switch (random.nextInt(3)) {
+        case 0:
+          return "blendColorsHsb(" + pick(random, HEX_COLORS) + ", "
+              + pick(random, HEX_COLORS) + ")";
+        case 1:
+          return "makeContrastingColor(" + pick(random, HEX_COLORS)
+              + ", 0.5)";
+        default:
+          return "blendColorsRgb(" + pick(random, HEX_COLORS) + ", "
+              + pick(random, HEX_COLORS) + ")";
+      }
+    }
+    return pick(random, COLORS);
+  }
+
+  private String lengthValue(Random random) {
+    double r = random.nextDouble();
+    if (r < constantRatio) {
+      return constantName(constantIndex(random, 1));
+    }
+    if (r < constantRatio + functionRatio) {
+      switch (random.nextInt(3)) {
+        case 0:
+          return "add(" + constantName(constantIndex(random, 1)) + ", "
+              + random.nextInt(20) + "px)";
+        case 1:
+          return "mult(" + random.nextInt(50) + "px, "
+              + (1 + random.nextInt(4)) + ")";
+        default:
+          return "max(" + random.nextInt(50) + "px, "
+              + random.nextInt(50) + "px)";
+      }
+    }
+    int value = random.nextInt(200);
+    return value == 0 ? "0" : value + "px";
+  }
+
+  private void appendAtRules(Random random, StringBuilder sb, int chunk,
+      int index) {
+    if (random.nextDouble() < conditionalRatio) {
+      sb.append("@if (COND_").append(random.nextInt(conditions))
+          .append(") {\n");
+      appendRuleset(random, sb, chunk, index);
+      sb.append("} @elseif (!COND_").append(random.nextInt(conditions))
+          .append(") {\n");
+      appendRuleset(random, sb, chunk, index);
+      sb.append("} @else {\n");
+      appendRuleset(random, sb, chunk, index);
+      sb.append("}\n");
+    }
+    if (random.nextDouble() < mediaRatio) {
+      sb.append("@media screen and (max-width: ")
+          .append(320 + random.nextInt(1000)).append("px) {\n");
+      appendRuleset(random, sb, chunk, index);
+      sb.append("}\n");
+    }
+    if (random.nextDouble() < keyframesRatio) {
+      String name = "anim" + chunk + "-" + index;
+      sb.append(random.nextBoolean() ? "@keyframes " : "@-webkit-keyframes ")
+          .append(name).append(" {\n");
+      sb.append("  from { left: 0; }\n");
+      sb.append("  50% { left: ").append(lengthValue(random)).append("; }\n");
+      sb.append("  to { left: 100%; }\n");
+      sb.append("}\n");
+    }
+  }
+
+  /**
+   * Returns a random constant index of the given kind: 0 for colors, 1 for
+   * sizes, 2 for boxes.
+   */
+  private int constantIndex(Random random, int kind) {
+    return random.nextInt((constants - kind + 2) / 3) * 3 + kind;
+  }
+
+  private String constantName(int index) {
+    switch (index % 3) {
+      case 0:
+        return "COLOR_" + index;
+      case 1:
+        return "SIZE_" + index;
+      default:
+        return "BOX_" + index;
+    }
+  }
+
+  /**
+   * Returns a number between one and {@code max}, each number half as likely
+   * as the one before it.
+   */
+  private static int skewed(Random random, int max) {
+    int n = 1;
+    while (n < max && random.nextBoolean()) {
+      n++;
+    }
+    return n;
+  }
+
+  private static <T> T pick(Random random, T[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.css.testing;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.css.JobDescription;
+import com.google.common.css.JobDescriptionBuilder;
+import com.google.common.css.SourceCode;
+import com.google.common.css.compiler.ast.CssTree;
+import com.google.common.css.compiler.ast.GssError;
+import com.google.common.css.compiler.ast.GssParser;
+import com.google.common.css.compiler.gssfunctions.DefaultGssFunctionMapProvider;
+import com.google.common.css.compiler.passes.CompactPrinter;
+import com.google.common.css.compiler.passes.DummyErrorManager;
+import com.google.common.css.compiler.passes.PassRunner;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link SyntheticStylesheetGenerator}.
+ *
+ */
+public class SyntheticStylesheetGeneratorTest extends TestCase {
+
+  public void testDeterministic() {
+    SyntheticStylesheetGenerator generator =
+        new SyntheticStylesheetGenerator().setRules(200).setSeed(42);
+    String first = generator.generateString();
+    assertEquals(first, generator.generateString());
+    assertEquals(first, new SyntheticStylesheetGenerator()
+        .setRules(200).setSeed(42).generateString());
+    assertFalse(first.equals(new SyntheticStylesheetGenerator()
+        .setRules(200).setSeed(43).generateString()));
+  }
+
+  public void testChunks() {
+    List<SourceCode> inputs = new SyntheticStylesheetGenerator()
+        .setRules(100).setChunks(4).generate();
+    assertEquals(4, inputs.size());
+    for (int i = 0; i < 4; i++) {
+      assertEquals("chunk" + i + ".gss", inputs.get(i).getFileName());
+      assertTrue(inputs.get(i).getFileContents().startsWith(
+          "@provide chunk" + i + ";\n"));
+    }
+    assertTrue(inputs.get(3).getFileContents().contains("@require chunk2;"));
+    // Only the first chunk holds the definitions.
+    assertTrue(inputs.get(0).getFileContents().contains("@defmixin"));
+    assertFalse(inputs.get(1).getFileContents().contains("@def "));
+  }
+
+  public void testCoversAllFeatures() {
+    String gss = new SyntheticStylesheetGenerator()
+        .setRules(2000).setChunks(2).generateString();
+    for (String feature : ImmutableList.of("@def ", "@defmixin ", "@mixin ",
+        "@if ", "@elseif ", "@else ", "@media ", "keyframes ", "@provide ",
+        "@require ", "blendColorsHsb(", "add(", "mult(", ":hover", " > ")) {
+      assertTrue(feature, gss.contains(feature));
+    }
+  }
+
+  public void testCompilesWithoutErrors() throws Exception {
+    SyntheticStylesheetGenerator generator = new SyntheticStylesheetGenerator()
+        .setRules(1000).setChunks(3).setSeed(7)
+        .setDefChainDepth(5).setMixinNestingDepth(4);
+    List<SourceCode> inputs = generator.generate();
+    JobDescription job = new JobDescriptionBuilder()
+        .setInputs(inputs)
+        .setTrueConditionNames(ImmutableList.of("COND_0"))
+        .setAllowKeyframes(true)
+        .setAllowWebkitKeyframes(true)
+        .setProcessDependencies(true)
+        .setSimplifyCss(true)
+        .setEliminateDeadStyles(true)
+        .setAllowUnrecognizedProperties(true)
+        .setGssFunctionMapProvider(new DefaultGssFunctionMapProvider())
+        .getJobDescription();
+    DummyErrorManager errorManager = new DummyErrorManager();
+    CssTree tree = new GssParser(inputs).parse();
+    new PassRunner(job, errorManager).runPasses(tree);
+
+    for (GssError error : errorManager.getErrors()) {
+      fail(error.format());
+    }
+    CompactPrinter printer = new CompactPrinter(tree);
+    printer.runPass();
+    String css = printer.getCompactPrintedString();
+    assertFalse(css.contains("@def"));
+    assertFalse(css.contains("@mixin"));
+    assertFalse(css.contains("COND_"));
+    assertFalse(css.contains("blendColorsHsb"));
+  }
+}